@@ -0,0 +1,215 @@
+package com.heronix.guardian.adapter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.heronix.guardian.cache.BoundedTtlCache;
+import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.model.domain.VendorCredential;
+import com.heronix.guardian.service.CredentialDecryptionService;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Per-credential cache of vendor API clients and their decrypted OAuth tokens.
+ *
+ * CanvasApiClient and GoogleApiClient used to decrypt the OAuth token and build
+ * a new WebClient for every API call. Entries are keyed by credential ID and
+ * stamped with the credential's updatedAt, API base URL and encrypted token, so
+ * an edited or refreshed credential gets a new client on its next use; token
+ * refresh and credential update, deactivation and deletion also invalidate
+ * explicitly.
+ *
+ * The decrypted token is kept as a char array for at most ttl-seconds and is
+ * zeroed when its entry expires, is evicted, replaced or invalidated. Expired
+ * entries are swept every purge-interval-ms so the token of a credential that
+ * is no longer used does not stay in memory. A client still held after its
+ * entry was dropped sends the token of the credential's current entry, or
+ * fails the request if there is none (refreshed, deactivated or deleted).
+ *
+ * Metrics: guardian.vendor.clients.hits / misses / size
+ */
+@Component
+@Slf4j
+public class VendorClientCache implements MeterBinder {
+
+    private final CredentialDecryptionService decryptionService;
+    private final boolean enabled;
+    private final BoundedTtlCache<Long, CachedClient> clients;
+
+    public VendorClientCache(CredentialDecryptionService decryptionService, GuardianProperties properties) {
+        GuardianProperties.VendorClientCacheConfig config = properties.getVendorClients();
+        this.decryptionService = decryptionService;
+        this.enabled = config.isEnabled();
+        this.clients = new BoundedTtlCache<>(config.getMaxSize(), Duration.ofSeconds(config.getTtlSeconds()),
+                CachedClient::destroy);
+
+        log.info("VENDOR_CLIENTS: Initialized - enabled: {}, max size: {}, TTL: {}s",
+                enabled, config.getMaxSize(), config.getTtlSeconds());
+    }
+
+    /**
+     * API client for a credential that sends its OAuth token as a bearer token.
+     *
+     * @param builder supplies the vendor's WebClient builder, without authorization
+     * @throws IllegalStateException if the credential has no OAuth token
+     */
+    public WebClient client(VendorCredential credential, Supplier<WebClient.Builder> builder) {
+        Long id = credential.getId();
+        Stamp stamp = Stamp.of(credential);
+        if (enabled && id != null) {
+            CachedClient cached = clients.get(id);
+            if (cached != null && cached.stamp.equals(stamp)) {
+                return cached.client;
+            }
+        }
+
+        char[] token = decryptionService.decryptToChars(credential.getEncryptedOauthToken());
+        if (isBlank(token)) {
+            throw new IllegalStateException("OAuth token is missing for credential: " + credential.getConnectionName());
+        }
+
+        if (!enabled || id == null) {
+            try {
+                return builder.get()
+                        .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + new String(token))
+                        .build();
+            } finally {
+                Arrays.fill(token, '\0');
+            }
+        }
+
+        CachedClient created = new CachedClient(id, stamp, token, builder.get());
+        clients.put(id, created);
+        return created.client;
+    }
+
+    /**
+     * Drop a credential's client and zero its token.
+     */
+    public void invalidate(Long credentialId) {
+        if (credentialId != null) {
+            clients.invalidate(credentialId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${heronix.guardian.vendor-clients.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        int purged = clients.purgeExpired();
+        if (purged > 0) {
+            log.debug("VENDOR_CLIENTS: Dropped {} expired client(s)", purged);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        clients.clear();
+    }
+
+    public int size() {
+        return clients.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("guardian.vendor.clients.hits", clients, BoundedTtlCache::hits)
+                .description("Vendor API calls that reused a cached client")
+                .register(registry);
+        FunctionCounter.builder("guardian.vendor.clients.misses", clients, BoundedTtlCache::misses)
+                .description("Vendor API calls that decrypted the token and built a client")
+                .register(registry);
+        Gauge.builder("guardian.vendor.clients.size", clients, BoundedTtlCache::size)
+                .description("Credentials with a cached client and decrypted token")
+                .register(registry);
+    }
+
+    private static boolean isBlank(char[] chars) {
+        if (chars == null) {
+            return true;
+        }
+        for (char c : chars) {
+            if (!Character.isWhitespace(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * What a cached client was built from; any change means the credential was edited.
+     */
+    private record Stamp(LocalDateTime updatedAt, String apiBaseUrl, String encryptedOauthToken) {
+        static Stamp of(VendorCredential credential) {
+            return new Stamp(credential.getUpdatedAt(), credential.getApiBaseUrl(),
+                    credential.getEncryptedOauthToken());
+        }
+    }
+
+    private final class CachedClient {
+
+        private final Long credentialId;
+        private final Stamp stamp;
+        private final WebClient client;
+        private char[] token;
+
+        CachedClient(Long credentialId, Stamp stamp, char[] token, WebClient.Builder builder) {
+            this.credentialId = credentialId;
+            this.stamp = stamp;
+            this.token = token;
+            this.client = builder.filter(this::authorize).build();
+        }
+
+        private Mono<ClientResponse> authorize(ClientRequest request, ExchangeFunction next) {
+            String bearer = bearerToken();
+            if (bearer == null) {
+                return Mono.error(new IllegalStateException(
+                        "Vendor client for credential " + credentialId + " was invalidated"));
+            }
+            return next.exchange(ClientRequest.from(request)
+                    .headers(headers -> headers.setBearerAuth(bearer))
+                    .build());
+        }
+
+        /**
+         * A caller may still hold the client after its entry was dropped (e.g. a
+         * concurrent rebuild replaced it or the token was refreshed); use the
+         * credential's current entry rather than the stale stamp, and send
+         * nothing if the credential no longer has one.
+         */
+        private String bearerToken() {
+            String own = liveToken();
+            if (own != null) {
+                return own;
+            }
+            CachedClient current = clients.get(credentialId);
+            return current != null ? current.liveToken() : null;
+        }
+
+        private synchronized String liveToken() {
+            return token != null ? new String(token) : null;
+        }
+
+        synchronized void destroy() {
+            if (token != null) {
+                Arrays.fill(token, '\0');
+                token = null;
+            }
+        }
+    }
+}
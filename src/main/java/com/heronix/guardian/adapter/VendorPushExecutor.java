@@ -0,0 +1,161 @@
+package com.heronix.guardian.adapter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.springframework.stereotype.Component;
+
+import com.heronix.guardian.adapter.VendorAdapter.SyncResult;
+import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.model.domain.VendorCredential;
+import com.heronix.guardian.model.enums.VendorType;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Runs the per-record calls of a vendor push concurrently.
+ *
+ * Adapter pushes make one blocking API call per record. Records are fanned out
+ * on the bounded elastic scheduler with at most push-concurrency calls in flight
+ * per credential (sync.parallel-threads when the vendor does not set one). The
+ * window is shared by every push to the same credential, so a scheduled sync
+ * and a manual one running together stay within it. Failures are collected per
+ * record and reported in record order.
+ *
+ * The service targets Java 21, so the calls can run on virtual threads without
+ * code changes: start the JVM with
+ * -Dreactor.schedulers.defaultBoundedElasticOnVirtualThreads=true and Reactor
+ * backs the bounded elastic scheduler with them. push-concurrency still bounds
+ * the calls in flight, which is what protects the vendor's rate limit.
+ *
+ * Interrupting the calling thread cancels the push: calls in flight are
+ * interrupted, records not yet started are skipped, and the result counts only
+ * what completed before the cancel. Every record's outcome is decided once, so
+ * a call that ends after the cancel is reported as cancelled, not as processed
+ * or failed.
+ */
+@Component
+@Slf4j
+public class VendorPushExecutor {
+
+    private final GuardianProperties properties;
+    private final Map<Long, Semaphore> windows = new ConcurrentHashMap<>();
+
+    public VendorPushExecutor(GuardianProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Push every record with {@code operation}.
+     *
+     * @param failureLabel describes a record in error messages, e.g. "Failed to sync student X"
+     */
+    public <T> SyncResult push(VendorType vendor, VendorCredential credential, List<T> records,
+                               Consumer<T> operation, Function<T, String> failureLabel) {
+        int concurrency = concurrency(vendor);
+        Semaphore window = credential.getId() != null
+                ? windows.computeIfAbsent(credential.getId(), id -> new Semaphore(concurrency))
+                : new Semaphore(concurrency);
+        return push(records, concurrency, window, operation, failureLabel);
+    }
+
+    <T> SyncResult push(List<T> records, int concurrency, Consumer<T> operation, Function<T, String> failureLabel) {
+        return push(records, concurrency, new Semaphore(concurrency), operation, failureLabel);
+    }
+
+    /**
+     * @param window permits shared with other pushes to the same credential; a
+     *               call holds one while it is in flight
+     */
+    <T> SyncResult push(List<T> records, int concurrency, Semaphore window, Consumer<T> operation,
+                        Function<T, String> failureLabel) {
+        AtomicReferenceArray<Outcome> outcomes = new AtomicReferenceArray<>(records.size());
+        boolean cancelled = false;
+
+        try {
+            Flux.range(0, records.size())
+                    .flatMap(i -> Mono.fromRunnable(() -> {
+                        if (outcomes.get(i) != null) {
+                            return;
+                        }
+                        T record = records.get(i);
+                        try {
+                            window.acquire();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        try {
+                            operation.accept(record);
+                            outcomes.compareAndSet(i, null, Outcome.PROCESSED);
+                        } catch (Exception e) {
+                            if (outcomes.compareAndSet(i, null,
+                                    Outcome.failed(failureLabel.apply(record) + ": " + e.getMessage()))) {
+                                log.warn("{}: {}", failureLabel.apply(record), e.getMessage());
+                            }
+                        } finally {
+                            window.release();
+                        }
+                    }).subscribeOn(Schedulers.boundedElastic()), concurrency)
+                    .then()
+                    .block();
+        } catch (RuntimeException e) {
+            if (!(Exceptions.unwrap(e) instanceof InterruptedException)) {
+                throw e;
+            }
+            // block() has already cancelled the records in flight
+            Thread.currentThread().interrupt();
+            cancelled = true;
+        }
+
+        // Calls still in flight after a cancel can no longer record an outcome
+        int processed = 0;
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < outcomes.length(); i++) {
+            outcomes.compareAndSet(i, null, Outcome.CANCELLED);
+            Outcome outcome = outcomes.get(i);
+            if (outcome == Outcome.PROCESSED) {
+                processed++;
+            } else if (outcome.failure() != null) {
+                errors.add(outcome.failure());
+            }
+        }
+        int failed = errors.size();
+        if (cancelled) {
+            log.warn("Vendor push cancelled after {} of {} records", processed + failed, records.size());
+            errors.add("Push cancelled after " + (processed + failed) + " of " + records.size() + " records");
+        }
+        return new SyncResult(!cancelled && failed == 0, processed, failed, errors);
+    }
+
+    int concurrency(VendorType vendor) {
+        int configured = switch (vendor) {
+            case CANVAS -> properties.getCanvas().getPushConcurrency();
+            case GOOGLE_CLASSROOM -> properties.getGoogle().getPushConcurrency();
+            default -> 0;
+        };
+        return Math.max(1, configured > 0 ? configured : properties.getSync().getParallelThreads());
+    }
+
+    /**
+     * How a record ended; compared by identity, set at most once per record.
+     */
+    private record Outcome(String failure) {
+        static final Outcome PROCESSED = new Outcome(null);
+        static final Outcome CANCELLED = new Outcome(null);
+
+        static Outcome failed(String failure) {
+            return new Outcome(failure);
+        }
+    }
+}
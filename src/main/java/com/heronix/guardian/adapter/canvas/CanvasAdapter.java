@@ -1,11 +1,12 @@
 package com.heronix.guardian.adapter.canvas;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import org.springframework.stereotype.Component;
 
 import com.heronix.guardian.adapter.VendorAdapter;
+import com.heronix.guardian.adapter.VendorClientCache;
+import com.heronix.guardian.adapter.VendorPushExecutor;
 import com.heronix.guardian.model.domain.VendorCredential;
 import com.heronix.guardian.model.dto.InboundGradeDTO;
 import com.heronix.guardian.model.dto.TokenizedCourseDTO;
@@ -26,6 +27,10 @@ import lombok.extern.slf4j.Slf4j;
  * - Assignments
  * - Submissions/Grades
  *
+ * Large student, course and enrollment batches are pushed through the SIS
+ * Import API (see CanvasSisImporter); smaller ones are pushed record by record
+ * with a bounded number of calls in flight (see VendorPushExecutor).
+ *
  * @see <a href="https://canvas.instructure.com/doc/api/">Canvas API Documentation</a>
  */
 @Component
@@ -35,6 +40,9 @@ public class CanvasAdapter implements VendorAdapter {
 
     private final CanvasApiClient apiClient;
     private final CredentialDecryptionService decryptionService;
+    private final VendorClientCache clientCache;
+    private final CanvasSisImporter sisImporter;
+    private final VendorPushExecutor pushExecutor;
 
     @Override
     public VendorType getVendorType() {
@@ -81,6 +89,7 @@ public class CanvasAdapter implements VendorAdapter {
                 credential.setEncryptedRefreshToken(decryptionService.encrypt(newTokens.refreshToken()));
             }
             credential.setOauthExpiresAt(newTokens.expiresAt());
+            clientCache.invalidate(credential.getId());
 
             log.info("Canvas OAuth token refreshed successfully");
             return credential;
@@ -95,83 +104,57 @@ public class CanvasAdapter implements VendorAdapter {
     public SyncResult pushStudents(List<TokenizedStudentDTO> students, VendorCredential credential) {
         log.info("Pushing {} students to Canvas: {}", students.size(), credential.getConnectionName());
 
-        int processed = 0;
-        int failed = 0;
-        List<String> errors = new ArrayList<>();
-
-        for (TokenizedStudentDTO student : students) {
-            try {
-                // Create or update user in Canvas
-                // Uses token as SIS User ID for de-duplication
-                apiClient.createOrUpdateUser(credential, student);
-                processed++;
-
-            } catch (Exception e) {
-                failed++;
-                errors.add("Failed to sync student " + student.getToken() + ": " + e.getMessage());
-                log.warn("Failed to push student {} to Canvas: {}", student.getToken(), e.getMessage());
-            }
+        if (sisImporter.useBulkImport(students.size())) {
+            return sisImporter.importStudents(students, credential);
         }
 
-        log.info("Canvas student sync complete: {} processed, {} failed", processed, failed);
-        return new SyncResult(failed == 0, processed, failed, errors);
+        // Create or update users in Canvas
+        // Uses token as SIS User ID for de-duplication
+        SyncResult result = pushExecutor.push(VendorType.CANVAS, credential, students,
+                student -> apiClient.createOrUpdateUser(credential, student),
+                student -> "Failed to sync student " + student.getToken());
+
+        log.info("Canvas student sync complete: {} processed, {} failed", result.processed(), result.failed());
+        return result;
     }
 
     @Override
     public SyncResult pushCourses(List<TokenizedCourseDTO> courses, VendorCredential credential) {
         log.info("Pushing {} courses to Canvas: {}", courses.size(), credential.getConnectionName());
 
-        int processed = 0;
-        int failed = 0;
-        List<String> errors = new ArrayList<>();
-
-        for (TokenizedCourseDTO course : courses) {
-            try {
-                // Create or update course in Canvas
-                // Uses token as SIS Course ID
-                apiClient.createOrUpdateCourse(credential, course);
-                processed++;
-
-            } catch (Exception e) {
-                failed++;
-                errors.add("Failed to sync course " + course.getToken() + ": " + e.getMessage());
-                log.warn("Failed to push course {} to Canvas: {}", course.getToken(), e.getMessage());
-            }
+        if (sisImporter.useBulkImport(courses.size())) {
+            return sisImporter.importCourses(courses, credential);
         }
 
-        log.info("Canvas course sync complete: {} processed, {} failed", processed, failed);
-        return new SyncResult(failed == 0, processed, failed, errors);
+        // Create or update courses in Canvas
+        // Uses token as SIS Course ID
+        SyncResult result = pushExecutor.push(VendorType.CANVAS, credential, courses,
+                course -> apiClient.createOrUpdateCourse(credential, course),
+                course -> "Failed to sync course " + course.getToken());
+
+        log.info("Canvas course sync complete: {} processed, {} failed", result.processed(), result.failed());
+        return result;
     }
 
     @Override
     public SyncResult pushEnrollments(List<EnrollmentPair> enrollments, VendorCredential credential) {
         log.info("Pushing {} enrollments to Canvas: {}", enrollments.size(), credential.getConnectionName());
 
-        int processed = 0;
-        int failed = 0;
-        List<String> errors = new ArrayList<>();
+        if (sisImporter.useBulkImport(enrollments.size())) {
+            return sisImporter.importEnrollments(enrollments, credential);
+        }
 
-        for (EnrollmentPair enrollment : enrollments) {
-            try {
-                // Create enrollment in Canvas
-                apiClient.createEnrollment(
+        SyncResult result = pushExecutor.push(VendorType.CANVAS, credential, enrollments,
+                enrollment -> apiClient.createEnrollment(
                         credential,
                         enrollment.courseToken(),
                         enrollment.studentToken(),
-                        enrollment.role()
-                );
-                processed++;
-
-            } catch (Exception e) {
-                failed++;
-                errors.add("Failed to enroll " + enrollment.studentToken() +
-                           " in " + enrollment.courseToken() + ": " + e.getMessage());
-                log.warn("Failed to create Canvas enrollment: {}", e.getMessage());
-            }
-        }
+                        enrollment.role()),
+                enrollment -> "Failed to enroll " + enrollment.studentToken() + " in " + enrollment.courseToken());
 
-        log.info("Canvas enrollment sync complete: {} processed, {} failed", processed, failed);
-        return new SyncResult(failed == 0, processed, failed, errors);
+        log.info("Canvas enrollment sync complete: {} processed, {} failed",
+                result.processed(), result.failed());
+        return result;
     }
 
     @Override
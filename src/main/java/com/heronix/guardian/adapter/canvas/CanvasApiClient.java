@@ -1,5 +1,6 @@
 package com.heronix.guardian.adapter.canvas;
 
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
@@ -8,10 +9,15 @@ import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
@@ -19,15 +25,20 @@ import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import com.heronix.guardian.adapter.VendorClientCache;
 import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.config.UpstreamWebClients;
 import com.heronix.guardian.model.domain.VendorCredential;
 import com.heronix.guardian.model.dto.InboundGradeDTO;
 import com.heronix.guardian.model.dto.TokenizedCourseDTO;
 import com.heronix.guardian.model.dto.TokenizedStudentDTO;
 import com.heronix.guardian.service.CredentialDecryptionService;
 
+import org.reactivestreams.Publisher;
+
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * Low-level API client for Canvas LMS REST API.
@@ -39,12 +50,18 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class CanvasApiClient {
 
-    private final WebClient.Builder webClientBuilder;
+    private final UpstreamWebClients webClients;
     private final GuardianProperties properties;
     private final CredentialDecryptionService decryptionService;
+    private final VendorClientCache clientCache;
 
     private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
 
+    private static final MediaType APPLICATION_ZIP = MediaType.parseMediaType("application/zip");
+
+    // Runs the writer of a streamed SIS import upload; it blocks while the connection drains
+    private static final Executor SIS_IMPORT_WRITER = task -> Schedulers.boundedElastic().schedule(task);
+
     /**
      * Get account information for connection testing.
      */
@@ -213,6 +230,53 @@ public class CanvasApiClient {
         }
     }
 
+    /**
+     * Start a Canvas SIS import from a zip of SIS CSV files.
+     *
+     * The zip is produced by {@code zipWriter} while the request body is sent,
+     * so a large batch is never held in memory. The writer must not close the stream.
+     */
+    public SisImportStatus startSisImport(VendorCredential credential, Consumer<OutputStream> zipWriter) {
+        WebClient client = createClient(credential);
+        Publisher<DataBuffer> body = DataBufferUtils.outputStreamPublisher(
+                zipWriter, DefaultDataBufferFactory.sharedInstance, SIS_IMPORT_WRITER);
+
+        try {
+            Map<String, Object> response = client.post()
+                    .uri("/api/v1/accounts/self/sis_imports?import_type=instructure_csv&extension=zip")
+                    .contentType(APPLICATION_ZIP)
+                    .body(BodyInserters.fromDataBuffers(body))
+                    .retrieve()
+                    .bodyToMono(Map.class)
+                    .block(REQUEST_TIMEOUT);
+
+            if (response == null) {
+                throw new IllegalStateException("Empty response from Canvas SIS import");
+            }
+            return SisImportStatus.from(response);
+
+        } catch (Exception e) {
+            log.error("Failed to start Canvas SIS import: {}", e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Current state of a Canvas SIS import.
+     */
+    public SisImportStatus getSisImport(VendorCredential credential, long importId) {
+        Map<String, Object> response = createClient(credential).get()
+                .uri("/api/v1/accounts/self/sis_imports/" + importId)
+                .retrieve()
+                .bodyToMono(Map.class)
+                .block(REQUEST_TIMEOUT);
+
+        if (response == null) {
+            throw new IllegalStateException("Empty response for Canvas SIS import " + importId);
+        }
+        return SisImportStatus.from(response);
+    }
+
     /**
      * Fetch submissions (grades) from Canvas.
      */
@@ -274,7 +338,7 @@ public class CanvasApiClient {
             throw new IllegalStateException("OAuth client_secret or refresh_token is missing for credential: " + credential.getConnectionName());
         }
 
-        WebClient client = WebClient.builder()
+        WebClient client = webClients.builder(UpstreamWebClients.Upstream.CANVAS)
                 .baseUrl(credential.getApiBaseUrl())
                 .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_FORM_URLENCODED_VALUE)
                 .build();
@@ -353,16 +417,9 @@ public class CanvasApiClient {
             throw new IllegalStateException("Canvas API base URL is not configured for credential: " + credential.getConnectionName());
         }
 
-        String token = decryptionService.decrypt(credential.getEncryptedOauthToken());
-        if (token == null || token.isBlank()) {
-            throw new IllegalStateException("OAuth token is missing for credential: " + credential.getConnectionName());
-        }
-
-        return webClientBuilder
+        return clientCache.client(credential, () -> webClients.builder(UpstreamWebClients.Upstream.CANVAS)
                 .baseUrl(baseUrl)
-                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token)
-                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-                .build();
+                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE));
     }
 
     private String extractSisId(Map<String, Object> obj, String field) {
@@ -423,4 +480,30 @@ public class CanvasApiClient {
     public record AccountInfo(String name, String version) {}
 
     public record TokenRefreshResult(String accessToken, String refreshToken, LocalDateTime expiresAt) {}
+
+    /**
+     * State of a SIS import. Errors and warnings are [file name, message] pairs.
+     */
+    public record SisImportStatus(long id, String workflowState, int progress,
+                                  List<List<String>> errors, List<List<String>> warnings) {
+
+        public boolean isFinished() {
+            return isSuccessful() || workflowState.startsWith("failed") || "aborted".equals(workflowState);
+        }
+
+        public boolean isSuccessful() {
+            return workflowState.startsWith("imported");
+        }
+
+        @SuppressWarnings("unchecked")
+        static SisImportStatus from(Map<String, Object> response) {
+            Object progress = response.get("progress");
+            return new SisImportStatus(
+                    ((Number) response.get("id")).longValue(),
+                    String.valueOf(response.getOrDefault("workflow_state", "created")),
+                    progress instanceof Number n ? n.intValue() : 0,
+                    (List<List<String>>) response.getOrDefault("processing_errors", List.of()),
+                    (List<List<String>>) response.getOrDefault("processing_warnings", List.of()));
+        }
+    }
 }
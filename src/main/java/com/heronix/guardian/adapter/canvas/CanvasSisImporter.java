@@ -0,0 +1,233 @@
+package com.heronix.guardian.adapter.canvas;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.springframework.stereotype.Component;
+
+import com.heronix.guardian.adapter.VendorAdapter.EnrollmentPair;
+import com.heronix.guardian.adapter.VendorAdapter.SyncResult;
+import com.heronix.guardian.adapter.canvas.CanvasApiClient.SisImportStatus;
+import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.model.domain.VendorCredential;
+import com.heronix.guardian.model.dto.TokenizedCourseDTO;
+import com.heronix.guardian.model.dto.TokenizedStudentDTO;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bulk path for Canvas pushes through the SIS Import API.
+ *
+ * The per-record path costs a GET plus a PUT or POST per student or course and
+ * a POST per enrollment. For batches of at least bulk-threshold records the
+ * adapter instead streams a zipped users.csv, courses.csv or enrollments.csv to
+ * /api/v1/accounts/self/sis_imports, polls the import until Canvas finishes and
+ * maps the rows Canvas rejected back into a SyncResult.
+ *
+ * Canvas reports one message per rejected row; a message naming a token from
+ * the batch is attributed to that record, and each token named counts once as
+ * failed. Messages that name no token are reported as errors but do not count
+ * against processed.
+ *
+ * @see <a href="https://canvas.instructure.com/doc/api/file.sis_csv.html">SIS Import Format</a>
+ */
+@Component
+@Slf4j
+public class CanvasSisImporter {
+
+    private static final String[] USER_HEADER = {"user_id", "login_id", "full_name", "email", "status"};
+    private static final String[] COURSE_HEADER = {"course_id", "short_name", "long_name", "term_id", "status"};
+    private static final String[] ENROLLMENT_HEADER = {"course_id", "user_id", "role", "status"};
+
+    private final CanvasApiClient apiClient;
+    private final GuardianProperties.SisImportConfig config;
+
+    public CanvasSisImporter(CanvasApiClient apiClient, GuardianProperties properties) {
+        this.apiClient = apiClient;
+        this.config = properties.getCanvas().getSisImport();
+    }
+
+    /**
+     * Whether a batch of this size should go through the SIS import.
+     */
+    public boolean useBulkImport(int records) {
+        return config.isEnabled() && records >= config.getBulkThreshold();
+    }
+
+    public SyncResult importStudents(List<TokenizedStudentDTO> students, VendorCredential credential) {
+        Set<String> tokens = new HashSet<>();
+        students.forEach(student -> tokens.add(student.getToken()));
+        return runImport(credential, "users.csv", USER_HEADER, students, student -> new String[] {
+                student.getToken(),
+                student.getEmail(),
+                student.getDisplayName(),
+                student.getEmail(),
+                "active"
+        }, tokens, "student");
+    }
+
+    public SyncResult importCourses(List<TokenizedCourseDTO> courses, VendorCredential credential) {
+        Set<String> tokens = new HashSet<>();
+        courses.forEach(course -> tokens.add(course.getToken()));
+        return runImport(credential, "courses.csv", COURSE_HEADER, courses, course -> new String[] {
+                course.getToken(),
+                course.getCourseCode(),
+                course.getCourseName(),
+                course.getTerm(),
+                "active"
+        }, tokens, "course");
+    }
+
+    public SyncResult importEnrollments(List<EnrollmentPair> enrollments, VendorCredential credential) {
+        Set<String> tokens = new HashSet<>();
+        enrollments.forEach(enrollment -> {
+            tokens.add(enrollment.studentToken());
+            tokens.add(enrollment.courseToken());
+        });
+        return runImport(credential, "enrollments.csv", ENROLLMENT_HEADER, enrollments, enrollment -> new String[] {
+                enrollment.courseToken(),
+                enrollment.studentToken(),
+                role(enrollment.role()),
+                "active"
+        }, tokens, "enrollment for");
+    }
+
+    private <T> SyncResult runImport(VendorCredential credential, String fileName, String[] header, List<T> records,
+                                     Function<T, String[]> row, Set<String> tokens, String label) {
+        log.info("Canvas SIS import of {} ({} rows) for: {}", fileName, records.size(), credential.getConnectionName());
+
+        SisImportStatus status;
+        try {
+            status = apiClient.startSisImport(credential, out -> writeZip(out, fileName, header, records, row));
+            status = awaitImport(credential, status);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return SyncResult.failure("Interrupted while waiting for Canvas SIS import");
+        } catch (Exception e) {
+            log.warn("Canvas SIS import of {} failed: {}", fileName, e.getMessage());
+            return SyncResult.failure("Canvas SIS import failed: " + e.getMessage());
+        }
+
+        if (!status.isFinished()) {
+            log.warn("Canvas SIS import {} still {} at {}% after {}s",
+                    status.id(), status.workflowState(), status.progress(), config.getTimeoutSeconds());
+            return SyncResult.failure("Canvas SIS import " + status.id() + " did not finish within "
+                    + config.getTimeoutSeconds() + "s (" + status.workflowState() + ", " + status.progress() + "%)");
+        }
+
+        List<String> errors = new ArrayList<>();
+        Set<String> failedTokens = new HashSet<>();
+        addRowErrors(errors, failedTokens, status.errors(), tokens, label);
+        addRowErrors(errors, failedTokens, status.warnings(), tokens, label);
+
+        if (!status.isSuccessful()) {
+            errors.add(0, "Canvas SIS import " + status.id() + " " + status.workflowState());
+            log.warn("Canvas SIS import {} {}", status.id(), status.workflowState());
+            return new SyncResult(false, 0, records.size(), errors);
+        }
+
+        int failed = Math.min(failedTokens.size(), records.size());
+        int processed = records.size() - failed;
+        log.info("Canvas SIS import {} complete: {} processed, {} failed", status.id(), processed, failed);
+        return new SyncResult(errors.isEmpty(), processed, failed, errors);
+    }
+
+    private SisImportStatus awaitImport(VendorCredential credential, SisImportStatus status)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(config.getTimeoutSeconds());
+        while (!status.isFinished() && System.nanoTime() - deadline < 0) {
+            Thread.sleep(config.getPollIntervalMs());
+            status = apiClient.getSisImport(credential, status.id());
+            log.debug("Canvas SIS import {}: {} {}%", status.id(), status.workflowState(), status.progress());
+        }
+        return status;
+    }
+
+    /**
+     * Attribute each [file, message] pair to the batch token it names, if any,
+     * and collect the attributed tokens into {@code failedTokens}.
+     */
+    private static void addRowErrors(List<String> errors, Set<String> failedTokens, List<List<String>> messages,
+                                     Set<String> tokens, String label) {
+        for (List<String> message : messages) {
+            String file = message.size() > 1 ? message.get(0) : null;
+            String text = message.isEmpty() ? "" : message.get(message.size() - 1);
+            String token = findToken(text, tokens);
+            if (token != null) {
+                failedTokens.add(token);
+                errors.add("Failed to sync " + label + " " + token + ": " + text);
+            } else {
+                errors.add(file != null ? file + ": " + text : text);
+            }
+        }
+    }
+
+    private static String findToken(String text, Set<String> tokens) {
+        for (String word : text.split("[^A-Za-z0-9_\\-]+")) {
+            if (tokens.contains(word)) {
+                return word;
+            }
+        }
+        return null;
+    }
+
+    private static <T> void writeZip(OutputStream out, String fileName, String[] header, List<T> records,
+                                     Function<T, String[]> row) {
+        try {
+            ZipOutputStream zip = new ZipOutputStream(out);
+            zip.putNextEntry(new ZipEntry(fileName));
+            Writer writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8));
+            writeRow(writer, header);
+            for (T record : records) {
+                writeRow(writer, row.apply(record));
+            }
+            writer.flush();
+            zip.closeEntry();
+            zip.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeRow(Writer writer, String[] fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escape(fields[i]));
+        }
+        writer.write('\n');
+    }
+
+    private static String escape(String field) {
+        if (field == null) {
+            return "";
+        }
+        if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0 && field.indexOf('\r') < 0) {
+            return field;
+        }
+        return '"' + field.replace("\"", "\"\"") + '"';
+    }
+
+    private static String role(String role) {
+        return switch (role == null ? "" : role.toLowerCase(Locale.ROOT)) {
+            case "teacher" -> "teacher";
+            case "ta" -> "ta";
+            default -> "student";
+        };
+    }
+}
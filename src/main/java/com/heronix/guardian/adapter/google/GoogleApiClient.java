@@ -15,7 +15,9 @@ import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import com.heronix.guardian.adapter.VendorClientCache;
 import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.config.UpstreamWebClients;
 import com.heronix.guardian.model.domain.VendorCredential;
 import com.heronix.guardian.model.dto.InboundGradeDTO;
 import com.heronix.guardian.model.dto.TokenizedCourseDTO;
@@ -34,9 +36,10 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class GoogleApiClient {
 
-    private final WebClient.Builder webClientBuilder;
+    private final UpstreamWebClients webClients;
     private final GuardianProperties properties;
     private final CredentialDecryptionService decryptionService;
+    private final VendorClientCache clientCache;
 
     private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
 
@@ -49,16 +52,9 @@ public class GoogleApiClient {
      */
     public UserInfo getUserInfo(VendorCredential credential) {
         try {
-            String token = decryptionService.decrypt(credential.getEncryptedOauthToken());
-            if (token == null || token.isBlank()) {
-                throw new IllegalStateException("OAuth token is missing for credential: " + credential.getConnectionName());
-            }
-
-            Map<String, Object> response = WebClient.builder()
-                    .baseUrl(USERINFO_URL)
-                    .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token)
-                    .build()
+            Map<String, Object> response = createClient(credential)
                     .get()
+                    .uri(USERINFO_URL)
                     .retrieve()
                     .bodyToMono(Map.class)
                     .block(REQUEST_TIMEOUT);
@@ -272,7 +268,7 @@ public class GoogleApiClient {
             formData.add("client_secret", clientSecret);
             formData.add("refresh_token", refreshToken);
 
-            Map<String, Object> response = WebClient.builder()
+            Map<String, Object> response = webClients.builder(UpstreamWebClients.Upstream.GOOGLE)
                     .baseUrl(OAUTH_TOKEN_URL)
                     .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_FORM_URLENCODED_VALUE)
                     .build()
@@ -349,16 +345,9 @@ public class GoogleApiClient {
     // ========================================================================
 
     private WebClient createClient(VendorCredential credential) {
-        String token = decryptionService.decrypt(credential.getEncryptedOauthToken());
-        if (token == null || token.isBlank()) {
-            throw new IllegalStateException("OAuth token is missing for credential: " + credential.getConnectionName());
-        }
-
-        return webClientBuilder
+        return clientCache.client(credential, () -> webClients.builder(UpstreamWebClients.Upstream.GOOGLE)
                 .baseUrl(CLASSROOM_API_BASE)
-                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token)
-                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-                .build();
+                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE));
     }
 
     private Double toDouble(Object value) {
@@ -1,11 +1,12 @@
 package com.heronix.guardian.adapter.google;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import org.springframework.stereotype.Component;
 
 import com.heronix.guardian.adapter.VendorAdapter;
+import com.heronix.guardian.adapter.VendorClientCache;
+import com.heronix.guardian.adapter.VendorPushExecutor;
 import com.heronix.guardian.model.domain.VendorCredential;
 import com.heronix.guardian.model.dto.InboundGradeDTO;
 import com.heronix.guardian.model.dto.TokenizedCourseDTO;
@@ -34,6 +35,8 @@ public class GoogleClassroomAdapter implements VendorAdapter {
 
     private final GoogleApiClient apiClient;
     private final CredentialDecryptionService decryptionService;
+    private final VendorClientCache clientCache;
+    private final VendorPushExecutor pushExecutor;
 
     @Override
     public VendorType getVendorType() {
@@ -80,6 +83,7 @@ public class GoogleClassroomAdapter implements VendorAdapter {
                 credential.setEncryptedRefreshToken(decryptionService.encrypt(newTokens.refreshToken()));
             }
             credential.setOauthExpiresAt(newTokens.expiresAt());
+            clientCache.invalidate(credential.getId());
 
             log.info("Google OAuth token refreshed successfully");
             return credential;
@@ -106,53 +110,29 @@ public class GoogleClassroomAdapter implements VendorAdapter {
     public SyncResult pushCourses(List<TokenizedCourseDTO> courses, VendorCredential credential) {
         log.info("Pushing {} courses to Google Classroom: {}", courses.size(), credential.getConnectionName());
 
-        int processed = 0;
-        int failed = 0;
-        List<String> errors = new ArrayList<>();
+        SyncResult result = pushExecutor.push(VendorType.GOOGLE_CLASSROOM, credential, courses,
+                course -> apiClient.createOrUpdateCourse(credential, course),
+                course -> "Failed to sync course " + course.getToken());
 
-        for (TokenizedCourseDTO course : courses) {
-            try {
-                apiClient.createOrUpdateCourse(credential, course);
-                processed++;
-
-            } catch (Exception e) {
-                failed++;
-                errors.add("Failed to sync course " + course.getToken() + ": " + e.getMessage());
-                log.warn("Failed to push course {} to Google: {}", course.getToken(), e.getMessage());
-            }
-        }
-
-        log.info("Google Classroom course sync complete: {} processed, {} failed", processed, failed);
-        return new SyncResult(failed == 0, processed, failed, errors);
+        log.info("Google Classroom course sync complete: {} processed, {} failed",
+                result.processed(), result.failed());
+        return result;
     }
 
     @Override
     public SyncResult pushEnrollments(List<EnrollmentPair> enrollments, VendorCredential credential) {
         log.info("Pushing {} enrollments to Google Classroom: {}", enrollments.size(), credential.getConnectionName());
 
-        int processed = 0;
-        int failed = 0;
-        List<String> errors = new ArrayList<>();
-
-        for (EnrollmentPair enrollment : enrollments) {
-            try {
-                apiClient.addStudentToCourse(
+        SyncResult result = pushExecutor.push(VendorType.GOOGLE_CLASSROOM, credential, enrollments,
+                enrollment -> apiClient.addStudentToCourse(
                         credential,
                         enrollment.courseToken(),
-                        enrollment.studentToken()
-                );
-                processed++;
-
-            } catch (Exception e) {
-                failed++;
-                errors.add("Failed to enroll " + enrollment.studentToken() +
-                           " in " + enrollment.courseToken() + ": " + e.getMessage());
-                log.warn("Failed to create Google enrollment: {}", e.getMessage());
-            }
-        }
+                        enrollment.studentToken()),
+                enrollment -> "Failed to enroll " + enrollment.studentToken() + " in " + enrollment.courseToken());
 
-        log.info("Google Classroom enrollment sync complete: {} processed, {} failed", processed, failed);
-        return new SyncResult(failed == 0, processed, failed, errors);
+        log.info("Google Classroom enrollment sync complete: {} processed, {} failed",
+                result.processed(), result.failed());
+        return result;
     }
 
     @Override
@@ -0,0 +1,137 @@
+package com.heronix.guardian.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent Bloom filter over character sequences.
+ *
+ * Sized from the expected number of insertions and target false-positive
+ * probability. Bits live in an AtomicLongArray so put() and mightContain()
+ * are lock-free; the k probe positions come from double hashing one 64-bit
+ * hash of the input.
+ *
+ * mightContain() never returns false for a value that was put().
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitSize;
+    private final int hashFunctions;
+    private final LongAdder bitsSet = new LongAdder();
+    private final LongAdder insertions = new LongAdder();
+
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be positive: " + expectedInsertions);
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be in (0, 1): " + falsePositiveRate);
+        }
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE, (bits + 63) >>> 6);
+        this.words = new AtomicLongArray(words);
+        this.bitSize = (long) words << 6;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+    }
+
+    /**
+     * Add a value.
+     *
+     * @return true if any bit changed, i.e. the value was definitely not present before
+     */
+    public boolean put(CharSequence value) {
+        long hash = hash(value);
+        long h1 = hash;
+        long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        boolean changed = false;
+        for (int i = 0; i < hashFunctions; i++) {
+            changed |= setBit(Math.floorMod(h1 + i * h2, bitSize));
+        }
+        insertions.increment();
+        return changed;
+    }
+
+    /**
+     * @return false if the value was definitely never added, true if it might have been
+     */
+    public boolean mightContain(CharSequence value) {
+        long hash = hash(value);
+        long h1 = hash;
+        long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            if (!getBit(Math.floorMod(h1 + i * h2, bitSize))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Current false-positive probability given the fraction of bits set.
+     */
+    public double expectedFalsePositiveRate() {
+        return Math.pow((double) bitsSet.sum() / bitSize, hashFunctions);
+    }
+
+    public long bitSize() {
+        return bitSize;
+    }
+
+    public int hashFunctions() {
+        return hashFunctions;
+    }
+
+    public long bitsSet() {
+        return bitsSet.sum();
+    }
+
+    /**
+     * Number of put() calls (duplicates included).
+     */
+    public long insertions() {
+        return insertions.sum();
+    }
+
+    // ========================================================================
+    // INTERNALS
+    // ========================================================================
+
+    private boolean setBit(long index) {
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;
+        while (true) {
+            long current = words.get(word);
+            if ((current & mask) != 0) {
+                return false;
+            }
+            if (words.compareAndSet(word, current, current | mask)) {
+                bitsSet.increment();
+                return true;
+            }
+        }
+    }
+
+    private boolean getBit(long index) {
+        return (words.get((int) (index >>> 6)) & (1L << index)) != 0;
+    }
+
+    private static long hash(CharSequence value) {
+        // FNV-1a over the chars, then a 64-bit finalizer for avalanche
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
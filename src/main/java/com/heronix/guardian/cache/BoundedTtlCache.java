@@ -0,0 +1,237 @@
+package com.heronix.guardian.cache;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Concurrent in-memory cache bounded by both entry count and time-to-live.
+ *
+ * Entries are evicted in insertion order once the cache grows past its maximum
+ * size, and lazily on read once their TTL has elapsed. Reads never block and
+ * never take a lock; writes only touch the entry map and the insertion queue.
+ *
+ * Hit, miss and eviction counts are tracked so callers can expose them as metrics.
+ * An optional removal listener sees every value that leaves the cache, and
+ * purgeExpired() sweeps expired entries that are never read again.
+ */
+public class BoundedTtlCache<K, V> {
+
+    // Bounds the work a single put() spends skipping live nodes while trimming stale ones
+    private static final int MAX_REQUEUE_PER_PUT = 16;
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Node<K>> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queuedNodes = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Consumer<V> onRemoval;
+
+    public BoundedTtlCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, value -> {});
+    }
+
+    /**
+     * @param onRemoval called with each value that is evicted, expired, replaced or invalidated
+     */
+    public BoundedTtlCache(int maxSize, Duration ttl, Consumer<V> onRemoval) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.onRemoval = onRemoval;
+    }
+
+    /**
+     * Get a cached value, or null if absent or expired.
+     */
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAtNanos() >= 0) {
+            if (entries.remove(key, entry)) {
+                evictions.increment();
+                onRemoval.accept(entry.value());
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value();
+    }
+
+    /**
+     * Cache a value, replacing any previous entry for the key.
+     */
+    public void put(K key, V value) {
+        long seq = sequence.incrementAndGet();
+        Entry<V> previous = entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos, seq));
+        if (previous != null) {
+            onRemoval.accept(previous.value());
+        }
+        insertionOrder.offer(new Node<>(key, seq));
+        queuedNodes.incrementAndGet();
+        evictIfNecessary();
+    }
+
+    /**
+     * Remove a single entry.
+     *
+     * @return the removed value, or null if none was cached
+     */
+    public V invalidate(K key) {
+        Entry<V> removed = entries.remove(key);
+        if (removed == null) {
+            return null;
+        }
+        onRemoval.accept(removed.value());
+        return removed.value();
+    }
+
+    /**
+     * Remove all entries whose value matches the predicate.
+     *
+     * @return number of entries removed
+     */
+    public int invalidateIf(Predicate<V> predicate) {
+        int[] removed = {0};
+        entries.entrySet().removeIf(e -> {
+            if (predicate.test(e.getValue().value())) {
+                removed[0]++;
+                onRemoval.accept(e.getValue().value());
+                return true;
+            }
+            return false;
+        });
+        return removed[0];
+    }
+
+    /**
+     * Remove every entry.
+     */
+    public void clear() {
+        entries.forEach((key, entry) -> {
+            if (entries.remove(key, entry)) {
+                onRemoval.accept(entry.value());
+            }
+        });
+    }
+
+    /**
+     * Remove every expired entry. Expiry is otherwise only noticed on read.
+     *
+     * @return number of entries removed
+     */
+    public int purgeExpired() {
+        long now = System.nanoTime();
+        int removed = 0;
+        for (var e : entries.entrySet()) {
+            Entry<V> entry = e.getValue();
+            if (now - entry.expiresAtNanos() >= 0 && entries.remove(e.getKey(), entry)) {
+                evictions.increment();
+                onRemoval.accept(entry.value());
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Key that a put of a new key would evict now, so callers can weigh it
+     * against the newcomer before admitting it. Null if the cache has room,
+     * if that entry has already expired, or if it is not found within a few
+     * queue nodes.
+     */
+    public K evictionCandidate() {
+        if (entries.size() < maxSize) {
+            return null;
+        }
+        int skipped = 0;
+        for (Node<K> node : insertionOrder) {
+            Entry<V> current = entries.get(node.key());
+            if (current != null && current.seq() == node.seq()) {
+                return System.nanoTime() - current.expiresAtNanos() >= 0 ? null : node.key();
+            }
+            // Stale node - drop it so the next lookup does not walk past it again
+            if (insertionOrder.remove(node)) {
+                queuedNodes.decrementAndGet();
+            }
+            if (++skipped >= MAX_REQUEUE_PER_PUT) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Trim the cache back to its bound. Queue nodes whose entry was replaced or
+     * invalidated are discarded along the way so the queue cannot grow without limit.
+     */
+    private void evictIfNecessary() {
+        int requeued = 0;
+        while (entries.size() > maxSize || queuedNodes.get() > 2 * maxSize) {
+            Node<K> node = insertionOrder.poll();
+            if (node == null) {
+                return;
+            }
+            queuedNodes.decrementAndGet();
+
+            Entry<V> current = entries.get(node.key());
+            if (current == null || current.seq() != node.seq()) {
+                continue; // stale node
+            }
+            if (entries.size() <= maxSize) {
+                // Only trimming stale nodes - keep the live entry in line
+                insertionOrder.offer(node);
+                queuedNodes.incrementAndGet();
+                if (++requeued >= MAX_REQUEUE_PER_PUT) {
+                    return;
+                }
+                continue;
+            }
+            if (entries.remove(node.key(), current)) {
+                evictions.increment();
+                onRemoval.accept(current.value());
+            }
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAtNanos, long seq) {}
+
+    private record Node<K>(K key, long seq) {}
+}
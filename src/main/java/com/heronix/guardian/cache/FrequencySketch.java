@@ -0,0 +1,124 @@
+package com.heronix.guardian.cache;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Count-min sketch of recent access frequencies, for TinyLFU-style admission
+ * (Einziger et al.).
+ *
+ * Four rows of 4-bit saturating counters (at most {@link #MAX_COUNT}), packed
+ * sixteen to a long, so 100,000 expected entries cost 256 KB; frequency()
+ * is the smallest of a value's four counters, so it may over-estimate but
+ * never under-estimates. Once 10 x {@code expectedEntries} increments have
+ * been counted every counter is halved, so the sketch follows recent
+ * popularity rather than all-time counts.
+ *
+ * The hash is seeded per instance, so callers cannot pick values that share
+ * counters with a known value. Counters live in an AtomicLongArray and
+ * increment() is lock-free; the periodic halving is not atomic as a whole and
+ * may lose a few concurrent increments.
+ */
+public class FrequencySketch {
+
+    public static final int MAX_COUNT = 15;
+
+    private static final int DEPTH = 4;
+    private static final long HALF_MASK = 0x7777777777777777L;
+
+    private final AtomicLongArray words;
+    private final int widthMask;
+    private final long seed = ThreadLocalRandom.current().nextLong();
+    private final long sampleSize;
+    private final LongAdder additions = new LongAdder();
+
+    public FrequencySketch(int expectedEntries) {
+        if (expectedEntries <= 0) {
+            throw new IllegalArgumentException("expectedEntries must be positive: " + expectedEntries);
+        }
+        int width = Integer.highestOneBit(Math.min(1 << 28, Math.max(16, expectedEntries)) * 2 - 1);
+        this.words = new AtomicLongArray(DEPTH * width / 16);
+        this.widthMask = width - 1;
+        this.sampleSize = 10L * expectedEntries;
+    }
+
+    /**
+     * Count one access of a value.
+     */
+    public void increment(CharSequence value) {
+        long hash = hash(value);
+        boolean added = false;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = indexOf(hash, row);
+            int word = index >>> 4;
+            int shift = (index & 15) << 2;
+            while (true) {
+                long current = words.get(word);
+                if (((current >>> shift) & MAX_COUNT) == MAX_COUNT) {
+                    break;
+                }
+                if (words.compareAndSet(word, current, current + (1L << shift))) {
+                    added = true;
+                    break;
+                }
+            }
+        }
+        if (added) {
+            additions.increment();
+            if (additions.sum() >= sampleSize) {
+                reset();
+            }
+        }
+    }
+
+    /**
+     * Estimated recent accesses of a value, between 0 and {@link #MAX_COUNT}.
+     */
+    public int frequency(CharSequence value) {
+        long hash = hash(value);
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = indexOf(hash, row);
+            frequency = Math.min(frequency, (int) (words.get(index >>> 4) >>> ((index & 15) << 2)) & MAX_COUNT);
+        }
+        return frequency;
+    }
+
+    /**
+     * Halve every counter.
+     */
+    private synchronized void reset() {
+        if (additions.sum() < sampleSize) {
+            return;
+        }
+        for (int i = 0; i < words.length(); i++) {
+            words.getAndUpdate(i, word -> (word >>> 1) & HALF_MASK);
+        }
+        additions.reset();
+    }
+
+    private int indexOf(long hash, int row) {
+        long h = mix(hash + row * 0x9E3779B97F4A7C15L);
+        return row * (widthMask + 1) + (int) (h & widthMask);
+    }
+
+    private long hash(CharSequence value) {
+        // FNV-1a over the chars, starting from the per-instance seed
+        long h = 0xCBF29CE484222325L ^ seed;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,178 @@
+package com.heronix.guardian.cache;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy-hitters sketch (Metwally et al.).
+ *
+ * Tracks at most {@code capacity} keys. An untracked key replaces the key
+ * with the smallest count and inherits that count as its error, so every
+ * reported count over-estimates the true count by at most {@code error}, and
+ * any key seen more than total / capacity times is guaranteed to be tracked.
+ *
+ * Counters sit in an indexed min-heap, so offer() is O(log capacity).
+ * All methods are synchronized; callers that need more throughput partition
+ * keys over several sketches.
+ */
+public class SpaceSaving<K> {
+
+    private final int capacity;
+    private final Map<K, Counter<K>> counters;
+    private final Counter<K>[] heap;
+    private int size;
+    private long total;
+
+    /**
+     * A tracked key: {@code count - error} is a guaranteed lower bound on its true count.
+     */
+    public record Entry<K>(K key, long count, long error) {}
+
+    @SuppressWarnings("unchecked")
+    public SpaceSaving(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+        this.heap = new Counter[capacity];
+    }
+
+    /**
+     * Count one occurrence of a key.
+     */
+    public void offer(K key) {
+        offer(key, 1);
+    }
+
+    /**
+     * Count {@code weight} occurrences of a key.
+     */
+    public synchronized void offer(K key, long weight) {
+        if (weight <= 0) {
+            return;
+        }
+        total += weight;
+
+        Counter<K> counter = counters.get(key);
+        if (counter != null) {
+            counter.count += weight;
+            siftDown(counter.index);
+            return;
+        }
+
+        if (size < capacity) {
+            counter = new Counter<>(key, weight, 0, size);
+            heap[size++] = counter;
+            counters.put(key, counter);
+            siftUp(counter.index);
+            return;
+        }
+
+        // Replace the minimum: the new key inherits its count as error
+        counter = heap[0];
+        counters.remove(counter.key);
+        counter.key = key;
+        counter.error = counter.count;
+        counter.count += weight;
+        counters.put(key, counter);
+        siftDown(0);
+    }
+
+    /**
+     * The {@code limit} keys with the highest estimated counts, highest first.
+     */
+    public synchronized List<Entry<K>> top(int limit) {
+        List<Entry<K>> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Counter<K> counter = heap[i];
+            entries.add(new Entry<>(counter.key, counter.count, counter.error));
+        }
+        entries.sort(Comparator.comparingLong((Entry<K> e) -> e.count()).reversed());
+        return entries.size() > limit ? new ArrayList<>(entries.subList(0, limit)) : entries;
+    }
+
+    /**
+     * Upper bound on the count of any key not currently tracked.
+     */
+    public synchronized long minCount() {
+        return size < capacity ? 0 : heap[0].count;
+    }
+
+    /**
+     * Total weight offered.
+     */
+    public synchronized long total() {
+        return total;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public synchronized void clear() {
+        counters.clear();
+        for (int i = 0; i < size; i++) {
+            heap[i] = null;
+        }
+        size = 0;
+        total = 0;
+    }
+
+    private void siftUp(int index) {
+        Counter<K> counter = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent].count <= counter.count) {
+                break;
+            }
+            place(heap[parent], index);
+            index = parent;
+        }
+        place(counter, index);
+    }
+
+    private void siftDown(int index) {
+        Counter<K> counter = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && heap[right].count < heap[child].count) {
+                child = right;
+            }
+            if (counter.count <= heap[child].count) {
+                break;
+            }
+            place(heap[child], index);
+            index = child;
+        }
+        place(counter, index);
+    }
+
+    private void place(Counter<K> counter, int index) {
+        heap[index] = counter;
+        counter.index = index;
+    }
+
+    private static final class Counter<K> {
+        K key;
+        long count;
+        long error;
+        int index;
+
+        Counter(K key, long count, long error, int index) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+            this.index = index;
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package com.heronix.guardian.config;
 
+import java.util.List;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import com.heronix.guardian.model.enums.TokenType;
+
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 
 /**
  * Configuration properties for Heronix Guardian.
@@ -40,13 +45,18 @@ public class GuardianProperties {
     /**
      * Canvas LMS configuration
      */
-    private VendorConfig canvas = new VendorConfig();
+    private CanvasConfig canvas = new CanvasConfig();
 
     /**
      * Google Classroom configuration
      */
     private VendorConfig google = new VendorConfig();
 
+    /**
+     * Cache of per-credential vendor API clients and decrypted OAuth tokens
+     */
+    private VendorClientCacheConfig vendorClients = new VendorClientCacheConfig();
+
     /**
      * Sync configuration
      */
@@ -111,6 +121,211 @@ public class GuardianProperties {
          * Length of the checksum portion
          */
         private int checksumLength = 2;
+
+        /**
+         * Token format minted for new tokens: 1 = PREFIX_HASH_CHECKSUM,
+         * 2 = PREFIX_HASH_MAC (truncated HMAC keyed from the master key).
+         * Both formats are always accepted. 2 requires HERONIX_MASTER_KEY;
+         * startup fails if encryption is disabled.
+         */
+        private int formatVersion = 1;
+
+        /**
+         * Length of the MAC portion of format version 2 tokens
+         */
+        private int macLength = 6;
+
+        /**
+         * Maximum number of tokens held in the in-process resolution cache
+         */
+        private int resolutionCacheMaxSize = 50_000;
+
+        /**
+         * Time-to-live for resolution cache entries in seconds
+         */
+        private int resolutionCacheTtlSeconds = 600;
+
+        /**
+         * Maximum number of unknown token values held in the negative cache
+         */
+        private int negativeCacheMaxSize = 20_000;
+
+        /**
+         * Time-to-live for negative cache entries in seconds
+         */
+        private int negativeCacheTtlSeconds = 30;
+
+        /**
+         * Misses tracked by the negative cache admission filter before it is reset
+         */
+        private int negativeCacheDoorkeeperSize = 100_000;
+
+        /**
+         * Maximum token values accepted by one batch resolve request
+         */
+        private int batchResolveMaxTokens = 50_000;
+
+        /**
+         * Token values resolved (and streamed back) per chunk by batch resolution
+         */
+        private int batchResolveChunkSize = 1000;
+
+        /**
+         * Interval between write-behind flushes of token usage counters in milliseconds
+         */
+        private long usageFlushIntervalMs = 5000;
+
+        /**
+         * Lock stripes serializing token creation per entity (rounded down to a power of two)
+         */
+        private int creationLockStripes = 1024;
+
+        /**
+         * Maximum wait for a token creation lock stripe before the creation fails
+         */
+        private long creationLockTimeoutMs = 5000;
+
+        /**
+         * Most creation lock stripes one bulk generation holds; entities beyond rely on the unique index
+         */
+        private int creationLockMaxBulkStripes = 64;
+
+        /**
+         * Interval between reconciliations of the token statistics counters in milliseconds
+         */
+        private long statsReconcileIntervalMs = 300_000;
+
+        /**
+         * Expected number of token values, used to size the collision pre-check Bloom filter
+         */
+        private long valueFilterExpectedTokens = 1_000_000;
+
+        /**
+         * Target false-positive rate of the collision pre-check Bloom filter
+         */
+        private double valueFilterFalsePositiveRate = 0.001;
+
+        /**
+         * Pre-minted token reservoir configuration
+         */
+        private ReservoirConfig reservoir = new ReservoirConfig();
+
+        /**
+         * Chunked school-year rotation configuration
+         */
+        private RotationConfig rotation = new RotationConfig();
+
+        /**
+         * Batched expiry/purge maintenance configuration
+         */
+        private MaintenanceConfig maintenance = new MaintenanceConfig();
+
+        /**
+         * Heavy-hitter tracking of most-resolved tokens
+         */
+        private HotTokensConfig hotTokens = new HotTokensConfig();
+    }
+
+    @Data
+    public static class HotTokensConfig {
+        /**
+         * Track most-resolved tokens on the resolve path
+         */
+        private boolean enabled = true;
+
+        /**
+         * Tokens tracked per vendor scope and window (Space-Saving counters)
+         */
+        private int capacity = 200;
+
+        /**
+         * Length of one tracking window in seconds
+         */
+        private int windowSeconds = 60;
+
+        /**
+         * Number of windows retained per vendor scope
+         */
+        private int windows = 60;
+    }
+
+    @Data
+    public static class MaintenanceConfig {
+        /**
+         * Run scheduled expiry and purge jobs
+         */
+        private boolean enabled = true;
+
+        /**
+         * Interval between maintenance runs in milliseconds
+         */
+        private long intervalMs = 3_600_000;
+
+        /**
+         * Token ids expired or purged per transaction
+         */
+        private int batchSize = 1000;
+
+        /**
+         * Pause between batches in milliseconds, to spread lock and WAL load
+         */
+        private long pauseMs = 50;
+    }
+
+    @Data
+    public static class RotationConfig {
+        /**
+         * Active tokens rotated per chunk (one short transaction each)
+         */
+        private int chunkSize = 1000;
+
+        /**
+         * Chunks rotated concurrently
+         */
+        private int parallelism = 2;
+
+        /**
+         * Attempts per chunk before the run is marked FAILED
+         */
+        private int maxChunkAttempts = 3;
+
+        /**
+         * Resume interrupted (RUNNING) rotation runs when the application starts
+         */
+        private boolean resumeOnStartup = true;
+    }
+
+    @Data
+    public static class ReservoirConfig {
+        /**
+         * Enable the background-refilled reservoir of RESERVED token values
+         */
+        private boolean enabled = false;
+
+        /**
+         * Token types kept in the reservoir
+         */
+        private List<TokenType> types = List.of(TokenType.STUDENT, TokenType.TEACHER, TokenType.COURSE);
+
+        /**
+         * Number of reserved values per type the refill tops up to
+         */
+        private int targetSize = 1000;
+
+        /**
+         * Refill a type when its reserved count drops below this
+         */
+        private int refillThreshold = 500;
+
+        /**
+         * Log a low-water alarm when a type's reserved count drops below this
+         */
+        private int lowWaterMark = 100;
+
+        /**
+         * Interval between refill checks in milliseconds
+         */
+        private long refillIntervalMs = 10_000;
     }
 
     @Data
@@ -153,6 +368,169 @@ public class GuardianProperties {
          * Read timeout in seconds
          */
         private int readTimeout = 30;
+
+        /**
+         * Coalescing of single-student token calls into SIS batch requests
+         */
+        private BatchingConfig batching = new BatchingConfig();
+
+        /**
+         * Maximum SIS token lookups in flight per reactive sync stream
+         */
+        private int reactiveConcurrency = 200;
+
+        /**
+         * Near-cache of SIS tokens
+         */
+        private SisCacheConfig cache = new SisCacheConfig();
+
+        /**
+         * Circuit breakers around SIS calls (one per operation family)
+         */
+        private CircuitBreakerConfig circuitBreaker = new CircuitBreakerConfig();
+
+        /**
+         * Local snapshot of the SIS token map used to resolve tokens while SIS is unreachable
+         */
+        private SisSnapshotConfig snapshot = new SisSnapshotConfig();
+
+        /**
+         * Connection pool for calls to SIS
+         */
+        private HttpPoolConfig http = new HttpPoolConfig();
+    }
+
+    @Data
+    public static class CircuitBreakerConfig {
+        /**
+         * Whether failing SIS operations are short-circuited to the local fallback
+         */
+        private boolean enabled = true;
+
+        /**
+         * Number of most recent calls the failure and slow-call rates are computed over
+         */
+        private int slidingWindowSize = 20;
+
+        /**
+         * Calls needed in the window before the rates are evaluated
+         */
+        private int minimumCalls = 10;
+
+        /**
+         * Failure rate (percent) at which the circuit opens
+         */
+        private int failureRateThreshold = 50;
+
+        /**
+         * Slow-call rate (percent) at which the circuit opens
+         */
+        private int slowCallRateThreshold = 80;
+
+        /**
+         * Calls slower than this count as slow, in milliseconds
+         */
+        private long slowCallDurationMs = 2000;
+
+        /**
+         * Time an open circuit rejects calls before allowing trial calls, in milliseconds
+         */
+        private long openDurationMs = 30000;
+
+        /**
+         * Trial calls in the half-open state; all must succeed to close the circuit
+         */
+        private int halfOpenCalls = 3;
+    }
+
+    @Data
+    public static class SisCacheConfig {
+        /**
+         * Whether SIS token lookups are served from the near-cache
+         */
+        private boolean enabled = true;
+
+        /**
+         * Maximum cached tokens (per direction)
+         */
+        private int maxSize = 100_000;
+
+        /**
+         * Time-to-live for cached tokens in seconds
+         */
+        private int ttlSeconds = 900;
+
+        /**
+         * Whether the cache is warmed from the SIS sync data at startup
+         */
+        private boolean warmOnStartup = true;
+
+        /**
+         * Maximum time in seconds for the background startup warm-up before it is abandoned
+         */
+        private int warmTimeoutSeconds = 120;
+
+        /**
+         * Whether Guardian polls the SIS token change feed (in addition to pushed changes)
+         */
+        private boolean changePollEnabled = false;
+
+        /**
+         * Interval between change feed polls in milliseconds
+         */
+        private long changePollIntervalMs = 5000;
+    }
+
+    @Data
+    public static class SisSnapshotConfig {
+        /**
+         * Whether a local token snapshot is kept for outage-mode resolution
+         * (needs HERONIX_MASTER_KEY; off while encryption is disabled)
+         */
+        private boolean enabled = true;
+
+        /**
+         * Snapshot file location
+         */
+        private String path = "./data/sis-token-snapshot.bin";
+
+        /**
+         * Age in hours after which the snapshot is rebuilt from the SIS sync data
+         */
+        private int maxAgeHours = 24;
+
+        /**
+         * Interval in milliseconds at which pending token changes are written to the snapshot
+         */
+        private long maintenanceIntervalMs = 60000;
+
+        /**
+         * Pending token changes that trigger a write before the next maintenance run (0 = off)
+         */
+        private int compactThreshold = 10000;
+    }
+
+    @Data
+    public static class BatchingConfig {
+        /**
+         * Whether single-item SIS token calls are coalesced into batch requests
+         */
+        private boolean enabled = true;
+
+        /**
+         * Maximum items per SIS batch request
+         */
+        private int maxBatchSize = 200;
+
+        /**
+         * Maximum time a call waits for others to join its batch, in milliseconds
+         */
+        private long maxDelayMs = 5;
+
+        /**
+         * Maximum SIS batch requests in flight at once
+         */
+        private int maxConcurrentBatches = 4;
     }
 
     @Data
@@ -176,6 +554,114 @@ public class GuardianProperties {
          * Enable this vendor integration
          */
         private boolean enabled = true;
+
+        /**
+         * Per-record push calls in flight at once for a credential (0 = sync.parallel-threads)
+         */
+        private int pushConcurrency = 0;
+
+        /**
+         * Connection pool for calls to this vendor
+         */
+        private HttpPoolConfig http = new HttpPoolConfig();
+    }
+
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    public static class CanvasConfig extends VendorConfig {
+        /**
+         * Bulk pushes through the Canvas SIS Import API
+         */
+        private SisImportConfig sisImport = new SisImportConfig();
+    }
+
+    @Data
+    public static class SisImportConfig {
+        /**
+         * Push large batches as a zipped SIS Import CSV instead of one API call per record
+         */
+        private boolean enabled = true;
+
+        /**
+         * Batches with at least this many records use the SIS import
+         */
+        private int bulkThreshold = 50;
+
+        /**
+         * Interval between import progress checks in milliseconds
+         */
+        private long pollIntervalMs = 2000;
+
+        /**
+         * Maximum wait for Canvas to finish an import in seconds
+         */
+        private long timeoutSeconds = 900;
+    }
+
+    @Data
+    public static class VendorClientCacheConfig {
+        /**
+         * Reuse the API client and decrypted token of a credential across calls
+         */
+        private boolean enabled = true;
+
+        /**
+         * Maximum number of cached credentials
+         */
+        private int maxSize = 256;
+
+        /**
+         * Decrypted tokens are dropped and zeroed after this many seconds
+         */
+        private long ttlSeconds = 300;
+
+        /**
+         * Interval of the sweep that zeroes expired tokens in milliseconds
+         */
+        private long purgeIntervalMs = 60000;
+    }
+
+    @Data
+    public static class HttpPoolConfig {
+        /**
+         * Maximum open connections to the upstream
+         */
+        private int maxConnections = 50;
+
+        /**
+         * Maximum requests waiting for a connection; further requests fail at once
+         */
+        private int pendingAcquireMaxCount = 500;
+
+        /**
+         * Maximum wait for a connection in milliseconds
+         */
+        private long pendingAcquireTimeoutMs = 10000;
+
+        /**
+         * Idle connections are closed after this many milliseconds
+         */
+        private long maxIdleTimeMs = 30000;
+
+        /**
+         * Connections are closed after this many milliseconds, so DNS changes are picked up
+         */
+        private long maxLifeTimeMs = 300000;
+
+        /**
+         * Interval of background eviction of idle and expired connections in milliseconds (0 = on acquire only)
+         */
+        private long evictIntervalMs = 30000;
+
+        /**
+         * Offer HTTP/2 over TLS (HTTP/1.1 when the upstream does not negotiate it, and for plain http)
+         */
+        private boolean http2 = true;
+
+        /**
+         * Ask for gzip-compressed responses
+         */
+        private boolean compression = true;
     }
 
     @Data
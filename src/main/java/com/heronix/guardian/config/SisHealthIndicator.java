@@ -1,19 +1,28 @@
 package com.heronix.guardian.config;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.stereotype.Component;
 
+import com.heronix.guardian.service.CircuitBreaker;
 import com.heronix.guardian.service.SisTokenBridgeService;
+import com.heronix.guardian.service.SisTokenCache;
 
 /**
  * Spring Boot Actuator health indicator for SIS integration.
  *
- * Reports UP when SIS-Server is reachable and tokenization is available.
- * Reports DOWN when SIS-Server is unreachable (Guardian falls back to local tokens).
+ * Reports UP while the SIS bridge circuits are closed (or half-open, probing recovery).
+ * Reports DOWN while any circuit is open (Guardian falls back to local tokens).
+ * Health is read from the circuit state; no SIS call is made per scrape.
+ * With sis.circuit-breaker.enabled=false the circuits never open, so they say
+ * nothing about SIS and health is reported as UNKNOWN.
  *
  * Only active when SisTokenBridgeService is loaded (use-sis-tokenization=true).
+ * Also reports SIS token near-cache statistics.
  */
 @Component
 public class SisHealthIndicator implements HealthIndicator {
@@ -21,6 +30,12 @@ public class SisHealthIndicator implements HealthIndicator {
     @Autowired(required = false)
     private SisTokenBridgeService sisTokenBridge;
 
+    @Autowired(required = false)
+    private SisTokenCache sisTokenCache;
+
+    @Autowired
+    private GuardianProperties properties;
+
     @Override
     public Health health() {
         if (sisTokenBridge == null) {
@@ -30,19 +45,42 @@ public class SisHealthIndicator implements HealthIndicator {
                     .build();
         }
 
-        boolean available = sisTokenBridge.isSisAvailable();
+        Map<String, CircuitBreaker.State> circuits = sisTokenBridge.circuitStates();
 
-        if (available) {
-            return Health.up()
+        Health.Builder health;
+        if (!properties.getSis().getCircuitBreaker().isEnabled()) {
+            health = Health.unknown()
                     .withDetail("mode", "integrated")
-                    .withDetail("sis-tokenization", "connected")
-                    .build();
+                    .withDetail("sis-tokenization", "not-monitored")
+                    .withDetail("reason", "circuit breaker disabled");
+        } else if (!circuits.containsValue(CircuitBreaker.State.OPEN)) {
+            health = Health.up()
+                    .withDetail("mode", "integrated")
+                    .withDetail("sis-tokenization", "connected");
         } else {
-            return Health.down()
+            health = Health.down()
                     .withDetail("mode", "integrated")
                     .withDetail("sis-tokenization", "unreachable")
-                    .withDetail("fallback", "local-tokens")
-                    .build();
+                    .withDetail("fallback", "local-tokens");
+        }
+        health.withDetail("circuits", circuits);
+
+        if (sisTokenCache != null && sisTokenCache.isEnabled()) {
+            health.withDetail("token-cache", cacheDetails(sisTokenCache.stats()));
         }
+        return health.build();
+    }
+
+    private Map<String, Object> cacheDetails(SisTokenCache.CacheStats stats) {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("tokens", stats.tokens());
+        details.put("students", stats.students());
+        details.put("maxSize", stats.maxSize());
+        details.put("hits", stats.hits());
+        details.put("misses", stats.misses());
+        details.put("hitRate", String.format("%.3f", stats.hitRate()));
+        details.put("evictions", stats.evictions());
+        details.put("invalidations", stats.invalidations());
+        return details;
     }
 }
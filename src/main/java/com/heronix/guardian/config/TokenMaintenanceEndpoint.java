@@ -0,0 +1,51 @@
+package com.heronix.guardian.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import com.heronix.guardian.service.TokenMaintenanceService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Actuator endpoint for token expiry/purge maintenance.
+ *
+ * GET  /actuator/tokenmaintenance - settings and last-run stats per job
+ * POST /actuator/tokenmaintenance - run both jobs now
+ */
+@Component
+@Endpoint(id = "tokenmaintenance")
+@RequiredArgsConstructor
+public class TokenMaintenanceEndpoint {
+
+    private final TokenMaintenanceService maintenanceService;
+    private final GuardianProperties properties;
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        GuardianProperties.MaintenanceConfig config = properties.getToken().getMaintenance();
+
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("enabled", config.isEnabled());
+        settings.put("intervalMs", config.getIntervalMs());
+        settings.put("batchSize", config.getBatchSize());
+        settings.put("pauseMs", config.getPauseMs());
+        settings.put("retentionDays", properties.getAudit().getRetentionDays());
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", maintenanceService.isRunning());
+        status.put("settings", settings);
+        status.put("lastRuns", maintenanceService.getLastRuns());
+        return status;
+    }
+
+    @WriteOperation
+    public Map<String, TokenMaintenanceService.JobStats> run() {
+        return maintenanceService.runAll();
+    }
+}
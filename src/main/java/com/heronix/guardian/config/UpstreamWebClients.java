@@ -0,0 +1,139 @@
+package com.heronix.guardian.config;
+
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * WebClient builders with a dedicated Reactor Netty connection pool per upstream.
+ *
+ * Without this every client shares the default connection provider, so a slow
+ * vendor holding its connections can leave SIS calls waiting for one. Each
+ * upstream gets its own named pool with the limits, idle/lifetime eviction,
+ * HTTP/2 and compression settings from its {@code http} section
+ * (heronix.guardian.sis.http, .canvas.http, .google.http).
+ *
+ * Metrics: guardian.http.pool.active / idle / pending / max (tag: upstream)
+ */
+@Component
+@Slf4j
+public class UpstreamWebClients implements MeterBinder {
+
+    public enum Upstream { SIS, CANVAS, GOOGLE }
+
+    private final WebClient.Builder webClientBuilder;
+    private final Map<Upstream, ConnectionProvider> providers = new EnumMap<>(Upstream.class);
+    private final Map<Upstream, ClientHttpConnector> connectors = new EnumMap<>(Upstream.class);
+    // Reactor Netty keeps one pool per remote address: upstream -> pool id -> metrics
+    private final Map<Upstream, Map<String, ConnectionPoolMetrics>> pools = new EnumMap<>(Upstream.class);
+
+    public UpstreamWebClients(WebClient.Builder webClientBuilder, GuardianProperties properties) {
+        this.webClientBuilder = webClientBuilder;
+        register(Upstream.SIS, properties.getSis().getHttp(), properties.getSis().getConnectionTimeout());
+        register(Upstream.CANVAS, properties.getCanvas().getHttp(), properties.getCanvas().getTimeoutSeconds());
+        register(Upstream.GOOGLE, properties.getGoogle().getHttp(), properties.getGoogle().getTimeoutSeconds());
+    }
+
+    /**
+     * A new WebClient builder that sends requests through the upstream's pool.
+     */
+    public WebClient.Builder builder(Upstream upstream) {
+        return webClientBuilder.clone().clientConnector(connectors.get(upstream));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        providers.values().forEach(ConnectionProvider::dispose);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Upstream upstream : Upstream.values()) {
+            String tag = tag(upstream);
+            bindPoolGauge(registry, upstream, tag, "guardian.http.pool.active", ConnectionPoolMetrics::acquiredSize,
+                    "Connections in use");
+            bindPoolGauge(registry, upstream, tag, "guardian.http.pool.idle", ConnectionPoolMetrics::idleSize,
+                    "Open connections waiting in the pool");
+            bindPoolGauge(registry, upstream, tag, "guardian.http.pool.pending",
+                    ConnectionPoolMetrics::pendingAcquireSize, "Requests waiting for a connection");
+            Gauge.builder("guardian.http.pool.max", providers.get(upstream), ConnectionProvider::maxConnections)
+                    .tag("upstream", tag)
+                    .description("Maximum connections per remote address")
+                    .register(registry);
+        }
+    }
+
+    private void bindPoolGauge(MeterRegistry registry, Upstream upstream, String tag, String name,
+                               ToIntFunction<ConnectionPoolMetrics> size, String description) {
+        Map<String, ConnectionPoolMetrics> upstreamPools = pools.get(upstream);
+        Gauge.builder(name, upstreamPools, p -> p.values().stream().mapToInt(size).sum())
+                .tag("upstream", tag)
+                .description(description)
+                .register(registry);
+    }
+
+    private void register(Upstream upstream, GuardianProperties.HttpPoolConfig config, int connectTimeoutSeconds) {
+        Map<String, ConnectionPoolMetrics> upstreamPools = new ConcurrentHashMap<>();
+        pools.put(upstream, upstreamPools);
+
+        ConnectionProvider provider = ConnectionProvider.builder("guardian-" + tag(upstream))
+                .maxConnections(config.getMaxConnections())
+                .pendingAcquireMaxCount(config.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(Duration.ofMillis(config.getPendingAcquireTimeoutMs()))
+                .maxIdleTime(Duration.ofMillis(config.getMaxIdleTimeMs()))
+                .maxLifeTime(Duration.ofMillis(config.getMaxLifeTimeMs()))
+                .evictInBackground(Duration.ofMillis(config.getEvictIntervalMs()))
+                .metrics(true, () -> new ConnectionProvider.MeterRegistrar() {
+                    @Override
+                    public void registerMetrics(String poolName, String id, SocketAddress remoteAddress,
+                                                ConnectionPoolMetrics metrics) {
+                        upstreamPools.put(id, metrics);
+                    }
+
+                    @Override
+                    public void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+                        upstreamPools.remove(id);
+                    }
+                })
+                .build();
+
+        HttpClient httpClient = HttpClient.create(provider)
+                .compress(config.isCompression())
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS,
+                        (int) Duration.ofSeconds(connectTimeoutSeconds).toMillis())
+                .protocol(config.isHttp2()
+                        ? new HttpProtocol[] {HttpProtocol.H2, HttpProtocol.HTTP11}
+                        : new HttpProtocol[] {HttpProtocol.HTTP11});
+
+        providers.put(upstream, provider);
+        connectors.put(upstream, new ReactorClientHttpConnector(httpClient));
+
+        log.info("HTTP_POOL: {} - max connections: {}, pending: {}, http2: {}, compression: {}",
+                tag(upstream), config.getMaxConnections(), config.getPendingAcquireMaxCount(),
+                config.isHttp2(), config.isCompression());
+    }
+
+    private static String tag(Upstream upstream) {
+        return upstream.name().toLowerCase(Locale.ROOT);
+    }
+}
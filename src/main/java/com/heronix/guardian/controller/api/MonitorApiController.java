@@ -21,7 +21,9 @@ import com.heronix.guardian.model.domain.DataAccessRequest;
 import com.heronix.guardian.model.domain.DataAccessRequest.RequestStatus;
 import com.heronix.guardian.model.domain.TokenMapping;
 import com.heronix.guardian.model.dto.DashboardStatsDTO;
+import com.heronix.guardian.model.dto.HotTokensDTO;
 import com.heronix.guardian.model.enums.VendorType;
+import com.heronix.guardian.service.HotTokenTracker;
 import com.heronix.guardian.service.MonitoringService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -34,6 +36,7 @@ import lombok.extern.slf4j.Slf4j;
  *
  * Provides endpoints for:
  * - Dashboard statistics
+ * - Most-resolved (hot) tokens
  * - Request listing and filtering
  * - Request approval/denial
  * - Token mapping retrieval
@@ -50,6 +53,7 @@ import lombok.extern.slf4j.Slf4j;
 public class MonitorApiController {
 
     private final MonitoringService monitoringService;
+    private final HotTokenTracker hotTokenTracker;
 
     // ========================================================================
     // DASHBOARD
@@ -72,6 +76,23 @@ public class MonitorApiController {
         return ResponseEntity.ok(requests);
     }
 
+    @GetMapping("/tokens/hot")
+    @Operation(summary = "Get most-resolved tokens",
+               description = "Approximate top tokens over the last N tracking windows, per vendor scope or overall")
+    public ResponseEntity<HotTokensDTO> getHotTokens(
+            @RequestParam(required = false) String vendorScope,
+            @RequestParam(defaultValue = "5") int windows,
+            @RequestParam(defaultValue = "20") int limit) {
+        log.debug("API: Getting hot tokens (scope: {}, windows: {})", vendorScope, windows);
+        return ResponseEntity.ok(hotTokenTracker.top(vendorScope, windows, limit));
+    }
+
+    @GetMapping("/tokens/hot/scopes")
+    @Operation(summary = "Get vendor scopes with tracked token resolutions")
+    public ResponseEntity<List<String>> getHotTokenScopes() {
+        return ResponseEntity.ok(hotTokenTracker.scopes());
+    }
+
     // ========================================================================
     // REQUEST LISTING
     // ========================================================================
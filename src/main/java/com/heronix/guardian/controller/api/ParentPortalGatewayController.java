@@ -1,6 +1,7 @@
 package com.heronix.guardian.controller.api;
 
 import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.config.UpstreamWebClients;
 import com.heronix.guardian.service.ParentPortalDeviceVerificationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -40,7 +41,7 @@ public class ParentPortalGatewayController {
 
     private final ParentPortalDeviceVerificationService verificationService;
     private final GuardianProperties properties;
-    private final WebClient.Builder webClientBuilder;
+    private final UpstreamWebClients webClients;
 
     private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
 
@@ -199,7 +200,7 @@ public class ParentPortalGatewayController {
         String sisBaseUrl = properties.getSis().getApiUrl();
         String apiKey = properties.getSis().getApiKey();
 
-        WebClient.Builder builder = webClientBuilder.clone().baseUrl(sisBaseUrl);
+        WebClient.Builder builder = webClients.builder(UpstreamWebClients.Upstream.SIS).baseUrl(sisBaseUrl);
 
         if (apiKey != null && !apiKey.isBlank()) {
             builder.defaultHeader("X-API-Key", apiKey);
@@ -0,0 +1,91 @@
+package com.heronix.guardian.controller.api;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.model.dto.SisTokenChangesDTO;
+import com.heronix.guardian.service.SisTokenBridgeService;
+import com.heronix.guardian.service.SisTokenCache;
+import com.heronix.guardian.service.SisTokenSnapshot;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Webhook receiving token changes from SIS.
+ *
+ * SIS calls it on every rotation or revocation so the SIS token near-cache
+ * drops the token within seconds instead of waiting for its TTL.
+ * Authenticated with the shared SIS service API key (X-API-Key); every request
+ * is rejected while no key is configured, since an open endpoint would let
+ * anyone flush the near-cache and force snapshot rebuilds.
+ */
+@RestController
+@RequestMapping("/api/v1/guardian/webhooks/sis")
+@ConditionalOnProperty(name = "heronix.guardian.use-sis-tokenization", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "SIS Webhooks", description = "Notifications pushed by SIS")
+public class SisWebhookController {
+
+    private final GuardianProperties properties;
+    private final SisTokenBridgeService sisTokenBridge;
+    private final SisTokenCache tokenCache;
+    private final SisTokenSnapshot tokenSnapshot;
+
+    @PostMapping("/token-changes")
+    @Operation(summary = "Apply SIS token changes", description = "Invalidate rotated or revoked SIS tokens")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Changes applied"),
+        @ApiResponse(responseCode = "401", description = "Missing or wrong API key"),
+        @ApiResponse(responseCode = "503", description = "No SIS API key configured")
+    })
+    public ResponseEntity<Map<String, Object>> tokenChanges(
+            @RequestHeader(value = "X-API-Key", required = false) String apiKey,
+            @RequestBody SisTokenChangesDTO request) {
+
+        String expected = properties.getSis().getApiKey();
+        if (expected == null || expected.isBlank()) {
+            log.warn("SIS_CACHE: Rejected token-change webhook - no SIS API key configured");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        if (!isAuthorized(expected, apiKey)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        int applied = 0;
+        if (request.isInvalidateAll()) {
+            tokenCache.invalidateAll();
+            tokenSnapshot.markStale();
+            log.info("SIS_CACHE: All tokens invalidated by SIS");
+        } else if (request.getChanges() != null) {
+            for (SisTokenChangesDTO.TokenChange change : request.getChanges()) {
+                sisTokenBridge.applyTokenChange(change.getTokenValue(), change.getStudentId());
+                applied++;
+            }
+            log.debug("SIS_CACHE: Applied {} token changes from SIS", applied);
+        }
+
+        return ResponseEntity.ok(Map.of("success", true, "applied", applied));
+    }
+
+    private static boolean isAuthorized(String expected, String apiKey) {
+        return apiKey != null && MessageDigest.isEqual(
+                expected.getBytes(StandardCharsets.UTF_8), apiKey.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,12 +1,17 @@
 package com.heronix.guardian.controller.api;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,24 +21,37 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.heronix.guardian.config.GuardianProperties;
 
 import com.heronix.guardian.model.domain.GuardianToken;
+import com.heronix.guardian.model.domain.TokenRotationRun;
 import com.heronix.guardian.model.dto.BulkTokenRequestDTO;
 import com.heronix.guardian.model.dto.TokenRequestDTO;
 import com.heronix.guardian.model.dto.TokenResponseDTO;
+import com.heronix.guardian.model.dto.TokenRotationRunDTO;
 import com.heronix.guardian.model.dto.TokenStatsDTO;
 import com.heronix.guardian.model.enums.TokenStatus;
 import com.heronix.guardian.model.enums.TokenType;
 import com.heronix.guardian.repository.GuardianTokenRepository;
 import com.heronix.guardian.service.TokenGenerationService;
 import com.heronix.guardian.service.TokenMappingService;
+import com.heronix.guardian.service.TokenRotationEngine;
+import com.heronix.guardian.service.TokenStatistics;
 import com.heronix.guardian.service.TokenValidationService;
+import com.heronix.guardian.service.TokenValidationService.ValidationResult;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -52,6 +70,10 @@ public class TokenManagementController {
     private final TokenValidationService tokenValidationService;
     private final TokenMappingService tokenMappingService;
     private final GuardianTokenRepository tokenRepository;
+    private final TokenRotationEngine rotationEngine;
+    private final TokenStatistics tokenStatistics;
+    private final GuardianProperties properties;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     @Operation(summary = "Generate a new token", description = "Create an anonymous token for an entity")
@@ -130,7 +152,7 @@ public class TokenManagementController {
             @Parameter(description = "Token value to validate")
             @PathVariable String tokenValue) {
 
-        var result = tokenValidationService.validateToken(tokenValue);
+        var result = tokenValidationService.validateTokenCached(tokenValue);
 
         Map<String, Object> response = new HashMap<>();
         response.put("valid", result.valid());
@@ -169,6 +191,49 @@ public class TokenManagementController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping(value = "/resolve/batch", consumes = MediaType.APPLICATION_JSON_VALUE,
+                 produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Resolve tokens in bulk",
+               description = "Resolve a JSON array of token values; results are streamed back as NDJSON, "
+                       + "one line per distinct token, with failures reported inline")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Results streamed"),
+        @ApiResponse(responseCode = "400", description = "Body is not a JSON array of strings"),
+        @ApiResponse(responseCode = "413", description = "Too many tokens in one request")
+    })
+    public ResponseEntity<StreamingResponseBody> resolveTokensBatch(HttpServletRequest request) {
+        int maxTokens = properties.getToken().getBatchResolveMaxTokens();
+        List<String> tokenValues;
+        try {
+            tokenValues = readTokenValues(request.getInputStream(), maxTokens);
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (tokenValues == null) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+
+        log.info("Resolving batch of {} tokens", tokenValues.size());
+
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+                tokenMappingService.resolveTokensBulk(tokenValues.iterator(), chunk -> {
+                    try {
+                        for (ValidationResult result : chunk) {
+                            writeResolution(generator, result);
+                        }
+                        generator.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @GetMapping("/entity/{entityType}/{entityId}")
     @Operation(summary = "Find token for entity", description = "Get the token for a specific entity")
     @ApiResponses({
@@ -215,9 +280,7 @@ public class TokenManagementController {
             return ResponseEntity.notFound().build();
         }
 
-        GuardianToken token = tokenOpt.get();
-        token.revoke();
-        token = tokenRepository.save(token);
+        GuardianToken token = tokenGenerationService.revokeToken(tokenOpt.get());
 
         log.info("Revoked token {}", tokenValue);
 
@@ -251,46 +314,42 @@ public class TokenManagementController {
         return ResponseEntity.ok(TokenResponseDTO.fromEntity(newToken));
     }
 
+    @PostMapping("/rotation")
+    @Operation(summary = "Rotate a school year",
+               description = "Start (or resume) chunked rotation of all active tokens of a school year")
+    @ApiResponse(responseCode = "202", description = "Rotation started")
+    public ResponseEntity<TokenRotationRunDTO> startRotation(
+            @Parameter(description = "School year to rotate (e.g., 2024-2025)")
+            @RequestParam String schoolYear) {
+
+        TokenRotationRun run = rotationEngine.startRotation(schoolYear, "api");
+
+        log.info("Started rotation run {} for school year {}", run.getId(), schoolYear);
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(TokenRotationRunDTO.fromEntity(run));
+    }
+
+    @GetMapping("/rotation/{runId}")
+    @Operation(summary = "Get rotation progress", description = "Progress and throughput of a rotation run")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Run returned"),
+        @ApiResponse(responseCode = "404", description = "Run not found")
+    })
+    public ResponseEntity<TokenRotationRunDTO> getRotation(
+            @Parameter(description = "Rotation run ID")
+            @PathVariable Long runId) {
+
+        return rotationEngine.getRun(runId)
+                .map(TokenRotationRunDTO::fromEntity)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @GetMapping("/stats")
-    @Operation(summary = "Get token statistics", description = "Get overall token statistics")
+    @Operation(summary = "Get token statistics", description = "Get overall token statistics (maintained counters)")
     @ApiResponse(responseCode = "200", description = "Statistics returned")
     public ResponseEntity<TokenStatsDTO> getStatistics() {
-        // Count by status
-        List<Object[]> statusCounts = tokenRepository.countTokensByStatus();
-        Map<String, Long> byStatus = new HashMap<>();
-        for (Object[] row : statusCounts) {
-            byStatus.put(row[0].toString(), (Long) row[1]);
-        }
-
-        // Count by type
-        List<Object[]> typeCounts = tokenRepository.countActiveTokensByType();
-        Map<String, Long> byType = new HashMap<>();
-        for (Object[] row : typeCounts) {
-            byType.put(row[0].toString(), (Long) row[1]);
-        }
-
-        // Usage stats
-        Object[] usageStats = tokenRepository.getUsageStatistics();
-        Long totalUsage = usageStats[0] != null ? (Long) usageStats[0] : 0L;
-        LocalDateTime lastUsage = usageStats[2] != null ? (LocalDateTime) usageStats[2] : null;
-
-        // Expiring soon
-        LocalDateTime thirtyDaysFromNow = LocalDateTime.now().plusDays(30);
-        long expiringSoon = tokenRepository.findTokensExpiringBefore(thirtyDaysFromNow).size();
-
-        TokenStatsDTO stats = TokenStatsDTO.builder()
-                .totalTokens(tokenRepository.count())
-                .activeTokens(byStatus.getOrDefault("ACTIVE", 0L))
-                .expiredTokens(byStatus.getOrDefault("EXPIRED", 0L))
-                .revokedTokens(byStatus.getOrDefault("REVOKED", 0L))
-                .rotatedTokens(byStatus.getOrDefault("ROTATED", 0L))
-                .tokensByType(byType)
-                .totalUsageCount(totalUsage)
-                .lastUsageAt(lastUsage)
-                .expiringWithin30Days(expiringSoon)
-                .build();
-
-        return ResponseEntity.ok(stats);
+        return ResponseEntity.ok(tokenStatistics.snapshot());
     }
 
     @GetMapping
@@ -325,4 +384,41 @@ public class TokenManagementController {
 
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * Read a JSON array of token values incrementally.
+     * @return the values, or null if there are more than {@code maxTokens}
+     */
+    private List<String> readTokenValues(InputStream in, int maxTokens) throws IOException {
+        List<String> tokenValues = new ArrayList<>();
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array of token values");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token != JsonToken.VALUE_STRING) {
+                    throw new IOException("Expected a token value string, got " + token);
+                }
+                if (tokenValues.size() == maxTokens) {
+                    return null;
+                }
+                tokenValues.add(parser.getText());
+            }
+        }
+        return tokenValues;
+    }
+
+    private void writeResolution(JsonGenerator generator, ValidationResult result) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("tokenValue", result.tokenValue());
+        if (result.valid()) {
+            generator.writeStringField("tokenType", result.tokenType().name());
+            generator.writeNumberField("entityId", result.entityId());
+        } else {
+            generator.writeStringField("error", result.errorMessage());
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
 }
@@ -17,6 +17,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.heronix.guardian.adapter.VendorAdapter;
+import com.heronix.guardian.adapter.VendorClientCache;
 import com.heronix.guardian.model.domain.VendorCredential;
 import com.heronix.guardian.model.enums.VendorType;
 import com.heronix.guardian.repository.VendorCredentialRepository;
@@ -43,6 +44,7 @@ public class VendorManagementController {
 
     private final VendorCredentialRepository credentialRepository;
     private final List<VendorAdapter> vendorAdapters;
+    private final VendorClientCache clientCache;
 
     @GetMapping
     @Operation(summary = "List all vendors", description = "Get all configured vendor integrations")
@@ -133,6 +135,7 @@ public class VendorManagementController {
                         credential.setActive(request.active);
                     }
                     credential = credentialRepository.save(credential);
+                    clientCache.invalidate(id);
                     return ResponseEntity.ok(VendorCredentialDTO.fromEntity(credential));
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -150,6 +153,7 @@ public class VendorManagementController {
         }
 
         credentialRepository.deleteById(id);
+        clientCache.invalidate(id);
         return ResponseEntity.noContent().build();
     }
 
@@ -201,6 +205,7 @@ public class VendorManagementController {
                 .map(credential -> {
                     credential.setActive(false);
                     credential = credentialRepository.save(credential);
+                    clientCache.invalidate(id);
                     return ResponseEntity.ok(VendorCredentialDTO.fromEntity(credential));
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -11,8 +11,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.config.UpstreamWebClients;
 
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
 
 /**
  * Guardian Gateway Service - Routes vendor communications through the SIS
@@ -38,7 +40,7 @@ public class GuardianGatewayService {
     private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(15);
 
     public GuardianGatewayService(
-            WebClient.Builder webClientBuilder,
+            UpstreamWebClients webClients,
             GuardianProperties properties) {
 
         this.properties = properties;
@@ -46,7 +48,7 @@ public class GuardianGatewayService {
         String baseUrl = properties.getSis().getApiUrl();
         String apiKey = properties.getSis().getApiKey();
 
-        WebClient.Builder builder = webClientBuilder
+        WebClient.Builder builder = webClients.builder(UpstreamWebClients.Upstream.SIS)
                 .baseUrl(baseUrl + "/api/v1/guardian-integration")
                 .defaultHeader("Content-Type", MediaType.APPLICATION_JSON_VALUE);
 
@@ -62,7 +64,8 @@ public class GuardianGatewayService {
     /**
      * Transmit data to a vendor through the SIS secure gateway.
      *
-     * SECURITY: Returns failure (never silently bypasses) when gateway is unreachable.
+     * SECURITY: Returns failure (never silently bypasses) when gateway is unreachable
+     * or does not answer within the request timeout.
      *
      * @param deviceId   the registered device ID for the vendor
      * @param data       the data to transmit
@@ -75,49 +78,58 @@ public class GuardianGatewayService {
             Map<String, Object> data,
             String dataType,
             String sourceIp) {
-
-        log.info("GUARDIAN_GATEWAY: Transmitting {} data to device {}", dataType, deviceId);
-
         try {
-            Map<String, Object> body = Map.of(
-                    "deviceId", deviceId,
-                    "data", data,
-                    "dataType", dataType
-            );
-
-            Map<String, Object> response = webClient.post()
-                    .uri("/gateway/transmit")
-                    .bodyValue(body)
-                    .retrieve()
-                    .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
-                    .block(REQUEST_TIMEOUT);
+            return transmit(deviceId, data, dataType).block(REQUEST_TIMEOUT);
+        } catch (IllegalStateException e) {
+            // SECURITY: Do NOT silently bypass — fail the transmission
+            log.error("GUARDIAN_GATEWAY: SIS gateway timed out for device {}", deviceId);
+            return TransmissionResult.failure("SIS gateway timed out after " + REQUEST_TIMEOUT.toSeconds() + "s");
+        }
+    }
 
-            if (response == null) {
-                return TransmissionResult.failure("Empty response from SIS gateway");
-            }
+    /**
+     * The gateway request; always emits a result, gateway errors become a failure result.
+     */
+    private Mono<TransmissionResult> transmit(String deviceId, Map<String, Object> data, String dataType) {
+        log.info("GUARDIAN_GATEWAY: Transmitting {} data to device {}", dataType, deviceId);
 
-            boolean success = Boolean.TRUE.equals(response.get("success"));
-            boolean blocked = Boolean.TRUE.equals(response.get("blocked"));
-            String transmissionId = (String) response.get("transmissionId");
-            String errorMessage = (String) response.get("errorMessage");
-
-            if (success) {
-                log.info("GUARDIAN_GATEWAY: Transmission {} succeeded for device {}", transmissionId, deviceId);
-                return TransmissionResult.success(transmissionId);
-            } else if (blocked) {
-                log.warn("GUARDIAN_GATEWAY: Transmission {} blocked for device {}: {}",
-                        transmissionId, deviceId, errorMessage);
-                return TransmissionResult.blocked(transmissionId, errorMessage);
-            } else {
-                log.error("GUARDIAN_GATEWAY: Transmission {} failed for device {}: {}",
-                        transmissionId, deviceId, errorMessage);
-                return TransmissionResult.failure(errorMessage);
-            }
+        Map<String, Object> body = Map.of(
+                "deviceId", deviceId,
+                "data", data,
+                "dataType", dataType
+        );
+
+        return webClient.post()
+                .uri("/gateway/transmit")
+                .bodyValue(body)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
+                .map(response -> toResult(deviceId, response))
+                .defaultIfEmpty(TransmissionResult.failure("Empty response from SIS gateway"))
+                .onErrorResume(e -> {
+                    // SECURITY: Do NOT silently bypass — fail the transmission
+                    log.error("GUARDIAN_GATEWAY: SIS gateway unreachable for device {}: {}", deviceId, e.getMessage());
+                    return Mono.just(TransmissionResult.failure("SIS gateway unreachable: " + e.getMessage()));
+                });
+    }
 
-        } catch (Exception e) {
-            // SECURITY: Do NOT silently bypass — fail the transmission
-            log.error("GUARDIAN_GATEWAY: SIS gateway unreachable for device {}: {}", deviceId, e.getMessage());
-            return TransmissionResult.failure("SIS gateway unreachable: " + e.getMessage());
+    private TransmissionResult toResult(String deviceId, Map<String, Object> response) {
+        boolean success = Boolean.TRUE.equals(response.get("success"));
+        boolean blocked = Boolean.TRUE.equals(response.get("blocked"));
+        String transmissionId = (String) response.get("transmissionId");
+        String errorMessage = (String) response.get("errorMessage");
+
+        if (success) {
+            log.info("GUARDIAN_GATEWAY: Transmission {} succeeded for device {}", transmissionId, deviceId);
+            return TransmissionResult.success(transmissionId);
+        } else if (blocked) {
+            log.warn("GUARDIAN_GATEWAY: Transmission {} blocked for device {}: {}",
+                    transmissionId, deviceId, errorMessage);
+            return TransmissionResult.blocked(transmissionId, errorMessage);
+        } else {
+            log.error("GUARDIAN_GATEWAY: Transmission {} failed for device {}: {}",
+                    transmissionId, deviceId, errorMessage);
+            return TransmissionResult.failure(errorMessage);
         }
     }
 
@@ -69,10 +69,11 @@ public class GuardianToken {
     /**
      * The anonymous token value sent to vendors.
      * Format: PREFIX_HASH_CHECKSUM (e.g., STU_H7K2P9M3_X8)
+     * or, format v2, PREFIX_HASH_MAC (e.g., STU_H7K2P9M3_Q4ZK7C)
      */
     @NotBlank
-    @Size(min = 14, max = 16)
-    @Column(name = "token_value", nullable = false, unique = true, length = 16)
+    @Size(min = 14, max = 24)
+    @Column(name = "token_value", nullable = false, unique = true, length = 24)
     private String tokenValue;
 
     /**
@@ -120,10 +121,10 @@ public class GuardianToken {
     private String salt;
 
     /**
-     * Checksum portion of the token for quick validation.
+     * Checksum (v1) or MAC (v2) portion of the token for quick validation.
      */
     @NotBlank
-    @Column(name = "checksum", nullable = false, length = 2)
+    @Column(name = "checksum", nullable = false, length = 8)
     private String checksum;
 
     /**
@@ -0,0 +1,147 @@
+package com.heronix.guardian.model.domain;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Checkpoint and progress of a chunked school-year token rotation.
+ *
+ * The rotation walks ACTIVE tokens of {@code schoolYear} in id order up to
+ * {@code maxTokenId} (the highest id when the run started, so replacement
+ * tokens are never picked up again). {@code lastTokenId} is advanced only
+ * past chunks that have committed, so a run interrupted by a crash resumes
+ * from it without skipping or repeating work.
+ */
+@Entity
+@Table(name = "token_rotation_runs", indexes = {
+    @Index(name = "idx_rotation_run_status", columnList = "status"),
+    @Index(name = "idx_rotation_run_school_year", columnList = "school_year")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TokenRotationRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * School year whose active tokens are rotated.
+     */
+    @Column(name = "school_year", nullable = false, length = 9)
+    private String schoolYear;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 15)
+    @Builder.Default
+    private RunStatus status = RunStatus.RUNNING;
+
+    /**
+     * Highest token id in scope, fixed when the run starts.
+     */
+    @Column(name = "max_token_id", nullable = false)
+    private Long maxTokenId;
+
+    /**
+     * In-scope tokens counted when the run started.
+     */
+    @Column(name = "tokens_total", nullable = false)
+    @Builder.Default
+    private Long tokensTotal = 0L;
+
+    /**
+     * Checkpoint: every in-scope token with id <= this has been rotated.
+     */
+    @Column(name = "last_token_id", nullable = false)
+    @Builder.Default
+    private Long lastTokenId = 0L;
+
+    /**
+     * Tokens rotated so far.
+     */
+    @Column(name = "tokens_rotated", nullable = false)
+    @Builder.Default
+    private Long tokensRotated = 0L;
+
+    /**
+     * Chunks committed so far.
+     */
+    @Column(name = "chunks_completed", nullable = false)
+    @Builder.Default
+    private Integer chunksCompleted = 0;
+
+    @Column(name = "rotated_by", length = 100)
+    private String rotatedBy;
+
+    @Column(name = "error_message", length = 500)
+    private String errorMessage;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (startedAt == null) {
+            startedAt = LocalDateTime.now();
+        }
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Share of in-scope tokens rotated, 0..1.
+     */
+    public double getProgress() {
+        if (status == RunStatus.COMPLETED || tokensTotal == 0) {
+            return status == RunStatus.COMPLETED ? 1.0 : 0.0;
+        }
+        return Math.min(1.0, (double) tokensRotated / tokensTotal);
+    }
+
+    /**
+     * Rotated tokens per second since the run started.
+     */
+    public double getTokensPerSecond() {
+        LocalDateTime end = completedAt != null ? completedAt : LocalDateTime.now();
+        long millis = Duration.between(startedAt, end).toMillis();
+        return millis <= 0 ? 0.0 : tokensRotated * 1000.0 / millis;
+    }
+
+    // ========================================================================
+    // ENUMS
+    // ========================================================================
+
+    public enum RunStatus {
+        RUNNING,      // In progress (or interrupted, resumable)
+        COMPLETED,    // All in-scope tokens rotated
+        FAILED        // Stopped on error, resumable
+    }
+}
@@ -0,0 +1,64 @@
+package com.heronix.guardian.model.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Approximate most-resolved tokens over a recent time span.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HotTokensDTO {
+
+    /**
+     * Vendor scope reported, or null for all scopes.
+     */
+    private String vendorScope;
+
+    /**
+     * Length of one tracking window.
+     */
+    private int windowSeconds;
+
+    /**
+     * Number of windows merged.
+     */
+    private int windows;
+
+    private LocalDateTime from;
+
+    private LocalDateTime to;
+
+    /**
+     * Resolutions counted in the span (exact).
+     */
+    private long totalResolutions;
+
+    /**
+     * Hottest tokens, highest estimated count first.
+     */
+    private List<HotToken> tokens;
+
+    /**
+     * One token's estimated resolution count.
+     * The true count lies in [estimatedCount - maxError, estimatedCount].
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class HotToken {
+
+        private String tokenValue;
+
+        private long estimatedCount;
+
+        private long maxError;
+    }
+}
@@ -0,0 +1,28 @@
+package com.heronix.guardian.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One row of the SIS tokenized sync data (GET /tokens/sync-data).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SisSyncRecordDTO {
+
+    private Long studentId;
+
+    /**
+     * The student's SIS token (older SIS versions call the field "token").
+     */
+    @JsonAlias("token")
+    private String tokenValue;
+}
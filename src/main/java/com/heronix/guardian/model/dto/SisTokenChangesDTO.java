@@ -0,0 +1,41 @@
+package com.heronix.guardian.model.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Token changes pushed by SIS (rotations, revocations) for the near-cache.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SisTokenChangesDTO {
+
+    /**
+     * Drop every cached token (e.g. after a bulk rotation in SIS).
+     */
+    private boolean invalidateAll;
+
+    /**
+     * Individual changed tokens.
+     */
+    private List<TokenChange> changes;
+
+    /**
+     * One changed token; either field may be null.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TokenChange {
+
+        private String tokenValue;
+
+        private Long studentId;
+    }
+}
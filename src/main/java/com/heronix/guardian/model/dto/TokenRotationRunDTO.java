@@ -0,0 +1,83 @@
+package com.heronix.guardian.model.dto;
+
+import java.time.LocalDateTime;
+
+import com.heronix.guardian.model.domain.TokenRotationRun;
+import com.heronix.guardian.model.domain.TokenRotationRun.RunStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress of a chunked school-year token rotation.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TokenRotationRunDTO {
+
+    private Long runId;
+
+    /**
+     * School year whose active tokens are rotated.
+     */
+    private String schoolYear;
+
+    private RunStatus status;
+
+    /**
+     * In-scope tokens counted when the run started.
+     */
+    private Long tokensTotal;
+
+    /**
+     * Tokens rotated so far.
+     */
+    private Long tokensRotated;
+
+    private Integer chunksCompleted;
+
+    /**
+     * Share of in-scope tokens rotated, 0..1.
+     */
+    private double progress;
+
+    /**
+     * Rotated tokens per second since the run started.
+     */
+    private double tokensPerSecond;
+
+    /**
+     * Checkpoint token id the run resumes after.
+     */
+    private Long lastTokenId;
+
+    private String errorMessage;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime completedAt;
+
+    /**
+     * Create from entity.
+     */
+    public static TokenRotationRunDTO fromEntity(TokenRotationRun run) {
+        return TokenRotationRunDTO.builder()
+                .runId(run.getId())
+                .schoolYear(run.getSchoolYear())
+                .status(run.getStatus())
+                .tokensTotal(run.getTokensTotal())
+                .tokensRotated(run.getTokensRotated())
+                .chunksCompleted(run.getChunksCompleted())
+                .progress(run.getProgress())
+                .tokensPerSecond(run.getTokensPerSecond())
+                .lastTokenId(run.getLastTokenId())
+                .errorMessage(run.getErrorMessage())
+                .startedAt(run.getStartedAt())
+                .completedAt(run.getCompletedAt())
+                .build();
+    }
+}
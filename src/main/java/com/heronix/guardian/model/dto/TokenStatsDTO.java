@@ -42,6 +42,11 @@ public class TokenStatsDTO {
      */
     private long rotatedTokens;
 
+    /**
+     * Number of pre-minted tokens held in the reservoir.
+     */
+    private long reservedTokens;
+
     /**
      * Breakdown by token type.
      */
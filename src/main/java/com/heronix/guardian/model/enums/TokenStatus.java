@@ -23,5 +23,10 @@ public enum TokenStatus {
     /**
      * Token was rotated and replaced by a new token
      */
-    ROTATED
+    ROTATED,
+
+    /**
+     * Token value is pre-minted and held in the reservoir, not yet assigned to an entity
+     */
+    RESERVED
 }
@@ -0,0 +1,509 @@
+package com.heronix.guardian.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.heronix.guardian.model.domain.GuardianToken;
+import com.heronix.guardian.model.enums.TokenStatus;
+import com.heronix.guardian.model.enums.TokenType;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * JDBC-level operations on guardian_tokens that are too hot or too bulky
+ * to go through the JPA entity lifecycle.
+ */
+@Repository
+@RequiredArgsConstructor
+public class GuardianTokenJdbcRepository {
+
+    private static final String RECORD_USAGE_SQL =
+            "UPDATE guardian_tokens SET usage_count = COALESCE(usage_count, 0) + ?, " +
+            "last_used_at = GREATEST(COALESCE(last_used_at, ?), ?) WHERE id = ?";
+
+    private static final String INSERT_TOKEN_SQL =
+            "INSERT INTO guardian_tokens (token_value, token_type, entity_id, entity_type, vendor_scope, " +
+            "school_year, salt, checksum, status, created_at, updated_at, expires_at, rotation_count, " +
+            "usage_count, created_by) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String CLAIM_RESERVED_SQL =
+            "UPDATE guardian_tokens SET status = 'ACTIVE', entity_id = ?, entity_type = ?, vendor_scope = ?, " +
+            "school_year = ?, expires_at = ?, rotation_count = ?, usage_count = 0, created_by = ?, " +
+            "created_at = ?, updated_at = ? WHERE id = ? AND status = 'RESERVED'";
+
+    private static final String MARK_ROTATED_SQL =
+            "UPDATE guardian_tokens SET status = 'ROTATED', updated_at = ? WHERE id = ? AND status = 'ACTIVE'";
+
+    private static final String SET_REPLACED_BY_SQL =
+            "UPDATE guardian_tokens SET replaced_by_id = ? WHERE id = ?";
+
+    // Rows per round trip when streaming large result sets
+    private static final int STREAM_FETCH_SIZE = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * A pre-minted token value held in the reservoir.
+     */
+    public record ReservedToken(Long id, String tokenValue, TokenType tokenType) {}
+
+    /**
+     * The fields of an active token needed to mint its replacement.
+     */
+    public record RotationCandidate(Long id, String tokenValue, TokenType tokenType, Long entityId,
+                                    String entityType, String vendorScope, int rotationCount, long usageCount) {}
+
+    /**
+     * Tokens of one type and (prior) status affected by a bulk status change or delete.
+     */
+    public record StatusChange(TokenType tokenType, TokenStatus status, long count, long usageCount) {}
+
+    /**
+     * Accumulated usage for a single token.
+     */
+    public record UsageDelta(Long tokenId, long count, LocalDateTime lastUsedAt) {}
+
+    /**
+     * Insert a single new token under a savepoint.
+     *
+     * If the unique index rejects the row, only the savepoint is rolled back
+     * so the caller's transaction stays usable and can retry with a new value.
+     *
+     * @return the generated ID, or empty if the row violated a unique constraint
+     */
+    @Transactional
+    public Optional<Long> tryInsertToken(GuardianToken token) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.execute((ConnectionCallback<Optional<Long>>) con -> {
+            Savepoint savepoint = con.setSavepoint();
+            try (PreparedStatement ps = con.prepareStatement(INSERT_TOKEN_SQL, new String[] {"id"})) {
+                bindToken(ps, token, now);
+                ps.executeUpdate();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    keys.next();
+                    long id = keys.getLong(1);
+                    con.releaseSavepoint(savepoint);
+                    return Optional.of(id);
+                }
+            } catch (SQLException e) {
+                con.rollback(savepoint);
+                DataAccessException translated = jdbcTemplate.getExceptionTranslator()
+                        .translate("tryInsertToken", INSERT_TOKEN_SQL, e);
+                if (translated instanceof DuplicateKeyException) {
+                    return Optional.empty();
+                }
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * Insert new (unsaved) tokens in JDBC batches under a savepoint.
+     *
+     * If any row violates a unique constraint (token value, or a second ACTIVE
+     * token for an entity created by another node), the whole batch is rolled
+     * back to the savepoint and nothing is inserted.
+     *
+     * @return true if every row was inserted, false if the batch was rolled back
+     */
+    @Transactional
+    public boolean tryBatchInsertTokens(List<GuardianToken> tokens, int batchSize) {
+        if (tokens.isEmpty()) {
+            return true;
+        }
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) con -> {
+            Savepoint savepoint = con.setSavepoint();
+            try {
+                batchInsertTokens(tokens, batchSize);
+                con.releaseSavepoint(savepoint);
+                return true;
+            } catch (DuplicateKeyException e) {
+                con.rollback(savepoint);
+                return false;
+            }
+        }));
+    }
+
+    /**
+     * Insert new (unsaved) tokens in JDBC batches.
+     * IDs are not populated; reload by token value if the entities are needed.
+     */
+    @Transactional
+    public void batchInsertTokens(List<GuardianToken> tokens, int batchSize) {
+        if (tokens.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_TOKEN_SQL, tokens, batchSize, (ps, token) -> bindToken(ps, token, now));
+    }
+
+    /**
+     * Stream every token value to a consumer without materializing the result set.
+     *
+     * @return number of values streamed
+     */
+    @Transactional(readOnly = true)
+    public long streamTokenValues(Consumer<String> consumer) {
+        long[] count = {0};
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT token_value FROM guardian_tokens");
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            consumer.accept(rs.getString(1));
+            count[0]++;
+        });
+        return count[0];
+    }
+
+    /**
+     * Load every RESERVED token.
+     */
+    @Transactional(readOnly = true)
+    public List<ReservedToken> findReservedTokens() {
+        return jdbcTemplate.query(
+                "SELECT id, token_value, token_type FROM guardian_tokens WHERE status = 'RESERVED'",
+                (rs, rowNum) -> new ReservedToken(rs.getLong(1), rs.getString(2), TokenType.valueOf(rs.getString(3))));
+    }
+
+    /**
+     * Load the RESERVED tokens among the given values (used to pick up IDs after a batch insert).
+     */
+    @Transactional(readOnly = true)
+    public List<ReservedToken> findReservedTokens(Collection<String> tokenValues) {
+        if (tokenValues.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(
+                "SELECT id, token_value, token_type FROM guardian_tokens WHERE status = 'RESERVED' " +
+                "AND token_value IN (" + placeholders(tokenValues.size()) + ")",
+                (rs, rowNum) -> new ReservedToken(rs.getLong(1), rs.getString(2), TokenType.valueOf(rs.getString(3))),
+                tokenValues.toArray());
+    }
+
+    /**
+     * Assign a RESERVED token to an entity and activate it.
+     * Only succeeds if the row is still RESERVED, so each reserved value is claimed once.
+     *
+     * The update runs under a savepoint; if the entity already has an ACTIVE
+     * token (unique index), only the savepoint is rolled back and the
+     * DuplicateKeyException is rethrown.
+     *
+     * @param claim the entity fields to apply (value, salt and checksum are kept)
+     * @return true if this call claimed the row
+     */
+    @Transactional
+    public boolean claimReservedToken(Long id, GuardianToken claim) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) con -> {
+            Savepoint savepoint = con.setSavepoint();
+            try {
+                boolean claimed = jdbcTemplate.update(CLAIM_RESERVED_SQL,
+                        claim.getEntityId(),
+                        claim.getEntityType(),
+                        claim.getVendorScope(),
+                        claim.getSchoolYear(),
+                        claim.getExpiresAt() != null ? Timestamp.valueOf(claim.getExpiresAt()) : null,
+                        claim.getRotationCount() != null ? claim.getRotationCount() : 0,
+                        claim.getCreatedBy(),
+                        now,
+                        now,
+                        id) == 1;
+                con.releaseSavepoint(savepoint);
+                return claimed;
+            } catch (DuplicateKeyException e) {
+                con.rollback(savepoint);
+                throw e;
+            }
+        }));
+    }
+
+    /**
+     * Highest id among the ACTIVE tokens of a school year (0 if none).
+     */
+    @Transactional(readOnly = true)
+    public long findMaxActiveTokenId(String schoolYear) {
+        Long max = jdbcTemplate.queryForObject(
+                "SELECT MAX(id) FROM guardian_tokens WHERE school_year = ? AND status = 'ACTIVE'",
+                Long.class, schoolYear);
+        return max != null ? max : 0L;
+    }
+
+    /**
+     * Number of ACTIVE tokens of a school year with ids in (afterId, maxId].
+     */
+    @Transactional(readOnly = true)
+    public long countActiveTokens(String schoolYear, long afterId, long maxId) {
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM guardian_tokens WHERE school_year = ? AND status = 'ACTIVE' AND id > ? AND id <= ?",
+                Long.class, schoolYear, afterId, maxId);
+        return count != null ? count : 0L;
+    }
+
+    /**
+     * Keyset page of ACTIVE token ids of a school year: ids in (afterId, maxId], ascending.
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findActiveTokenIdPage(String schoolYear, long afterId, long maxId, int limit) {
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM guardian_tokens WHERE school_year = ? AND status = 'ACTIVE' " +
+                "AND id > ? AND id <= ? ORDER BY id LIMIT ?",
+                Long.class, schoolYear, afterId, maxId, limit);
+    }
+
+    /**
+     * ACTIVE tokens of a school year with ids in (afterId, toId], ascending.
+     */
+    @Transactional(readOnly = true)
+    public List<RotationCandidate> findRotationCandidates(String schoolYear, long afterId, long toId) {
+        return jdbcTemplate.query(
+                "SELECT id, token_value, token_type, entity_id, entity_type, vendor_scope, rotation_count, " +
+                "COALESCE(usage_count, 0) " +
+                "FROM guardian_tokens WHERE school_year = ? AND status = 'ACTIVE' AND id > ? AND id <= ? ORDER BY id",
+                (rs, rowNum) -> new RotationCandidate(
+                        rs.getLong(1),
+                        rs.getString(2),
+                        TokenType.valueOf(rs.getString(3)),
+                        rs.getLong(4),
+                        rs.getString(5),
+                        rs.getString(6),
+                        rs.getInt(7),
+                        rs.getLong(8)),
+                schoolYear, afterId, toId);
+    }
+
+    /**
+     * Map token values to their ids (used to pick up IDs after a batch insert).
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Long> findIdsByTokenValues(Collection<String> tokenValues) {
+        Map<String, Long> ids = new HashMap<>(tokenValues.size() * 2);
+        if (tokenValues.isEmpty()) {
+            return ids;
+        }
+        jdbcTemplate.query(
+                "SELECT token_value, id FROM guardian_tokens WHERE token_value IN (" + placeholders(tokenValues.size()) + ")",
+                (RowCallbackHandler) rs -> ids.put(rs.getString(1), rs.getLong(2)),
+                tokenValues.toArray());
+        return ids;
+    }
+
+    /**
+     * Mark ACTIVE tokens as ROTATED in JDBC batches.
+     * Done before their replacements are inserted, which would otherwise
+     * collide with them on the one-ACTIVE-token-per-entity index.
+     *
+     * @return number of tokens marked (tokens no longer ACTIVE are skipped)
+     */
+    @Transactional
+    public int batchMarkRotated(Collection<Long> ids, int batchSize) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[][] counts = jdbcTemplate.batchUpdate(MARK_ROTATED_SQL, ids, batchSize, (ps, id) -> {
+            ps.setTimestamp(1, now);
+            ps.setLong(2, id);
+        });
+        int marked = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                // Some drivers report SUCCESS_NO_INFO (-2) instead of a row count
+                marked += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+            }
+        }
+        return marked;
+    }
+
+    /**
+     * Link rotated tokens to their replacements in JDBC batches.
+     *
+     * @param replacedBy old token id -> replacement token id
+     */
+    @Transactional
+    public void batchSetReplacedBy(Map<Long, Long> replacedBy, int batchSize) {
+        if (replacedBy.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(SET_REPLACED_BY_SQL, replacedBy.entrySet(), batchSize, (ps, entry) -> {
+            ps.setLong(1, entry.getValue());
+            ps.setLong(2, entry.getKey());
+        });
+    }
+
+    /**
+     * Keyset page of ACTIVE tokens past their expiration: ids > afterId, ascending.
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findExpiredActiveTokenIds(LocalDateTime now, long afterId, int limit) {
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM guardian_tokens WHERE status = 'ACTIVE' AND expires_at <= ? AND id > ? " +
+                "ORDER BY id LIMIT ?",
+                Long.class, Timestamp.valueOf(now), afterId, limit);
+    }
+
+    /**
+     * Mark the given tokens EXPIRED if they are still ACTIVE and past their expiration.
+     *
+     * The affected rows are locked and summarized first, so the caller learns
+     * exactly which tokens (by type, with their usage) left ACTIVE.
+     *
+     * @return the expired tokens per type (status = ACTIVE, the status they left)
+     */
+    @Transactional
+    public List<StatusChange> expireTokens(List<Long> ids, LocalDateTime now) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Timestamp timestamp = Timestamp.valueOf(now);
+        List<Object> args = new ArrayList<>(ids.size() + 2);
+        args.add(timestamp);
+        args.addAll(ids);
+        List<Long> expired = new ArrayList<>(ids.size());
+        Map<String, StatusChange> changes = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT id, token_type, status, COALESCE(usage_count, 0) FROM guardian_tokens " +
+                "WHERE status = 'ACTIVE' AND expires_at <= ? AND id IN (" + placeholders(ids.size()) + ") FOR UPDATE",
+                (RowCallbackHandler) rs -> {
+                    expired.add(rs.getLong(1));
+                    collectChange(changes, rs);
+                },
+                args.toArray());
+        if (expired.isEmpty()) {
+            return List.of();
+        }
+
+        List<Object> updateArgs = new ArrayList<>(expired.size() + 1);
+        updateArgs.add(timestamp);
+        updateArgs.addAll(expired);
+        jdbcTemplate.update(
+                "UPDATE guardian_tokens SET status = 'EXPIRED', updated_at = ? " +
+                "WHERE id IN (" + placeholders(expired.size()) + ")",
+                updateArgs.toArray());
+        return new ArrayList<>(changes.values());
+    }
+
+    /**
+     * Keyset page of ROTATED/REVOKED tokens last updated before the cutoff: ids > afterId, ascending.
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findPurgeableTokenIds(LocalDateTime cutoff, long afterId, int limit) {
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM guardian_tokens WHERE status IN ('ROTATED', 'REVOKED') AND updated_at < ? " +
+                "AND id > ? ORDER BY id LIMIT ?",
+                Long.class, Timestamp.valueOf(cutoff), afterId, limit);
+    }
+
+    /**
+     * Delete the given tokens if they are still ROTATED/REVOKED.
+     *
+     * @return the deleted tokens per type and status
+     */
+    @Transactional
+    public List<StatusChange> deletePurgeableTokens(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<Long> purgeable = new ArrayList<>(ids.size());
+        Map<String, StatusChange> changes = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT id, token_type, status, COALESCE(usage_count, 0) FROM guardian_tokens " +
+                "WHERE status IN ('ROTATED', 'REVOKED') AND id IN (" + placeholders(ids.size()) + ") FOR UPDATE",
+                (RowCallbackHandler) rs -> {
+                    purgeable.add(rs.getLong(1));
+                    collectChange(changes, rs);
+                },
+                ids.toArray());
+        if (purgeable.isEmpty()) {
+            return List.of();
+        }
+
+        jdbcTemplate.update(
+                "DELETE FROM guardian_tokens WHERE id IN (" + placeholders(purgeable.size()) + ")",
+                purgeable.toArray());
+        return new ArrayList<>(changes.values());
+    }
+
+    /**
+     * Number of ACTIVE tokens expiring at or before the given time.
+     */
+    @Transactional(readOnly = true)
+    public long countActiveTokensExpiringBefore(LocalDateTime expirationDate) {
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM guardian_tokens WHERE status = 'ACTIVE' AND expires_at <= ?",
+                Long.class, Timestamp.valueOf(expirationDate));
+        return count != null ? count : 0L;
+    }
+
+    /**
+     * Add a (id, token_type, status, usage_count) row to the per type/status summary.
+     */
+    private static void collectChange(Map<String, StatusChange> changes, ResultSet rs) throws SQLException {
+        TokenType type = TokenType.valueOf(rs.getString(2));
+        TokenStatus status = TokenStatus.valueOf(rs.getString(3));
+        long usage = rs.getLong(4);
+        changes.merge(type + ":" + status, new StatusChange(type, status, 1, usage),
+                (a, b) -> new StatusChange(type, status, a.count() + b.count(), a.usageCount() + b.usageCount()));
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
+    private static void bindToken(PreparedStatement ps, GuardianToken token, Timestamp now) throws SQLException {
+        ps.setString(1, token.getTokenValue());
+        ps.setString(2, token.getTokenType().name());
+        ps.setLong(3, token.getEntityId());
+        ps.setString(4, token.getEntityType());
+        ps.setString(5, token.getVendorScope());
+        ps.setString(6, token.getSchoolYear());
+        ps.setString(7, token.getSalt());
+        ps.setString(8, token.getChecksum());
+        ps.setString(9, token.getStatus().name());
+        ps.setTimestamp(10, now);
+        ps.setTimestamp(11, now);
+        ps.setTimestamp(12, token.getExpiresAt() != null ? Timestamp.valueOf(token.getExpiresAt()) : null);
+        ps.setInt(13, token.getRotationCount() != null ? token.getRotationCount() : 0);
+        ps.setLong(14, token.getUsageCount() != null ? token.getUsageCount() : 0L);
+        ps.setString(15, token.getCreatedBy());
+    }
+
+    /**
+     * Apply accumulated usage deltas in one JDBC batch.
+     * last_used_at only ever moves forward.
+     */
+    @Transactional
+    public void batchRecordUsage(List<UsageDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(RECORD_USAGE_SQL, deltas, deltas.size(), (ps, delta) -> {
+            Timestamp lastUsed = Timestamp.valueOf(delta.lastUsedAt());
+            ps.setLong(1, delta.count());
+            ps.setTimestamp(2, lastUsed);
+            ps.setTimestamp(3, lastUsed);
+            ps.setLong(4, delta.tokenId());
+        });
+    }
+}
@@ -1,6 +1,7 @@
 package com.heronix.guardian.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,6 +31,17 @@ public interface GuardianTokenRepository extends JpaRepository<GuardianToken, Lo
      */
     boolean existsByTokenValue(String tokenValue);
 
+    /**
+     * Find tokens by value in bulk.
+     */
+    List<GuardianToken> findByTokenValueIn(Collection<String> tokenValues);
+
+    /**
+     * Return the subset of the given token values that already exist.
+     */
+    @Query("SELECT t.tokenValue FROM GuardianToken t WHERE t.tokenValue IN :tokenValues")
+    List<String> findExistingTokenValues(@Param("tokenValues") Collection<String> tokenValues);
+
     /**
      * Find active token for an entity.
      */
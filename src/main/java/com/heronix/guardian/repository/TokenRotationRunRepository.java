@@ -0,0 +1,26 @@
+package com.heronix.guardian.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.heronix.guardian.model.domain.TokenRotationRun;
+import com.heronix.guardian.model.domain.TokenRotationRun.RunStatus;
+
+/**
+ * Repository for TokenRotationRun checkpoints.
+ */
+@Repository
+public interface TokenRotationRunRepository extends JpaRepository<TokenRotationRun, Long> {
+
+    /**
+     * Find runs in a given status (e.g. RUNNING runs to resume after a restart).
+     */
+    List<TokenRotationRun> findByStatus(RunStatus status);
+
+    /**
+     * Find runs for a school year, newest first.
+     */
+    List<TokenRotationRun> findBySchoolYearOrderByStartedAtDesc(String schoolYear);
+}
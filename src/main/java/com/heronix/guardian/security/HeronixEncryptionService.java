@@ -34,6 +34,7 @@ public final class HeronixEncryptionService {
 
     private static final byte[] DB_SALT = "HeronixDB-AES-Salt".getBytes(StandardCharsets.UTF_8);
     private static final byte[] DATA_SALT = "HeronixData-AES-Salt".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] TOKEN_MAC_SALT = "HeronixToken-HMAC-Salt".getBytes(StandardCharsets.UTF_8);
 
     private static final byte[] MAGIC = {'H', 'R', 'N', 'X'};
     private static final byte VERSION = 0x01;
@@ -44,6 +45,7 @@ public final class HeronixEncryptionService {
     private static volatile HeronixEncryptionService INSTANCE;
 
     private final SecretKey dataKey;
+    private final SecretKey tokenMacKey;
     private final String h2FilePassword;
     private final boolean disabled;
     private final SecureRandom secureRandom = new SecureRandom();
@@ -55,6 +57,7 @@ public final class HeronixEncryptionService {
         }
         this.disabled = false;
         this.dataKey = deriveKey(passphrase, DATA_SALT, 256);
+        this.tokenMacKey = deriveMacKey(passphrase);
         SecretKey dbKey = deriveKey(passphrase, DB_SALT, 128);
         this.h2FilePassword = bytesToHex(dbKey.getEncoded());
     }
@@ -62,6 +65,7 @@ public final class HeronixEncryptionService {
     private HeronixEncryptionService(boolean disabled) {
         this.disabled = true;
         this.dataKey = null;
+        this.tokenMacKey = null;
         this.h2FilePassword = "";
     }
 
@@ -70,7 +74,7 @@ public final class HeronixEncryptionService {
 
         String disabled = System.getenv(ENV_DISABLED);
         if ("true".equalsIgnoreCase(disabled)) {
-            INSTANCE = new HeronixEncryptionService(true);
+            initializeDisabled();
             logger.warning("[HeronixEncryption] Encryption is DISABLED (dev mode).");
             return;
         }
@@ -101,6 +105,11 @@ public final class HeronixEncryptionService {
         INSTANCE = new HeronixEncryptionService(passphrase);
     }
 
+    static synchronized void initializeDisabled() {
+        if (INSTANCE != null) return;
+        INSTANCE = new HeronixEncryptionService(true);
+    }
+
     public static HeronixEncryptionService getInstance() {
         if (INSTANCE == null) {
             throw new IllegalStateException(
@@ -236,6 +245,14 @@ public final class HeronixEncryptionService {
         }
     }
 
+    /**
+     * HMAC-SHA256 key for self-verifying (v2) Guardian tokens, derived from the master key.
+     * Null when encryption is disabled: there is no secret to derive it from.
+     */
+    public SecretKey getTokenMacKey() {
+        return tokenMacKey;
+    }
+
     public String getH2FilePassword() {
         return h2FilePassword;
     }
@@ -269,6 +286,10 @@ public final class HeronixEncryptionService {
         }
     }
 
+    private static SecretKey deriveMacKey(String passphrase) {
+        return new SecretKeySpec(deriveKey(passphrase, TOKEN_MAC_SALT, 256).getEncoded(), "HmacSHA256");
+    }
+
     private static String bytesToHex(byte[] bytes) {
         StringBuilder sb = new StringBuilder(bytes.length * 2);
         for (byte b : bytes) {
@@ -0,0 +1,110 @@
+package com.heronix.guardian.security;
+
+import java.security.DrbgParameters;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Contention-free source of random token characters and hex salts.
+ *
+ * Each thread owns a DRBG instance and a block of pre-drawn bytes, so
+ * concurrent minting never contends on a shared SecureRandom lock and the
+ * generator is called once per block instead of once per character.
+ * Bytes are mapped onto the charset with rejection sampling (no modulo bias)
+ * and hex is produced from a lookup table.
+ */
+@Component
+@Slf4j
+public class TokenRandomSource {
+
+    // Random bytes drawn from the DRBG per refill of a thread's block
+    private static final int BLOCK_SIZE = 4096;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final ThreadLocal<Block> blocks = ThreadLocal.withInitial(() -> new Block(newGenerator()));
+
+    /**
+     * Random string of {@code length} characters drawn uniformly from {@code charset}.
+     */
+    public String nextString(String charset, int length) {
+        int n = charset.length();
+        if (n == 0 || n > 256) {
+            throw new IllegalArgumentException("charset must have 1..256 characters: " + n);
+        }
+        // Largest multiple of n that fits in a byte; bytes at or above it are rejected
+        int limit = 256 - (256 % n);
+
+        Block block = blocks.get();
+        char[] chars = new char[length];
+        for (int i = 0; i < length; ) {
+            int b = block.next();
+            if (b < limit) {
+                chars[i++] = charset.charAt(b % n);
+            }
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Lower-case hex encoding of {@code byteCount} random bytes.
+     */
+    public String nextHex(int byteCount) {
+        Block block = blocks.get();
+        char[] chars = new char[byteCount * 2];
+        for (int i = 0; i < byteCount; i++) {
+            int b = block.next();
+            chars[2 * i] = HEX[b >>> 4];
+            chars[2 * i + 1] = HEX[b & 0x0F];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Fill {@code bytes} with random bytes.
+     */
+    public void nextBytes(byte[] bytes) {
+        Block block = blocks.get();
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) block.next();
+        }
+    }
+
+    private static SecureRandom newGenerator() {
+        try {
+            return SecureRandom.getInstance("DRBG",
+                    DrbgParameters.instantiation(256, DrbgParameters.Capability.RESEED_ONLY, null));
+        } catch (NoSuchAlgorithmException e) {
+            log.warn("TOKEN_RANDOM: DRBG unavailable, falling back to default SecureRandom: {}", e.getMessage());
+            return new SecureRandom();
+        }
+    }
+
+    /**
+     * Per-thread generator plus a buffer of bytes drawn from it in one call.
+     */
+    private static final class Block {
+        private final SecureRandom generator;
+        private final byte[] bytes = new byte[BLOCK_SIZE];
+        private int position = BLOCK_SIZE;
+
+        Block(SecureRandom generator) {
+            this.generator = generator;
+        }
+
+        int next() {
+            if (position == BLOCK_SIZE) {
+                generator.nextBytes(bytes);
+                position = 0;
+            }
+            int b = bytes[position] & 0xFF;
+            // Do not leave drawn bytes lying around once handed out
+            bytes[position++] = 0;
+            return b;
+        }
+    }
+}
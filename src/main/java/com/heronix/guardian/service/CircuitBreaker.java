@@ -0,0 +1,307 @@
+package com.heronix.guardian.service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import com.heronix.guardian.config.GuardianProperties;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Count-based circuit breaker for calls to a remote service.
+ *
+ * CLOSED: calls pass; the outcomes of the last sliding-window-size calls are
+ * kept. Once minimum-calls outcomes are in the window and the failure rate or
+ * slow-call rate reaches its threshold, the circuit opens.
+ *
+ * OPEN: calls are rejected with {@link CallNotPermittedException} so callers
+ * can fall back at once. After open-duration the circuit turns half-open.
+ *
+ * HALF_OPEN: up to half-open-calls trial calls pass. A failed or slow trial
+ * reopens the circuit; when all trials succeed it closes again.
+ *
+ * Errors rejected by the {@code isFailure} predicate (e.g. a 4xx, where the
+ * service answered) count as successful calls.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final byte SUCCESS = 0;
+    private static final byte FAILURE = 1;
+    private static final byte SLOW = 2;
+
+    private final String name;
+    private final boolean enabled;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final int slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final Predicate<Throwable> isFailure;
+    private final LongSupplier nanoClock;
+
+    // Ring buffer of outcome flags for the CLOSED state
+    private final byte[] window;
+    private int windowIndex;
+    private int windowCount;
+    private int failures;
+    private int slowCalls;
+
+    private volatile State state = State.CLOSED;
+    private long openUntil;
+    private int trialsStarted;
+    private int trialsSucceeded;
+
+    private final Map<State, LongAdder> transitions = new EnumMap<>(State.class);
+    private final LongAdder rejected = new LongAdder();
+
+    public CircuitBreaker(String name, GuardianProperties.CircuitBreakerConfig config,
+                          Predicate<Throwable> isFailure) {
+        this(name, config, isFailure, System::nanoTime);
+    }
+
+    CircuitBreaker(String name, GuardianProperties.CircuitBreakerConfig config,
+                   Predicate<Throwable> isFailure, LongSupplier nanoClock) {
+        this.name = name;
+        this.enabled = config.isEnabled();
+        this.window = new byte[Math.max(1, config.getSlidingWindowSize())];
+        this.minimumCalls = Math.max(1, Math.min(config.getMinimumCalls(), window.length));
+        this.failureRateThreshold = config.getFailureRateThreshold();
+        this.slowCallRateThreshold = config.getSlowCallRateThreshold();
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(config.getSlowCallDurationMs());
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(config.getOpenDurationMs());
+        this.halfOpenCalls = Math.max(1, config.getHalfOpenCalls());
+        this.isFailure = isFailure;
+        this.nanoClock = nanoClock;
+        for (State s : State.values()) {
+            transitions.put(s, new LongAdder());
+        }
+    }
+
+    /**
+     * Run a blocking call through the breaker.
+     *
+     * @throws CallNotPermittedException when the circuit is open
+     */
+    public <T> T call(Supplier<T> call) {
+        if (!tryAcquire()) {
+            throw new CallNotPermittedException(name);
+        }
+        long start = nanoClock.getAsLong();
+        T result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            onError(e, nanoClock.getAsLong() - start);
+            throw e;
+        }
+        onResult(false, nanoClock.getAsLong() - start);
+        return result;
+    }
+
+    /**
+     * Run a reactive call through the breaker; the permit is taken on subscription.
+     * An open circuit fails the Mono with {@link CallNotPermittedException}.
+     */
+    public <T> Mono<T> protect(Mono<T> call) {
+        return Mono.defer(() -> {
+            if (!tryAcquire()) {
+                return Mono.error(new CallNotPermittedException(name));
+            }
+            long start = nanoClock.getAsLong();
+            return call
+                    .doOnSuccess(value -> onResult(false, nanoClock.getAsLong() - start))
+                    .doOnError(e -> onError(e, nanoClock.getAsLong() - start))
+                    .doOnCancel(this::release);
+        });
+    }
+
+    /**
+     * Run a streaming call through the breaker. The outcome is recorded at the
+     * first element (or at completion or error, whichever comes first), so the
+     * slow-call threshold applies to the time to first result, not to the length
+     * of the stream.
+     */
+    public <T> Flux<T> protect(Flux<T> call) {
+        return Flux.defer(() -> {
+            if (!tryAcquire()) {
+                return Flux.error(new CallNotPermittedException(name));
+            }
+            long start = nanoClock.getAsLong();
+            AtomicBoolean recorded = new AtomicBoolean();
+            return call
+                    .doOnNext(value -> {
+                        if (recorded.compareAndSet(false, true)) {
+                            onResult(false, nanoClock.getAsLong() - start);
+                        }
+                    })
+                    .doOnComplete(() -> {
+                        if (recorded.compareAndSet(false, true)) {
+                            onResult(false, nanoClock.getAsLong() - start);
+                        }
+                    })
+                    .doOnError(e -> {
+                        if (recorded.compareAndSet(false, true)) {
+                            onError(e, nanoClock.getAsLong() - start);
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        if (recorded.compareAndSet(false, true)) {
+                            release();
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Whether a call would currently be let through, without taking a permit.
+     * Use it to skip work (such as queueing for a batch) while the circuit is open.
+     */
+    public boolean isCallPermitted() {
+        return !enabled || state != State.OPEN || nanoClock.getAsLong() - openUntil >= 0;
+    }
+
+    public State state() {
+        return state;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Transitions into the given state so far.
+     */
+    public long transitions(State to) {
+        return transitions.get(to).sum();
+    }
+
+    /**
+     * Calls rejected while the circuit was open.
+     */
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    synchronized boolean tryAcquire() {
+        if (!enabled) {
+            return true;
+        }
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openUntil < 0) {
+                rejected.increment();
+                return false;
+            }
+            transition(State.HALF_OPEN, "open duration elapsed");
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsStarted >= halfOpenCalls) {
+                rejected.increment();
+                return false;
+            }
+            trialsStarted++;
+        }
+        return true;
+    }
+
+    private void onError(Throwable e, long durationNanos) {
+        onResult(isFailure.test(e), durationNanos);
+    }
+
+    private synchronized void onResult(boolean failed, long durationNanos) {
+        if (!enabled) {
+            return;
+        }
+        boolean slow = durationNanos >= slowCallNanos;
+        switch (state) {
+            case CLOSED -> record(failed, slow);
+            case HALF_OPEN -> {
+                if (failed || slow) {
+                    open(failed ? "trial call failed" : "trial call slow");
+                } else if (++trialsSucceeded >= halfOpenCalls) {
+                    transition(State.CLOSED, trialsSucceeded + " trial calls succeeded");
+                }
+            }
+            case OPEN -> {
+                // Outcome of a call started before the circuit opened
+            }
+        }
+    }
+
+    private synchronized void release() {
+        if (enabled && state == State.HALF_OPEN && trialsStarted > trialsSucceeded) {
+            trialsStarted--;
+        }
+    }
+
+    private void record(boolean failed, boolean slow) {
+        if (windowCount == window.length) {
+            byte evicted = window[windowIndex];
+            failures -= evicted & FAILURE;
+            slowCalls -= (evicted & SLOW) >> 1;
+        } else {
+            windowCount++;
+        }
+        byte outcome = (byte) ((failed ? FAILURE : SUCCESS) | (slow ? SLOW : SUCCESS));
+        window[windowIndex] = outcome;
+        windowIndex = (windowIndex + 1) % window.length;
+        failures += failed ? 1 : 0;
+        slowCalls += slow ? 1 : 0;
+
+        if (windowCount < minimumCalls) {
+            return;
+        }
+        int failureRate = failures * 100 / windowCount;
+        int slowCallRate = slowCalls * 100 / windowCount;
+        if (failureRate >= failureRateThreshold) {
+            open("failure rate " + failureRate + "%");
+        } else if (slowCallRate >= slowCallRateThreshold) {
+            open("slow-call rate " + slowCallRate + "%");
+        }
+    }
+
+    private void open(String reason) {
+        openUntil = nanoClock.getAsLong() + openNanos;
+        transition(State.OPEN, reason);
+    }
+
+    private void transition(State to, String reason) {
+        State from = state;
+        state = to;
+        transitions.get(to).increment();
+        trialsStarted = 0;
+        trialsSucceeded = 0;
+        if (to == State.CLOSED) {
+            windowIndex = 0;
+            windowCount = 0;
+            failures = 0;
+            slowCalls = 0;
+        }
+        if (to == State.OPEN) {
+            log.warn("CIRCUIT_BREAKER: {} {} -> OPEN ({}), using fallback for {} ms",
+                    name, from, reason, TimeUnit.NANOSECONDS.toMillis(openNanos));
+        } else {
+            log.info("CIRCUIT_BREAKER: {} {} -> {} ({})", name, from, to, reason);
+        }
+    }
+
+    /**
+     * Thrown (or signalled) instead of making a call while the circuit is open.
+     */
+    public static class CallNotPermittedException extends RuntimeException {
+        public CallNotPermittedException(String name) {
+            super("Circuit " + name + " is open");
+        }
+    }
+}
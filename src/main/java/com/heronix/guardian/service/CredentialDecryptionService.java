@@ -1,8 +1,10 @@
 package com.heronix.guardian.service;
 
 import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.SecureRandom;
+import java.util.Arrays;
 import java.util.Base64;
 
 import javax.crypto.Cipher;
@@ -92,6 +94,36 @@ public class CredentialDecryptionService {
         if (encryptedValue == null || encryptedValue.isBlank()) {
             return null;
         }
+        byte[] plaintext = decryptBytes(encryptedValue);
+        try {
+            return new String(plaintext, StandardCharsets.UTF_8);
+        } finally {
+            Arrays.fill(plaintext, (byte) 0);
+        }
+    }
+
+    /**
+     * Decrypt an encrypted credential value into a char array the caller can
+     * zero once done with it. Intermediate buffers are zeroed before returning.
+     * Returns null if the input is null/empty.
+     *
+     * @throws IllegalStateException if decryption fails
+     */
+    public char[] decryptToChars(String encryptedValue) {
+        if (encryptedValue == null || encryptedValue.isBlank()) {
+            return null;
+        }
+        byte[] plaintext = decryptBytes(encryptedValue);
+        CharBuffer chars = StandardCharsets.UTF_8.decode(ByteBuffer.wrap(plaintext));
+        try {
+            return Arrays.copyOfRange(chars.array(), chars.position(), chars.limit());
+        } finally {
+            Arrays.fill(chars.array(), '\0');
+            Arrays.fill(plaintext, (byte) 0);
+        }
+    }
+
+    private byte[] decryptBytes(String encryptedValue) {
         if (secretKey == null) {
             throw new IllegalStateException("Encryption key not initialized. Set GUARDIAN_MASTER_KEY.");
         }
@@ -110,8 +142,7 @@ public class CredentialDecryptionService {
             GCMParameterSpec spec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
             cipher.init(Cipher.DECRYPT_MODE, secretKey, spec);
 
-            byte[] plaintext = cipher.doFinal(ciphertext);
-            return new String(plaintext, StandardCharsets.UTF_8);
+            return cipher.doFinal(ciphertext);
 
         } catch (Exception e) {
             throw new IllegalStateException("Failed to decrypt credential", e);
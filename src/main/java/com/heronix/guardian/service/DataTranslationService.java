@@ -3,6 +3,7 @@ package com.heronix.guardian.service;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -187,11 +188,22 @@ public class DataTranslationService {
      */
     @Transactional
     public Optional<GradeUpdateDTO> translateInboundGrade(InboundGradeDTO inboundGrade, VendorType vendor) {
+        return translateInboundGrade(inboundGrade, vendor, null);
+    }
+
+    /**
+     * @param sisStudentIds student tokens already resolved through SIS, or null to resolve individually
+     */
+    private Optional<GradeUpdateDTO> translateInboundGrade(InboundGradeDTO inboundGrade, VendorType vendor,
+                                                           Map<String, Long> sisStudentIds) {
         try {
             // Resolve student token (SIS bridge or local)
             Long studentId;
             if (sisTokenBridge != null) {
-                studentId = sisTokenBridge.resolveToken(inboundGrade.getStudentToken())
+                Optional<Long> resolved = sisStudentIds != null
+                        ? Optional.ofNullable(sisStudentIds.get(inboundGrade.getStudentToken()))
+                        : sisTokenBridge.resolveToken(inboundGrade.getStudentToken());
+                studentId = resolved
                         .orElseThrow(() -> new IllegalArgumentException(
                                 "Cannot resolve student token: " + inboundGrade.getStudentToken()));
             } else {
@@ -245,16 +257,32 @@ public class DataTranslationService {
             List<InboundGradeDTO> inboundGrades,
             VendorType vendor) {
 
-        List<GradeUpdateDTO> results = new ArrayList<>();
+        // Resolve all student tokens through SIS batch requests up front
+        Map<String, Long> sisStudentIds = sisTokenBridge != null
+                ? sisTokenBridge.resolveTokens(studentTokens(inboundGrades))
+                : null;
 
+        return translateInboundGrades(inboundGrades, vendor, sisStudentIds);
+    }
+
+    private List<GradeUpdateDTO> translateInboundGrades(List<InboundGradeDTO> inboundGrades, VendorType vendor,
+                                                        Map<String, Long> sisStudentIds) {
+        List<GradeUpdateDTO> results = new ArrayList<>();
         for (InboundGradeDTO grade : inboundGrades) {
-            translateInboundGrade(grade, vendor).ifPresent(results::add);
+            translateInboundGrade(grade, vendor, sisStudentIds).ifPresent(results::add);
         }
 
         log.info("Translated {}/{} grades from {}", results.size(), inboundGrades.size(), vendor);
         return results;
     }
 
+    private static List<String> studentTokens(List<InboundGradeDTO> inboundGrades) {
+        return inboundGrades.stream()
+                .map(InboundGradeDTO::getStudentToken)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
     // ========================================================================
     // HELPER METHODS
     // ========================================================================
@@ -5,8 +5,11 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -22,6 +25,9 @@ import com.heronix.guardian.repository.VendorCredentialRepository;
 import com.heronix.guardian.service.SyncOrchestrationService.SyncJobResult;
 
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * Guardian LMS Service - Main orchestration layer for LMS operations.
@@ -105,26 +111,29 @@ public class GuardianLmsService {
                     .orElseThrow(() -> new RuntimeException("Vendor not found: " + vendorCredentialId));
 
             VendorType vendorType = credential.getVendorType();
-            List<TokenizedStudentDTO> tokenizedStudents = new ArrayList<>();
+            List<Long> studentIds = students.stream().map(StudentSyncRequest::studentId).toList();
 
-            for (StudentSyncRequest student : students) {
-                TokenizedStudentDTO tokenized = tokenizeStudent(student, vendorType);
-                if (tokenized != null) {
-                    tokenizedStudents.add(tokenized);
+            return withStudentTokens(studentIds, vendorType, jobId, startedAt, sisTokens -> {
+                List<TokenizedStudentDTO> tokenizedStudents = new ArrayList<>();
+                for (StudentSyncRequest student : students) {
+                    TokenizedStudentDTO tokenized = tokenizeStudent(student, vendorType, sisTokens);
+                    if (tokenized != null) {
+                        tokenizedStudents.add(tokenized);
+                    }
                 }
-            }
 
-            if (tokenizedStudents.isEmpty()) {
-                return CompletableFuture.completedFuture(
-                        SyncJobResult.failure(jobId, "No students tokenized successfully", startedAt));
-            }
+                if (tokenizedStudents.isEmpty()) {
+                    return CompletableFuture.completedFuture(
+                            SyncJobResult.failure(jobId, "No students tokenized successfully", startedAt));
+                }
 
-            // Route through gateway if enabled
-            if (gatewayService != null) {
-                logGatewayTransmission("STUDENT_SYNC", tokenizedStudents.size(), vendorCredentialId);
-            }
+                // Route through gateway if enabled
+                if (gatewayService != null) {
+                    logGatewayTransmission("STUDENT_SYNC", tokenizedStudents.size(), vendorCredentialId);
+                }
 
-            return syncService.pushStudentsAsync(vendorCredentialId, tokenizedStudents);
+                return syncService.pushStudentsAsync(vendorCredentialId, tokenizedStudents);
+            });
 
         } catch (Exception e) {
             log.error("GUARDIAN_LMS: Student sync job {} failed: {}", jobId, e.getMessage());
@@ -193,23 +202,26 @@ public class GuardianLmsService {
                     .orElseThrow(() -> new RuntimeException("Vendor not found: " + vendorCredentialId));
 
             VendorType vendorType = credential.getVendorType();
-            List<VendorAdapter.EnrollmentPair> tokenizedEnrollments = new ArrayList<>();
+            List<Long> studentIds = enrollments.stream().map(EnrollmentSyncRequest::studentId).toList();
 
-            for (EnrollmentSyncRequest enrollment : enrollments) {
-                String studentToken = getStudentToken(enrollment.studentId(), vendorType);
-                String courseToken = translationService.tokenizeCourse(
-                        enrollment.courseId(), null, null, null, null, null,
-                        null, null, null, null, vendorType).getToken();
+            return withStudentTokens(studentIds, vendorType, jobId, startedAt, sisTokens -> {
+                List<VendorAdapter.EnrollmentPair> tokenizedEnrollments = new ArrayList<>();
+                for (EnrollmentSyncRequest enrollment : enrollments) {
+                    String studentToken = getStudentToken(enrollment.studentId(), vendorType, sisTokens);
+                    String courseToken = translationService.tokenizeCourse(
+                            enrollment.courseId(), null, null, null, null, null,
+                            null, null, null, null, vendorType).getToken();
 
-                tokenizedEnrollments.add(new VendorAdapter.EnrollmentPair(
-                        studentToken, courseToken, enrollment.role()));
-            }
+                    tokenizedEnrollments.add(new VendorAdapter.EnrollmentPair(
+                            studentToken, courseToken, enrollment.role()));
+                }
 
-            if (gatewayService != null) {
-                logGatewayTransmission("ENROLLMENT_SYNC", tokenizedEnrollments.size(), vendorCredentialId);
-            }
+                if (gatewayService != null) {
+                    logGatewayTransmission("ENROLLMENT_SYNC", tokenizedEnrollments.size(), vendorCredentialId);
+                }
 
-            return syncService.pushEnrollmentsAsync(vendorCredentialId, tokenizedEnrollments);
+                return syncService.pushEnrollmentsAsync(vendorCredentialId, tokenizedEnrollments);
+            });
 
         } catch (Exception e) {
             log.error("GUARDIAN_LMS: Enrollment sync job {} failed: {}", jobId, e.getMessage());
@@ -244,49 +256,59 @@ public class GuardianLmsService {
 
             VendorType vendorType = credential.getVendorType();
 
-            // Tokenize students
-            List<TokenizedStudentDTO> tokenizedStudents = new ArrayList<>();
+            // Fetch SIS tokens for all students and enrolled students in batches
+            List<Long> studentIds = new ArrayList<>();
             if (request.students() != null) {
-                for (StudentSyncRequest student : request.students()) {
-                    TokenizedStudentDTO tokenized = tokenizeStudent(student, vendorType);
-                    if (tokenized != null) {
-                        tokenizedStudents.add(tokenized);
+                request.students().forEach(student -> studentIds.add(student.studentId()));
+            }
+            if (request.enrollments() != null) {
+                request.enrollments().forEach(enrollment -> studentIds.add(enrollment.studentId()));
+            }
+            return withStudentTokens(studentIds, vendorType, jobId, startedAt, sisTokens -> {
+                // Tokenize students
+                List<TokenizedStudentDTO> tokenizedStudents = new ArrayList<>();
+                if (request.students() != null) {
+                    for (StudentSyncRequest student : request.students()) {
+                        TokenizedStudentDTO tokenized = tokenizeStudent(student, vendorType, sisTokens);
+                        if (tokenized != null) {
+                            tokenizedStudents.add(tokenized);
+                        }
                     }
                 }
-            }
 
-            // Tokenize courses
-            List<TokenizedCourseDTO> tokenizedCourses = new ArrayList<>();
-            if (request.courses() != null) {
-                for (DataTranslationService.CourseData course : request.courses()) {
-                    tokenizedCourses.add(translationService.tokenizeCourse(
-                            course.id(), course.courseName(), course.courseCode(),
-                            course.section(), course.subject(), course.gradeLevel(),
-                            course.teacherId(), course.teacherFirstName(), course.teacherLastName(),
-                            course.term(), vendorType));
+                // Tokenize courses
+                List<TokenizedCourseDTO> tokenizedCourses = new ArrayList<>();
+                if (request.courses() != null) {
+                    for (DataTranslationService.CourseData course : request.courses()) {
+                        tokenizedCourses.add(translationService.tokenizeCourse(
+                                course.id(), course.courseName(), course.courseCode(),
+                                course.section(), course.subject(), course.gradeLevel(),
+                                course.teacherId(), course.teacherFirstName(), course.teacherLastName(),
+                                course.term(), vendorType));
+                    }
                 }
-            }
 
-            // Tokenize enrollments
-            List<VendorAdapter.EnrollmentPair> tokenizedEnrollments = new ArrayList<>();
-            if (request.enrollments() != null) {
-                for (EnrollmentSyncRequest enrollment : request.enrollments()) {
-                    String studentToken = getStudentToken(enrollment.studentId(), vendorType);
-                    String courseToken = translationService.tokenizeCourse(
-                            enrollment.courseId(), null, null, null, null, null,
-                            null, null, null, null, vendorType).getToken();
-                    tokenizedEnrollments.add(new VendorAdapter.EnrollmentPair(
-                            studentToken, courseToken, enrollment.role()));
+                // Tokenize enrollments
+                List<VendorAdapter.EnrollmentPair> tokenizedEnrollments = new ArrayList<>();
+                if (request.enrollments() != null) {
+                    for (EnrollmentSyncRequest enrollment : request.enrollments()) {
+                        String studentToken = getStudentToken(enrollment.studentId(), vendorType, sisTokens);
+                        String courseToken = translationService.tokenizeCourse(
+                                enrollment.courseId(), null, null, null, null, null,
+                                null, null, null, null, vendorType).getToken();
+                        tokenizedEnrollments.add(new VendorAdapter.EnrollmentPair(
+                                studentToken, courseToken, enrollment.role()));
+                    }
                 }
-            }
 
-            if (gatewayService != null) {
-                int total = tokenizedStudents.size() + tokenizedCourses.size() + tokenizedEnrollments.size();
-                logGatewayTransmission("FULL_SYNC", total, vendorCredentialId);
-            }
+                if (gatewayService != null) {
+                    int total = tokenizedStudents.size() + tokenizedCourses.size() + tokenizedEnrollments.size();
+                    logGatewayTransmission("FULL_SYNC", total, vendorCredentialId);
+                }
 
-            return syncService.fullSyncAsync(vendorCredentialId,
-                    tokenizedStudents, tokenizedCourses, tokenizedEnrollments);
+                return syncService.fullSyncAsync(vendorCredentialId,
+                        tokenizedStudents, tokenizedCourses, tokenizedEnrollments);
+            });
 
         } catch (Exception e) {
             log.error("GUARDIAN_LMS: Full sync job {} failed: {}", jobId, e.getMessage());
@@ -299,11 +321,50 @@ public class GuardianLmsService {
     // PRIVATE HELPERS
     // ========================================================================
 
-    private TokenizedStudentDTO tokenizeStudent(StudentSyncRequest student, VendorType vendorType) {
+    /**
+     * Run a sync job once the SIS tokens for its students are known.
+     *
+     * The SIS lookups are non-blocking (bounded concurrency, coalesced into SIS
+     * batch requests); the job itself runs on a bounded-elastic thread because
+     * local tokenization uses JDBC.
+     */
+    private CompletableFuture<SyncJobResult> withStudentTokens(
+            List<Long> studentIds, VendorType vendorType, String jobId, LocalDateTime startedAt,
+            Function<Map<Long, String>, CompletableFuture<SyncJobResult>> job) {
+
+        return prefetchStudentTokens(studentIds, vendorType)
+                .publishOn(Schedulers.boundedElastic())
+                .toFuture()
+                .thenCompose(job)
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    log.error("GUARDIAN_LMS: Sync job {} failed: {}", jobId, cause.getMessage());
+                    return SyncJobResult.failure(jobId, cause.getMessage(), startedAt);
+                });
+    }
+
+    /**
+     * SIS tokens for a set of students, fetched through SIS batch requests.
+     * Empty when the SIS bridge is not active.
+     */
+    private Mono<Map<Long, String>> prefetchStudentTokens(List<Long> studentIds, VendorType vendorType) {
+        if (sisTokenBridge == null || studentIds.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        return sisTokenBridge.getOrCreateTokensReactive(
+                        Flux.fromIterable(studentIds.stream().filter(Objects::nonNull).toList()), vendorType.name())
+                .collectMap(SisTokenBridgeService.StudentToken::studentId, SisTokenBridgeService.StudentToken::tokenValue);
+    }
+
+    private TokenizedStudentDTO tokenizeStudent(StudentSyncRequest student, VendorType vendorType,
+                                                Map<Long, String> sisTokens) {
         try {
             String tokenValue;
             if (sisTokenBridge != null) {
-                tokenValue = sisTokenBridge.getOrCreateToken(student.studentId(), vendorType.name());
+                tokenValue = student.studentId() != null ? sisTokens.get(student.studentId()) : null;
+                if (tokenValue == null) {
+                    tokenValue = sisTokenBridge.getOrCreateToken(student.studentId(), vendorType.name());
+                }
             } else {
                 // Fallback to local DataTranslationService
                 TokenizedStudentDTO dto = translationService.tokenizeStudent(
@@ -327,9 +388,10 @@ public class GuardianLmsService {
         }
     }
 
-    private String getStudentToken(Long studentId, VendorType vendorType) {
+    private String getStudentToken(Long studentId, VendorType vendorType, Map<Long, String> sisTokens) {
         if (sisTokenBridge != null) {
-            return sisTokenBridge.getOrCreateToken(studentId, vendorType.name());
+            String tokenValue = studentId != null ? sisTokens.get(studentId) : null;
+            return tokenValue != null ? tokenValue : sisTokenBridge.getOrCreateToken(studentId, vendorType.name());
         }
         // Fallback: use local token mapping
         return translationService.tokenizeStudent(studentId, null, null, null, vendorType).getToken();
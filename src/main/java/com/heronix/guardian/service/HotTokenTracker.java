@@ -0,0 +1,194 @@
+package com.heronix.guardian.service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.heronix.guardian.cache.SpaceSaving;
+import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.model.dto.HotTokensDTO;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Approximate top-K most-resolved tokens, per vendor scope and time window.
+ *
+ * Every successful resolution is offered to a Space-Saving sketch for the
+ * token's vendor scope and the current tumbling window; the last
+ * {@code windows} windows are kept in a ring per scope. Queries merge the
+ * sketches of the requested span (and scopes), so the monitor sees hot
+ * tokens in real time without sorting guardian_tokens by usage_count.
+ *
+ * Counts over-estimate by at most the reported error; any token resolved
+ * more than (resolutions in window / capacity) times is always listed.
+ */
+@Component
+@Slf4j
+public class HotTokenTracker {
+
+    /**
+     * Scope key for tokens without a vendor scope.
+     */
+    public static final String UNIVERSAL_SCOPE = "universal";
+
+    private final GuardianProperties.HotTokensConfig config;
+    private final LongSupplier clock;
+    private final Map<String, ScopeWindows> scopes = new ConcurrentHashMap<>();
+
+    @Autowired
+    public HotTokenTracker(GuardianProperties properties) {
+        this(properties, System::currentTimeMillis);
+    }
+
+    HotTokenTracker(GuardianProperties properties, LongSupplier clock) {
+        this.config = properties.getToken().getHotTokens();
+        this.clock = clock;
+        log.info("HOT_TOKENS: Initialized - capacity: {}, window: {}s x {}",
+                config.getCapacity(), config.getWindowSeconds(), config.getWindows());
+    }
+
+    /**
+     * Count one resolution of a token.
+     */
+    public void record(String vendorScope, String tokenValue) {
+        if (!config.isEnabled() || tokenValue == null) {
+            return;
+        }
+        String scope = vendorScope != null ? vendorScope : UNIVERSAL_SCOPE;
+        scopes.computeIfAbsent(scope, s -> new ScopeWindows(config.getWindows(), config.getCapacity()))
+                .sketch(currentWindow())
+                .offer(tokenValue);
+    }
+
+    /**
+     * Top tokens over the most recent windows.
+     *
+     * @param vendorScope scope to report ({@link #UNIVERSAL_SCOPE} for unscoped tokens), or null for all scopes
+     * @param windows     number of most recent windows to merge (clamped to the retained range)
+     * @param limit       maximum tokens returned
+     */
+    public HotTokensDTO top(String vendorScope, int windows, int limit) {
+        int span = Math.max(1, Math.min(windows, config.getWindows()));
+        long current = currentWindow();
+        long oldest = current - span + 1;
+
+        List<SpaceSaving<String>> sketches = new ArrayList<>();
+        if (vendorScope != null) {
+            ScopeWindows scope = scopes.get(vendorScope);
+            if (scope != null) {
+                scope.collect(oldest, current, sketches);
+            }
+        } else {
+            scopes.values().forEach(scope -> scope.collect(oldest, current, sketches));
+        }
+
+        // Merge: a token absent from a full sketch may still have up to that sketch's minimum count
+        Map<String, long[]> merged = new HashMap<>();
+        long totalMin = 0;
+        long resolutions = 0;
+        for (SpaceSaving<String> sketch : sketches) {
+            long min = sketch.minCount();
+            totalMin += min;
+            resolutions += sketch.total();
+            for (SpaceSaving.Entry<String> entry : sketch.top(sketch.capacity())) {
+                long[] acc = merged.computeIfAbsent(entry.key(), k -> new long[3]);
+                acc[0] += entry.count();
+                acc[1] += entry.error();
+                acc[2] += min;
+            }
+        }
+
+        List<HotTokensDTO.HotToken> tokens = new ArrayList<>(merged.size());
+        for (Map.Entry<String, long[]> entry : merged.entrySet()) {
+            long[] acc = entry.getValue();
+            long missed = totalMin - acc[2];
+            tokens.add(new HotTokensDTO.HotToken(entry.getKey(), acc[0] + missed, acc[1] + missed));
+        }
+        tokens.sort(Comparator.comparingLong(HotTokensDTO.HotToken::getEstimatedCount).reversed());
+        if (tokens.size() > limit) {
+            tokens = new ArrayList<>(tokens.subList(0, Math.max(0, limit)));
+        }
+
+        long windowMillis = windowMillis();
+        return HotTokensDTO.builder()
+                .vendorScope(vendorScope)
+                .windowSeconds(config.getWindowSeconds())
+                .windows(span)
+                .from(toLocalDateTime(oldest * windowMillis))
+                .to(toLocalDateTime(clock.getAsLong()))
+                .totalResolutions(resolutions)
+                .tokens(tokens)
+                .build();
+    }
+
+    /**
+     * Vendor scopes with recorded resolutions.
+     */
+    public List<String> scopes() {
+        return scopes.keySet().stream().sorted().toList();
+    }
+
+    // ========================================================================
+    // INTERNALS
+    // ========================================================================
+
+    private long currentWindow() {
+        return clock.getAsLong() / windowMillis();
+    }
+
+    private long windowMillis() {
+        return Math.max(1, config.getWindowSeconds()) * 1000L;
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    /**
+     * Ring of per-window sketches for one scope; a slot is cleared when its window comes round again.
+     */
+    private static final class ScopeWindows {
+        private final SpaceSaving<String>[] sketches;
+        private final long[] windowIds;
+
+        @SuppressWarnings("unchecked")
+        ScopeWindows(int windows, int capacity) {
+            int count = Math.max(1, windows);
+            this.sketches = new SpaceSaving[count];
+            this.windowIds = new long[count];
+            for (int i = 0; i < count; i++) {
+                sketches[i] = new SpaceSaving<>(capacity);
+                windowIds[i] = -1;
+            }
+        }
+
+        SpaceSaving<String> sketch(long windowId) {
+            int slot = (int) Math.floorMod(windowId, (long) sketches.length);
+            synchronized (this) {
+                if (windowIds[slot] != windowId) {
+                    sketches[slot].clear();
+                    windowIds[slot] = windowId;
+                }
+            }
+            return sketches[slot];
+        }
+
+        synchronized void collect(long fromWindow, long toWindow, List<SpaceSaving<String>> into) {
+            for (int i = 0; i < sketches.length; i++) {
+                if (windowIds[i] >= fromWindow && windowIds[i] <= toWindow) {
+                    into.add(sketches[i]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.heronix.guardian.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * Splits a JSON array arriving in byte chunks into its elements, using
+ * Jackson's non-blocking parser.
+ *
+ * The array is either the document root ({@code [ {...}, {...} ]}) or the
+ * value of one top-level field ({@code { "success": true, "data": [ ... ] }}).
+ * Everything outside the array is skipped. Only the element being parsed is
+ * held in memory, so memory use is bounded by the largest element rather than
+ * the document.
+ *
+ * Not thread-safe; use one instance per document.
+ */
+class JsonArrayElementSplitter<T> {
+
+    private final ObjectMapper objectMapper;
+    private final Class<T> elementType;
+    private final String field;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+
+    private int depth;
+    private boolean fieldMatched;
+    private int arrayDepth = -1;
+    private TokenBuffer element;
+
+    JsonArrayElementSplitter(ObjectMapper objectMapper, Class<T> elementType, String field) {
+        this.objectMapper = objectMapper;
+        this.elementType = elementType;
+        this.field = field;
+        try {
+            this.parser = new JsonFactory().createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * Parse the next chunk; returns the elements it completed.
+     */
+    List<T> feed(byte[] chunk) throws IOException {
+        feeder.feedInput(chunk, 0, chunk.length);
+        return drain();
+    }
+
+    /**
+     * Signal the end of the document; returns any elements still pending.
+     *
+     * @throws IOException when the document ended inside the array
+     */
+    List<T> finish() throws IOException {
+        feeder.endOfInput();
+        List<T> elements = drain();
+        if (element != null || arrayDepth >= 0) {
+            throw new IOException("JSON document ended inside the '" + field + "' array");
+        }
+        return elements;
+    }
+
+    private List<T> drain() throws IOException {
+        List<T> elements = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            if (element != null) {
+                element.copyCurrentEvent(parser);
+                track(token);
+                if (depth == arrayDepth) {
+                    elements.add(complete());
+                }
+            } else if (arrayDepth >= 0) {
+                if (token == JsonToken.END_ARRAY && depth == arrayDepth) {
+                    arrayDepth = -1;
+                    track(token);
+                    continue;
+                }
+                element = new TokenBuffer(parser);
+                element.copyCurrentEvent(parser);
+                track(token);
+                if (depth == arrayDepth) {
+                    // Scalar element
+                    elements.add(complete());
+                }
+            } else {
+                boolean arrayStarts = token == JsonToken.START_ARRAY && (depth == 0 || fieldMatched);
+                fieldMatched = token == JsonToken.FIELD_NAME && depth == 1 && field.equals(parser.currentName());
+                track(token);
+                if (arrayStarts) {
+                    arrayDepth = depth;
+                }
+            }
+        }
+        return elements;
+    }
+
+    private void track(JsonToken token) {
+        if (token.isStructStart()) {
+            depth++;
+        } else if (token.isStructEnd()) {
+            depth--;
+        }
+    }
+
+    private T complete() throws IOException {
+        TokenBuffer buffer = element;
+        element = null;
+        try (JsonParser elementParser = buffer.asParser(objectMapper)) {
+            return objectMapper.readValue(elementParser, elementType);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.heronix.guardian.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent single-key lookups into batch calls.
+ *
+ * Keys submitted within {@code maxDelay} of the first pending key (or until
+ * {@code maxBatchSize} keys are pending) are sent together in one call; each
+ * caller's future completes with the value for its key, or null if the batch
+ * result has none. A key already pending shares the pending future. If the
+ * batch call throws, every future of that batch fails with the exception.
+ *
+ * Batch calls run on the supplied executor. The scheduler only times the
+ * delay and hands the batch over, so a slow batch call never holds up the
+ * timers of other batches.
+ */
+public class MicroBatcher<K, V> {
+
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final ScheduledExecutorService timers;
+    private final Executor executor;
+    private final Function<List<K>, Map<K, V>> batchCall;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder items = new LongAdder();
+
+    private Map<K, CompletableFuture<V>> pending = new LinkedHashMap<>();
+    private ScheduledFuture<?> timer;
+
+    /**
+     * @param timers   times the delay of pending batches
+     * @param executor runs the (blocking) batch calls
+     */
+    public MicroBatcher(int maxBatchSize, Duration maxDelay, ScheduledExecutorService timers, Executor executor,
+                        Function<List<K>, Map<K, V>> batchCall) {
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxDelayNanos = Math.max(0, maxDelay.toNanos());
+        this.timers = timers;
+        this.executor = executor;
+        this.batchCall = batchCall;
+    }
+
+    /**
+     * Queue a key for the next batch.
+     */
+    public CompletableFuture<V> submit(K key) {
+        Map<K, CompletableFuture<V>> full = null;
+        CompletableFuture<V> future;
+
+        synchronized (this) {
+            future = pending.get(key);
+            if (future != null) {
+                return future;
+            }
+            future = new CompletableFuture<>();
+            pending.put(key, future);
+
+            if (pending.size() >= maxBatchSize) {
+                full = drain();
+            } else if (pending.size() == 1) {
+                timer = timers.schedule(this::dispatchPending, maxDelayNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        if (full != null) {
+            dispatch(full);
+        }
+        return future;
+    }
+
+    /**
+     * Submit a key and wait for its value.
+     *
+     * @return the value, or null if the batch result had none
+     * @throws Exception the batch call's exception, or a TimeoutException
+     */
+    public V await(K key, Duration timeout) throws Exception {
+        try {
+            return submit(key).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    /**
+     * Send whatever is pending now.
+     */
+    public void flush() {
+        Map<K, CompletableFuture<V>> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = drain();
+        }
+        run(batch);
+    }
+
+    /**
+     * Batch calls made.
+     */
+    public long batches() {
+        return batches.sum();
+    }
+
+    /**
+     * Distinct keys sent in batch calls.
+     */
+    public long items() {
+        return items.sum();
+    }
+
+    private void dispatchPending() {
+        Map<K, CompletableFuture<V>> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = drain();
+        }
+        dispatch(batch);
+    }
+
+    private Map<K, CompletableFuture<V>> drain() {
+        Map<K, CompletableFuture<V>> batch = pending;
+        pending = new LinkedHashMap<>();
+        if (timer != null) {
+            timer.cancel(false);
+            timer = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(Map<K, CompletableFuture<V>> batch) {
+        try {
+            executor.execute(() -> run(batch));
+        } catch (RejectedExecutionException e) {
+            run(batch);
+        }
+    }
+
+    private void run(Map<K, CompletableFuture<V>> batch) {
+        batches.increment();
+        items.add(batch.size());
+        try {
+            Map<K, V> results = batchCall.apply(new ArrayList<>(batch.keySet()));
+            batch.forEach((key, future) -> future.complete(results != null ? results.get(key) : null));
+        } catch (Throwable t) {
+            batch.values().forEach(future -> future.completeExceptionally(t));
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.heronix.guardian.service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+
+import com.heronix.guardian.cache.BloomFilter;
+import com.heronix.guardian.cache.BoundedTtlCache;
+import com.heronix.guardian.cache.FrequencySketch;
+import com.heronix.guardian.config.GuardianProperties;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Short-lived cache of token values known not to exist.
+ *
+ * Lets replayed stale tokens and repeated probes be answered "Token not found"
+ * without a database or SIS round trip. Entries are bounded by size and a short
+ * TTL, and are dropped as soon as a token with the same value is minted.
+ *
+ * Admission (TinyLFU): a value is only considered on its second miss within
+ * the doorkeeper window (a Bloom filter that is reset every
+ * {@code doorkeeperSize} misses), so scanners sending each random value once
+ * never get admitted. Misses and cache hits are also counted in a frequency
+ * sketch; once the cache is full a value is admitted only if it has been seen
+ * more often than the entry it would evict. Sending each value twice therefore
+ * does not flush the values that are actually being replayed.
+ *
+ * Metrics: guardian.token.negative.hits / misses / admitted / rejected / size / hit.rate
+ */
+@Component
+@Slf4j
+public class NegativeTokenCache implements MeterBinder {
+
+    private static final double DOORKEEPER_FALSE_POSITIVE_RATE = 0.01;
+
+    private final BoundedTtlCache<String, Boolean> cache;
+    private final int doorkeeperSize;
+    private final AtomicReference<BloomFilter> doorkeeper = new AtomicReference<>();
+    private final FrequencySketch frequencies;
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public NegativeTokenCache(GuardianProperties properties) {
+        GuardianProperties.TokenConfig config = properties.getToken();
+        this.cache = new BoundedTtlCache<>(
+                config.getNegativeCacheMaxSize(),
+                Duration.ofSeconds(config.getNegativeCacheTtlSeconds()));
+        this.doorkeeperSize = config.getNegativeCacheDoorkeeperSize();
+        // Sized to the misses the doorkeeper tracks, not the cache: far more distinct values miss than are admitted
+        this.frequencies = new FrequencySketch(Math.max(config.getNegativeCacheMaxSize(), doorkeeperSize));
+        this.doorkeeper.set(newDoorkeeper());
+
+        log.info("TOKEN_NEGATIVE: Initialized - max size: {}, TTL: {}s, doorkeeper window: {}",
+                config.getNegativeCacheMaxSize(), config.getNegativeCacheTtlSeconds(), doorkeeperSize);
+    }
+
+    /**
+     * @return true if the value recently resolved to nothing
+     */
+    public boolean isKnownMissing(String tokenValue) {
+        if (tokenValue == null || cache.get(tokenValue) == null) {
+            return false;
+        }
+        frequencies.increment(tokenValue);
+        return true;
+    }
+
+    /**
+     * Record that a lookup found no token with this value.
+     * The value is cached only if it has missed before within the doorkeeper
+     * window and, when the cache is full, is more frequent than the entry it
+     * would evict.
+     */
+    public void recordMiss(String tokenValue) {
+        if (tokenValue == null) {
+            return;
+        }
+        BloomFilter filter = doorkeeper.get();
+        if (filter.put(tokenValue)) {
+            // First sighting - remember it, but do not admit yet
+            rejected.increment();
+            if (filter.insertions() >= doorkeeperSize) {
+                doorkeeper.compareAndSet(filter, newDoorkeeper());
+            }
+            return;
+        }
+        frequencies.increment(tokenValue);
+        String victim = cache.evictionCandidate();
+        if (victim != null && frequencies.frequency(tokenValue) <= frequencies.frequency(victim)) {
+            rejected.increment();
+            return;
+        }
+        cache.put(tokenValue, Boolean.TRUE);
+        admitted.increment();
+    }
+
+    /**
+     * Drop a value that now exists (e.g. it was just minted).
+     */
+    public void invalidate(String tokenValue) {
+        if (tokenValue != null) {
+            cache.invalidate(tokenValue);
+        }
+    }
+
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    /**
+     * Share of negative-cache lookups answered from the cache.
+     */
+    public double hitRate() {
+        long hits = cache.hits();
+        long total = hits + cache.misses();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    private BloomFilter newDoorkeeper() {
+        return new BloomFilter(doorkeeperSize, DOORKEEPER_FALSE_POSITIVE_RATE);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("guardian.token.negative.hits", cache, BoundedTtlCache::hits)
+                .description("Unknown-token lookups answered from the negative cache")
+                .register(registry);
+        FunctionCounter.builder("guardian.token.negative.misses", cache, BoundedTtlCache::misses)
+                .description("Token lookups not found in the negative cache")
+                .register(registry);
+        FunctionCounter.builder("guardian.token.negative.admitted", admitted, LongAdder::sum)
+                .description("Unknown token values admitted to the negative cache")
+                .register(registry);
+        FunctionCounter.builder("guardian.token.negative.rejected", rejected, LongAdder::sum)
+                .description("Unknown token values not admitted (seen once, or less frequent than the eviction victim)")
+                .register(registry);
+        Gauge.builder("guardian.token.negative.size", cache, BoundedTtlCache::size)
+                .description("Current number of negative cache entries")
+                .register(registry);
+        Gauge.builder("guardian.token.negative.hit.rate", this, NegativeTokenCache::hitRate)
+                .description("Share of negative-cache lookups answered from the cache")
+                .register(registry);
+    }
+}
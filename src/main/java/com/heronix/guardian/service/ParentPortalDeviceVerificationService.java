@@ -1,6 +1,7 @@
 package com.heronix.guardian.service;
 
 import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.config.UpstreamWebClients;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.MediaType;
@@ -30,13 +31,13 @@ public class ParentPortalDeviceVerificationService {
     private final ConcurrentHashMap<String, CachedVerification> verificationCache = new ConcurrentHashMap<>();
 
     public ParentPortalDeviceVerificationService(
-            WebClient.Builder webClientBuilder,
+            UpstreamWebClients webClients,
             GuardianProperties properties) {
 
         String baseUrl = properties.getSis().getApiUrl();
         String apiKey = properties.getSis().getApiKey();
 
-        WebClient.Builder builder = webClientBuilder
+        WebClient.Builder builder = webClients.builder(UpstreamWebClients.Upstream.SIS)
                 .baseUrl(baseUrl + "/api/v1/guardian-integration")
                 .defaultHeader("Content-Type", MediaType.APPLICATION_JSON_VALUE);
 
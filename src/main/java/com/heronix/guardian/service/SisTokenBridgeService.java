@@ -1,22 +1,53 @@
 package com.heronix.guardian.service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.config.UpstreamWebClients;
 import com.heronix.guardian.model.domain.GuardianToken;
+import com.heronix.guardian.model.dto.SisSyncRecordDTO;
 import com.heronix.guardian.model.enums.TokenType;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * Bridge service that connects Guardian to the SIS tokenization system over REST.
@@ -29,38 +60,124 @@ import lombok.extern.slf4j.Slf4j;
  * - Leverages existing token generation, rotation, and validation
  * - Maintains single source of truth for all student tokens
  *
+ * BATCHING:
+ * Concurrent getOrCreateToken / resolveToken / getActiveToken calls are
+ * coalesced by a MicroBatcher into /tokens/generate-batch, /tokens/resolve-batch
+ * and /tokens/active-batch requests (up to max-batch-size items, waiting at most
+ * max-delay-ms). getOrCreateTokens / resolveTokens submit a whole list at once.
+ * One timer thread closes the batches; the blocking batch requests run on their
+ * own bounded elastic pool of max-concurrent-batches threads.
+ * If SIS answers 404/405 to a batch endpoint, that operation reverts to the
+ * single-item endpoint.
+ *
+ * NEAR-CACHE:
+ * Token <-> student pairs returned by SIS are kept in SisTokenCache, warmed
+ * in the background at startup by streaming the sync data (bounded by
+ * warm-timeout-seconds). SIS pushes rotations and revocations to the
+ * SIS webhook; optionally the change feed (/tokens/changes) is polled as well.
+ * Local fallback tokens are never cached.
+ *
+ * REACTIVE:
+ * getOrCreateTokenReactive / resolveTokenReactive and their Flux variants do not
+ * block the caller; the Flux variants keep at most reactive-concurrency lookups
+ * in flight. The blocking methods are adapters over the same lookups. The local
+ * fallback runs on the bounded-elastic scheduler because it uses JDBC.
+ *
+ * CIRCUIT BREAKERS:
+ * SIS calls go through one CircuitBreaker per operation family (generate,
+ * resolve, validate, sync-data). While a circuit is open, calls go straight
+ * to the local fallback instead of waiting for the request timeout; half-open
+ * trial calls probe recovery. The circuit states drive SisHealthIndicator.
+ *
+ * OUTAGE SNAPSHOT:
+ * Token resolution falls back to SisTokenSnapshot, a local encrypted copy of
+ * the SIS token map, before the deprecated local mapping (which does not know
+ * SIS tokens). Pairs returned by SIS and reported token changes are applied to
+ * it as they happen; it is rebuilt from the sync data when too old.
+ *
+ * Metrics: guardian.sis.batch.requests / items (tag: operation),
+ * guardian.sis.circuit.state / transitions / rejected (tag: operation)
+ *
  * @author Heronix Development Team
  * @version 2.0.0 - REST client implementation
  */
 @Service
 @ConditionalOnProperty(name = "heronix.guardian.use-sis-tokenization", havingValue = "true")
 @Slf4j
-public class SisTokenBridgeService {
+public class SisTokenBridgeService implements MeterBinder {
 
     private final WebClient webClient;
     private final GuardianProperties properties;
     private final TokenGenerationService tokenGenerationService;
     private final TokenValidationService tokenValidationService;
     private final TokenMappingService tokenMappingService;
+    private final NegativeTokenCache negativeCache;
+    private final HotTokenTracker hotTokens;
+    private final SisTokenCache tokenCache;
+    private final SisTokenSnapshot tokenSnapshot;
+    private final ObjectMapper objectMapper;
+
+    private final ScheduledExecutorService batchTimers;
+    private final Scheduler batchCalls;
+    private final MicroBatcher<Long, String> generateBatcher;
+    private final MicroBatcher<String, Long> resolveBatcher;
+    private final MicroBatcher<Long, String> activeBatcher;
+
+    // Change feed position; null until the first poll
+    private volatile String changeCursor;
+    private volatile boolean changeFeedSupported = true;
+
+    // Startup cache warm-up, disposed on shutdown
+    private volatile Disposable warmup;
+
+    // Cleared when SIS turns out not to offer the batch endpoint
+    private volatile boolean generateSupported;
+    private volatile boolean resolveSupported;
+    private volatile boolean activeSupported;
+
+    private final int reactiveConcurrency;
+
+    // One breaker per SIS operation family; an open circuit goes straight to fallback
+    private final CircuitBreaker generateCircuit;
+    private final CircuitBreaker resolveCircuit;
+    private final CircuitBreaker validateCircuit;
+    private final CircuitBreaker syncDataCircuit;
 
     private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
 
     public SisTokenBridgeService(
-            WebClient.Builder webClientBuilder,
+            UpstreamWebClients webClients,
             GuardianProperties properties,
             TokenGenerationService tokenGenerationService,
             TokenValidationService tokenValidationService,
-            TokenMappingService tokenMappingService) {
+            TokenMappingService tokenMappingService,
+            NegativeTokenCache negativeCache,
+            HotTokenTracker hotTokens,
+            SisTokenCache tokenCache,
+            SisTokenSnapshot tokenSnapshot,
+            ObjectMapper objectMapper) {
 
         this.properties = properties;
         this.tokenGenerationService = tokenGenerationService;
         this.tokenValidationService = tokenValidationService;
         this.tokenMappingService = tokenMappingService;
+        this.negativeCache = negativeCache;
+        this.hotTokens = hotTokens;
+        this.tokenCache = tokenCache;
+        this.tokenSnapshot = tokenSnapshot;
+        this.objectMapper = objectMapper;
+        this.reactiveConcurrency = Math.max(1, properties.getSis().getReactiveConcurrency());
+
+        GuardianProperties.CircuitBreakerConfig circuitConfig = properties.getSis().getCircuitBreaker();
+        this.generateCircuit = new CircuitBreaker("generate", circuitConfig, SisTokenBridgeService::isSisFailure);
+        this.resolveCircuit = new CircuitBreaker("resolve", circuitConfig, SisTokenBridgeService::isSisFailure);
+        this.validateCircuit = new CircuitBreaker("validate", circuitConfig, SisTokenBridgeService::isSisFailure);
+        this.syncDataCircuit = new CircuitBreaker("sync-data", circuitConfig, SisTokenBridgeService::isSisFailure);
 
         String baseUrl = properties.getSis().getApiUrl();
         String apiKey = properties.getSis().getApiKey();
 
-        WebClient.Builder builder = webClientBuilder
+        WebClient.Builder builder = webClients.builder(UpstreamWebClients.Upstream.SIS)
                 .baseUrl(baseUrl + "/api/v1/guardian-integration")
                 .defaultHeader("Content-Type", MediaType.APPLICATION_JSON_VALUE);
 
@@ -70,39 +187,150 @@ public class SisTokenBridgeService {
 
         this.webClient = builder.build();
 
-        log.info("SIS_BRIDGE: Initialized - SIS URL: {}", baseUrl);
+        GuardianProperties.BatchingConfig batching = properties.getSis().getBatching();
+        if (batching.isEnabled()) {
+            this.batchTimers = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "sis-batch-timer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // Blocking batch calls get their own bounded elastic pool, capped at max-concurrent-batches
+            this.batchCalls = Schedulers.newBoundedElastic(Math.max(1, batching.getMaxConcurrentBatches()),
+                    Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "sis-batch", 60, true);
+            Executor batchExecutor = task -> batchCalls.schedule(task);
+            Duration delay = Duration.ofMillis(batching.getMaxDelayMs());
+            this.generateBatcher = new MicroBatcher<>(batching.getMaxBatchSize(), delay, batchTimers, batchExecutor,
+                    this::generateBatch);
+            this.resolveBatcher = new MicroBatcher<>(batching.getMaxBatchSize(), delay, batchTimers, batchExecutor,
+                    this::resolveBatch);
+            this.activeBatcher = new MicroBatcher<>(batching.getMaxBatchSize(), delay, batchTimers, batchExecutor,
+                    this::activeBatch);
+            this.generateSupported = true;
+            this.resolveSupported = true;
+            this.activeSupported = true;
+        } else {
+            this.batchTimers = null;
+            this.batchCalls = null;
+            this.generateBatcher = null;
+            this.resolveBatcher = null;
+            this.activeBatcher = null;
+        }
+
+        log.info("SIS_BRIDGE: Initialized - SIS URL: {}, batching: {}", baseUrl,
+                batching.isEnabled() ? batching.getMaxBatchSize() + " items / " + batching.getMaxDelayMs() + " ms"
+                        : "off");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        Disposable running = warmup;
+        if (running != null) {
+            running.dispose();
+        }
+        if (batchTimers != null) {
+            batchTimers.shutdownNow();
+            batchCalls.dispose();
+        }
     }
 
     /**
      * Get or create a token for a student via SIS.
      * Falls back to local TokenGenerationService on connection failure.
+     * Blocking adapter over {@link #getOrCreateTokenReactive}.
      */
     public String getOrCreateToken(Long studentId, String vendorScope) {
-        try {
-            Map<String, Object> body = Map.of("studentId", studentId);
+        return getOrCreateTokenReactive(studentId, vendorScope).block();
+    }
 
-            Map<String, Object> response = webClient.post()
-                    .uri("/tokens/generate")
-                    .bodyValue(body)
-                    .retrieve()
-                    .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
-                    .block(REQUEST_TIMEOUT);
+    /**
+     * Get or create tokens for several students, coalesced into SIS batch requests.
+     * Students SIS could not serve fall back to the local token system.
+     * Blocking counterpart of {@link #getOrCreateTokensReactive}.
+     *
+     * @return map of student ID -> token value, in request order
+     */
+    public Map<Long, String> getOrCreateTokens(Collection<Long> studentIds, String vendorScope) {
+        // Already in memory: queue every lookup before subscribing so batches fill up
+        List<Mono<StudentToken>> lookups = nonNull(studentIds).stream()
+                .distinct()
+                .map(id -> lookupToken(id, vendorScope).map(tokenValue -> new StudentToken(id, tokenValue)))
+                .toList();
+        return Flux.mergeSequential(lookups)
+                .collect(LinkedHashMap<Long, String>::new, (map, token) -> map.put(token.studentId(), token.tokenValue()))
+                .block();
+    }
 
-            if (response != null && Boolean.TRUE.equals(response.get("success"))) {
-                String tokenValue = (String) response.get("tokenValue");
-                log.debug("SIS_BRIDGE: Token for student {}: {}", studentId, tokenValue);
-                return tokenValue;
-            }
+    /**
+     * Get or create a token for a student via SIS, without blocking the caller.
+     * Falls back to the local token system (on a bounded-elastic thread) when SIS fails.
+     */
+    public Mono<String> getOrCreateTokenReactive(Long studentId, String vendorScope) {
+        return Mono.defer(() -> lookupToken(studentId, vendorScope));
+    }
 
-            log.warn("SIS_BRIDGE: Unexpected response for student {}, falling back to local", studentId);
-        } catch (WebClientResponseException e) {
-            log.warn("SIS_BRIDGE: HTTP {} from SIS for token generation (student {}), falling back to local",
-                    e.getStatusCode(), studentId);
-        } catch (Exception e) {
-            log.warn("SIS_BRIDGE: SIS unreachable for token generation (student {}): {}, falling back to local",
-                    studentId, e.getMessage());
+    /**
+     * Get or create tokens for a stream of students, with at most
+     * reactive-concurrency SIS lookups in flight (coalesced into batch requests).
+     * Emits one result per distinct student, in input order.
+     */
+    public Flux<StudentToken> getOrCreateTokensReactive(Flux<Long> studentIds, String vendorScope) {
+        return studentIds
+                .distinct()
+                .flatMapSequential(id -> lookupToken(id, vendorScope)
+                        .map(tokenValue -> new StudentToken(id, tokenValue)), reactiveConcurrency);
+    }
+
+    /**
+     * Token lookup for one student; a batched SIS lookup is queued immediately.
+     */
+    private Mono<String> lookupToken(Long studentId, String vendorScope) {
+        String cached = tokenCache.getTokenValue(studentId);
+        if (cached != null) {
+            return Mono.just(cached);
         }
 
+        Mono<String> remote = !generateCircuit.isCallPermitted()
+                ? Mono.error(new CircuitBreaker.CallNotPermittedException(generateCircuit.name()))
+                : generateSupported
+                ? Mono.fromFuture(generateBatcher.submit(studentId), true)
+                        .timeout(REQUEST_TIMEOUT)
+                        .onErrorResume(e -> !generateSupported, e -> generateSingle(studentId))
+                : generateSingle(studentId);
+
+        return remote
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("no token in SIS response")))
+                .onErrorResume(e -> {
+                    logFallback("token generation (student " + studentId + ")", e);
+                    return Mono.fromCallable(() -> localToken(studentId, vendorScope))
+                            .subscribeOn(Schedulers.boundedElastic());
+                });
+    }
+
+    /**
+     * A student's token.
+     */
+    public record StudentToken(Long studentId, String tokenValue) {}
+
+    private Mono<String> generateSingle(Long studentId) {
+        long generation = tokenCache.generation();
+        return generateCircuit.protect(webClient.post()
+                        .uri("/tokens/generate")
+                        .bodyValue(Map.of("studentId", studentId))
+                        .retrieve()
+                        .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
+                        .timeout(REQUEST_TIMEOUT))
+                .flatMap(response -> {
+                    if (Boolean.TRUE.equals(response.get("success")) && response.get("tokenValue") instanceof String tokenValue) {
+                        negativeCache.invalidate(tokenValue);
+                        remember(tokenValue, studentId, generation);
+                        log.debug("SIS_BRIDGE: Token for student {}: {}", studentId, tokenValue);
+                        return Mono.just(tokenValue);
+                    }
+                    return Mono.error(new IllegalStateException("unexpected response"));
+                });
+    }
+
+    private String localToken(Long studentId, String vendorScope) {
         // Fallback to deprecated local token system
         GuardianToken localToken = tokenGenerationService.getOrCreateToken(
                 TokenType.STUDENT, studentId, vendorScope);
@@ -117,12 +345,12 @@ public class SisTokenBridgeService {
         try {
             Map<String, Object> body = Map.of("tokenValue", tokenValue);
 
-            Map<String, Object> response = webClient.post()
+            Map<String, Object> response = validateCircuit.call(() -> webClient.post()
                     .uri("/tokens/validate")
                     .bodyValue(body)
                     .retrieve()
                     .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
-                    .block(REQUEST_TIMEOUT);
+                    .block(REQUEST_TIMEOUT));
 
             if (response != null && Boolean.TRUE.equals(response.get("success"))) {
                 boolean valid = Boolean.TRUE.equals(response.get("valid"));
@@ -130,13 +358,13 @@ public class SisTokenBridgeService {
 
                 if (valid) {
                     return new TokenValidationService.ValidationResult(
-                            true, tokenValue, null, null, null, null);
+                            true, tokenValue, null, null, null, null, null, null);
                 } else {
                     return TokenValidationService.ValidationResult.failure(tokenValue, reason);
                 }
             }
         } catch (Exception e) {
-            log.warn("SIS_BRIDGE: SIS unreachable for token validation: {}, falling back to local", e.getMessage());
+            logFallback("token validation", e);
         }
 
         // Fallback to deprecated local validation
@@ -145,36 +373,110 @@ public class SisTokenBridgeService {
 
     /**
      * Resolve a token to its student ID via SIS.
-     * Falls back to local TokenMappingService on connection failure.
+     * Values SIS recently reported as unknown are answered from the negative
+     * cache without a round trip.
+     * Falls back to the token snapshot, then local TokenMappingService, on connection failure.
+     * Blocking adapter over {@link #resolveTokenReactive}.
      */
     public Optional<Long> resolveToken(String tokenValue) {
-        try {
-            Map<String, Object> body = Map.of("tokenValue", tokenValue);
+        return resolveTokenReactive(tokenValue).blockOptional();
+    }
 
-            Map<String, Object> response = webClient.post()
-                    .uri("/tokens/resolve")
-                    .bodyValue(body)
-                    .retrieve()
-                    .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
-                    .block(REQUEST_TIMEOUT);
+    /**
+     * Resolve several tokens, coalesced into SIS batch requests.
+     * Tokens whose lookup failed fall back to local resolution.
+     * Blocking counterpart of {@link #resolveTokensReactive}.
+     *
+     * @return map of token value -> student ID (unresolved tokens are omitted)
+     */
+    public Map<String, Long> resolveTokens(Collection<String> tokenValues) {
+        // Already in memory: queue every lookup before subscribing so batches fill up
+        List<Mono<StudentToken>> lookups = nonNull(tokenValues).stream()
+                .distinct()
+                .map(tokenValue -> lookupStudent(tokenValue).map(studentId -> new StudentToken(studentId, tokenValue)))
+                .toList();
+        return Flux.merge(lookups)
+                .collect(HashMap<String, Long>::new, (map, token) -> map.put(token.tokenValue(), token.studentId()))
+                .block();
+    }
 
-            if (response != null && Boolean.TRUE.equals(response.get("resolved"))) {
-                Object studentIdObj = response.get("studentId");
-                if (studentIdObj instanceof Number) {
-                    return Optional.of(((Number) studentIdObj).longValue());
-                }
-            }
+    /**
+     * Resolve a token to its student ID via SIS, without blocking the caller.
+     * Completes empty when the token is unknown.
+     */
+    public Mono<Long> resolveTokenReactive(String tokenValue) {
+        return Mono.defer(() -> lookupStudent(tokenValue));
+    }
 
-            if (response != null && Boolean.TRUE.equals(response.get("success"))) {
-                // Successful call but token not resolved
-                return Optional.empty();
-            }
-        } catch (Exception e) {
-            log.warn("SIS_BRIDGE: SIS unreachable for token resolution: {}, falling back to local", e.getMessage());
+    /**
+     * Resolve a stream of tokens with at most reactive-concurrency SIS lookups
+     * in flight (coalesced into batch requests). Unresolved tokens are omitted.
+     */
+    public Flux<StudentToken> resolveTokensReactive(Flux<String> tokenValues) {
+        return tokenValues
+                .distinct()
+                .flatMap(tokenValue -> lookupStudent(tokenValue)
+                        .map(studentId -> new StudentToken(studentId, tokenValue)), reactiveConcurrency);
+    }
+
+    /**
+     * Resolution of one token; a batched SIS lookup is queued immediately.
+     */
+    private Mono<Long> lookupStudent(String tokenValue) {
+        if (negativeCache.isKnownMissing(tokenValue)) {
+            return Mono.empty();
+        }
+        Long cached = tokenCache.getStudentId(tokenValue);
+        if (cached != null) {
+            hotTokens.record(null, tokenValue);
+            return Mono.just(cached);
         }
 
-        // Fallback to deprecated local mapping
-        return tokenMappingService.resolveToEntityId(tokenValue);
+        Mono<Long> remote = !resolveCircuit.isCallPermitted()
+                ? Mono.error(new CircuitBreaker.CallNotPermittedException(resolveCircuit.name()))
+                : resolveSupported
+                ? Mono.fromFuture(resolveBatcher.submit(tokenValue), true)
+                        .timeout(REQUEST_TIMEOUT)
+                        .onErrorResume(e -> !resolveSupported, e -> resolveSingle(tokenValue))
+                : resolveSingle(tokenValue);
+
+        return remote
+                .doOnNext(studentId -> hotTokens.record(null, tokenValue))
+                .switchIfEmpty(Mono.fromRunnable(() -> negativeCache.recordMiss(tokenValue)))
+                .onErrorResume(e -> {
+                    logFallback("token resolution", e);
+                    Long snapshotted = tokenSnapshot.getStudentId(tokenValue);
+                    if (snapshotted != null) {
+                        return Mono.just(snapshotted);
+                    }
+                    // Fallback to deprecated local mapping
+                    return Mono.fromCallable(() -> tokenMappingService.resolveToEntityId(tokenValue).orElse(null))
+                            .subscribeOn(Schedulers.boundedElastic());
+                });
+    }
+
+    /**
+     * Single-item resolution; completes empty when SIS does not know the token.
+     */
+    private Mono<Long> resolveSingle(String tokenValue) {
+        long generation = tokenCache.generation();
+        return resolveCircuit.protect(webClient.post()
+                        .uri("/tokens/resolve")
+                        .bodyValue(Map.of("tokenValue", tokenValue))
+                        .retrieve()
+                        .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
+                        .timeout(REQUEST_TIMEOUT))
+                .flatMap(response -> {
+                    if (Boolean.TRUE.equals(response.get("resolved")) && response.get("studentId") instanceof Number id) {
+                        remember(tokenValue, id.longValue(), generation);
+                        return Mono.just(id.longValue());
+                    }
+                    if (Boolean.TRUE.equals(response.get("success"))) {
+                        // Successful call but token not resolved
+                        return Mono.empty();
+                    }
+                    return Mono.error(new IllegalStateException("unexpected response"));
+                });
     }
 
     /**
@@ -182,23 +484,42 @@ public class SisTokenBridgeService {
      * Falls back to local lookup on connection failure.
      */
     public Optional<String> getActiveToken(Long studentId) {
+        String cached = tokenCache.getTokenValue(studentId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        if (!resolveCircuit.isCallPermitted()) {
+            return tokenMappingService.findTokenForEntity(TokenType.STUDENT, studentId, null);
+        }
+        if (activeSupported) {
+            try {
+                return Optional.ofNullable(activeBatcher.await(studentId, REQUEST_TIMEOUT));
+            } catch (Exception e) {
+                if (activeSupported) {
+                    logFallback("active token lookup (student " + studentId + ")", e);
+                    return tokenMappingService.findTokenForEntity(TokenType.STUDENT, studentId, null);
+                }
+            }
+        }
+        long generation = tokenCache.generation();
         try {
-            Map<String, Object> response = webClient.get()
+            Map<String, Object> response = resolveCircuit.call(() -> webClient.get()
                     .uri("/tokens/student/{studentId}", studentId)
                     .retrieve()
                     .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
-                    .block(REQUEST_TIMEOUT);
+                    .block(REQUEST_TIMEOUT));
 
             if (response != null && Boolean.TRUE.equals(response.get("found"))) {
-                return Optional.ofNullable((String) response.get("tokenValue"));
+                String tokenValue = (String) response.get("tokenValue");
+                remember(tokenValue, studentId, generation);
+                return Optional.ofNullable(tokenValue);
             }
 
             if (response != null && Boolean.TRUE.equals(response.get("success"))) {
                 return Optional.empty();
             }
         } catch (Exception e) {
-            log.warn("SIS_BRIDGE: SIS unreachable for active token lookup (student {}): {}, falling back to local",
-                    studentId, e.getMessage());
+            logFallback("active token lookup (student " + studentId + ")", e);
         }
 
         // Fallback: try local token mapping
@@ -206,46 +527,379 @@ public class SisTokenBridgeService {
     }
 
     /**
-     * Get bulk tokenized sync data from SIS.
+     * Stream the tokenized sync data from SIS, one record at a time.
      * No fallback — this data only exists in SIS.
+     *
+     * Asks for NDJSON; a SIS that answers with the { success, data: [ ... ] }
+     * envelope is parsed element by element as the bytes arrive. Either way only
+     * the records in flight are held in memory, and the download follows
+     * downstream demand. Fails if no record arrives within the read timeout.
+     */
+    public Flux<SisSyncRecordDTO> streamTokenizedSyncData() {
+        return syncDataCircuit.protect(webClient.get()
+                .uri("/tokens/sync-data")
+                .accept(MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_JSON)
+                .exchangeToFlux(response -> {
+                    if (response.statusCode().isError()) {
+                        return response.createException().flatMapMany(Flux::error);
+                    }
+                    MediaType contentType = response.headers().contentType().orElse(MediaType.APPLICATION_JSON);
+                    if (MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)) {
+                        return response.bodyToFlux(SisSyncRecordDTO.class);
+                    }
+                    return splitSyncData(response.bodyToFlux(DataBuffer.class));
+                })
+                .timeout(Duration.ofSeconds(properties.getSis().getReadTimeout())));
+    }
+
+    private Flux<SisSyncRecordDTO> splitSyncData(Flux<DataBuffer> body) {
+        return Flux.defer(() -> {
+            JsonArrayElementSplitter<SisSyncRecordDTO> splitter =
+                    new JsonArrayElementSplitter<>(objectMapper, SisSyncRecordDTO.class, "data");
+            return body
+                    .concatMapIterable(buffer -> {
+                        byte[] chunk = new byte[buffer.readableByteCount()];
+                        buffer.read(chunk);
+                        DataBufferUtils.release(buffer);
+                        try {
+                            return splitter.feed(chunk);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .concatWith(Flux.defer(() -> {
+                        try {
+                            return Flux.fromIterable(splitter.finish());
+                        } catch (IOException e) {
+                            return Flux.error(e);
+                        }
+                    }));
+        });
+    }
+
+    /**
+     * Start warming the near-cache in the background so startup does not wait
+     * for the sync data download; lookups go to SIS until it has finished.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startTokenCacheWarmup() {
+        int timeoutSeconds = properties.getSis().getCache().getWarmTimeoutSeconds();
+        warmup = warmTokenCache()
+                .subscribeOn(Schedulers.boundedElastic())
+                .subscribe(null, e -> log.warn("SIS_CACHE: Warm-up stopped ({}); continuing with a partial cache",
+                        e instanceof TimeoutException ? "no result within " + timeoutSeconds + " s" : e.getMessage()));
+    }
+
+    /**
+     * Warm the near-cache from the SIS sync data, rebuilding the outage
+     * snapshot from the same download when it is due. Fails with a
+     * TimeoutException after warm-timeout-seconds; the snapshot is then left
+     * to the scheduled maintenance.
+     */
+    public Mono<Void> warmTokenCache() {
+        return Mono.defer(() -> {
+            boolean warm = tokenCache.isEnabled() && properties.getSis().getCache().isWarmOnStartup();
+            SisTokenSnapshot.Builder snapshot = tokenSnapshot.needsRebuild() ? tokenSnapshot.newBuilder() : null;
+            if (!warm && snapshot == null) {
+                return Mono.empty();
+            }
+            long start = System.currentTimeMillis();
+            long generation = tokenCache.generation();
+            AtomicInteger warmed = new AtomicInteger();
+            return syncData(row -> {
+                        if (warm) {
+                            tokenCache.put(row.getTokenValue(), row.getStudentId(), generation);
+                            warmed.incrementAndGet();
+                        }
+                        if (snapshot != null) {
+                            snapshot.add(row.getTokenValue(), row.getStudentId());
+                        }
+                    })
+                    .timeout(Duration.ofSeconds(properties.getSis().getCache().getWarmTimeoutSeconds()))
+                    // The snapshot is written to disk: keep it off the Netty threads
+                    .publishOn(Schedulers.boundedElastic())
+                    .doOnNext(complete -> {
+                        if (snapshot != null && complete) {
+                            snapshot.commit();
+                        }
+                        if (warm) {
+                            log.info("SIS_CACHE: Warmed {} tokens in {} ms", warmed,
+                                    System.currentTimeMillis() - start);
+                        }
+                    })
+                    .then();
+        });
+    }
+
+    /**
+     * Rebuild the outage snapshot when due, otherwise write its pending changes.
+     * A rebuild waits while the sync-data circuit is open.
+     */
+    @Scheduled(fixedDelayString = "${heronix.guardian.sis.snapshot.maintenance-interval-ms:60000}",
+            initialDelayString = "${heronix.guardian.sis.snapshot.maintenance-interval-ms:60000}")
+    public void maintainTokenSnapshot() {
+        if (!tokenSnapshot.isEnabled()) {
+            return;
+        }
+        if (tokenSnapshot.needsRebuild() && syncDataCircuit.isCallPermitted()) {
+            SisTokenSnapshot.Builder snapshot = tokenSnapshot.newBuilder();
+            if (loadSyncData(row -> snapshot.add(row.getTokenValue(), row.getStudentId()))) {
+                snapshot.commit();
+                return;
+            }
+        }
+        tokenSnapshot.compact();
+    }
+
+    /**
+     * Stream the sync data into a consumer; returns false if the download failed.
+     */
+    private boolean loadSyncData(Consumer<SisSyncRecordDTO> consumer) {
+        return Boolean.TRUE.equals(syncData(consumer).block());
+    }
+
+    /**
+     * Stream the sync data into a consumer; emits false if the download failed.
+     */
+    private Mono<Boolean> syncData(Consumer<SisSyncRecordDTO> consumer) {
+        return streamTokenizedSyncData()
+                .filter(row -> row.getStudentId() != null && row.getTokenValue() != null)
+                .doOnNext(consumer)
+                .then(Mono.just(true))
+                .onErrorResume(e -> {
+                    log.error("SIS_BRIDGE: Failed to fetch tokenized sync data from SIS: {}", e.getMessage());
+                    return Mono.just(false);
+                });
+    }
+
+    /**
+     * Poll the SIS token change feed and drop changed tokens from the near-cache.
+     * Contract: GET /tokens/changes?since={cursor} ->
+     * { success, cursor, reset, changes: [ { tokenValue, studentId } ] }.
+     * The first poll (no cursor) only establishes the position; a reset (cursor
+     * no longer known to SIS) drops the whole cache.
      */
+    @Scheduled(fixedDelayString = "${heronix.guardian.sis.cache.change-poll-interval-ms:5000}")
     @SuppressWarnings("unchecked")
-    public List<Map<String, Object>> getTokenizedSyncData() {
+    public void pollTokenChanges() {
+        if (!properties.getSis().getCache().isChangePollEnabled() || !changeFeedSupported) {
+            return;
+        }
         try {
-            Map<String, Object> response = webClient.get()
-                    .uri("/tokens/sync-data")
+            String cursor = changeCursor;
+            Map<String, Object> response = syncDataCircuit.call(() -> webClient.get()
+                    .uri(uriBuilder -> cursor != null
+                            ? uriBuilder.path("/tokens/changes").queryParam("since", cursor).build()
+                            : uriBuilder.path("/tokens/changes").build())
                     .retrieve()
                     .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
-                    .block(Duration.ofSeconds(properties.getSis().getReadTimeout()));
+                    .block(REQUEST_TIMEOUT));
 
-            if (response != null && Boolean.TRUE.equals(response.get("success"))) {
-                Object data = response.get("data");
-                if (data instanceof List) {
-                    return (List<Map<String, Object>>) data;
+            if (response == null || !Boolean.TRUE.equals(response.get("success"))) {
+                return;
+            }
+            if (Boolean.TRUE.equals(response.get("reset"))) {
+                // Changes were lost: anything cached may be stale
+                tokenCache.invalidateAll();
+                tokenSnapshot.markStale();
+            } else if (cursor != null && response.get("changes") instanceof List<?> changes) {
+                for (Object change : changes) {
+                    Map<String, Object> fields = asMap(change);
+                    applyTokenChange(fields.get("tokenValue") instanceof String value ? value : null,
+                            fields.get("studentId") instanceof Number id ? id.longValue() : null);
                 }
             }
+            Object next = response.get("cursor");
+            changeCursor = next != null ? next.toString() : null;
+        } catch (WebClientResponseException e) {
+            if (e.getStatusCode().isSameCodeAs(HttpStatus.NOT_FOUND)) {
+                changeFeedSupported = false;
+                log.warn("SIS_CACHE: SIS has no token change feed, relying on pushed changes and TTL");
+            } else {
+                log.warn("SIS_CACHE: Change feed poll failed: HTTP {}", e.getStatusCode());
+            }
         } catch (Exception e) {
-            log.error("SIS_BRIDGE: Failed to fetch tokenized sync data from SIS: {}", e.getMessage());
+            log.debug("SIS_CACHE: Change feed poll failed: {}", e.getMessage());
         }
+    }
 
-        return List.of();
+    /**
+     * Drop one changed token (by value and/or student) from the near-cache
+     * and the outage snapshot.
+     */
+    public void applyTokenChange(String tokenValue, Long studentId) {
+        tokenCache.invalidateToken(tokenValue);
+        tokenCache.invalidateStudent(studentId);
+        tokenSnapshot.invalidateToken(tokenValue);
+        tokenSnapshot.invalidateStudent(studentId);
     }
 
     /**
-     * Check if SIS tokenization service is available.
+     * Circuit state per SIS operation family (generate, resolve, validate, sync-data).
      */
-    public boolean isSisAvailable() {
+    public Map<String, CircuitBreaker.State> circuitStates() {
+        Map<String, CircuitBreaker.State> states = new LinkedHashMap<>();
+        for (CircuitBreaker circuit : circuits()) {
+            states.put(circuit.name(), circuit.state());
+        }
+        return states;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (CircuitBreaker circuit : circuits()) {
+            bindCircuit(registry, circuit);
+        }
+        if (batchTimers == null) {
+            return;
+        }
+        bindBatcher(registry, "generate", generateBatcher);
+        bindBatcher(registry, "resolve", resolveBatcher);
+        bindBatcher(registry, "active", activeBatcher);
+    }
+
+    private void bindBatcher(MeterRegistry registry, String operation, MicroBatcher<?, ?> batcher) {
+        FunctionCounter.builder("guardian.sis.batch.requests", batcher, MicroBatcher::batches)
+                .description("Batch requests sent to SIS")
+                .tag("operation", operation)
+                .register(registry);
+        FunctionCounter.builder("guardian.sis.batch.items", batcher, MicroBatcher::items)
+                .description("Items sent to SIS in batch requests")
+                .tag("operation", operation)
+                .register(registry);
+    }
+
+    private void bindCircuit(MeterRegistry registry, CircuitBreaker circuit) {
+        Gauge.builder("guardian.sis.circuit.state", circuit, c -> c.state().ordinal())
+                .description("SIS circuit state (0 closed, 1 open, 2 half-open)")
+                .tag("operation", circuit.name())
+                .register(registry);
+        for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+            FunctionCounter.builder("guardian.sis.circuit.transitions", circuit, c -> c.transitions(state))
+                    .description("SIS circuit state transitions")
+                    .tag("operation", circuit.name())
+                    .tag("state", state.name().toLowerCase())
+                    .register(registry);
+        }
+        FunctionCounter.builder("guardian.sis.circuit.rejected", circuit, CircuitBreaker::rejected)
+                .description("SIS calls short-circuited to fallback")
+                .tag("operation", circuit.name())
+                .register(registry);
+    }
+
+    private List<CircuitBreaker> circuits() {
+        return List.of(generateCircuit, resolveCircuit, validateCircuit, syncDataCircuit);
+    }
+
+    /**
+     * Errors that count against a circuit: anything but a 4xx, where SIS did answer.
+     */
+    private static boolean isSisFailure(Throwable e) {
+        return !(e instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError());
+    }
+
+    /**
+     * Log a fallback to the local token services; quietly while the circuit is open.
+     */
+    private static void logFallback(String operation, Throwable e) {
+        if (e instanceof CircuitBreaker.CallNotPermittedException) {
+            log.debug("SIS_BRIDGE: SIS {} skipped ({}), falling back to local", operation, e.getMessage());
+        } else {
+            log.warn("SIS_BRIDGE: SIS {} failed: {}, falling back to local", operation, e.getMessage());
+        }
+    }
+
+    // ========================================================================
+    // BATCH CALLS
+    // ========================================================================
+
+    private Map<Long, String> generateBatch(List<Long> studentIds) {
+        long generation = tokenCache.generation();
+        Map<String, Object> response = generateCircuit.call(() -> postBatch("/tokens/generate-batch",
+                Map.of("studentIds", studentIds), () -> generateSupported = false));
+        Map<Long, String> tokens = new HashMap<>();
+        asMap(response.get("tokens")).forEach((id, tokenValue) -> {
+            if (tokenValue instanceof String value) {
+                tokens.put(Long.valueOf(id), value);
+                negativeCache.invalidate(value);
+                remember(value, Long.valueOf(id), generation);
+            }
+        });
+        log.debug("SIS_BRIDGE: Batch generated {} tokens for {} students", tokens.size(), studentIds.size());
+        return tokens;
+    }
+
+    private Map<String, Long> resolveBatch(List<String> tokenValues) {
+        long generation = tokenCache.generation();
+        Map<String, Object> response = resolveCircuit.call(() -> postBatch("/tokens/resolve-batch",
+                Map.of("tokenValues", tokenValues), () -> resolveSupported = false));
+        Map<String, Long> resolved = new HashMap<>();
+        asMap(response.get("resolved")).forEach((tokenValue, studentId) -> {
+            if (studentId instanceof Number number) {
+                resolved.put(tokenValue, number.longValue());
+                remember(tokenValue, number.longValue(), generation);
+            }
+        });
+        return resolved;
+    }
+
+    private Map<Long, String> activeBatch(List<Long> studentIds) {
+        long generation = tokenCache.generation();
+        Map<String, Object> response = resolveCircuit.call(() -> postBatch("/tokens/active-batch",
+                Map.of("studentIds", studentIds), () -> activeSupported = false));
+        Map<Long, String> tokens = new HashMap<>();
+        asMap(response.get("tokens")).forEach((id, tokenValue) -> {
+            if (tokenValue instanceof String value) {
+                tokens.put(Long.valueOf(id), value);
+                remember(value, Long.valueOf(id), generation);
+            }
+        });
+        return tokens;
+    }
+
+    /**
+     * POST a batch request; a 404/405 marks the batch operation unsupported before rethrowing.
+     */
+    private Map<String, Object> postBatch(String uri, Map<String, Object> body, Runnable markUnsupported) {
+        Map<String, Object> response;
         try {
-            Map<String, Object> response = webClient.get()
-                    .uri("/health")
+            response = webClient.post()
+                    .uri(uri)
+                    .bodyValue(body)
                     .retrieve()
                     .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
-                    .block(Duration.ofSeconds(5));
+                    .block(REQUEST_TIMEOUT);
+        } catch (WebClientResponseException e) {
+            if (e.getStatusCode().isSameCodeAs(HttpStatus.NOT_FOUND)
+                    || e.getStatusCode().isSameCodeAs(HttpStatus.METHOD_NOT_ALLOWED)) {
+                markUnsupported.run();
+                log.warn("SIS_BRIDGE: SIS does not support {}, using single-item requests", uri);
+            }
+            throw e;
+        }
+        if (response == null || !Boolean.TRUE.equals(response.get("success"))) {
+            throw new IllegalStateException("Unexpected response from SIS " + uri);
+        }
+        return response;
+    }
 
-            return response != null && "UP".equals(response.get("status"));
-        } catch (Exception e) {
-            log.debug("SIS_BRIDGE: SIS health check failed: {}", e.getMessage());
-            return false;
+    /**
+     * Keep a pair returned by SIS in the near-cache and the outage snapshot,
+     * unless a token change arrived while the call was in flight.
+     */
+    private void remember(String tokenValue, Long studentId, long generation) {
+        tokenCache.put(tokenValue, studentId, generation);
+        if (tokenCache.generation() == generation) {
+            tokenSnapshot.record(tokenValue, studentId);
         }
     }
+
+    private static <T> List<T> nonNull(Collection<T> values) {
+        return values.stream().filter(Objects::nonNull).toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asMap(Object value) {
+        return value instanceof Map ? (Map<String, Object>) value : Map.of();
+    }
 }
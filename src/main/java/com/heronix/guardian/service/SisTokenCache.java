@@ -0,0 +1,175 @@
+package com.heronix.guardian.service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.heronix.guardian.cache.BoundedTtlCache;
+import com.heronix.guardian.config.GuardianProperties;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Near-cache of SIS tokens: token value -> student ID and student ID -> token value.
+ *
+ * SIS tokens only change on rotation and revocation, so SisTokenBridgeService
+ * answers repeat lookups from here instead of calling SIS. Entries are bounded
+ * by size and TTL, and are dropped as soon as SIS reports a change (pushed to
+ * the SIS webhook or polled from the change feed).
+ *
+ * Every invalidation bumps a generation before it removes entries; results of
+ * SIS calls that started before an invalidation are not cached, and a put that
+ * races an invalidation re-checks the generation afterwards and removes its own
+ * entries, so an in-flight response cannot re-insert a token that was just revoked.
+ *
+ * Metrics: guardian.sis.cache.hits / misses / evictions / invalidations / size
+ */
+@Component
+@ConditionalOnProperty(name = "heronix.guardian.use-sis-tokenization", havingValue = "true")
+@Slf4j
+public class SisTokenCache implements MeterBinder {
+
+    private final boolean enabled;
+    private final BoundedTtlCache<String, Long> studentByToken;
+    private final BoundedTtlCache<Long, String> tokenByStudent;
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder invalidations = new LongAdder();
+
+    public SisTokenCache(GuardianProperties properties) {
+        GuardianProperties.SisCacheConfig config = properties.getSis().getCache();
+        this.enabled = config.isEnabled();
+        Duration ttl = Duration.ofSeconds(config.getTtlSeconds());
+        this.studentByToken = new BoundedTtlCache<>(config.getMaxSize(), ttl);
+        this.tokenByStudent = new BoundedTtlCache<>(config.getMaxSize(), ttl);
+
+        log.info("SIS_CACHE: Initialized - enabled: {}, max size: {}, TTL: {}s",
+                enabled, config.getMaxSize(), config.getTtlSeconds());
+    }
+
+    /**
+     * Current generation; pass it to {@link #put} for results fetched after this call.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Student ID for a token value, or null on a miss.
+     */
+    public Long getStudentId(String tokenValue) {
+        return enabled && tokenValue != null ? studentByToken.get(tokenValue) : null;
+    }
+
+    /**
+     * Token value for a student, or null on a miss.
+     */
+    public String getTokenValue(Long studentId) {
+        return enabled && studentId != null ? tokenByStudent.get(studentId) : null;
+    }
+
+    /**
+     * Cache a token/student pair fetched from SIS, unless an invalidation
+     * happened since {@code fetchedAtGeneration}.
+     */
+    public void put(String tokenValue, Long studentId, long fetchedAtGeneration) {
+        if (!enabled || tokenValue == null || studentId == null || generation.get() != fetchedAtGeneration) {
+            return;
+        }
+        studentByToken.put(tokenValue, studentId);
+        tokenByStudent.put(studentId, tokenValue);
+        if (generation.get() != fetchedAtGeneration) {
+            // An invalidation ran between the check and the puts and may have
+            // missed them; drop the pair rather than keep it for the full TTL
+            studentByToken.invalidate(tokenValue);
+            tokenByStudent.invalidate(studentId);
+        }
+    }
+
+    /**
+     * Drop a token in both directions.
+     */
+    public void invalidateToken(String tokenValue) {
+        if (tokenValue == null) {
+            return;
+        }
+        generation.incrementAndGet();
+        invalidations.increment();
+        Long studentId = studentByToken.invalidate(tokenValue);
+        if (studentId != null) {
+            tokenByStudent.invalidate(studentId);
+        } else {
+            // Reverse entry may outlive an evicted forward entry
+            tokenByStudent.invalidateIf(tokenValue::equals);
+        }
+    }
+
+    /**
+     * Drop a student's token in both directions.
+     */
+    public void invalidateStudent(Long studentId) {
+        if (studentId == null) {
+            return;
+        }
+        generation.incrementAndGet();
+        invalidations.increment();
+        String tokenValue = tokenByStudent.invalidate(studentId);
+        if (tokenValue != null) {
+            studentByToken.invalidate(tokenValue);
+        }
+    }
+
+    /**
+     * Drop everything (e.g. after the change feed was lost).
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        invalidations.increment();
+        studentByToken.clear();
+        tokenByStudent.clear();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CacheStats stats() {
+        long hits = studentByToken.hits() + tokenByStudent.hits();
+        long misses = studentByToken.misses() + tokenByStudent.misses();
+        return new CacheStats(studentByToken.size(), tokenByStudent.size(), studentByToken.maxSize(),
+                hits, misses, studentByToken.evictions() + tokenByStudent.evictions(), invalidations.sum());
+    }
+
+    public record CacheStats(int tokens, int students, int maxSize, long hits, long misses,
+                             long evictions, long invalidations) {
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("guardian.sis.cache.hits", this, c -> c.stats().hits())
+                .description("SIS token lookups served from the near-cache")
+                .register(registry);
+        FunctionCounter.builder("guardian.sis.cache.misses", this, c -> c.stats().misses())
+                .description("SIS token lookups that went to SIS")
+                .register(registry);
+        FunctionCounter.builder("guardian.sis.cache.evictions", this, c -> c.stats().evictions())
+                .description("Entries evicted by size bound or TTL")
+                .register(registry);
+        FunctionCounter.builder("guardian.sis.cache.invalidations", invalidations, LongAdder::sum)
+                .description("Invalidations applied from SIS token changes")
+                .register(registry);
+        Gauge.builder("guardian.sis.cache.size", studentByToken, BoundedTtlCache::size)
+                .description("Current number of cached SIS tokens")
+                .register(registry);
+    }
+}
@@ -0,0 +1,670 @@
+package com.heronix.guardian.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.security.HeronixEncryptionService;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Local snapshot of the SIS token map (token value -> student ID), used by
+ * SisTokenBridgeService to resolve SIS tokens while SIS is unreachable.
+ *
+ * FILE FORMAT:
+ * A 128-byte header followed by 16-byte records sorted by key. A record is
+ * the first 8 bytes of an HMAC of the token value (the key) and the student
+ * ID XORed with a keyed mask of that key. Neither token values nor student
+ * IDs are stored in the clear. The header (record count, build time, key
+ * check and an HMAC of the record area) is encrypted with
+ * HeronixEncryptionService; a snapshot written under another master key, or
+ * whose records were altered on disk, fails to open and is rebuilt. With
+ * encryption disabled there is no key to seal it with, so the snapshot stays off.
+ *
+ * The file is memory-mapped read-only and searched by binary search; opening
+ * it costs one pass of the HMAC over the records, and its records live in the
+ * page cache, not the heap.
+ *
+ * REFRESH:
+ * The snapshot is rebuilt from the SIS sync data when missing or older than
+ * max-age-hours. In between, token pairs learned from SIS and the rotations
+ * and revocations SIS reports are kept as pending changes, which take
+ * precedence over the file and are merged into a new file on every
+ * maintenance run, at shutdown, and in the background as soon as
+ * compact-threshold changes are pending.
+ *
+ * Metrics: guardian.sis.snapshot.records / pending / hits / misses
+ */
+@Component
+@ConditionalOnProperty(name = "heronix.guardian.use-sis-tokenization", havingValue = "true")
+@Slf4j
+public class SisTokenSnapshot implements MeterBinder {
+
+    private static final byte[] MAGIC = {'H', 'X', 'S', 'T'};
+    private static final byte VERSION = 0x02;
+    private static final int DATA_OFFSET = 128;
+    private static final int RECORD_BYTES = 16;
+    private static final int MAX_RECORDS = (Integer.MAX_VALUE - DATA_OFFSET) / RECORD_BYTES;
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final byte KEY_DOMAIN = 0;
+    private static final byte MASK_DOMAIN = 1;
+    private static final byte CHECK_DOMAIN = 2;
+    private static final byte RECORDS_DOMAIN = 3;
+
+    private final boolean enabled;
+    private final Path path;
+    private final Duration maxAge;
+    private final int compactThreshold;
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+
+    private final SecretKeySpec snapshotKey;
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::newMac);
+
+    private volatile Mapping mapping;
+    private volatile boolean stale;
+
+    // Changes not yet in the file: token key -> pair (studentId null = removed)
+    private final Map<Long, Pending> pendingByKey = new ConcurrentHashMap<>();
+    // Students whose snapshot entries are void: student ID -> change sequence
+    private final Map<Long, Long> removedStudents = new ConcurrentHashMap<>();
+    private final AtomicLong changeSequence = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public SisTokenSnapshot(GuardianProperties properties) {
+        GuardianProperties.SisSnapshotConfig config = properties.getSis().getSnapshot();
+        SecretKey tokenMacKey = config.isEnabled() ? HeronixEncryptionService.getInstance().getTokenMacKey() : null;
+        if (config.isEnabled() && tokenMacKey == null) {
+            log.warn("SIS_SNAPSHOT: Disabled - encryption is disabled, so there is no key to seal it with;"
+                    + " set HERONIX_MASTER_KEY to use the snapshot");
+        }
+        this.enabled = tokenMacKey != null;
+        this.path = Path.of(config.getPath());
+        this.maxAge = Duration.ofHours(config.getMaxAgeHours());
+        this.compactThreshold = config.getCompactThreshold();
+
+        if (!enabled) {
+            this.snapshotKey = null;
+            return;
+        }
+        this.snapshotKey = deriveSnapshotKey(tokenMacKey);
+        long start = System.nanoTime();
+        this.mapping = open();
+        if (mapping != null) {
+            log.info("SIS_SNAPSHOT: Opened {} tokens from {} in {} ms (built {})", mapping.count(), path,
+                    Duration.ofNanos(System.nanoTime() - start).toMillis(), Instant.ofEpochMilli(mapping.builtAt()));
+        } else {
+            log.info("SIS_SNAPSHOT: No usable snapshot at {}, it will be built from the SIS sync data", path);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Student ID for a token value, or null when the snapshot does not know it.
+     */
+    public Long getStudentId(String tokenValue) {
+        if (!enabled || tokenValue == null) {
+            return null;
+        }
+        Long studentId = find(keyOf(tokenValue));
+        (studentId != null ? hits : misses).increment();
+        return studentId;
+    }
+
+    /**
+     * Remember a token/student pair returned by SIS. Pairs the snapshot already
+     * holds cost one lookup and nothing else.
+     */
+    public void record(String tokenValue, Long studentId) {
+        if (!enabled || tokenValue == null || studentId == null) {
+            return;
+        }
+        long key = keyOf(tokenValue);
+        if (studentId.equals(find(key))) {
+            return;
+        }
+        pendingByKey.put(key, new Pending(studentId, changeSequence.incrementAndGet()));
+        compactIfLarge();
+    }
+
+    /**
+     * Drop a rotated or revoked token.
+     */
+    public void invalidateToken(String tokenValue) {
+        if (!enabled || tokenValue == null) {
+            return;
+        }
+        long key = keyOf(tokenValue);
+        Mapping current = mapping;
+        if (pendingByKey.containsKey(key) || (current != null && current.indexOf(key) >= 0)) {
+            pendingByKey.put(key, new Pending(null, changeSequence.incrementAndGet()));
+            compactIfLarge();
+        }
+    }
+
+    /**
+     * Drop every token of a student known so far.
+     */
+    public void invalidateStudent(Long studentId) {
+        if (!enabled || studentId == null) {
+            return;
+        }
+        removedStudents.put(studentId, changeSequence.incrementAndGet());
+        compactIfLarge();
+    }
+
+    /**
+     * Mark the snapshot for a rebuild (e.g. after SIS changes were lost).
+     */
+    public void markStale() {
+        stale = true;
+    }
+
+    /**
+     * Whether the snapshot is missing, too old or known to have missed changes.
+     */
+    public boolean needsRebuild() {
+        Mapping current = mapping;
+        return enabled && (stale || current == null
+                || System.currentTimeMillis() - current.builtAt() > maxAge.toMillis());
+    }
+
+    /**
+     * Start a full rebuild. Changes recorded after this call survive the rebuild.
+     */
+    public Builder newBuilder() {
+        return new Builder(changeSequence.get());
+    }
+
+    /**
+     * Merge pending changes into a new snapshot file.
+     */
+    public synchronized void compact() {
+        if (!enabled || (pendingByKey.isEmpty() && removedStudents.isEmpty())) {
+            return;
+        }
+        // Without a file yet, pending pairs still go to disk; it stays due for a rebuild
+        Mapping current = mapping != null ? mapping : new Mapping(ByteBuffer.allocate(0), 0, 0L);
+        long upTo = changeSequence.get();
+        Map<Long, Pending> pending = new HashMap<>();
+        pendingByKey.forEach((key, change) -> {
+            if (change.sequence() <= upTo) {
+                pending.put(key, change);
+            }
+        });
+        Map<Long, Long> removed = new HashMap<>();
+        removedStudents.forEach((studentId, sequence) -> {
+            if (sequence <= upTo) {
+                removed.put(studentId, sequence);
+            }
+        });
+        long[] pendingKeys = pending.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+
+        try {
+            Mapping compacted = write(current.builtAt(), writer -> {
+                int i = 0;
+                int j = 0;
+                while (i < current.count() || j < pendingKeys.length) {
+                    long baseKey = i < current.count() ? current.keyAt(i) : Long.MAX_VALUE;
+                    long pendingKey = j < pendingKeys.length ? pendingKeys[j] : Long.MAX_VALUE;
+                    if (j < pendingKeys.length && (i >= current.count() || pendingKey <= baseKey)) {
+                        Pending change = pending.get(pendingKey);
+                        Long removedAt = change.studentId() != null ? removed.get(change.studentId()) : null;
+                        if (change.studentId() != null && (removedAt == null || removedAt < change.sequence())) {
+                            writer.write(pendingKey, change.studentId() ^ maskOf(pendingKey));
+                        }
+                        if (i < current.count() && pendingKey == baseKey) {
+                            i++;
+                        }
+                        j++;
+                    } else {
+                        long masked = current.valueAt(i);
+                        if (removed.isEmpty() || !removed.containsKey(masked ^ maskOf(baseKey))) {
+                            writer.write(baseKey, masked);
+                        }
+                        i++;
+                    }
+                }
+            });
+            pending.forEach(pendingByKey::remove);
+            removed.forEach(removedStudents::remove);
+            log.debug("SIS_SNAPSHOT: Compacted {} token and {} student changes ({} tokens)",
+                    pending.size(), removed.size(), compacted.count());
+        } catch (IOException | RuntimeException e) {
+            log.warn("SIS_SNAPSHOT: Failed to write pending changes to {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Compact in the background once compact-threshold changes are pending,
+     * so a burst of changes between maintenance runs does not pile up on the
+     * heap. At most one such compaction is queued at a time.
+     */
+    private void compactIfLarge() {
+        if (compactThreshold > 0 && pendingChanges() >= compactThreshold
+                && compactionScheduled.compareAndSet(false, true)) {
+            Schedulers.boundedElastic().schedule(() -> {
+                try {
+                    compact();
+                } finally {
+                    compactionScheduled.set(false);
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        compact();
+    }
+
+    public int size() {
+        Mapping current = mapping;
+        return current != null ? current.count() : 0;
+    }
+
+    public int pendingChanges() {
+        return pendingByKey.size() + removedStudents.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("guardian.sis.snapshot.records", this, SisTokenSnapshot::size)
+                .description("Tokens in the local SIS token snapshot file")
+                .register(registry);
+        Gauge.builder("guardian.sis.snapshot.pending", this, SisTokenSnapshot::pendingChanges)
+                .description("Token changes not yet written to the snapshot file")
+                .register(registry);
+        FunctionCounter.builder("guardian.sis.snapshot.hits", hits, LongAdder::sum)
+                .description("Outage-mode token resolutions answered by the snapshot")
+                .register(registry);
+        FunctionCounter.builder("guardian.sis.snapshot.misses", misses, LongAdder::sum)
+                .description("Outage-mode token resolutions the snapshot could not answer")
+                .register(registry);
+    }
+
+    private Long find(long key) {
+        Pending change = pendingByKey.get(key);
+        if (change != null) {
+            if (change.studentId() == null) {
+                return null;
+            }
+            Long removedAt = removedStudents.get(change.studentId());
+            return removedAt == null || removedAt < change.sequence() ? change.studentId() : null;
+        }
+        Mapping current = mapping;
+        int index = current != null ? current.indexOf(key) : -1;
+        if (index < 0) {
+            return null;
+        }
+        long studentId = current.valueAt(index) ^ maskOf(key);
+        return removedStudents.containsKey(studentId) ? null : studentId;
+    }
+
+    // ========================================================================
+    // FILE
+    // ========================================================================
+
+    private Mapping open() {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < DATA_OFFSET || size > Integer.MAX_VALUE) {
+                throw new IOException("unexpected size " + size);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            byte[] magic = new byte[MAGIC.length];
+            buffer.get(0, magic);
+            if (!Arrays.equals(magic, MAGIC) || buffer.get(MAGIC.length) != VERSION) {
+                throw new IOException("not a token snapshot");
+            }
+            int headerLength = buffer.getInt(8);
+            if (headerLength < 0 || headerLength > DATA_OFFSET - 12) {
+                throw new IOException("bad header length");
+            }
+            byte[] sealed = new byte[headerLength];
+            buffer.get(12, sealed);
+            ByteBuffer header = ByteBuffer.wrap(HeronixEncryptionService.getInstance().decrypt(sealed));
+            long count = header.getLong();
+            long builtAt = header.getLong();
+            if (header.getLong() != keyCheck()) {
+                throw new IOException("written under another key");
+            }
+            if (size != DATA_OFFSET + count * RECORD_BYTES) {
+                throw new IOException("truncated");
+            }
+            byte[] recordsMac = new byte[header.remaining()];
+            header.get(recordsMac);
+            Mac digest = recordsMac();
+            digest.update(buffer.slice(DATA_OFFSET, (int) (count * RECORD_BYTES)));
+            if (!MessageDigest.isEqual(digest.doFinal(), recordsMac)) {
+                throw new IOException("records do not match the header");
+            }
+            return new Mapping(buffer, (int) count, builtAt);
+        } catch (IOException | RuntimeException e) {
+            log.warn("SIS_SNAPSHOT: Ignoring unusable snapshot {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Write records (in ascending key order) to a new file, then swap it in.
+     */
+    private synchronized Mapping write(long builtAt, RecordSource source) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try {
+            long count;
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                RecordWriter writer = new RecordWriter(channel, recordsMac());
+                source.writeTo(writer);
+                count = writer.finish();
+                byte[] mac = writer.mac();
+
+                byte[] sealed = HeronixEncryptionService.getInstance().encrypt(ByteBuffer.allocate(24 + mac.length)
+                        .putLong(count).putLong(builtAt).putLong(keyCheck()).put(mac).array());
+                ByteBuffer header = ByteBuffer.allocate(12 + sealed.length)
+                        .put(MAGIC).put(VERSION).put(new byte[3]).putInt(sealed.length).put(sealed)
+                        .flip();
+                channel.write(header, 0);
+                channel.force(true);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        Mapping written = open();
+        if (written == null) {
+            throw new IOException("snapshot did not verify after writing");
+        }
+        mapping = written;
+        return written;
+    }
+
+    /**
+     * Read-only view of the snapshot records.
+     */
+    private record Mapping(ByteBuffer buffer, int count, long builtAt) {
+
+        long keyAt(int index) {
+            return buffer.getLong(DATA_OFFSET + index * RECORD_BYTES);
+        }
+
+        long valueAt(int index) {
+            return buffer.getLong(DATA_OFFSET + index * RECORD_BYTES + 8);
+        }
+
+        int indexOf(long key) {
+            int low = 0;
+            int high = count - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                long midKey = keyAt(mid);
+                if (midKey < key) {
+                    low = mid + 1;
+                } else if (midKey > key) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private record Pending(Long studentId, long sequence) {}
+
+    private interface RecordSource {
+        void writeTo(RecordWriter writer) throws IOException;
+    }
+
+    /**
+     * Buffered sequential writer of records after the header area; MACs the
+     * records as they are written.
+     */
+    private static final class RecordWriter {
+        private final FileChannel channel;
+        private final Mac digest;
+        private final ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES * 4096);
+        private long position = DATA_OFFSET;
+        private long count;
+
+        RecordWriter(FileChannel channel, Mac digest) {
+            this.channel = channel;
+            this.digest = digest;
+        }
+
+        void write(long key, long maskedStudentId) throws IOException {
+            if (count == MAX_RECORDS) {
+                throw new IOException("more than " + MAX_RECORDS + " tokens");
+            }
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.putLong(key).putLong(maskedStudentId);
+            count++;
+        }
+
+        long finish() throws IOException {
+            flush();
+            return count;
+        }
+
+        byte[] mac() {
+            return digest.doFinal();
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            digest.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Collects the full SIS token map for a rebuild. Entries are held as two
+     * primitive arrays until {@link #commit()}; not thread-safe.
+     */
+    public final class Builder {
+        private final long startedAtSequence;
+        private final long startedAt = System.currentTimeMillis();
+        private long[] keys = new long[1024];
+        private long[] values = new long[1024];
+        private int size;
+
+        private Builder(long startedAtSequence) {
+            this.startedAtSequence = startedAtSequence;
+        }
+
+        public void add(String tokenValue, Long studentId) {
+            if (tokenValue == null || studentId == null) {
+                return;
+            }
+            if (size == keys.length) {
+                int capacity = Math.min(MAX_RECORDS, Math.max(1024, keys.length * 2));
+                keys = Arrays.copyOf(keys, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            long key = keyOf(tokenValue);
+            keys[size] = key;
+            values[size] = studentId ^ maskOf(key);
+            size++;
+        }
+
+        /**
+         * Write the collected tokens as the new snapshot. Keys that collide
+         * across different students are left out (they fall back to SIS-less
+         * local resolution).
+         *
+         * @return whether the snapshot was written
+         */
+        public boolean commit() {
+            if (!enabled) {
+                return false;
+            }
+            sortByKey(keys, values, size);
+            try {
+                Mapping written = write(startedAt, writer -> {
+                    for (int i = 0; i < size; ) {
+                        int end = i + 1;
+                        boolean ambiguous = false;
+                        while (end < size && keys[end] == keys[i]) {
+                            ambiguous |= values[end] != values[i];
+                            end++;
+                        }
+                        if (!ambiguous) {
+                            writer.write(keys[i], values[i]);
+                        }
+                        i = end;
+                    }
+                });
+                pendingByKey.entrySet().removeIf(e -> e.getValue().sequence() <= startedAtSequence);
+                removedStudents.values().removeIf(sequence -> sequence <= startedAtSequence);
+                stale = false;
+                log.info("SIS_SNAPSHOT: Rebuilt with {} tokens", written.count());
+                return true;
+            } catch (IOException | RuntimeException e) {
+                log.warn("SIS_SNAPSHOT: Failed to write snapshot {}: {}", path, e.getMessage());
+                return false;
+            } finally {
+                keys = values = new long[0];
+                size = 0;
+            }
+        }
+    }
+
+    /**
+     * Heapsort of parallel key/value arrays by key; in place, no boxing.
+     */
+    static void sortByKey(long[] keys, long[] values, int size) {
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(keys, values, i, size);
+        }
+        for (int end = size - 1; end > 0; end--) {
+            swap(keys, values, 0, end);
+            siftDown(keys, values, 0, end);
+        }
+    }
+
+    private static void siftDown(long[] keys, long[] values, int root, int size) {
+        while (true) {
+            int child = 2 * root + 1;
+            if (child >= size) {
+                return;
+            }
+            if (child + 1 < size && keys[child + 1] > keys[child]) {
+                child++;
+            }
+            if (keys[root] >= keys[child]) {
+                return;
+            }
+            swap(keys, values, root, child);
+            root = child;
+        }
+    }
+
+    private static void swap(long[] keys, long[] values, int a, int b) {
+        long key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        long value = values[a];
+        values[a] = values[b];
+        values[b] = value;
+    }
+
+    // ========================================================================
+    // KEYS
+    // ========================================================================
+
+    private long keyOf(String tokenValue) {
+        Mac mac = macs.get();
+        mac.update(KEY_DOMAIN);
+        mac.update(tokenValue.getBytes(StandardCharsets.UTF_8));
+        return ByteBuffer.wrap(mac.doFinal()).getLong();
+    }
+
+    private long maskOf(long key) {
+        Mac mac = macs.get();
+        mac.update(MASK_DOMAIN);
+        mac.update(ByteBuffer.allocate(Long.BYTES).putLong(key).array());
+        return ByteBuffer.wrap(mac.doFinal()).getLong();
+    }
+
+    private long keyCheck() {
+        Mac mac = macs.get();
+        mac.update(CHECK_DOMAIN);
+        return ByteBuffer.wrap(mac.doFinal()).getLong();
+    }
+
+    /**
+     * Fresh MAC over the record area; separate from the per-thread MAC, which
+     * the writers use for record masks while the records are MACed.
+     */
+    private Mac recordsMac() {
+        Mac mac = newMac();
+        mac.update(RECORDS_DOMAIN);
+        return mac;
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(snapshotKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialize snapshot MAC", e);
+        }
+    }
+
+    private static SecretKeySpec deriveSnapshotKey(SecretKey tokenMacKey) {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(tokenMacKey);
+            byte[] derived = mac.doFinal("heronix-sis-token-snapshot".getBytes(StandardCharsets.UTF_8));
+            return new SecretKeySpec(derived, MAC_ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot derive snapshot key", e);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.heronix.guardian.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.exception.TokenGenerationException;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Striped locks serializing token creation per (entity type, entity ID, vendor scope).
+ *
+ * getOrCreateToken, bulk generation and rotation chunks lock the stripes of
+ * the entities they may create tokens for before their existence check, and keep them until the
+ * surrounding transaction completes, so a concurrent caller in this JVM only
+ * checks once the first caller's token is committed and then finds it. Called
+ * outside a transaction, the stripes are held until the returned {@link Held}
+ * is closed.
+ *
+ * Stripes are taken in ascending order. If one cannot be taken within the
+ * timeout (e.g. two transactions each holding stripes the other needs), the
+ * stripes already taken are released and the call fails with a
+ * TokenGenerationException, so the transaction rolls back rather than
+ * creating a token unguarded.
+ *
+ * A bulk takes at most creation-lock-max-bulk-stripes stripes; a large bulk
+ * would otherwise hold most of them for its whole transaction and stall every
+ * single creation. Entities on the stripes beyond the cap rely on the unique
+ * index as well.
+ *
+ * Metrics: guardian.token.creation.lock.timeouts
+ */
+@Component
+@Slf4j
+public class TokenCreationLocks implements MeterBinder {
+
+    private final ReentrantLock[] stripes;
+    private final long timeoutMs;
+    private final int maxBulkStripes;
+    private final LongAdder timeouts = new LongAdder();
+
+    public TokenCreationLocks(GuardianProperties properties) {
+        GuardianProperties.TokenConfig config = properties.getToken();
+        int count = Integer.highestOneBit(Math.max(1, config.getCreationLockStripes()));
+        this.stripes = new ReentrantLock[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.timeoutMs = config.getCreationLockTimeoutMs();
+        this.maxBulkStripes = Math.max(1, config.getCreationLockMaxBulkStripes());
+    }
+
+    /**
+     * Lock the stripe of one entity until the current transaction completes.
+     *
+     * @return the lock, to be closed when called outside a transaction
+     * @throws TokenGenerationException if the stripe cannot be taken within the timeout
+     */
+    public Held lock(String entityType, Long entityId, String vendorScope) {
+        return lock(entityType, List.of(entityId), vendorScope);
+    }
+
+    /**
+     * Lock the stripes of several entities, in stripe order, until the current
+     * transaction completes. Only the first creation-lock-max-bulk-stripes
+     * stripes are taken.
+     *
+     * @return the locks, to be closed when called outside a transaction
+     * @throws TokenGenerationException if a stripe cannot be taken within the timeout
+     */
+    public Held lock(String entityType, Collection<Long> entityIds, String vendorScope) {
+        List<EntityKey> keys = new ArrayList<>(entityIds.size());
+        for (Long entityId : entityIds) {
+            keys.add(new EntityKey(entityType, entityId, vendorScope));
+        }
+        return lock(keys);
+    }
+
+    /**
+     * Lock the stripes of entities of any type and vendor scope, in one stripe
+     * order, until the current transaction completes. Only the first
+     * creation-lock-max-bulk-stripes stripes are taken.
+     *
+     * @return the locks, to be closed when called outside a transaction
+     * @throws TokenGenerationException if a stripe cannot be taken within the timeout
+     */
+    public Held lock(Collection<EntityKey> keys) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (EntityKey key : keys) {
+            indexes.add(stripeIndex(key.entityType(), key.entityId(), key.vendorScope()));
+        }
+
+        if (indexes.size() > maxBulkStripes) {
+            log.debug("TOKEN_LOCKS: {} entities span {} stripes, locking the first {}",
+                    keys.size(), indexes.size(), maxBulkStripes);
+        }
+
+        List<ReentrantLock> taken = new ArrayList<>(Math.min(indexes.size(), maxBulkStripes));
+        for (int index : indexes) {
+            if (taken.size() == maxBulkStripes) {
+                break;
+            }
+            ReentrantLock stripe = stripes[index];
+            if (!tryLock(stripe)) {
+                unlock(taken);
+                timeouts.increment();
+                log.warn("TOKEN_LOCKS: Timed out after {} ms waiting for a creation lock", timeoutMs);
+                throw new TokenGenerationException("Timed out after " + timeoutMs
+                        + " ms waiting for a token creation lock");
+            }
+            taken.add(stripe);
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new Held(taken);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                unlock(taken);
+            }
+        });
+        return Held.UNTIL_COMPLETION;
+    }
+
+    /**
+     * Number of stripes.
+     */
+    public int stripeCount() {
+        return stripes.length;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("guardian.token.creation.lock.timeouts", timeouts, LongAdder::sum)
+                .description("Token creations that failed after timing out waiting for their lock stripe")
+                .register(registry);
+    }
+
+    private boolean tryLock(ReentrantLock stripe) {
+        try {
+            return stripe.tryLock(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void unlock(List<ReentrantLock> taken) {
+        for (int i = taken.size() - 1; i >= 0; i--) {
+            taken.get(i).unlock();
+        }
+    }
+
+    private int stripeIndex(String entityType, Long entityId, String vendorScope) {
+        int h = Objects.hash(entityType, entityId, vendorScope);
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h & (stripes.length - 1);
+    }
+
+    /**
+     * An entity that may get a token created or replaced.
+     */
+    public record EntityKey(String entityType, Long entityId, String vendorScope) {}
+
+    /**
+     * Stripes taken by one lock call. Inside a transaction they are released
+     * when it completes and close() does nothing; outside one, close() releases them.
+     */
+    public static final class Held implements AutoCloseable {
+
+        static final Held UNTIL_COMPLETION = new Held(List.of());
+
+        private List<ReentrantLock> taken;
+
+        private Held(List<ReentrantLock> taken) {
+            this.taken = taken;
+        }
+
+        @Override
+        public void close() {
+            if (taken != null) {
+                unlock(taken);
+                taken = null;
+            }
+        }
+    }
+}
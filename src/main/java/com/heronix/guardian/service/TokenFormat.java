@@ -0,0 +1,402 @@
+package com.heronix.guardian.service;
+
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.model.enums.TokenType;
+import com.heronix.guardian.security.HeronixEncryptionService;
+
+/**
+ * Single-pass parser and checksum calculator for the token formats
+ * - v1: PREFIX_HASH_CHECKSUM (e.g., STU_H7K2P9M3_X8), additive checksum
+ * - v2: PREFIX_HASH_MAC (e.g., STU_H7K2P9M3_Q4ZK7C), truncated HMAC-SHA256 over
+ *   PREFIX_HASH keyed from the Heronix master key
+ *
+ * Shared by TokenGenerationService and TokenValidationService so that both
+ * compute the tail the same way. The version is told apart by tail length, so
+ * both formats validate side by side; {@code formatVersion} only selects what
+ * is minted. A v2 tail cannot be produced without the key, so forged or
+ * mistyped v2 tokens are rejected here, in constant time, without a database
+ * lookup. Without a master key (encryption disabled) there is no MAC key:
+ * format v2 cannot be selected and v2 tails never validate. Parsing walks the token once against a precomputed 128-entry charset
+ * table and returns the parsed view packed into a long.
+ *
+ * Packed layout of a parse result:
+ * - bits 0-7:   TokenType ordinal
+ * - bits 8-15:  hash start offset
+ * - bits 16-23: hash end offset (exclusive)
+ * - bits 24-39: computed checksum value (0 .. radix^2 - 1, v1 only)
+ * - bit 40:     provided checksum/MAC matches the computed one
+ * - bit 41:     token is format v2
+ * A malformed token parses to {@link #MALFORMED}.
+ */
+@Component
+public class TokenFormat {
+
+    /**
+     * Parse result for a token that does not match the format.
+     */
+    public static final long MALFORMED = -1L;
+
+    private static final char SEPARATOR = '_';
+    private static final long CHECKSUM_VALID_BIT = 1L << 40;
+    private static final long V2_BIT = 1L << 41;
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int MAC_BYTES = 32;
+
+    // guardian_tokens.token_value and .checksum (V6); minted tokens must fit both
+    private static final int TOKEN_VALUE_COLUMN_LENGTH = 24;
+    private static final int CHECKSUM_COLUMN_LENGTH = 8;
+
+    private static final TokenType[] TYPES = TokenType.values();
+
+    private final String charset;
+    private final int radix;
+    private final int modulus;
+    private final int hashLength;
+    private final int checksumLength;
+    private final int macLength;
+    private final int formatVersion;
+
+    // ASCII char -> index in charset, or -1 if not allowed
+    private final byte[] charIndex = new byte[128];
+
+    // MAC key is resolved on first v2 use; the encryption service may initialize after this bean
+    private final Supplier<SecretKey> macKeySupplier;
+    private volatile SecretKey macKey;
+    private final ThreadLocal<MacState> macStates = ThreadLocal.withInitial(this::newMacState);
+
+    @Autowired
+    public TokenFormat(GuardianProperties properties) {
+        this(properties, () -> HeronixEncryptionService.getInstance().getTokenMacKey());
+    }
+
+    TokenFormat(GuardianProperties properties, Supplier<SecretKey> macKeySupplier) {
+        GuardianProperties.TokenConfig config = properties.getToken();
+        this.charset = config.getHashCharset();
+        this.radix = charset.length();
+        this.modulus = radix * radix;
+        this.hashLength = config.getHashLength();
+        this.checksumLength = config.getChecksumLength();
+        this.macLength = config.getMacLength();
+        this.formatVersion = config.getFormatVersion();
+        this.macKeySupplier = macKeySupplier;
+
+        if (macLength == checksumLength || macLength < 1 || macLength > CHECKSUM_COLUMN_LENGTH) {
+            throw new IllegalArgumentException("Token MAC length must be 1-" + CHECKSUM_COLUMN_LENGTH
+                    + " and differ from the checksum length: " + macLength);
+        }
+        if (checksumLength < 1 || checksumLength > CHECKSUM_COLUMN_LENGTH) {
+            throw new IllegalArgumentException("Token checksum length must be 1-" + CHECKSUM_COLUMN_LENGTH + ": "
+                    + checksumLength);
+        }
+        int longestToken = longestPrefix() + 1 + hashLength + 1 + Math.max(macLength, checksumLength);
+        if (longestToken > TOKEN_VALUE_COLUMN_LENGTH) {
+            throw new IllegalArgumentException("Tokens of " + longestToken + " characters do not fit the "
+                    + TOKEN_VALUE_COLUMN_LENGTH + "-character token_value column; shorten hash-length or mac-length");
+        }
+        if (formatVersion != 1 && formatVersion != 2) {
+            throw new IllegalArgumentException("Token format version must be 1 or 2: " + formatVersion);
+        }
+        if (formatVersion == 2 && macKey() == null) {
+            throw new IllegalStateException("Token format version 2 needs the token MAC key, which is derived from"
+                    + " HERONIX_MASTER_KEY; it cannot be used while encryption is disabled");
+        }
+
+        if (radix < 2 || radix > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Token charset must have 2-127 characters: " + radix);
+        }
+        Arrays.fill(charIndex, (byte) -1);
+        for (int i = 0; i < radix; i++) {
+            char c = charset.charAt(i);
+            if (c >= charIndex.length || c == SEPARATOR) {
+                throw new IllegalArgumentException("Token charset must be ASCII without '_': " + charset);
+            }
+            charIndex[c] = (byte) i;
+        }
+    }
+
+    // ========================================================================
+    // PARSING
+    // ========================================================================
+
+    /**
+     * Parse a token value in a single pass.
+     *
+     * @return the packed parse result, or {@link #MALFORMED}
+     */
+    public long parse(String token) {
+        if (token == null) {
+            return MALFORMED;
+        }
+        int len = token.length();
+
+        // Prefix - matched case-insensitively against TokenType prefixes
+        int sep = 0;
+        int sum = 0;
+        while (sep < len) {
+            char c = token.charAt(sep);
+            if (c == SEPARATOR) {
+                break;
+            }
+            sum += c;
+            sep++;
+        }
+        TokenType type = matchPrefix(token, sep);
+        if (type == null) {
+            return MALFORMED;
+        }
+
+        int hashStart = sep + 1;
+        int hashEnd = hashStart + hashLength;
+        int tailLength = len - hashEnd - 1;
+        if ((tailLength != checksumLength && tailLength != macLength) || token.charAt(hashEnd) != SEPARATOR) {
+            return MALFORMED;
+        }
+        sum += SEPARATOR;
+
+        // Hash - feeds the checksum
+        for (int i = hashStart; i < hashEnd; i++) {
+            char c = token.charAt(i);
+            if (!isCharsetChar(c)) {
+                return MALFORMED;
+            }
+            sum += c;
+        }
+
+        // Provided checksum / MAC
+        for (int i = hashEnd + 1; i < len; i++) {
+            if (!isCharsetChar(token.charAt(i))) {
+                return MALFORMED;
+            }
+        }
+
+        if (tailLength == macLength) {
+            boolean macValid = macKey() != null && verifyMac(token, hashEnd);
+            return type.ordinal()
+                    | ((long) hashStart << 8)
+                    | ((long) hashEnd << 16)
+                    | V2_BIT
+                    | (macValid ? CHECKSUM_VALID_BIT : 0L);
+        }
+
+        int checksum = sum % modulus;
+        boolean checksumValid = checksumLength == 2
+                && token.charAt(len - 2) == charset.charAt(checksum / radix)
+                && token.charAt(len - 1) == charset.charAt(checksum % radix);
+
+        return type.ordinal()
+                | ((long) hashStart << 8)
+                | ((long) hashEnd << 16)
+                | ((long) checksum << 24)
+                | (checksumValid ? CHECKSUM_VALID_BIT : 0L);
+    }
+
+    public static boolean isWellFormed(long parsed) {
+        return parsed != MALFORMED;
+    }
+
+    public static boolean isChecksumValid(long parsed) {
+        return parsed != MALFORMED && (parsed & CHECKSUM_VALID_BIT) != 0;
+    }
+
+    public static TokenType tokenType(long parsed) {
+        return TYPES[(int) (parsed & 0xFF)];
+    }
+
+    public static int hashStart(long parsed) {
+        return (int) ((parsed >>> 8) & 0xFF);
+    }
+
+    public static int hashEnd(long parsed) {
+        return (int) ((parsed >>> 16) & 0xFF);
+    }
+
+    public static int checksum(long parsed) {
+        return (int) ((parsed >>> 24) & 0xFFFF);
+    }
+
+    /**
+     * @return 1 or 2
+     */
+    public static int formatVersion(long parsed) {
+        return (parsed & V2_BIT) != 0 ? 2 : 1;
+    }
+
+    // ========================================================================
+    // GENERATION
+    // ========================================================================
+
+    /**
+     * Build a complete token value in the configured format version
+     * from a type and a hash drawn from the charset.
+     */
+    public String compose(TokenType tokenType, CharSequence hash) {
+        return compose(tokenType, hash, formatVersion);
+    }
+
+    /**
+     * Build a complete token value in the given format version.
+     */
+    public String compose(TokenType tokenType, CharSequence hash, int version) {
+        String prefix = tokenType.getPrefix();
+        StringBuilder sb = new StringBuilder(prefix.length() + hash.length() + 2 + macLength);
+        int sum = 0;
+        for (int i = 0; i < prefix.length(); i++) {
+            char c = prefix.charAt(i);
+            sb.append(c);
+            sum += c;
+        }
+        sb.append(SEPARATOR);
+        sum += SEPARATOR;
+        for (int i = 0; i < hash.length(); i++) {
+            char c = hash.charAt(i);
+            sb.append(c);
+            sum += c;
+        }
+        if (version == 2) {
+            byte[] mac = computeMac(sb, sb.length());
+            sb.append(SEPARATOR);
+            for (int i = 0; i < macLength; i++) {
+                sb.append(macChar(mac[i]));
+            }
+            return sb.toString();
+        }
+        int checksum = sum % modulus;
+        return sb.append(SEPARATOR)
+                .append(charset.charAt(checksum / radix))
+                .append(charset.charAt(checksum % radix))
+                .toString();
+    }
+
+    /**
+     * The checksum (v1) or MAC (v2) part of a token produced by {@link #compose}.
+     */
+    public String checksumPart(String tokenValue) {
+        return tokenValue.substring(tokenValue.lastIndexOf(SEPARATOR) + 1);
+    }
+
+    /**
+     * Format version minted for new tokens.
+     */
+    public int formatVersion() {
+        return formatVersion;
+    }
+
+    public String charset() {
+        return charset;
+    }
+
+    public int hashLength() {
+        return hashLength;
+    }
+
+    // ========================================================================
+    // INTERNALS
+    // ========================================================================
+
+    /**
+     * Compare the provided MAC tail against the expected one without early exit.
+     */
+    private boolean verifyMac(String token, int macInputLength) {
+        byte[] mac = computeMac(token, macInputLength);
+        int diff = 0;
+        int tailStart = macInputLength + 1;
+        for (int i = 0; i < macLength; i++) {
+            diff |= token.charAt(tailStart + i) ^ macChar(mac[i]);
+        }
+        return diff == 0;
+    }
+
+    /**
+     * HMAC over the first {@code length} (ASCII) chars; the result buffer is per-thread and reused.
+     */
+    private byte[] computeMac(CharSequence input, int length) {
+        MacState state = macStates.get();
+        byte[] in = state.input.length >= length ? state.input : (state.input = new byte[length]);
+        for (int i = 0; i < length; i++) {
+            in[i] = (byte) input.charAt(i);
+        }
+        state.mac.update(in, 0, length);
+        try {
+            state.mac.doFinal(state.output, 0);
+        } catch (ShortBufferException e) {
+            throw new IllegalStateException("MAC output buffer too small", e);
+        }
+        return state.output;
+    }
+
+    private char macChar(byte b) {
+        return charset.charAt((b & 0xFF) % radix);
+    }
+
+    /**
+     * The token MAC key, or null when encryption is disabled.
+     */
+    private SecretKey macKey() {
+        SecretKey key = macKey;
+        if (key == null) {
+            macKey = key = macKeySupplier.get();
+        }
+        return key;
+    }
+
+    private MacState newMacState() {
+        try {
+            SecretKey key = macKey();
+            if (key == null) {
+                throw new IllegalStateException("No token MAC key: encryption is disabled");
+            }
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(key);
+            return new MacState(mac);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialize token MAC", e);
+        }
+    }
+
+    /**
+     * Per-thread Mac instance and scratch buffers.
+     */
+    private static final class MacState {
+        final Mac mac;
+        byte[] input = new byte[32];
+        final byte[] output = new byte[MAC_BYTES];
+
+        MacState(Mac mac) {
+            this.mac = mac;
+        }
+    }
+
+    private boolean isCharsetChar(char c) {
+        return c < charIndex.length && charIndex[c] >= 0;
+    }
+
+    private static int longestPrefix() {
+        int longest = 0;
+        for (TokenType type : TYPES) {
+            longest = Math.max(longest, type.getPrefix().length());
+        }
+        return longest;
+    }
+
+    private static TokenType matchPrefix(String token, int prefixLength) {
+        for (TokenType type : TYPES) {
+            String prefix = type.getPrefix();
+            if (prefix.length() == prefixLength && token.regionMatches(true, 0, prefix, 0, prefixLength)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
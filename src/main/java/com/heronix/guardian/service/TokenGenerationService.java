@@ -1,10 +1,15 @@
 package com.heronix.guardian.service;
 
-import java.security.SecureRandom;
 import java.time.LocalDateTime;
 import java.time.Month;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -14,6 +19,7 @@ import com.heronix.guardian.exception.TokenGenerationException;
 import com.heronix.guardian.model.domain.GuardianToken;
 import com.heronix.guardian.model.enums.TokenStatus;
 import com.heronix.guardian.model.enums.TokenType;
+import com.heronix.guardian.repository.GuardianTokenJdbcRepository;
 import com.heronix.guardian.repository.GuardianTokenRepository;
 
 import lombok.RequiredArgsConstructor;
@@ -48,11 +54,23 @@ public class TokenGenerationService {
 
     private final GuardianTokenRepository tokenRepository;
     private final GuardianProperties properties;
+    private final TokenResolutionCache resolutionCache;
+    private final GuardianTokenJdbcRepository jdbcRepository;
+    private final TokenFormat tokenFormat;
+    private final TokenValueFilter valueFilter;
+    private final TokenValueMinter valueMinter;
+    private final TokenReservoir reservoir;
+    private final TokenStatistics statistics;
+    private final TokenCreationLocks creationLocks;
 
-    private final SecureRandom secureRandom = new SecureRandom();
+    // Maximum inserts rejected by the unique index before failing
+    private static final int MAX_INSERT_ATTEMPTS = 5;
 
-    // Maximum attempts to generate a unique token before failing
-    private static final int MAX_GENERATION_ATTEMPTS = 100;
+    // Entity IDs per lookup / collision-check round trip in bulk generation
+    private static final int BULK_CHUNK_SIZE = 1000;
+
+    // Rows per JDBC insert batch in bulk generation
+    private static final int BULK_INSERT_BATCH_SIZE = 500;
 
     /**
      * Generate a new token for an entity.
@@ -78,195 +96,287 @@ public class TokenGenerationService {
      */
     @Transactional
     public GuardianToken generateToken(TokenType tokenType, Long entityId, String vendorScope, String createdBy) {
+        return findOrCreateToken(tokenType, entityId, vendorScope, createdBy).token();
+    }
+
+    /**
+     * The entity's active token, created if it has none.
+     */
+    private Minted findOrCreateToken(TokenType tokenType, Long entityId, String vendorScope, String createdBy) {
         log.debug("Generating {} token for entity {} (vendor: {})", tokenType, entityId, vendorScope);
 
-        // Check if active token already exists
+        // Check if active token already exists (under the entity's creation lock)
         String entityType = tokenType.getEntityType();
-        var existingToken = vendorScope != null
-                ? tokenRepository.findActiveToken(entityType, entityId, vendorScope)
-                : tokenRepository.findActiveUniversalToken(entityType, entityId);
-
-        if (existingToken.isPresent()) {
-            log.debug("Active token already exists for entity {}: {}", entityId, existingToken.get().getTokenValue());
-            return existingToken.get();
-        }
-
-        // Generate unique token value
-        String tokenValue = generateUniqueTokenValue(tokenType);
-        String[] parts = parseTokenValue(tokenValue);
-        String hash = parts[1];
-        String checksum = parts[2];
+        try (TokenCreationLocks.Held held = creationLocks.lock(entityType, entityId, vendorScope)) {
+            var existingToken = findActiveToken(entityType, entityId, vendorScope);
 
-        // Generate salt
-        String salt = generateSalt();
-
-        // Calculate expiration
-        LocalDateTime expiresAt = calculateExpiration();
-
-        // Create token entity
-        GuardianToken token = GuardianToken.builder()
-                .tokenValue(tokenValue)
-                .tokenType(tokenType)
-                .entityId(entityId)
-                .entityType(entityType)
-                .vendorScope(vendorScope)
-                .schoolYear(getCurrentSchoolYear())
-                .salt(salt)
-                .checksum(checksum)
-                .status(TokenStatus.ACTIVE)
-                .expiresAt(expiresAt)
-                .rotationCount(0)
-                .usageCount(0L)
-                .createdBy(createdBy)
-                .build();
+            if (existingToken.isPresent()) {
+                log.debug("Active token already exists for entity {}: {}",
+                        entityId, existingToken.get().getTokenValue());
+                return new Minted(existingToken.get(), false);
+            }
 
-        token = tokenRepository.save(token);
-        log.info("Generated token {} for {} entity {}", tokenValue, tokenType, entityId);
+            // Create token entity (token value is claimed from the reservoir or assigned on insert)
+            GuardianToken.GuardianTokenBuilder template = GuardianToken.builder()
+                    .tokenType(tokenType)
+                    .entityId(entityId)
+                    .entityType(entityType)
+                    .vendorScope(vendorScope)
+                    .schoolYear(getCurrentSchoolYear())
+                    .salt(valueMinter.generateSalt())
+                    .status(TokenStatus.ACTIVE)
+                    .expiresAt(calculateExpiration())
+                    .rotationCount(0)
+                    .usageCount(0L)
+                    .createdBy(createdBy);
+
+            Minted minted = claimOrInsert(tokenType, template);
+            if (minted.created()) {
+                log.info("Generated token {} for {} entity {}", minted.token().getTokenValue(), tokenType, entityId);
+            }
 
-        return token;
+            return minted;
+        }
     }
 
     /**
      * Get or create a token for an entity.
+     *
+     * Concurrent callers for the same entity in this JVM are serialized by
+     * TokenCreationLocks until the creating transaction commits; callers on
+     * other nodes are caught by the unique index on ACTIVE tokens and get the
+     * winner's token back. Either way at most one ACTIVE token is created.
      */
     @Transactional
     public GuardianToken getOrCreateToken(TokenType tokenType, Long entityId, String vendorScope) {
-        String entityType = tokenType.getEntityType();
-
-        var existingToken = vendorScope != null
-                ? tokenRepository.findActiveToken(entityType, entityId, vendorScope)
-                : tokenRepository.findActiveUniversalToken(entityType, entityId);
-
-        return existingToken.orElseGet(() -> generateToken(tokenType, entityId, vendorScope));
+        return generateToken(tokenType, entityId, vendorScope);
     }
 
     /**
      * Generate tokens for multiple entities in bulk.
+     *
+     * Set-based: existing active tokens are loaded with one query per chunk,
+     * missing values are minted in memory, collision-checked with one IN query
+     * and inserted in JDBC batches. Returns one token per distinct entity ID,
+     * in request order.
      */
     @Transactional
     public List<GuardianToken> generateTokensBulk(TokenType tokenType, List<Long> entityIds, String vendorScope) {
-        log.info("Generating {} tokens for {} {} entities", vendorScope, entityIds.size(), tokenType);
+        log.info("Generating {} tokens for {} entities (vendor: {})", tokenType, entityIds.size(), vendorScope);
 
-        List<GuardianToken> tokens = new ArrayList<>();
-        for (Long entityId : entityIds) {
-            tokens.add(getOrCreateToken(tokenType, entityId, vendorScope));
+        List<Long> distinctIds = entityIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+
+        Map<Long, GuardianToken> tokensByEntity = new HashMap<>(distinctIds.size() * 2);
+        int created = 0;
+
+        try (TokenCreationLocks.Held held = creationLocks.lock(tokenType.getEntityType(), distinctIds, vendorScope)) {
+            for (int from = 0; from < distinctIds.size(); from += BULK_CHUNK_SIZE) {
+                List<Long> chunk = distinctIds.subList(from, Math.min(from + BULK_CHUNK_SIZE, distinctIds.size()));
+                created += generateTokensChunk(tokenType, chunk, vendorScope, tokensByEntity);
+            }
         }
 
+        log.info("Bulk generation complete: {} existing, {} created",
+                distinctIds.size() - created, created);
+
+        List<GuardianToken> tokens = new ArrayList<>(distinctIds.size());
+        for (Long entityId : distinctIds) {
+            tokens.add(tokensByEntity.get(entityId));
+        }
         return tokens;
     }
 
     /**
-     * Rotate a token - creates a new token and marks the old one as rotated.
+     * Resolve or mint tokens for one chunk of entity IDs.
+     *
+     * @return number of tokens created
      */
-    @Transactional
-    public GuardianToken rotateToken(GuardianToken oldToken, String rotatedBy) {
-        log.info("Rotating token {} for entity {}", oldToken.getTokenValue(), oldToken.getEntityId());
-
-        // Generate new token
-        String newTokenValue = generateUniqueTokenValue(oldToken.getTokenType());
-        String[] parts = parseTokenValue(newTokenValue);
-        String checksum = parts[2];
-
-        GuardianToken newToken = GuardianToken.builder()
-                .tokenValue(newTokenValue)
-                .tokenType(oldToken.getTokenType())
-                .entityId(oldToken.getEntityId())
-                .entityType(oldToken.getEntityType())
-                .vendorScope(oldToken.getVendorScope())
-                .schoolYear(getCurrentSchoolYear())
-                .salt(generateSalt())
-                .checksum(checksum)
-                .status(TokenStatus.ACTIVE)
-                .expiresAt(calculateExpiration())
-                .rotationCount(oldToken.getRotationCount() + 1)
-                .usageCount(0L)
-                .createdBy(rotatedBy)
-                .build();
-
-        newToken = tokenRepository.save(newToken);
-
-        // Mark old token as rotated
-        oldToken.markRotated(newToken.getId());
-        tokenRepository.save(oldToken);
-
-        log.info("Rotated token {} -> {} for entity {}",
-                oldToken.getTokenValue(), newToken.getTokenValue(), oldToken.getEntityId());
-
-        return newToken;
-    }
+    int generateTokensChunk(TokenType tokenType, List<Long> entityIds, String vendorScope,
+                                    Map<Long, GuardianToken> tokensByEntity) {
+        String entityType = tokenType.getEntityType();
 
-    /**
-     * Generate a unique token value with collision detection.
-     */
-    private String generateUniqueTokenValue(TokenType tokenType) {
-        String charset = properties.getToken().getHashCharset();
-        int hashLength = properties.getToken().getHashLength();
-
-        for (int attempt = 0; attempt < MAX_GENERATION_ATTEMPTS; attempt++) {
-            String hash = generateRandomHash(charset, hashLength);
-            String tokenWithoutChecksum = tokenType.getPrefix() + "_" + hash;
-            String checksum = calculateChecksum(tokenWithoutChecksum, charset);
-            String tokenValue = tokenWithoutChecksum + "_" + checksum;
-
-            if (!tokenRepository.existsByTokenValue(tokenValue)) {
-                return tokenValue;
+        // Existing active tokens - same matching rules as findActiveToken / findActiveUniversalToken
+        for (GuardianToken token : tokenRepository.findActiveTokensForEntities(entityType, entityIds)) {
+            String scope = token.getVendorScope();
+            if (scope == null) {
+                tokensByEntity.putIfAbsent(token.getEntityId(), token);
+            } else if (scope.equals(vendorScope)) {
+                tokensByEntity.put(token.getEntityId(), token);
             }
+        }
 
-            log.debug("Token collision detected on attempt {}, regenerating...", attempt + 1);
+        List<Long> missing = entityIds.stream()
+                .filter(id -> !tokensByEntity.containsKey(id))
+                .toList();
+        if (missing.isEmpty()) {
+            return 0;
         }
 
-        throw new TokenGenerationException(
-                "Failed to generate unique token after " + MAX_GENERATION_ATTEMPTS + " attempts");
+        // Mint in memory, then replace any values that already exist in the database
+        Set<String> values = valueMinter.mintUniqueValues(tokenType, missing.size());
+
+        String schoolYear = getCurrentSchoolYear();
+        LocalDateTime expiresAt = calculateExpiration();
+        Iterator<String> valueIterator = values.iterator();
+        List<GuardianToken> newTokens = new ArrayList<>(missing.size());
+        for (Long entityId : missing) {
+            String tokenValue = valueIterator.next();
+            newTokens.add(GuardianToken.builder()
+                    .tokenValue(tokenValue)
+                    .tokenType(tokenType)
+                    .entityId(entityId)
+                    .entityType(entityType)
+                    .vendorScope(vendorScope)
+                    .schoolYear(schoolYear)
+                    .salt(valueMinter.generateSalt())
+                    .checksum(tokenFormat.checksumPart(tokenValue))
+                    .status(TokenStatus.ACTIVE)
+                    .expiresAt(expiresAt)
+                    .rotationCount(0)
+                    .usageCount(0L)
+                    .build());
+        }
+
+        if (!jdbcRepository.tryBatchInsertTokens(newTokens, BULK_INSERT_BATCH_SIZE)) {
+            // Another node created tokens for some of these entities (or took a value) - go one by one
+            log.warn("Bulk insert of {} {} tokens hit a unique index, retrying per entity", newTokens.size(), tokenType);
+            int created = 0;
+            for (Long entityId : missing) {
+                Minted minted = findOrCreateToken(tokenType, entityId, vendorScope, null);
+                tokensByEntity.put(entityId, minted.token());
+                if (minted.created()) {
+                    created++;
+                }
+            }
+            return created;
+        }
+        values.forEach(valueFilter::add);
+        statistics.created(tokenType, TokenStatus.ACTIVE, newTokens.size());
+
+        // Reload to pick up generated IDs
+        for (GuardianToken token : tokenRepository.findByTokenValueIn(values)) {
+            tokensByEntity.put(token.getEntityId(), token);
+        }
+        return newTokens.size();
     }
 
     /**
-     * Generate a random hash string.
+     * Rotate a token - creates a new token and marks the old one as rotated.
      */
-    private String generateRandomHash(String charset, int length) {
-        StringBuilder sb = new StringBuilder(length);
-        for (int i = 0; i < length; i++) {
-            sb.append(charset.charAt(secureRandom.nextInt(charset.length())));
+    @Transactional
+    public GuardianToken rotateToken(GuardianToken oldToken, String rotatedBy) {
+        log.info("Rotating token {} for entity {}", oldToken.getTokenValue(), oldToken.getEntityId());
+        try (TokenCreationLocks.Held held = creationLocks.lock(
+                oldToken.getEntityType(), oldToken.getEntityId(), oldToken.getVendorScope())) {
+            // Retire the old token first so its replacement does not collide with it on the
+            // one-ACTIVE-token-per-entity index; it is linked to the replacement below
+            TokenStatus previousStatus = oldToken.getStatus();
+            oldToken.markRotated(null);
+            tokenRepository.saveAndFlush(oldToken);
+
+            // Generate new token
+            GuardianToken.GuardianTokenBuilder template = GuardianToken.builder()
+                    .tokenType(oldToken.getTokenType())
+                    .entityId(oldToken.getEntityId())
+                    .entityType(oldToken.getEntityType())
+                    .vendorScope(oldToken.getVendorScope())
+                    .schoolYear(getCurrentSchoolYear())
+                    .salt(valueMinter.generateSalt())
+                    .status(TokenStatus.ACTIVE)
+                    .expiresAt(calculateExpiration())
+                    .rotationCount(oldToken.getRotationCount() + 1)
+                    .usageCount(0L)
+                    .createdBy(rotatedBy);
+
+            GuardianToken newToken = claimOrInsert(oldToken.getTokenType(), template).token();
+
+            // Link the old token to its replacement
+            oldToken.markRotated(newToken.getId());
+            tokenRepository.save(oldToken);
+            resolutionCache.invalidateOnCommit(oldToken.getTokenValue());
+            statistics.transitioned(oldToken.getTokenType(), previousStatus, TokenStatus.ROTATED, 1, usageOf(oldToken));
+
+            log.info("Rotated token {} -> {} for entity {}",
+                    oldToken.getTokenValue(), newToken.getTokenValue(), oldToken.getEntityId());
+
+            return newToken;
         }
-        return sb.toString();
     }
 
     /**
-     * Calculate checksum for a token value.
-     * Uses a simple CRC-like algorithm for quick validation.
+     * Revoke a token and drop it from the resolution cache.
      */
-    private String calculateChecksum(String input, String charset) {
-        int crc = 0;
-        for (char c : input.toCharArray()) {
-            crc = (crc + c) % (charset.length() * charset.length());
-        }
-        char c1 = charset.charAt(crc / charset.length());
-        char c2 = charset.charAt(crc % charset.length());
-        return "" + c1 + c2;
+    @Transactional
+    public GuardianToken revokeToken(GuardianToken token) {
+        TokenStatus previousStatus = token.getStatus();
+        token.revoke();
+        token = tokenRepository.save(token);
+        resolutionCache.invalidateOnCommit(token.getTokenValue());
+        statistics.transitioned(token.getTokenType(), previousStatus, TokenStatus.REVOKED, 1, usageOf(token));
+        return token;
     }
 
     /**
-     * Generate a cryptographic salt.
+     * Create a token from a pre-minted reservoir value, minting one inline if the reservoir is empty.
      */
-    private String generateSalt() {
-        byte[] saltBytes = new byte[32];
-        secureRandom.nextBytes(saltBytes);
-        StringBuilder sb = new StringBuilder(64);
-        for (byte b : saltBytes) {
-            sb.append(String.format("%02x", b));
-        }
-        return sb.toString();
+    private Minted claimOrInsert(TokenType tokenType, GuardianToken.GuardianTokenBuilder template) {
+        return reservoir.claim(template.build())
+                .map(token -> new Minted(token, true))
+                .orElseGet(() -> insertWithUniqueValue(tokenType, template));
     }
 
     /**
-     * Parse a token value into its components.
-     * @return array of [prefix, hash, checksum]
+     * Insert a new token with a fresh unique value.
+     *
+     * The insert runs under a savepoint, so if a unique index rejects it only
+     * the savepoint is rolled back and the caller's transaction stays usable.
+     * If another node has meanwhile created an ACTIVE token for the same
+     * entity, that token is returned; otherwise a concurrent writer took the
+     * same value and a new value is tried.
      */
-    private String[] parseTokenValue(String tokenValue) {
-        String[] parts = tokenValue.split("_");
-        if (parts.length != 3) {
-            throw new TokenGenerationException("Invalid token format: " + tokenValue);
+    private Minted insertWithUniqueValue(TokenType tokenType, GuardianToken.GuardianTokenBuilder template) {
+        for (int attempt = 1; attempt <= MAX_INSERT_ATTEMPTS; attempt++) {
+            String tokenValue = valueMinter.mintUniqueValue(tokenType);
+            GuardianToken candidate = template
+                    .tokenValue(tokenValue)
+                    .checksum(tokenFormat.checksumPart(tokenValue))
+                    .build();
+            Optional<Long> id = jdbcRepository.tryInsertToken(candidate);
+            valueFilter.add(tokenValue);
+            if (id.isPresent()) {
+                statistics.created(tokenType, TokenStatus.ACTIVE, 1);
+                return new Minted(tokenRepository.findById(id.get())
+                        .orElseThrow(() -> new TokenGenerationException("Inserted token not found: " + tokenValue)),
+                        true);
+            }
+
+            Optional<GuardianToken> winner = tokenRepository
+                    .findActiveTokensForEntities(candidate.getEntityType(), List.of(candidate.getEntityId())).stream()
+                    .filter(token -> Objects.equals(token.getVendorScope(), candidate.getVendorScope()))
+                    .findFirst();
+            if (winner.isPresent()) {
+                log.info("Active token for {} entity {} was created concurrently, using {}",
+                        tokenType, candidate.getEntityId(), winner.get().getTokenValue());
+                return new Minted(winner.get(), false);
+            }
+            log.warn("Duplicate token value {} on insert attempt {}, retrying", tokenValue, attempt);
         }
-        return parts;
+
+        throw new TokenGenerationException(
+                "Failed to insert unique token after " + MAX_INSERT_ATTEMPTS + " attempts");
+    }
+
+    private Optional<GuardianToken> findActiveToken(String entityType, Long entityId, String vendorScope) {
+        return vendorScope != null
+                ? tokenRepository.findActiveToken(entityType, entityId, vendorScope)
+                : tokenRepository.findActiveUniversalToken(entityType, entityId);
+    }
+
+    private static long usageOf(GuardianToken token) {
+        return token.getUsageCount() != null ? token.getUsageCount() : 0L;
     }
 
     /**
@@ -281,9 +391,14 @@ public class TokenGenerationService {
      * Get the current school year string (e.g., "2025-2026").
      */
     private String getCurrentSchoolYear() {
-        LocalDateTime now = LocalDateTime.now();
+        return schoolYear(LocalDateTime.now(), properties.getToken().getRotationMonth());
+    }
+
+    /**
+     * School year string for a point in time, given the rotation month.
+     */
+    static String schoolYear(LocalDateTime now, int rotationMonth) {
         int year = now.getYear();
-        int rotationMonth = properties.getToken().getRotationMonth();
 
         // If before rotation month (e.g., August), we're in the previous school year
         if (now.getMonthValue() < rotationMonth) {
@@ -292,4 +407,10 @@ public class TokenGenerationService {
             return year + "-" + (year + 1);
         }
     }
+
+    /**
+     * A token and whether this call created it (false: it already existed, or
+     * another node created it concurrently).
+     */
+    private record Minted(GuardianToken token, boolean created) {}
 }
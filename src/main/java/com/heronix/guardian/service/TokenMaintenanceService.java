@@ -0,0 +1,181 @@
+package com.heronix.guardian.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.model.enums.TokenStatus;
+import com.heronix.guardian.repository.GuardianTokenJdbcRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Scheduled expiry and purge of guardian_tokens in bounded batches.
+ *
+ * Instead of one unbounded UPDATE/DELETE, each job walks candidate ids with
+ * keyset pagination and expires or deletes at most {@code batchSize} rows per
+ * (auto-committed) transaction, pausing between batches. Row locks are held
+ * only briefly and only on the batch, so resolution and usage accounting keep
+ * running while maintenance is in progress.
+ *
+ * - Expire: ACTIVE tokens past expires_at become EXPIRED
+ * - Purge: ROTATED/REVOKED tokens older than audit.retention-days are deleted
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TokenMaintenanceService {
+
+    public static final String EXPIRE_JOB = "expire";
+    public static final String PURGE_JOB = "purge";
+
+    private final GuardianTokenJdbcRepository jdbcRepository;
+    private final TokenResolutionCache resolutionCache;
+    private final TokenStatistics statistics;
+    private final GuardianProperties properties;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Map<String, JobStats> lastRuns = new LinkedHashMap<>();
+
+    /**
+     * Outcome of one job run.
+     */
+    public record JobStats(
+            String job,
+            LocalDateTime startedAt,
+            LocalDateTime finishedAt,
+            long rows,
+            int batches,
+            double rowsPerSecond,
+            String error
+    ) {}
+
+    /**
+     * Scheduled entry point: expire, then purge.
+     */
+    @Scheduled(initialDelayString = "${heronix.guardian.token.maintenance.interval-ms:3600000}",
+               fixedDelayString = "${heronix.guardian.token.maintenance.interval-ms:3600000}")
+    public void scheduledRun() {
+        if (properties.getToken().getMaintenance().isEnabled()) {
+            runAll();
+        }
+    }
+
+    /**
+     * Run both jobs now (no-op if a run is already in progress).
+     *
+     * @return the stats of this run, or an empty map if skipped
+     */
+    public Map<String, JobStats> runAll() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("TOKEN_MAINTENANCE: Run already in progress, skipping");
+            return Map.of();
+        }
+        try {
+            Map<String, JobStats> stats = new LinkedHashMap<>();
+            stats.put(EXPIRE_JOB, expireTokens());
+            stats.put(PURGE_JOB, purgeTokens());
+            return stats;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Expire ACTIVE tokens past their expiration, in batches.
+     */
+    public JobStats expireTokens() {
+        LocalDateTime now = LocalDateTime.now();
+        JobStats stats = runBatched(EXPIRE_JOB,
+                afterId -> jdbcRepository.findExpiredActiveTokenIds(now, afterId, batchSize()),
+                ids -> statistics.transitioned(jdbcRepository.expireTokens(ids, now), TokenStatus.EXPIRED));
+        int evicted = resolutionCache.invalidateExpired();
+        log.debug("TOKEN_MAINTENANCE: Evicted {} expired tokens from resolution cache", evicted);
+        return stats;
+    }
+
+    /**
+     * Delete ROTATED/REVOKED tokens older than the audit retention period, in batches.
+     */
+    public JobStats purgeTokens() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(properties.getAudit().getRetentionDays());
+        return runBatched(PURGE_JOB,
+                afterId -> jdbcRepository.findPurgeableTokenIds(cutoff, afterId, batchSize()),
+                ids -> statistics.deleted(jdbcRepository.deletePurgeableTokens(ids)));
+    }
+
+    /**
+     * Last run of each job, for the actuator endpoint.
+     */
+    public synchronized Map<String, JobStats> getLastRuns() {
+        return new LinkedHashMap<>(lastRuns);
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    // ========================================================================
+    // INTERNALS
+    // ========================================================================
+
+    private JobStats runBatched(String job, Function<Long, List<Long>> nextBatch, Function<List<Long>, Integer> apply) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long pauseMs = properties.getToken().getMaintenance().getPauseMs();
+        long rows = 0;
+        int batches = 0;
+        String error = null;
+
+        try {
+            long afterId = 0;
+            while (true) {
+                List<Long> ids = nextBatch.apply(afterId);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                rows += apply.apply(ids);
+                batches++;
+                afterId = ids.get(ids.size() - 1);
+
+                if (ids.size() < batchSize()) {
+                    break;
+                }
+                if (pauseMs > 0) {
+                    Thread.sleep(pauseMs);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = "interrupted";
+        } catch (RuntimeException e) {
+            error = e.getMessage();
+            log.error("TOKEN_MAINTENANCE: {} failed after {} rows: {}", job, rows, e.getMessage());
+        }
+
+        LocalDateTime finishedAt = LocalDateTime.now();
+        long millis = Math.max(1, Duration.between(startedAt, finishedAt).toMillis());
+        JobStats stats = new JobStats(job, startedAt, finishedAt, rows, batches, rows * 1000.0 / millis, error);
+        synchronized (this) {
+            lastRuns.put(job, stats);
+        }
+
+        if (rows > 0 || error != null) {
+            log.info("TOKEN_MAINTENANCE: {} - {} rows in {} batches, {} ms ({} rows/s)",
+                    job, rows, batches, millis, Math.round(stats.rowsPerSecond()));
+        }
+        return stats;
+    }
+
+    private int batchSize() {
+        return Math.max(1, properties.getToken().getMaintenance().getBatchSize());
+    }
+}
@@ -1,17 +1,24 @@
 package com.heronix.guardian.service;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.heronix.guardian.config.GuardianProperties;
 import com.heronix.guardian.model.domain.GuardianToken;
 import com.heronix.guardian.model.enums.TokenType;
 import com.heronix.guardian.repository.GuardianTokenRepository;
+import com.heronix.guardian.service.TokenValidationService.ValidationResult;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -44,6 +51,7 @@ public class TokenMappingService {
     private final GuardianTokenRepository tokenRepository;
     private final TokenGenerationService tokenGenerationService;
     private final TokenValidationService tokenValidationService;
+    private final GuardianProperties properties;
 
     /**
      * Resolve a token to its real entity ID.
@@ -53,9 +61,9 @@ public class TokenMappingService {
      * @return the real entity ID
      * @throws IllegalArgumentException if token is invalid or wrong type
      */
-    @Transactional
+    @Transactional(readOnly = true)
     public Long resolveToEntityId(String tokenValue, TokenType expectedType) {
-        var result = tokenValidationService.validateToken(tokenValue);
+        var result = tokenValidationService.validateTokenCached(tokenValue);
 
         if (!result.valid()) {
             throw new IllegalArgumentException("Invalid token: " + result.errorMessage());
@@ -66,9 +74,8 @@ public class TokenMappingService {
                     "Token type mismatch: expected " + expectedType + ", got " + result.tokenType());
         }
 
-        // Record usage
-        result.token().recordUsage();
-        tokenRepository.save(result.token());
+        // Record usage (write-behind)
+        tokenValidationService.recordUsage(result);
 
         return result.entityId();
     }
@@ -76,7 +83,7 @@ public class TokenMappingService {
     /**
      * Resolve a token to its entity ID without type checking.
      */
-    @Transactional
+    @Transactional(readOnly = true)
     public Optional<Long> resolveToEntityId(String tokenValue) {
         return tokenValidationService.resolveToEntityId(tokenValue);
     }
@@ -120,26 +127,77 @@ public class TokenMappingService {
      * @param tokenValues list of token values
      * @return map of token value -> entity ID (invalid tokens are omitted)
      */
-    @Transactional
+    @Transactional(readOnly = true)
     public Map<String, Long> resolveTokensBulk(List<String> tokenValues) {
         Map<String, Long> result = new HashMap<>();
 
-        for (String tokenValue : tokenValues) {
-            try {
-                var validationResult = tokenValidationService.validateToken(tokenValue);
+        resolveTokensBulk(tokenValues.iterator(), chunk -> {
+            for (ValidationResult validationResult : chunk) {
                 if (validationResult.valid()) {
-                    validationResult.token().recordUsage();
-                    tokenRepository.save(validationResult.token());
-                    result.put(tokenValue, validationResult.entityId());
+                    result.put(validationResult.tokenValue(), validationResult.entityId());
                 }
-            } catch (Exception e) {
-                log.warn("Failed to resolve token {}: {}", tokenValue, e.getMessage());
             }
-        }
+        });
 
         return result;
     }
 
+    /**
+     * Resolve tokens in bulk, handing results to {@code sink} one chunk at a time.
+     *
+     * Values are deduplicated and resolved in chunks of batch-resolve-chunk-size
+     * (one IN query per chunk for cache misses), so only the current chunk's
+     * results are held. Every distinct value yields exactly one result; invalid,
+     * unknown or failed values yield a failure result rather than being dropped.
+     *
+     * Not transactional on purpose: a long stream should not pin one connection.
+     *
+     * @return number of distinct values resolved
+     */
+    public int resolveTokensBulk(Iterator<String> tokenValues, Consumer<List<ValidationResult>> sink) {
+        int chunkSize = Math.max(1, properties.getToken().getBatchResolveChunkSize());
+        Set<String> seen = new HashSet<>();
+        List<String> chunk = new ArrayList<>(chunkSize);
+        int distinct = 0;
+
+        while (tokenValues.hasNext()) {
+            String tokenValue = tokenValues.next();
+            if (!seen.add(tokenValue)) {
+                continue;
+            }
+            chunk.add(tokenValue);
+            distinct++;
+            if (chunk.size() == chunkSize) {
+                sink.accept(resolveChunk(chunk));
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            sink.accept(resolveChunk(chunk));
+        }
+
+        return distinct;
+    }
+
+    private List<ValidationResult> resolveChunk(List<String> tokenValues) {
+        List<ValidationResult> results;
+        try {
+            results = tokenValidationService.validateTokensCached(tokenValues);
+        } catch (Exception e) {
+            log.warn("Failed to resolve chunk of {} tokens: {}", tokenValues.size(), e.getMessage());
+            return tokenValues.stream()
+                    .map(tokenValue -> ValidationResult.failure(tokenValue, "Resolution failed"))
+                    .toList();
+        }
+
+        for (ValidationResult result : results) {
+            if (result.valid()) {
+                tokenValidationService.recordUsage(result);
+            }
+        }
+        return results;
+    }
+
     /**
      * Find the token value for an entity.
      *
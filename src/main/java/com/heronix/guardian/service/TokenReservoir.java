@@ -0,0 +1,298 @@
+package com.heronix.guardian.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.model.domain.GuardianToken;
+import com.heronix.guardian.model.enums.TokenStatus;
+import com.heronix.guardian.model.enums.TokenType;
+import com.heronix.guardian.repository.GuardianTokenJdbcRepository;
+import com.heronix.guardian.repository.GuardianTokenJdbcRepository.ReservedToken;
+import com.heronix.guardian.repository.GuardianTokenRepository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reservoir of pre-minted token values for burst onboarding.
+ *
+ * A background refill mints uniqueness-checked values per token type and
+ * inserts them as RESERVED rows, so generateToken/rotateToken only claim one
+ * with a conditional UPDATE instead of minting, probing and inserting on the
+ * request path. Claiming polls a lock-free queue; the "WHERE status = 'RESERVED'"
+ * guard makes each row claimable once even across instances. A claim rolled
+ * back with its transaction is put back in the queue.
+ *
+ * Metrics: guardian.token.reservoir.size{type}, guardian.token.reservoir.claims / misses / low.water.alarms
+ */
+@Component
+@Slf4j
+public class TokenReservoir implements MeterBinder {
+
+    // Values minted and inserted per refill round trip
+    private static final int REFILL_BATCH_SIZE = 500;
+
+    // Reserved rows tried per claim before falling back to minting
+    private static final int MAX_CLAIM_ATTEMPTS = 3;
+
+    private static final String RESERVOIR_CREATOR = "reservoir";
+
+    private final GuardianTokenRepository tokenRepository;
+    private final GuardianTokenJdbcRepository jdbcRepository;
+    private final TokenValueMinter valueMinter;
+    private final TokenValueFilter valueFilter;
+    private final TokenFormat tokenFormat;
+    private final GuardianProperties properties;
+    private final TokenStatistics statistics;
+
+    private final Map<TokenType, Pool> pools = new EnumMap<>(TokenType.class);
+    private final AtomicBoolean refilling = new AtomicBoolean();
+
+    private final LongAdder claims = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder lowWaterAlarms = new LongAdder();
+
+    public TokenReservoir(GuardianTokenRepository tokenRepository,
+                          GuardianTokenJdbcRepository jdbcRepository,
+                          TokenValueMinter valueMinter,
+                          TokenValueFilter valueFilter,
+                          TokenFormat tokenFormat,
+                          GuardianProperties properties,
+                          TokenStatistics statistics) {
+        this.tokenRepository = tokenRepository;
+        this.jdbcRepository = jdbcRepository;
+        this.valueMinter = valueMinter;
+        this.valueFilter = valueFilter;
+        this.tokenFormat = tokenFormat;
+        this.properties = properties;
+        this.statistics = statistics;
+        for (TokenType type : config().getTypes()) {
+            pools.put(type, new Pool());
+        }
+    }
+
+    /**
+     * Pick up RESERVED rows left by a previous run, then top the reservoir up.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!config().isEnabled()) {
+            return;
+        }
+        try {
+            List<ReservedToken> reserved = jdbcRepository.findReservedTokens();
+            enqueue(reserved);
+            log.info("TOKEN_RESERVOIR: Loaded {} reserved token values", reserved.size());
+        } catch (Exception e) {
+            log.warn("TOKEN_RESERVOIR: Load failed: {}", e.getMessage());
+        }
+        refill();
+    }
+
+    /**
+     * Top up every type whose reserved count is below the refill threshold.
+     */
+    @Scheduled(fixedDelayString = "${heronix.guardian.token.reservoir.refill-interval-ms:10000}")
+    public void refill() {
+        if (!config().isEnabled() || !refilling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            for (Map.Entry<TokenType, Pool> entry : pools.entrySet()) {
+                Pool pool = entry.getValue();
+                if (pool.size.get() >= config().getRefillThreshold()) {
+                    continue;
+                }
+                int added = 0;
+                int needed;
+                while ((needed = config().getTargetSize() - pool.size.get()) > 0) {
+                    int reserved = reserve(entry.getKey(), Math.min(needed, REFILL_BATCH_SIZE));
+                    if (reserved == 0) {
+                        break;
+                    }
+                    added += reserved;
+                }
+                if (pool.size.get() >= config().getLowWaterMark()) {
+                    pool.alarmRaised.set(false);
+                }
+                log.debug("TOKEN_RESERVOIR: Reserved {} {} token values ({} available)",
+                        added, entry.getKey(), pool.size.get());
+            }
+        } catch (Exception e) {
+            log.warn("TOKEN_RESERVOIR: Refill failed: {}", e.getMessage());
+        } finally {
+            refilling.set(false);
+        }
+    }
+
+    /**
+     * Claim a reserved value for a new token.
+     *
+     * @param claim entity fields for the token (value, salt and checksum come from the reservoir)
+     * @return the claimed, now ACTIVE token, or empty if the reservoir has none for this type
+     */
+    public Optional<GuardianToken> claim(GuardianToken claim) {
+        Pool pool = config().isEnabled() ? pools.get(claim.getTokenType()) : null;
+        if (pool == null) {
+            return Optional.empty();
+        }
+
+        for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS; attempt++) {
+            ReservedToken reserved = pool.queue.poll();
+            if (reserved == null) {
+                break;
+            }
+            pool.size.decrementAndGet();
+            checkLowWater(claim.getTokenType(), pool);
+
+            boolean claimed;
+            try {
+                claimed = jdbcRepository.claimReservedToken(reserved.id(), claim);
+            } catch (DuplicateKeyException e) {
+                // The entity already has an ACTIVE token (created on another node) - keep the value for later
+                pool.queue.offer(reserved);
+                pool.size.incrementAndGet();
+                misses.increment();
+                return Optional.empty();
+            }
+            if (!claimed) {
+                // Claimed elsewhere (another instance) - try the next one
+                continue;
+            }
+            requeueOnRollback(pool, reserved);
+            statistics.transitioned(claim.getTokenType(), TokenStatus.RESERVED, TokenStatus.ACTIVE, 1, 0);
+            claims.increment();
+            return tokenRepository.findById(reserved.id());
+        }
+
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Reserved values currently available for a type.
+     */
+    public int available(TokenType tokenType) {
+        Pool pool = pools.get(tokenType);
+        return pool != null ? pool.size.get() : 0;
+    }
+
+    // ========================================================================
+    // INTERNALS
+    // ========================================================================
+
+    private int reserve(TokenType tokenType, int count) {
+        Set<String> values = valueMinter.mintUniqueValues(tokenType, count);
+
+        String schoolYear = TokenGenerationService.schoolYear(
+                LocalDateTime.now(), properties.getToken().getRotationMonth());
+        List<GuardianToken> tokens = new ArrayList<>(values.size());
+        for (String tokenValue : values) {
+            tokens.add(GuardianToken.builder()
+                    .tokenValue(tokenValue)
+                    .tokenType(tokenType)
+                    .entityId(0L)
+                    .entityType(tokenType.getEntityType())
+                    .schoolYear(schoolYear)
+                    .salt(valueMinter.generateSalt())
+                    .checksum(tokenFormat.checksumPart(tokenValue))
+                    .status(TokenStatus.RESERVED)
+                    .rotationCount(0)
+                    .usageCount(0L)
+                    .createdBy(RESERVOIR_CREATOR)
+                    .build());
+        }
+
+        jdbcRepository.batchInsertTokens(tokens, REFILL_BATCH_SIZE);
+        values.forEach(valueFilter::add);
+        statistics.created(tokenType, TokenStatus.RESERVED, tokens.size());
+
+        List<ReservedToken> reserved = jdbcRepository.findReservedTokens(values);
+        enqueue(reserved);
+        return reserved.size();
+    }
+
+    private void enqueue(List<ReservedToken> reserved) {
+        for (ReservedToken token : reserved) {
+            Pool pool = pools.get(token.tokenType());
+            if (pool != null) {
+                pool.queue.offer(token);
+                pool.size.incrementAndGet();
+            }
+        }
+    }
+
+    private void checkLowWater(TokenType tokenType, Pool pool) {
+        int size = pool.size.get();
+        if (size < config().getLowWaterMark() && pool.alarmRaised.compareAndSet(false, true)) {
+            lowWaterAlarms.increment();
+            log.warn("TOKEN_RESERVOIR: {} reservoir below low-water mark ({} < {}), claims may fall back to minting",
+                    tokenType, size, config().getLowWaterMark());
+        }
+    }
+
+    private void requeueOnRollback(Pool pool, ReservedToken reserved) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    pool.queue.offer(reserved);
+                    pool.size.incrementAndGet();
+                }
+            }
+        });
+    }
+
+    private GuardianProperties.ReservoirConfig config() {
+        return properties.getToken().getReservoir();
+    }
+
+    private static final class Pool {
+        final ConcurrentLinkedQueue<ReservedToken> queue = new ConcurrentLinkedQueue<>();
+        final AtomicInteger size = new AtomicInteger();
+        final AtomicBoolean alarmRaised = new AtomicBoolean();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Map.Entry<TokenType, Pool> entry : pools.entrySet()) {
+            Gauge.builder("guardian.token.reservoir.size", entry.getValue().size, AtomicInteger::get)
+                    .description("Reserved token values available to claim")
+                    .tag("type", entry.getKey().name())
+                    .register(registry);
+        }
+        FunctionCounter.builder("guardian.token.reservoir.claims", claims, LongAdder::sum)
+                .description("Tokens created by claiming a reserved value")
+                .register(registry);
+        FunctionCounter.builder("guardian.token.reservoir.misses", misses, LongAdder::sum)
+                .description("Token creations that found the reservoir empty and minted inline")
+                .register(registry);
+        FunctionCounter.builder("guardian.token.reservoir.low.water.alarms", lowWaterAlarms, LongAdder::sum)
+                .description("Times a reservoir dropped below its low-water mark")
+                .register(registry);
+    }
+}
@@ -0,0 +1,163 @@
+package com.heronix.guardian.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.heronix.guardian.cache.BoundedTtlCache;
+import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.model.domain.GuardianToken;
+import com.heronix.guardian.model.enums.TokenStatus;
+import com.heronix.guardian.model.enums.TokenType;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process cache of token value -> (entity ID, type, status, expiration).
+ *
+ * Sits in front of GuardianTokenRepository on the token resolution path so the
+ * same few thousand tokens seen on every nightly grade pull do not each cost a
+ * database round trip. Entries are bounded by size and TTL, and are invalidated
+ * explicitly whenever a token is rotated, revoked or expired.
+ *
+ * Every invalidation bumps a generation before it removes the entry. Callers
+ * read the generation before loading a token and pass it to {@link #put}; a
+ * snapshot loaded before an invalidation is not cached, so a revoke or rotate
+ * committing while a stale ACTIVE row is in flight cannot be overwritten by it.
+ *
+ * Metrics: guardian.token.cache.hits / misses / evictions / size
+ */
+@Component
+@Slf4j
+public class TokenResolutionCache implements MeterBinder {
+
+    private final BoundedTtlCache<String, CachedToken> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    public TokenResolutionCache(GuardianProperties properties) {
+        GuardianProperties.TokenConfig config = properties.getToken();
+        this.cache = new BoundedTtlCache<>(
+                config.getResolutionCacheMaxSize(),
+                Duration.ofSeconds(config.getResolutionCacheTtlSeconds()));
+
+        log.info("TOKEN_CACHE: Initialized - max size: {}, TTL: {}s",
+                config.getResolutionCacheMaxSize(), config.getResolutionCacheTtlSeconds());
+    }
+
+    /**
+     * Immutable snapshot of the fields needed to resolve a token.
+     */
+    public record CachedToken(
+            Long tokenId,
+            String tokenValue,
+            TokenType tokenType,
+            Long entityId,
+            String vendorScope,
+            TokenStatus status,
+            LocalDateTime expiresAt
+    ) {
+        public static CachedToken from(GuardianToken token) {
+            return new CachedToken(token.getId(), token.getTokenValue(), token.getTokenType(),
+                    token.getEntityId(), token.getVendorScope(), token.getStatus(), token.getExpiresAt());
+        }
+
+        public boolean isExpired() {
+            return expiresAt != null && LocalDateTime.now().isAfter(expiresAt);
+        }
+    }
+
+    /**
+     * Get the cached snapshot for a token value, or null on a miss.
+     */
+    public CachedToken get(String tokenValue) {
+        return cache.get(tokenValue);
+    }
+
+    /**
+     * Current generation; read it before loading tokens to pass to {@link #put}.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Cache (or refresh) the snapshot of a token, unless an invalidation
+     * happened since {@code loadedAtGeneration}.
+     *
+     * @return the snapshot, whether or not it was cached
+     */
+    public CachedToken put(GuardianToken token, long loadedAtGeneration) {
+        CachedToken snapshot = CachedToken.from(token);
+        if (generation.get() != loadedAtGeneration) {
+            return snapshot;
+        }
+        cache.put(token.getTokenValue(), snapshot);
+        if (generation.get() != loadedAtGeneration) {
+            // An invalidation ran between the check and the put and may have missed it
+            cache.invalidate(token.getTokenValue());
+        }
+        return snapshot;
+    }
+
+    /**
+     * Drop a token from the cache after its status changed.
+     */
+    public void invalidate(String tokenValue) {
+        if (tokenValue != null) {
+            generation.incrementAndGet();
+            cache.invalidate(tokenValue);
+        }
+    }
+
+    /**
+     * Drop a token now and again once the current transaction commits, so a
+     * reader that loads the still-uncommitted old row in between cannot keep it cached.
+     */
+    public void invalidateOnCommit(String tokenValue) {
+        invalidate(tokenValue);
+        if (tokenValue == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(tokenValue);
+            }
+        });
+    }
+
+    /**
+     * Drop every cached token whose expiration has passed.
+     *
+     * @return number of entries removed
+     */
+    public int invalidateExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        generation.incrementAndGet();
+        return cache.invalidateIf(t -> t.expiresAt() != null && !now.isBefore(t.expiresAt()));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("guardian.token.cache.hits", cache, BoundedTtlCache::hits)
+                .description("Token resolutions served from the in-process cache")
+                .register(registry);
+        FunctionCounter.builder("guardian.token.cache.misses", cache, BoundedTtlCache::misses)
+                .description("Token resolutions that fell through to the database")
+                .register(registry);
+        FunctionCounter.builder("guardian.token.cache.evictions", cache, BoundedTtlCache::evictions)
+                .description("Entries evicted by size bound or TTL")
+                .register(registry);
+        Gauge.builder("guardian.token.cache.size", cache, BoundedTtlCache::size)
+                .description("Current number of cached token snapshots")
+                .register(registry);
+    }
+}
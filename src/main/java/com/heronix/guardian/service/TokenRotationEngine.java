@@ -0,0 +1,460 @@
+package com.heronix.guardian.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.exception.TokenGenerationException;
+import com.heronix.guardian.model.domain.GuardianToken;
+import com.heronix.guardian.model.domain.TokenRotationRun;
+import com.heronix.guardian.model.domain.TokenRotationRun.RunStatus;
+import com.heronix.guardian.model.enums.TokenStatus;
+import com.heronix.guardian.model.enums.TokenType;
+import com.heronix.guardian.repository.GuardianTokenJdbcRepository;
+import com.heronix.guardian.repository.GuardianTokenJdbcRepository.RotationCandidate;
+import com.heronix.guardian.repository.TokenRotationRunRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Chunked, resumable school-year token rotation.
+ *
+ * Walks the ACTIVE tokens of a school year with keyset pagination on id and
+ * rotates them chunk by chunk, each chunk in its own short transaction:
+ * replacements are minted in memory, batch-inserted, and the old tokens are
+ * batch-marked ROTATED. Up to {@code parallelism} chunks run at once. The run's
+ * checkpoint only advances past a contiguous prefix of committed chunks, so a
+ * crashed run resumes from it; chunks already committed past the checkpoint
+ * are naturally skipped because their tokens are no longer ACTIVE.
+ *
+ * A chunk holds the TokenCreationLocks stripes of its entities, as bulk
+ * generation does, so a concurrent getOrCreateToken for one of them waits for
+ * the chunk instead of racing it on the unique index. A failed run stops its
+ * workers and waits for the chunks in flight before it is marked FAILED.
+ */
+@Service
+@Slf4j
+public class TokenRotationEngine {
+
+    // Rows per JDBC batch for inserts and status updates
+    private static final int BATCH_SIZE = 500;
+
+    // Log progress every N checkpoints
+    private static final int PROGRESS_LOG_INTERVAL = 10;
+
+    // Wait for chunks in flight when a run fails
+    private static final long WORKER_STOP_TIMEOUT_SECONDS = 60;
+
+    private final GuardianTokenJdbcRepository jdbcRepository;
+    private final TokenRotationRunRepository runRepository;
+    private final TokenValueMinter valueMinter;
+    private final TokenValueFilter valueFilter;
+    private final TokenFormat tokenFormat;
+    private final TokenResolutionCache resolutionCache;
+    private final TokenStatistics statistics;
+    private final TokenCreationLocks creationLocks;
+    private final GuardianProperties properties;
+    private final TransactionTemplate chunkTransaction;
+
+    // Runs being executed by this instance
+    private final Set<Long> activeRuns = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService launcher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "token-rotation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public TokenRotationEngine(GuardianTokenJdbcRepository jdbcRepository,
+                               TokenRotationRunRepository runRepository,
+                               TokenValueMinter valueMinter,
+                               TokenValueFilter valueFilter,
+                               TokenFormat tokenFormat,
+                               TokenResolutionCache resolutionCache,
+                               TokenStatistics statistics,
+                               TokenCreationLocks creationLocks,
+                               GuardianProperties properties,
+                               PlatformTransactionManager transactionManager) {
+        this.jdbcRepository = jdbcRepository;
+        this.runRepository = runRepository;
+        this.valueMinter = valueMinter;
+        this.valueFilter = valueFilter;
+        this.tokenFormat = tokenFormat;
+        this.resolutionCache = resolutionCache;
+        this.statistics = statistics;
+        this.creationLocks = creationLocks;
+        this.properties = properties;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Start (or resume) rotating a school year in the background.
+     *
+     * @return the run, for progress polling
+     */
+    public TokenRotationRun startRotation(String schoolYear, String rotatedBy) {
+        TokenRotationRun run = findOrCreateRun(schoolYear, rotatedBy);
+        launcher.submit(() -> execute(run.getId()));
+        return run;
+    }
+
+    /**
+     * Rotate a school year on the calling thread (resuming an unfinished run if there is one).
+     *
+     * @return the finished run
+     */
+    public TokenRotationRun rotate(String schoolYear, String rotatedBy) {
+        return execute(findOrCreateRun(schoolYear, rotatedBy).getId());
+    }
+
+    /**
+     * Resume an interrupted or failed run on the calling thread.
+     */
+    public TokenRotationRun resume(Long runId) {
+        return execute(runId);
+    }
+
+    public Optional<TokenRotationRun> getRun(Long runId) {
+        return runRepository.findById(runId);
+    }
+
+    /**
+     * Pick up runs that were RUNNING when the application stopped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        if (!properties.getToken().getRotation().isResumeOnStartup()) {
+            return;
+        }
+        for (TokenRotationRun run : runRepository.findByStatus(RunStatus.RUNNING)) {
+            log.info("TOKEN_ROTATION: Resuming run {} ({}) after token id {}",
+                    run.getId(), run.getSchoolYear(), run.getLastTokenId());
+            launcher.submit(() -> execute(run.getId()));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        launcher.shutdownNow();
+    }
+
+    // ========================================================================
+    // RUN EXECUTION
+    // ========================================================================
+
+    private synchronized TokenRotationRun findOrCreateRun(String schoolYear, String rotatedBy) {
+        for (TokenRotationRun run : runRepository.findBySchoolYearOrderByStartedAtDesc(schoolYear)) {
+            if (run.getStatus() != RunStatus.COMPLETED) {
+                return run;
+            }
+        }
+
+        long maxTokenId = jdbcRepository.findMaxActiveTokenId(schoolYear);
+        TokenRotationRun run = TokenRotationRun.builder()
+                .schoolYear(schoolYear)
+                .maxTokenId(maxTokenId)
+                .tokensTotal(jdbcRepository.countActiveTokens(schoolYear, 0L, maxTokenId))
+                .rotatedBy(rotatedBy)
+                .build();
+        run = runRepository.save(run);
+        log.info("TOKEN_ROTATION: Created run {} for {} ({} tokens, max id {})",
+                run.getId(), schoolYear, run.getTokensTotal(), maxTokenId);
+        return run;
+    }
+
+    private TokenRotationRun execute(Long runId) {
+        TokenRotationRun run = runRepository.findById(runId)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown rotation run: " + runId));
+        if (run.getStatus() == RunStatus.COMPLETED || !activeRuns.add(runId)) {
+            return run;
+        }
+
+        GuardianProperties.RotationConfig config = properties.getToken().getRotation();
+        int parallelism = Math.max(1, config.getParallelism());
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "token-rotation-" + runId);
+            thread.setDaemon(true);
+            return thread;
+        });
+        Semaphore inFlight = new Semaphore(parallelism);
+        Checkpoint checkpoint = new Checkpoint(run);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        run.setStatus(RunStatus.RUNNING);
+        run.setErrorMessage(null);
+        runRepository.save(run);
+
+        try {
+            long afterId = run.getLastTokenId();
+            while (failure.get() == null) {
+                List<Long> ids = jdbcRepository.findActiveTokenIdPage(
+                        run.getSchoolYear(), afterId, run.getMaxTokenId(), config.getChunkSize());
+                if (ids.isEmpty()) {
+                    break;
+                }
+                Chunk chunk = checkpoint.open(afterId, ids.get(ids.size() - 1));
+                afterId = chunk.toId;
+
+                inFlight.acquire();
+                workers.submit(() -> {
+                    try {
+                        checkpoint.complete(chunk, rotateChunkWithRetry(run, chunk, config.getMaxChunkAttempts()));
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            workers.shutdown();
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+            stopWorkers(run, workers);
+        } catch (RuntimeException e) {
+            failure.compareAndSet(null, e);
+            stopWorkers(run, workers);
+        } finally {
+            activeRuns.remove(runId);
+        }
+
+        return checkpoint.finish(failure.get());
+    }
+
+    /**
+     * Interrupt the workers and wait (bounded) for the chunks in flight, so
+     * none completes after the run is finished.
+     */
+    private void stopWorkers(TokenRotationRun run, ExecutorService workers) {
+        workers.shutdownNow();
+        boolean interrupted = Thread.interrupted();
+        try {
+            if (!workers.awaitTermination(WORKER_STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("TOKEN_ROTATION: Run {} still has chunks in flight after {}s, ignoring their results",
+                        run.getId(), WORKER_STOP_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            interrupted = true;
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private int rotateChunkWithRetry(TokenRotationRun run, Chunk chunk, int maxAttempts) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return rotateChunk(run, chunk);
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                log.warn("TOKEN_ROTATION: Chunk ({}, {}] of run {} failed on attempt {}, retrying: {}",
+                        chunk.fromId, chunk.toId, run.getId(), attempt, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Rotate one chunk in its own transaction.
+     *
+     * @return number of tokens rotated
+     */
+    private int rotateChunk(TokenRotationRun run, Chunk chunk) {
+        Integer rotated = chunkTransaction.execute(status -> {
+            List<RotationCandidate> candidates =
+                    jdbcRepository.findRotationCandidates(run.getSchoolYear(), chunk.fromId, chunk.toId);
+            if (candidates.isEmpty()) {
+                return 0;
+            }
+
+            // Held until the chunk commits; a token that changed before then fails the marked-count check
+            List<TokenCreationLocks.EntityKey> entities = new ArrayList<>(candidates.size());
+            for (RotationCandidate candidate : candidates) {
+                entities.add(new TokenCreationLocks.EntityKey(
+                        candidate.entityType(), candidate.entityId(), candidate.vendorScope()));
+            }
+            creationLocks.lock(entities);
+
+            // Mint replacement values per token type
+            Map<TokenType, List<RotationCandidate>> byType = new EnumMap<>(TokenType.class);
+            for (RotationCandidate candidate : candidates) {
+                byType.computeIfAbsent(candidate.tokenType(), t -> new ArrayList<>()).add(candidate);
+            }
+
+            String schoolYear = TokenGenerationService.schoolYear(
+                    LocalDateTime.now(), properties.getToken().getRotationMonth());
+            LocalDateTime expiresAt = LocalDateTime.now().plusDays(properties.getToken().getExpirationDays());
+            Map<Long, String> newValues = new HashMap<>(candidates.size() * 2);
+            List<GuardianToken> replacements = new ArrayList<>(candidates.size());
+
+            for (Map.Entry<TokenType, List<RotationCandidate>> entry : byType.entrySet()) {
+                Iterator<String> values = valueMinter.mintUniqueValues(entry.getKey(), entry.getValue().size()).iterator();
+                for (RotationCandidate candidate : entry.getValue()) {
+                    String tokenValue = values.next();
+                    newValues.put(candidate.id(), tokenValue);
+                    replacements.add(GuardianToken.builder()
+                            .tokenValue(tokenValue)
+                            .tokenType(candidate.tokenType())
+                            .entityId(candidate.entityId())
+                            .entityType(candidate.entityType())
+                            .vendorScope(candidate.vendorScope())
+                            .schoolYear(schoolYear)
+                            .salt(valueMinter.generateSalt())
+                            .checksum(tokenFormat.checksumPart(tokenValue))
+                            .status(TokenStatus.ACTIVE)
+                            .expiresAt(expiresAt)
+                            .rotationCount(candidate.rotationCount() + 1)
+                            .usageCount(0L)
+                            .createdBy(run.getRotatedBy())
+                            .build());
+                }
+            }
+
+            // Retire the old tokens first, then insert their replacements and link them
+            int marked = jdbcRepository.batchMarkRotated(newValues.keySet(), BATCH_SIZE);
+            if (marked != candidates.size()) {
+                // A token changed state since it was read - roll the chunk back and retry
+                throw new TokenGenerationException("Chunk (" + chunk.fromId + ", " + chunk.toId + "] changed during "
+                        + "rotation: marked " + marked + " of " + candidates.size());
+            }
+            jdbcRepository.batchInsertTokens(replacements, BATCH_SIZE);
+            Map<String, Long> newIds = jdbcRepository.findIdsByTokenValues(newValues.values());
+
+            Map<Long, Long> replacedBy = new HashMap<>(candidates.size() * 2);
+            newValues.forEach((oldId, value) -> replacedBy.put(oldId, newIds.get(value)));
+            jdbcRepository.batchSetReplacedBy(replacedBy, BATCH_SIZE);
+
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    newValues.values().forEach(valueFilter::add);
+                    candidates.forEach(c -> resolutionCache.invalidate(c.tokenValue()));
+                }
+            });
+            for (Map.Entry<TokenType, List<RotationCandidate>> entry : byType.entrySet()) {
+                int count = entry.getValue().size();
+                long usage = entry.getValue().stream().mapToLong(RotationCandidate::usageCount).sum();
+                statistics.created(entry.getKey(), TokenStatus.ACTIVE, count);
+                statistics.transitioned(entry.getKey(), TokenStatus.ACTIVE, TokenStatus.ROTATED, count, usage);
+            }
+            return candidates.size();
+        });
+        return rotated != null ? rotated : 0;
+    }
+
+    // ========================================================================
+    // CHECKPOINTING
+    // ========================================================================
+
+    /**
+     * An id range (fromId, toId] rotated as one unit.
+     */
+    private static final class Chunk {
+        final long fromId;
+        final long toId;
+        boolean done;
+        int rotated;
+
+        Chunk(long fromId, long toId) {
+            this.fromId = fromId;
+            this.toId = toId;
+        }
+    }
+
+    /**
+     * Advances a run's checkpoint over the contiguous prefix of completed chunks
+     * and persists progress.
+     */
+    private final class Checkpoint {
+        private final TokenRotationRun run;
+        private final Deque<Chunk> pending = new ArrayDeque<>();
+        private final AtomicInteger checkpoints = new AtomicInteger();
+        private boolean finished;
+
+        Checkpoint(TokenRotationRun run) {
+            this.run = run;
+        }
+
+        synchronized Chunk open(long fromId, long toId) {
+            Chunk chunk = new Chunk(fromId, toId);
+            pending.addLast(chunk);
+            return chunk;
+        }
+
+        synchronized void complete(Chunk chunk, int rotated) {
+            if (finished) {
+                // The run already failed; the next run re-reads the chunk's tokens
+                return;
+            }
+            chunk.done = true;
+            chunk.rotated = rotated;
+
+            boolean advanced = false;
+            while (!pending.isEmpty() && pending.peekFirst().done) {
+                Chunk head = pending.removeFirst();
+                run.setLastTokenId(head.toId);
+                run.setTokensRotated(run.getTokensRotated() + head.rotated);
+                run.setChunksCompleted(run.getChunksCompleted() + 1);
+                advanced = true;
+            }
+            if (advanced) {
+                runRepository.save(run);
+                if (checkpoints.incrementAndGet() % PROGRESS_LOG_INTERVAL == 0) {
+                    log.info("TOKEN_ROTATION: Run {} {}/{} tokens ({}%), {} tokens/s, checkpoint id {}",
+                            run.getId(), run.getTokensRotated(), run.getTokensTotal(),
+                            Math.round(run.getProgress() * 100), Math.round(run.getTokensPerSecond()),
+                            run.getLastTokenId());
+                }
+            }
+        }
+
+        synchronized TokenRotationRun finish(Throwable failure) {
+            finished = true;
+            if (failure != null) {
+                run.setStatus(RunStatus.FAILED);
+                String message = failure.getMessage() != null ? failure.getMessage() : failure.toString();
+                run.setErrorMessage(message.length() > 500 ? message.substring(0, 500) : message);
+                log.error("TOKEN_ROTATION: Run {} failed after {} tokens (checkpoint id {}): {}",
+                        run.getId(), run.getTokensRotated(), run.getLastTokenId(), message);
+            } else {
+                run.setStatus(RunStatus.COMPLETED);
+                run.setLastTokenId(run.getMaxTokenId());
+                run.setCompletedAt(LocalDateTime.now());
+                log.info("TOKEN_ROTATION: Run {} completed - {} tokens in {} chunks, {} tokens/s",
+                        run.getId(), run.getTokensRotated(), run.getChunksCompleted(),
+                        Math.round(run.getTokensPerSecond()));
+            }
+            return runRepository.save(run);
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.heronix.guardian.service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.heronix.guardian.model.dto.TokenStatsDTO;
+import com.heronix.guardian.model.enums.TokenStatus;
+import com.heronix.guardian.model.enums.TokenType;
+import com.heronix.guardian.repository.GuardianTokenJdbcRepository;
+import com.heronix.guardian.repository.GuardianTokenJdbcRepository.StatusChange;
+import com.heronix.guardian.repository.GuardianTokenRepository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Incrementally maintained token statistics.
+ *
+ * In-memory counters (tokens per status, ACTIVE tokens per type, usage of
+ * ACTIVE tokens) are loaded from the GROUP BY aggregates at startup and then
+ * updated by every generate, claim, rotate, revoke, expire and purge path,
+ * once its transaction commits. The stats endpoint reads the counters instead
+ * of scanning guardian_tokens.
+ *
+ * A scheduled reconciliation re-runs the aggregates and repairs any drift
+ * (rolled-back work, writes by other instances, bulk JPQL updates). Deltas
+ * applied while the aggregates run are preserved. The "expiring within 30
+ * days" figure is time-dependent and is refreshed only by reconciliation.
+ *
+ * Metrics: guardian.token.stats.reconciliations / drift
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenStatistics implements MeterBinder {
+
+    private static final int EXPIRING_WINDOW_DAYS = 30;
+
+    private final GuardianTokenRepository tokenRepository;
+    private final GuardianTokenJdbcRepository jdbcRepository;
+
+    private final Map<TokenStatus, LongAdder> byStatus = counters(TokenStatus.class);
+    private final Map<TokenType, LongAdder> activeByType = counters(TokenType.class);
+    private final LongAdder activeUsage = new LongAdder();
+    private final AtomicLong lastUsageMillis = new AtomicLong();
+    private volatile long expiringWithinWindow;
+    private volatile boolean loaded;
+
+    private final LongAdder reconciliations = new LongAdder();
+    private final LongAdder drift = new LongAdder();
+
+    // ========================================================================
+    // TRANSITIONS
+    // ========================================================================
+
+    /**
+     * Tokens inserted with the given status (ACTIVE or RESERVED).
+     */
+    public void created(TokenType tokenType, TokenStatus status, long count) {
+        if (count <= 0) {
+            return;
+        }
+        afterCommit(() -> {
+            byStatus.get(status).add(count);
+            if (status == TokenStatus.ACTIVE) {
+                activeByType.get(tokenType).add(count);
+            }
+        });
+    }
+
+    /**
+     * Tokens moved from one status to another.
+     *
+     * @param usageCount total usage of the moved tokens (leaves the ACTIVE usage sum if {@code from} is ACTIVE)
+     */
+    public void transitioned(TokenType tokenType, TokenStatus from, TokenStatus to, long count, long usageCount) {
+        if (count <= 0 || from == to) {
+            return;
+        }
+        afterCommit(() -> {
+            byStatus.get(from).add(-count);
+            byStatus.get(to).add(count);
+            if (from == TokenStatus.ACTIVE) {
+                activeByType.get(tokenType).add(-count);
+                activeUsage.add(-usageCount);
+            } else if (to == TokenStatus.ACTIVE) {
+                activeByType.get(tokenType).add(count);
+                activeUsage.add(usageCount);
+            }
+        });
+    }
+
+    /**
+     * Tokens moved to a new status by a batch job.
+     *
+     * @return number of tokens moved
+     */
+    public int transitioned(List<StatusChange> changes, TokenStatus to) {
+        int rows = 0;
+        for (StatusChange change : changes) {
+            transitioned(change.tokenType(), change.status(), to, change.count(), change.usageCount());
+            rows += (int) change.count();
+        }
+        return rows;
+    }
+
+    /**
+     * Tokens deleted by a batch job.
+     *
+     * @return number of tokens deleted
+     */
+    public int deleted(List<StatusChange> changes) {
+        int rows = 0;
+        for (StatusChange change : changes) {
+            afterCommit(() -> {
+                byStatus.get(change.status()).add(-change.count());
+                if (change.status() == TokenStatus.ACTIVE) {
+                    activeByType.get(change.tokenType()).add(-change.count());
+                    activeUsage.add(-change.usageCount());
+                }
+            });
+            rows += (int) change.count();
+        }
+        return rows;
+    }
+
+    /**
+     * Usage flushed by the write-behind accumulator (assumed to be on ACTIVE tokens).
+     */
+    public void usageRecorded(long count, LocalDateTime lastUsedAt) {
+        activeUsage.add(count);
+        if (lastUsedAt != null) {
+            lastUsageMillis.accumulateAndGet(toMillis(lastUsedAt), Math::max);
+        }
+    }
+
+    /**
+     * Reconcile once the current transaction commits, for bulk changes whose
+     * per-type breakdown is not known to the caller.
+     */
+    public void reconcileAfterCommit() {
+        afterCommit(this::reconcile);
+    }
+
+    // ========================================================================
+    // READ
+    // ========================================================================
+
+    /**
+     * Current statistics, read from the counters.
+     */
+    public TokenStatsDTO snapshot() {
+        if (!loaded) {
+            reconcile();
+        }
+
+        Map<String, Long> tokensByType = new LinkedHashMap<>();
+        activeByType.forEach((type, count) -> {
+            long value = count.sum();
+            if (value > 0) {
+                tokensByType.put(type.name(), value);
+            }
+        });
+
+        long total = 0;
+        for (LongAdder count : byStatus.values()) {
+            total += count.sum();
+        }
+        long lastUsage = lastUsageMillis.get();
+
+        return TokenStatsDTO.builder()
+                .totalTokens(total)
+                .activeTokens(count(TokenStatus.ACTIVE))
+                .expiredTokens(count(TokenStatus.EXPIRED))
+                .revokedTokens(count(TokenStatus.REVOKED))
+                .rotatedTokens(count(TokenStatus.ROTATED))
+                .reservedTokens(count(TokenStatus.RESERVED))
+                .tokensByType(tokensByType)
+                .totalUsageCount(activeUsage.sum())
+                .lastUsageAt(lastUsage > 0
+                        ? LocalDateTime.ofInstant(Instant.ofEpochMilli(lastUsage), ZoneId.systemDefault())
+                        : null)
+                .expiringWithin30Days(expiringWithinWindow)
+                .build();
+    }
+
+    // ========================================================================
+    // RECONCILIATION
+    // ========================================================================
+
+    /**
+     * Load the counters when the application starts.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            reconcile();
+            log.info("TOKEN_STATS: Loaded counters ({} tokens, {} active)",
+                    snapshot().getTotalTokens(), count(TokenStatus.ACTIVE));
+        } catch (Exception e) {
+            log.warn("TOKEN_STATS: Load failed, will retry on next read: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Re-run the aggregates and repair drift.
+     *
+     * Counters are captured before the queries and only the difference between
+     * the aggregates and that capture is applied, so transitions recorded while
+     * the queries run are not lost.
+     *
+     * @return total absolute drift repaired
+     */
+    @Scheduled(initialDelayString = "${heronix.guardian.token.stats-reconcile-interval-ms:300000}",
+               fixedDelayString = "${heronix.guardian.token.stats-reconcile-interval-ms:300000}")
+    public synchronized long reconcile() {
+        Map<TokenStatus, Long> statusBefore = sums(byStatus);
+        Map<TokenType, Long> typeBefore = sums(activeByType);
+        long usageBefore = activeUsage.sum();
+
+        Map<TokenStatus, Long> statusActual = new EnumMap<>(TokenStatus.class);
+        for (Object[] row : tokenRepository.countTokensByStatus()) {
+            statusActual.put((TokenStatus) row[0], ((Number) row[1]).longValue());
+        }
+        Map<TokenType, Long> typeActual = new EnumMap<>(TokenType.class);
+        for (Object[] row : tokenRepository.countActiveTokensByType()) {
+            typeActual.put((TokenType) row[0], ((Number) row[1]).longValue());
+        }
+        Object[] usage = tokenRepository.getUsageStatistics();
+        // Spring Data may wrap a single multi-column row in an outer array
+        if (usage.length == 1 && usage[0] instanceof Object[] row) {
+            usage = row;
+        }
+        long usageActual = usage[0] != null ? ((Number) usage[0]).longValue() : 0L;
+        LocalDateTime lastUsageActual = usage[2] != null ? (LocalDateTime) usage[2] : null;
+
+        long repaired = 0;
+        for (TokenStatus status : TokenStatus.values()) {
+            long delta = statusActual.getOrDefault(status, 0L) - statusBefore.get(status);
+            byStatus.get(status).add(delta);
+            repaired += Math.abs(delta);
+        }
+        for (TokenType type : TokenType.values()) {
+            long delta = typeActual.getOrDefault(type, 0L) - typeBefore.get(type);
+            activeByType.get(type).add(delta);
+            repaired += Math.abs(delta);
+        }
+        long usageDelta = usageActual - usageBefore;
+        activeUsage.add(usageDelta);
+        lastUsageMillis.set(lastUsageActual != null ? toMillis(lastUsageActual) : 0L);
+        expiringWithinWindow = jdbcRepository.countActiveTokensExpiringBefore(
+                LocalDateTime.now().plusDays(EXPIRING_WINDOW_DAYS));
+
+        reconciliations.increment();
+        if (loaded && (repaired > 0 || usageDelta != 0)) {
+            drift.add(repaired);
+            log.warn("TOKEN_STATS: Repaired drift of {} token counts and {} usage", repaired, usageDelta);
+        }
+        loaded = true;
+        return repaired;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("guardian.token.stats.reconciliations", reconciliations, LongAdder::sum)
+                .description("Token statistics reconciliations against the database aggregates")
+                .register(registry);
+        FunctionCounter.builder("guardian.token.stats.drift", drift, LongAdder::sum)
+                .description("Token counts corrected by reconciliation")
+                .register(registry);
+    }
+
+    // ========================================================================
+    // INTERNALS
+    // ========================================================================
+
+    private long count(TokenStatus status) {
+        return byStatus.get(status).sum();
+    }
+
+    /**
+     * Run now, or after commit when called inside a transaction (nothing happens on rollback).
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static <E extends Enum<E>> Map<E, LongAdder> counters(Class<E> type) {
+        Map<E, LongAdder> counters = new EnumMap<>(type);
+        for (E key : type.getEnumConstants()) {
+            counters.put(key, new LongAdder());
+        }
+        return counters;
+    }
+
+    private static <E extends Enum<E>> Map<E, Long> sums(Map<E, LongAdder> counters) {
+        Map<E, Long> sums = new LinkedHashMap<>();
+        counters.forEach((key, count) -> sums.put(key, count.sum()));
+        return sums;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
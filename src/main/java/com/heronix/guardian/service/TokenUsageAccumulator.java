@@ -0,0 +1,193 @@
+package com.heronix.guardian.service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.heronix.guardian.repository.GuardianTokenJdbcRepository;
+import com.heronix.guardian.repository.GuardianTokenJdbcRepository.UsageDelta;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Write-behind accounting of token usage.
+ *
+ * Token resolution only records (token ID, timestamp) in striped in-memory
+ * counters; the counters are flushed to guardian_tokens in a single JDBC batch
+ * on a fixed delay and once more on shutdown. This keeps the resolve path
+ * read-only and avoids row-lock contention on hot tokens.
+ *
+ * Metrics: guardian.token.usage.pending / flushed / flush.failures
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenUsageAccumulator implements MeterBinder {
+
+    private static final int STRIPES = 64;
+
+    private final GuardianTokenJdbcRepository jdbcRepository;
+    private final TokenStatistics statistics;
+
+    private final Stripe[] stripes = createStripes();
+    private final LongAdder flushed = new LongAdder();
+    private final LongAdder flushFailures = new LongAdder();
+
+    /**
+     * Record one usage of a token.
+     */
+    public void record(Long tokenId) {
+        if (tokenId == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Stripe stripe = stripeFor(tokenId);
+        synchronized (stripe) {
+            stripe.pending.computeIfAbsent(tokenId, id -> new Usage()).add(1, now);
+        }
+    }
+
+    /**
+     * Flush all pending usage to the database.
+     * Deltas that fail to write are merged back and retried on the next flush.
+     */
+    @Scheduled(fixedDelayString = "${heronix.guardian.token.usage-flush-interval-ms:5000}")
+    public synchronized void flush() {
+        List<UsageDelta> deltas = drain();
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcRepository.batchRecordUsage(deltas);
+            flushed.add(deltas.size());
+            recordStatistics(deltas);
+            log.debug("TOKEN_USAGE: Flushed usage for {} tokens", deltas.size());
+        } catch (Exception e) {
+            flushFailures.increment();
+            log.warn("TOKEN_USAGE: Flush of {} tokens failed, will retry: {}", deltas.size(), e.getMessage());
+            restore(deltas);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        log.info("TOKEN_USAGE: Flushing pending usage on shutdown ({} tokens)", pendingCount());
+        flush();
+    }
+
+    /**
+     * Number of distinct tokens with unflushed usage.
+     */
+    public int pendingCount() {
+        int count = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                count += stripe.pending.size();
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("guardian.token.usage.pending", this, TokenUsageAccumulator::pendingCount)
+                .description("Tokens with usage not yet flushed to the database")
+                .register(registry);
+        FunctionCounter.builder("guardian.token.usage.flushed", flushed, LongAdder::sum)
+                .description("Token usage rows written by the write-behind flush")
+                .register(registry);
+        FunctionCounter.builder("guardian.token.usage.flush.failures", flushFailures, LongAdder::sum)
+                .description("Write-behind usage flushes that failed and were retried")
+                .register(registry);
+    }
+
+    // ========================================================================
+    // INTERNALS
+    // ========================================================================
+
+    private List<UsageDelta> drain() {
+        List<UsageDelta> deltas = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            Map<Long, Usage> drained;
+            synchronized (stripe) {
+                if (stripe.pending.isEmpty()) {
+                    continue;
+                }
+                drained = stripe.pending;
+                stripe.pending = new HashMap<>();
+            }
+            drained.forEach((id, usage) -> deltas.add(new UsageDelta(id, usage.count, toLocalDateTime(usage.lastUsedMillis))));
+        }
+        return deltas;
+    }
+
+    private void recordStatistics(List<UsageDelta> deltas) {
+        long count = 0;
+        LocalDateTime lastUsed = null;
+        for (UsageDelta delta : deltas) {
+            count += delta.count();
+            if (lastUsed == null || delta.lastUsedAt().isAfter(lastUsed)) {
+                lastUsed = delta.lastUsedAt();
+            }
+        }
+        statistics.usageRecorded(count, lastUsed);
+    }
+
+    private void restore(List<UsageDelta> deltas) {
+        for (UsageDelta delta : deltas) {
+            long lastUsed = delta.lastUsedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            Stripe stripe = stripeFor(delta.tokenId());
+            synchronized (stripe) {
+                stripe.pending.computeIfAbsent(delta.tokenId(), id -> new Usage()).add(delta.count(), lastUsed);
+            }
+        }
+    }
+
+    private Stripe stripeFor(Long tokenId) {
+        long h = tokenId * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (h >>> 58) & (STRIPES - 1)];
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private static Stripe[] createStripes() {
+        Stripe[] result = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            result[i] = new Stripe();
+        }
+        return result;
+    }
+
+    private static final class Stripe {
+        private Map<Long, Usage> pending = new HashMap<>();
+    }
+
+    private static final class Usage {
+        private long count;
+        private long lastUsedMillis;
+
+        void add(long delta, long usedAtMillis) {
+            count += delta;
+            if (usedAtMillis > lastUsedMillis) {
+                lastUsedMillis = usedAtMillis;
+            }
+        }
+    }
+}
@@ -1,15 +1,19 @@
 package com.heronix.guardian.service;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.stereotype.Service;
 
-import com.heronix.guardian.config.GuardianProperties;
 import com.heronix.guardian.model.domain.GuardianToken;
 import com.heronix.guardian.model.enums.TokenStatus;
 import com.heronix.guardian.model.enums.TokenType;
 import com.heronix.guardian.repository.GuardianTokenRepository;
+import com.heronix.guardian.service.TokenResolutionCache.CachedToken;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -31,10 +35,17 @@ import lombok.extern.slf4j.Slf4j;
 public class TokenValidationService {
 
     private final GuardianTokenRepository tokenRepository;
-    private final GuardianProperties properties;
+    private final TokenFormat tokenFormat;
+    private final TokenResolutionCache resolutionCache;
+    private final TokenUsageAccumulator usageAccumulator;
+    private final NegativeTokenCache negativeCache;
+    private final HotTokenTracker hotTokens;
 
     /**
      * Validation result containing details about the token.
+     *
+     * {@code token} is null when the result was served from the resolution
+     * cache; use {@code tokenId} to refer to the token in that case.
      */
     public record ValidationResult(
             boolean valid,
@@ -42,155 +53,205 @@ public class TokenValidationService {
             TokenType tokenType,
             Long entityId,
             String errorMessage,
-            GuardianToken token
+            GuardianToken token,
+            Long tokenId,
+            String vendorScope
     ) {
         public static ValidationResult success(GuardianToken token) {
             return new ValidationResult(true, token.getTokenValue(), token.getTokenType(),
-                    token.getEntityId(), null, token);
+                    token.getEntityId(), null, token, token.getId(), token.getVendorScope());
+        }
+
+        public static ValidationResult success(CachedToken token) {
+            return new ValidationResult(true, token.tokenValue(), token.tokenType(),
+                    token.entityId(), null, null, token.tokenId(), token.vendorScope());
         }
 
         public static ValidationResult failure(String tokenValue, String errorMessage) {
-            return new ValidationResult(false, tokenValue, null, null, errorMessage, null);
+            return new ValidationResult(false, tokenValue, null, null, errorMessage, null, null, null);
         }
     }
 
     /**
      * Validate a token value and return the validation result.
+     * Always reads the token from the database and refreshes its cache entry.
      */
     public ValidationResult validateToken(String tokenValue) {
-        if (tokenValue == null || tokenValue.isBlank()) {
-            return ValidationResult.failure(tokenValue, "Token value is required");
-        }
-
-        // Validate format
-        if (!isValidFormat(tokenValue)) {
-            return ValidationResult.failure(tokenValue, "Invalid token format");
-        }
-
-        // Validate checksum
-        if (!isValidChecksum(tokenValue)) {
-            return ValidationResult.failure(tokenValue, "Invalid token checksum");
+        ValidationResult formatFailure = checkFormat(tokenValue);
+        if (formatFailure != null) {
+            return formatFailure;
         }
 
         // Look up token in database
+        long generation = resolutionCache.generation();
         Optional<GuardianToken> tokenOpt = tokenRepository.findByTokenValue(tokenValue);
         if (tokenOpt.isEmpty()) {
+            negativeCache.recordMiss(tokenValue);
             return ValidationResult.failure(tokenValue, "Token not found");
         }
 
         GuardianToken token = tokenOpt.get();
+        ValidationResult stateFailure = checkState(resolutionCache.put(token, generation));
+        return stateFailure != null ? stateFailure : ValidationResult.success(token);
+    }
 
-        // Check status
-        if (token.getStatus() != TokenStatus.ACTIVE) {
-            return ValidationResult.failure(tokenValue, "Token is " + token.getStatus().name().toLowerCase());
+    /**
+     * Validate a token value through the resolution cache.
+     * Only falls through to the database on a cache miss, and not at all for
+     * values the negative cache recently saw missing. The returned result
+     * carries no entity when served from the cache.
+     */
+    public ValidationResult validateTokenCached(String tokenValue) {
+        ValidationResult formatFailure = checkFormat(tokenValue);
+        if (formatFailure != null) {
+            return formatFailure;
         }
 
-        // Check expiration
-        if (token.getExpiresAt() != null && LocalDateTime.now().isAfter(token.getExpiresAt())) {
-            return ValidationResult.failure(tokenValue, "Token has expired");
+        CachedToken snapshot = resolutionCache.get(tokenValue);
+        if (snapshot == null) {
+            if (negativeCache.isKnownMissing(tokenValue)) {
+                return ValidationResult.failure(tokenValue, "Token not found");
+            }
+            long generation = resolutionCache.generation();
+            Optional<GuardianToken> tokenOpt = tokenRepository.findByTokenValue(tokenValue);
+            if (tokenOpt.isEmpty()) {
+                negativeCache.recordMiss(tokenValue);
+                return ValidationResult.failure(tokenValue, "Token not found");
+            }
+            snapshot = resolutionCache.put(tokenOpt.get(), generation);
         }
 
-        return ValidationResult.success(token);
+        ValidationResult stateFailure = checkState(snapshot);
+        return stateFailure != null ? stateFailure : ValidationResult.success(snapshot);
     }
 
     /**
-     * Check if the token format is valid.
-     * Format: PREFIX_HASH_CHECKSUM (e.g., STU_H7K2P9M3_X8)
+     * Validate several token values through the resolution cache, in order.
+     * Cache misses (minus known-missing values) are read with a single IN query.
      */
-    public boolean isValidFormat(String tokenValue) {
-        if (tokenValue == null || tokenValue.isBlank()) {
-            return false;
+    public List<ValidationResult> validateTokensCached(Collection<String> tokenValues) {
+        List<ValidationResult> results = new ArrayList<>(tokenValues.size());
+        List<String> misses = new ArrayList<>();
+
+        for (String tokenValue : tokenValues) {
+            ValidationResult result = checkFormat(tokenValue);
+            if (result == null) {
+                CachedToken snapshot = resolutionCache.get(tokenValue);
+                if (snapshot != null) {
+                    result = checkState(snapshot);
+                    result = result != null ? result : ValidationResult.success(snapshot);
+                } else if (negativeCache.isKnownMissing(tokenValue)) {
+                    result = ValidationResult.failure(tokenValue, "Token not found");
+                } else {
+                    misses.add(tokenValue);
+                }
+            }
+            results.add(result);
         }
 
-        String[] parts = tokenValue.split("_");
-        if (parts.length != 3) {
-            return false;
+        if (misses.isEmpty()) {
+            return results;
         }
 
-        String prefix = parts[0];
-        String hash = parts[1];
-        String checksum = parts[2];
-
-        // Validate prefix
-        try {
-            TokenType.fromPrefix(prefix);
-        } catch (IllegalArgumentException e) {
-            return false;
+        Map<String, CachedToken> found = new HashMap<>();
+        long generation = resolutionCache.generation();
+        for (GuardianToken token : tokenRepository.findByTokenValueIn(misses)) {
+            found.put(token.getTokenValue(), resolutionCache.put(token, generation));
         }
 
-        // Validate hash length
-        int expectedHashLength = properties.getToken().getHashLength();
-        if (hash.length() != expectedHashLength) {
-            return false;
+        int i = 0;
+        for (String tokenValue : tokenValues) {
+            if (results.get(i) == null) {
+                CachedToken snapshot = found.get(tokenValue);
+                ValidationResult result;
+                if (snapshot == null) {
+                    negativeCache.recordMiss(tokenValue);
+                    result = ValidationResult.failure(tokenValue, "Token not found");
+                } else {
+                    result = checkState(snapshot);
+                    result = result != null ? result : ValidationResult.success(snapshot);
+                }
+                results.set(i, result);
+            }
+            i++;
         }
+        return results;
+    }
 
-        // Validate checksum length
-        int expectedChecksumLength = properties.getToken().getChecksumLength();
-        if (checksum.length() != expectedChecksumLength) {
-            return false;
+    /**
+     * Check presence, format and checksum.
+     * @return a failure result, or null if the token passes
+     */
+    private ValidationResult checkFormat(String tokenValue) {
+        if (tokenValue == null || tokenValue.isBlank()) {
+            return ValidationResult.failure(tokenValue, "Token value is required");
         }
 
-        // Validate characters are from allowed charset
-        String charset = properties.getToken().getHashCharset();
-        for (char c : hash.toCharArray()) {
-            if (charset.indexOf(c) < 0) {
-                return false;
-            }
+        long parsed = tokenFormat.parse(tokenValue);
+
+        // Validate format
+        if (!TokenFormat.isWellFormed(parsed)) {
+            return ValidationResult.failure(tokenValue, "Invalid token format");
         }
-        for (char c : checksum.toCharArray()) {
-            if (charset.indexOf(c) < 0) {
-                return false;
-            }
+
+        // Validate checksum
+        if (!TokenFormat.isChecksumValid(parsed)) {
+            return ValidationResult.failure(tokenValue, "Invalid token checksum");
         }
 
-        return true;
+        return null;
     }
 
     /**
-     * Validate the checksum portion of a token.
+     * Check status and expiration.
+     * @return a failure result, or null if the token is usable
      */
-    public boolean isValidChecksum(String tokenValue) {
-        if (!isValidFormat(tokenValue)) {
-            return false;
+    private ValidationResult checkState(CachedToken token) {
+        // Check status
+        if (token.status() != TokenStatus.ACTIVE) {
+            return ValidationResult.failure(token.tokenValue(), "Token is " + token.status().name().toLowerCase());
+        }
+
+        // Check expiration
+        if (token.isExpired()) {
+            return ValidationResult.failure(token.tokenValue(), "Token has expired");
         }
 
-        String[] parts = tokenValue.split("_");
-        String prefix = parts[0];
-        String hash = parts[1];
-        String providedChecksum = parts[2];
+        return null;
+    }
 
-        // Recalculate checksum
-        String input = prefix + "_" + hash;
-        String expectedChecksum = calculateChecksum(input);
+    /**
+     * Check if the token format is valid.
+     * Format: PREFIX_HASH_CHECKSUM (e.g., STU_H7K2P9M3_X8)
+     */
+    public boolean isValidFormat(String tokenValue) {
+        return TokenFormat.isWellFormed(tokenFormat.parse(tokenValue));
+    }
 
-        return providedChecksum.equals(expectedChecksum);
+    /**
+     * Validate the checksum portion of a token.
+     */
+    public boolean isValidChecksum(String tokenValue) {
+        return TokenFormat.isChecksumValid(tokenFormat.parse(tokenValue));
     }
 
     /**
      * Extract the token type from a token value without database lookup.
      */
     public Optional<TokenType> extractTokenType(String tokenValue) {
-        if (!isValidFormat(tokenValue)) {
-            return Optional.empty();
-        }
-
-        String prefix = tokenValue.split("_")[0];
-        try {
-            return Optional.of(TokenType.fromPrefix(prefix));
-        } catch (IllegalArgumentException e) {
-            return Optional.empty();
-        }
+        long parsed = tokenFormat.parse(tokenValue);
+        return TokenFormat.isWellFormed(parsed)
+                ? Optional.of(TokenFormat.tokenType(parsed))
+                : Optional.empty();
     }
 
     /**
      * Resolve a token to its real entity ID.
      */
     public Optional<Long> resolveToEntityId(String tokenValue) {
-        ValidationResult result = validateToken(tokenValue);
+        ValidationResult result = validateTokenCached(tokenValue);
         if (result.valid()) {
-            // Record usage
-            result.token().recordUsage();
-            tokenRepository.save(result.token());
+            recordUsage(result);
             return Optional.of(result.entityId());
         }
         return Optional.empty();
@@ -202,24 +263,17 @@ public class TokenValidationService {
     public Optional<GuardianToken> resolveToken(String tokenValue) {
         ValidationResult result = validateToken(tokenValue);
         if (result.valid()) {
-            result.token().recordUsage();
-            tokenRepository.save(result.token());
+            recordUsage(result);
             return Optional.of(result.token());
         }
         return Optional.empty();
     }
 
     /**
-     * Calculate checksum for validation.
+     * Record a successful resolution: write-behind usage accounting and hot-token tracking.
      */
-    private String calculateChecksum(String input) {
-        String charset = properties.getToken().getHashCharset();
-        int crc = 0;
-        for (char c : input.toCharArray()) {
-            crc = (crc + c) % (charset.length() * charset.length());
-        }
-        char c1 = charset.charAt(crc / charset.length());
-        char c2 = charset.charAt(crc % charset.length());
-        return "" + c1 + c2;
+    public void recordUsage(ValidationResult result) {
+        usageAccumulator.record(result.tokenId());
+        hotTokens.record(result.vendorScope(), result.tokenValue());
     }
 }
@@ -0,0 +1,142 @@
+package com.heronix.guardian.service;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.heronix.guardian.cache.BloomFilter;
+import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.repository.GuardianTokenJdbcRepository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bloom filter of every token value in guardian_tokens.
+ *
+ * Lets token generation skip the existsByTokenValue round trip for candidates
+ * that are definitely new. Loaded once at startup by streaming token_value and
+ * kept current as tokens are inserted; until the load finishes every value is
+ * reported as "might exist" so callers fall back to the database check. The
+ * unique index on token_value remains the final guard.
+ *
+ * Metrics: guardian.token.filter.bits / bits.set / insertions / fpp.expected / fpp.observed,
+ *          guardian.token.filter.skipped / probes / false.positives
+ */
+@Component
+@Slf4j
+public class TokenValueFilter implements MeterBinder {
+
+    private final GuardianTokenJdbcRepository jdbcRepository;
+    private final BloomFilter filter;
+
+    private volatile boolean loaded;
+
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    public TokenValueFilter(GuardianTokenJdbcRepository jdbcRepository, GuardianProperties properties) {
+        GuardianProperties.TokenConfig config = properties.getToken();
+        this.jdbcRepository = jdbcRepository;
+        this.filter = new BloomFilter(config.getValueFilterExpectedTokens(), config.getValueFilterFalsePositiveRate());
+
+        log.info("TOKEN_FILTER: Initialized - {} bits, {} hash functions (expected tokens: {}, target FPP: {})",
+                filter.bitSize(), filter.hashFunctions(),
+                config.getValueFilterExpectedTokens(), config.getValueFilterFalsePositiveRate());
+    }
+
+    /**
+     * Stream all existing token values into the filter.
+     * Runs once the application is serving; until then checks fall back to the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.currentTimeMillis();
+        try {
+            long count = jdbcRepository.streamTokenValues(filter::put);
+            loaded = true;
+            log.info("TOKEN_FILTER: Loaded {} token values in {} ms (expected FPP now {})",
+                    count, System.currentTimeMillis() - start, String.format("%.2e", filter.expectedFalsePositiveRate()));
+        } catch (Exception e) {
+            log.warn("TOKEN_FILTER: Load failed, collision checks stay on the database: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return false only if the value is definitely not in guardian_tokens
+     */
+    public boolean mightContain(String tokenValue) {
+        if (!loaded) {
+            return true;
+        }
+        if (filter.mightContain(tokenValue)) {
+            probes.increment();
+            return true;
+        }
+        skipped.increment();
+        return false;
+    }
+
+    /**
+     * Record values reported by {@link #mightContain} that turned out to be absent from the database.
+     */
+    public void recordFalsePositives(int count) {
+        if (loaded && count > 0) {
+            falsePositives.add(count);
+        }
+    }
+
+    /**
+     * Add a newly inserted (or found-to-exist) token value.
+     */
+    public void add(String tokenValue) {
+        filter.put(tokenValue);
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * False positives over all candidate values that turned out to be new.
+     */
+    public double observedFalsePositiveRate() {
+        long fp = falsePositives.sum();
+        long absent = fp + skipped.sum();
+        return absent == 0 ? 0.0 : (double) fp / absent;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("guardian.token.filter.bits", filter, BloomFilter::bitSize)
+                .description("Size of the token value Bloom filter in bits")
+                .register(registry);
+        Gauge.builder("guardian.token.filter.bits.set", filter, BloomFilter::bitsSet)
+                .description("Bits set in the token value Bloom filter")
+                .register(registry);
+        Gauge.builder("guardian.token.filter.insertions", filter, BloomFilter::insertions)
+                .description("Token values added to the Bloom filter")
+                .register(registry);
+        Gauge.builder("guardian.token.filter.fpp.expected", filter, BloomFilter::expectedFalsePositiveRate)
+                .description("Current expected false-positive probability of the Bloom filter")
+                .register(registry);
+        Gauge.builder("guardian.token.filter.fpp.observed", this, TokenValueFilter::observedFalsePositiveRate)
+                .description("Share of new candidate values the filter could not rule out")
+                .register(registry);
+        FunctionCounter.builder("guardian.token.filter.skipped", skipped, LongAdder::sum)
+                .description("Candidate token values that skipped the database uniqueness check")
+                .register(registry);
+        FunctionCounter.builder("guardian.token.filter.probes", probes, LongAdder::sum)
+                .description("Candidate token values that still needed a database uniqueness check")
+                .register(registry);
+        FunctionCounter.builder("guardian.token.filter.false.positives", falsePositives, LongAdder::sum)
+                .description("Database checks that found the candidate value absent")
+                .register(registry);
+    }
+}
@@ -0,0 +1,147 @@
+package com.heronix.guardian.service;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.heronix.guardian.exception.TokenGenerationException;
+import com.heronix.guardian.model.enums.TokenType;
+import com.heronix.guardian.repository.GuardianTokenRepository;
+import com.heronix.guardian.security.TokenRandomSource;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Mints random token values and salts, and checks them for uniqueness.
+ *
+ * Shared by TokenGenerationService (request path) and TokenReservoir
+ * (background pre-minting). Uniqueness checks consult the TokenValueFilter
+ * first and only probe the database for values it cannot rule out.
+ *
+ * Every value handed out is dropped from the NegativeTokenCache, both
+ * immediately and again once the caller's transaction commits, so a value
+ * recently probed as unknown resolves as soon as its token exists.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenValueMinter {
+
+    // Maximum attempts to generate a unique token before failing
+    private static final int MAX_GENERATION_ATTEMPTS = 100;
+
+    // Salt size in bytes (hex-encoded to 64 chars)
+    private static final int SALT_BYTES = 32;
+
+    private final GuardianTokenRepository tokenRepository;
+    private final TokenFormat tokenFormat;
+    private final TokenValueFilter valueFilter;
+    private final TokenRandomSource randomSource;
+    private final NegativeTokenCache negativeCache;
+
+    /**
+     * Mint a random token value (not checked for uniqueness).
+     */
+    public String mintValue(TokenType tokenType) {
+        return tokenFormat.compose(tokenType, randomSource.nextString(tokenFormat.charset(), tokenFormat.hashLength()));
+    }
+
+    /**
+     * Mint a token value that does not exist yet.
+     * Values the Bloom filter reports as definitely new skip the database check.
+     */
+    public String mintUniqueValue(TokenType tokenType) {
+        for (int attempt = 0; attempt < MAX_GENERATION_ATTEMPTS; attempt++) {
+            String tokenValue = mintValue(tokenType);
+
+            if (!valueFilter.mightContain(tokenValue)) {
+                forgetMisses(List.of(tokenValue));
+                return tokenValue;
+            }
+            if (!tokenRepository.existsByTokenValue(tokenValue)) {
+                valueFilter.recordFalsePositives(1);
+                forgetMisses(List.of(tokenValue));
+                return tokenValue;
+            }
+
+            log.debug("Token collision detected on attempt {}, regenerating...", attempt + 1);
+        }
+
+        throw new TokenGenerationException(
+                "Failed to generate unique token after " + MAX_GENERATION_ATTEMPTS + " attempts");
+    }
+
+    /**
+     * Mint {@code count} distinct token values that do not exist yet,
+     * collision-checked with one IN query per round.
+     */
+    public Set<String> mintUniqueValues(TokenType tokenType, int count) {
+        Set<String> values = new HashSet<>(count * 2);
+        while (values.size() < count) {
+            values.add(mintValue(tokenType));
+        }
+        for (int attempt = 0; ; attempt++) {
+            List<String> collisions = findExistingValues(values);
+            if (collisions.isEmpty()) {
+                forgetMisses(values);
+                return values;
+            }
+            if (attempt >= MAX_GENERATION_ATTEMPTS) {
+                throw new TokenGenerationException(
+                        "Failed to generate unique tokens after " + MAX_GENERATION_ATTEMPTS + " attempts");
+            }
+            log.debug("{} token collisions detected in bulk mint, regenerating...", collisions.size());
+            collisions.forEach(values::remove);
+            while (values.size() < count) {
+                values.add(mintValue(tokenType));
+            }
+        }
+    }
+
+    /**
+     * Generate a cryptographic salt.
+     */
+    public String generateSalt() {
+        return randomSource.nextHex(SALT_BYTES);
+    }
+
+    /**
+     * Evict minted values from the negative cache now and, inside a
+     * transaction, again after commit (a lookup racing the insert may
+     * have re-admitted them in between).
+     */
+    private void forgetMisses(Collection<String> values) {
+        values.forEach(negativeCache::invalidate);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<String> minted = List.copyOf(values);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    minted.forEach(negativeCache::invalidate);
+                }
+            });
+        }
+    }
+
+    /**
+     * Return the candidate values that already exist, probing the database
+     * only for values the Bloom filter cannot rule out.
+     */
+    private List<String> findExistingValues(Set<String> candidates) {
+        List<String> maybePresent = candidates.stream()
+                .filter(valueFilter::mightContain)
+                .toList();
+        if (maybePresent.isEmpty()) {
+            return List.of();
+        }
+        List<String> existing = tokenRepository.findExistingTokenValues(maybePresent);
+        valueFilter.recordFalsePositives(maybePresent.size() - existing.size());
+        return existing;
+    }
+}
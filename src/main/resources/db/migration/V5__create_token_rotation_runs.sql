@@ -0,0 +1,34 @@
+-- ============================================================================
+-- V5: Create Token Rotation Runs Table
+-- ============================================================================
+-- Checkpoints for the chunked school-year token rotation engine, so an
+-- interrupted rotation can resume from the last committed chunk.
+-- ============================================================================
+
+CREATE TABLE token_rotation_runs (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+
+    -- Scope
+    school_year VARCHAR(9) NOT NULL,
+    max_token_id BIGINT NOT NULL,
+    tokens_total BIGINT NOT NULL DEFAULT 0,
+
+    -- Progress / checkpoint
+    status VARCHAR(15) NOT NULL DEFAULT 'RUNNING',
+    last_token_id BIGINT NOT NULL DEFAULT 0,
+    tokens_rotated BIGINT NOT NULL DEFAULT 0,
+    chunks_completed INT NOT NULL DEFAULT 0,
+
+    -- Audit
+    rotated_by VARCHAR(100),
+    error_message VARCHAR(500),
+    started_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP,
+    completed_at TIMESTAMP
+);
+
+CREATE INDEX idx_rotation_run_status ON token_rotation_runs(status);
+CREATE INDEX idx_rotation_run_school_year ON token_rotation_runs(school_year);
+
+-- Keyset pagination over active tokens of a school year
+CREATE INDEX idx_guardian_year_status_id ON guardian_tokens(school_year, status, id);
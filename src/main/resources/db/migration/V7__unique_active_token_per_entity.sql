@@ -0,0 +1,33 @@
+-- ============================================================================
+-- V7: At Most One ACTIVE Token per Entity and Vendor Scope
+-- ============================================================================
+-- Backstop for concurrent getOrCreateToken calls on different nodes (callers
+-- in one JVM are serialized by TokenCreationLocks). H2 has no partial indexes,
+-- so the key is a generated column that is NULL unless the token is ACTIVE;
+-- the unique index ignores NULLs.
+-- ============================================================================
+
+-- Retire duplicate ACTIVE tokens left by earlier races: keep the newest per
+-- (entity_type, entity_id, vendor_scope) and mark the rest ROTATED into it.
+UPDATE guardian_tokens SET
+    status = 'ROTATED',
+    updated_at = CURRENT_TIMESTAMP,
+    replaced_by_id = (
+        SELECT MAX(k.id) FROM guardian_tokens k
+        WHERE k.status = 'ACTIVE'
+          AND k.entity_type = guardian_tokens.entity_type
+          AND k.entity_id = guardian_tokens.entity_id
+          AND COALESCE(k.vendor_scope, '') = COALESCE(guardian_tokens.vendor_scope, ''))
+WHERE status = 'ACTIVE'
+  AND id < (
+        SELECT MAX(k.id) FROM guardian_tokens k
+        WHERE k.status = 'ACTIVE'
+          AND k.entity_type = guardian_tokens.entity_type
+          AND k.entity_id = guardian_tokens.entity_id
+          AND COALESCE(k.vendor_scope, '') = COALESCE(guardian_tokens.vendor_scope, ''));
+
+ALTER TABLE guardian_tokens ADD COLUMN active_entity_key VARCHAR(80)
+    GENERATED ALWAYS AS (CASE WHEN status = 'ACTIVE'
+        THEN entity_type || ':' || entity_id || ':' || COALESCE(vendor_scope, '') END);
+
+CREATE UNIQUE INDEX uq_guardian_active_entity ON guardian_tokens (active_entity_key);
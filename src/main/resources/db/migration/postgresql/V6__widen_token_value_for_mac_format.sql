@@ -0,0 +1,9 @@
+-- ============================================================================
+-- V6: Widen Token Columns for Self-Verifying (v2) Token Format
+-- ============================================================================
+-- v2 tokens are PREFIX_HASH_MAC with a 6-char truncated HMAC tail
+-- (e.g., STU_H7K2P9M3_Q4ZK7C, 19 chars). v1 tokens are unchanged.
+-- ============================================================================
+
+ALTER TABLE guardian_tokens ALTER COLUMN token_value SET DATA TYPE VARCHAR(24);
+ALTER TABLE guardian_tokens ALTER COLUMN checksum SET DATA TYPE VARCHAR(8);
@@ -0,0 +1,30 @@
+-- ============================================================================
+-- V7: At Most One ACTIVE Token per Entity and Vendor Scope
+-- ============================================================================
+-- Backstop for concurrent getOrCreateToken calls on different nodes (callers
+-- in one JVM are serialized by TokenCreationLocks). The partial unique index
+-- rejects a second ACTIVE row; the service then returns the winner's token.
+-- ============================================================================
+
+-- Retire duplicate ACTIVE tokens left by earlier races: keep the newest per
+-- (entity_type, entity_id, vendor_scope) and mark the rest ROTATED into it.
+UPDATE guardian_tokens SET
+    status = 'ROTATED',
+    updated_at = CURRENT_TIMESTAMP,
+    replaced_by_id = (
+        SELECT MAX(k.id) FROM guardian_tokens k
+        WHERE k.status = 'ACTIVE'
+          AND k.entity_type = guardian_tokens.entity_type
+          AND k.entity_id = guardian_tokens.entity_id
+          AND COALESCE(k.vendor_scope, '') = COALESCE(guardian_tokens.vendor_scope, ''))
+WHERE status = 'ACTIVE'
+  AND id < (
+        SELECT MAX(k.id) FROM guardian_tokens k
+        WHERE k.status = 'ACTIVE'
+          AND k.entity_type = guardian_tokens.entity_type
+          AND k.entity_id = guardian_tokens.entity_id
+          AND COALESCE(k.vendor_scope, '') = COALESCE(guardian_tokens.vendor_scope, ''));
+
+CREATE UNIQUE INDEX uq_guardian_active_entity
+    ON guardian_tokens (entity_type, entity_id, COALESCE(vendor_scope, ''))
+    WHERE status = 'ACTIVE';
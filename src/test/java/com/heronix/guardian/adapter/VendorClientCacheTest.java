@@ -0,0 +1,140 @@
+package com.heronix.guardian.adapter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.model.domain.VendorCredential;
+import com.heronix.guardian.service.CredentialDecryptionService;
+import com.sun.net.httpserver.HttpServer;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for VendorClientCache — client reuse per credential, rebuild on
+ * credential changes, and zeroing of decrypted tokens.
+ */
+class VendorClientCacheTest {
+
+    private final List<char[]> issuedTokens = new ArrayList<>();
+    private CredentialDecryptionService decryptionService;
+    private GuardianProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        decryptionService = mock(CredentialDecryptionService.class);
+        when(decryptionService.decryptToChars(anyString())).thenAnswer(invocation -> {
+            char[] token = ("plain-" + invocation.getArgument(0)).toCharArray();
+            issuedTokens.add(token);
+            return token;
+        });
+        properties = new GuardianProperties();
+    }
+
+    private static VendorCredential credential(String encryptedToken) {
+        return VendorCredential.builder()
+                .id(7L)
+                .connectionName("Canvas")
+                .apiBaseUrl("https://canvas.example.edu")
+                .encryptedOauthToken(encryptedToken)
+                .updatedAt(LocalDateTime.of(2026, 1, 1, 0, 0))
+                .build();
+    }
+
+    @Test
+    void testClientIsReusedUntilCredentialChanges() {
+        VendorClientCache cache = new VendorClientCache(decryptionService, properties);
+        VendorCredential credential = credential("enc-1");
+
+        WebClient first = cache.client(credential, WebClient::builder);
+        assertThat(cache.client(credential, WebClient::builder)).isSameAs(first);
+        verify(decryptionService, times(1)).decryptToChars("enc-1");
+
+        credential.setEncryptedOauthToken("enc-2");
+        WebClient refreshed = cache.client(credential, WebClient::builder);
+
+        assertThat(refreshed).isNotSameAs(first);
+        assertThat(issuedTokens.get(0)).containsOnly('\0');
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testInvalidateAndExpiryZeroTheToken() {
+        VendorClientCache cache = new VendorClientCache(decryptionService, properties);
+        cache.client(credential("enc-1"), WebClient::builder);
+
+        cache.invalidate(7L);
+
+        assertThat(issuedTokens.get(0)).containsOnly('\0');
+        assertThat(cache.size()).isZero();
+
+        properties.getVendorClients().setTtlSeconds(0);
+        VendorClientCache expiring = new VendorClientCache(decryptionService, properties);
+        expiring.client(credential("enc-2"), WebClient::builder);
+        expiring.purgeExpired();
+
+        assertThat(issuedTokens.get(1)).containsOnly('\0');
+        assertThat(expiring.size()).isZero();
+    }
+
+    @Test
+    void testMissingTokenIsRejected() {
+        when(decryptionService.decryptToChars("blank")).thenReturn("  ".toCharArray());
+        VendorClientCache cache = new VendorClientCache(decryptionService, properties);
+
+        assertThatThrownBy(() -> cache.client(credential("blank"), WebClient::builder))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("OAuth token is missing");
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void testDroppedClientUsesCurrentTokenOrFails() throws Exception {
+        AtomicReference<String> authorization = new AtomicReference<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            authorization.set(exchange.getRequestHeaders().getFirst("Authorization"));
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.start();
+        try {
+            VendorClientCache cache = new VendorClientCache(decryptionService, properties);
+            Supplier<WebClient.Builder> builder =
+                    () -> WebClient.builder().baseUrl("http://127.0.0.1:" + server.getAddress().getPort());
+            WebClient client = cache.client(credential("enc-1"), builder);
+
+            client.get().uri("/self").retrieve().toBodilessEntity().block(Duration.ofSeconds(5));
+            assertThat(authorization.get()).isEqualTo("Bearer plain-enc-1");
+
+            // Token refreshed: a caller still holding the old client sends the new token
+            cache.invalidate(7L);
+            cache.client(credential("enc-2"), builder);
+            authorization.set(null);
+            client.get().uri("/self").retrieve().toBodilessEntity().block(Duration.ofSeconds(5));
+            assertThat(authorization.get()).isEqualTo("Bearer plain-enc-2");
+
+            // Credential deactivated: the old client fails instead of decrypting the stale token
+            cache.invalidate(7L);
+            authorization.set(null);
+            assertThatThrownBy(() -> client.get().uri("/self").retrieve().toBodilessEntity()
+                    .block(Duration.ofSeconds(5)))
+                    .hasMessageContaining("was invalidated");
+            assertThat(authorization.get()).isNull();
+            verify(decryptionService, never()).decrypt(anyString());
+        } finally {
+            server.stop(0);
+        }
+    }
+}
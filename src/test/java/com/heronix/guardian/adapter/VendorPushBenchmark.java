@@ -0,0 +1,120 @@
+package com.heronix.guardian.adapter;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.heronix.guardian.adapter.VendorAdapter.SyncResult;
+import com.heronix.guardian.adapter.canvas.CanvasAdapter;
+import com.heronix.guardian.adapter.canvas.CanvasApiClient;
+import com.heronix.guardian.adapter.canvas.CanvasSisImporter;
+import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.config.UpstreamWebClients;
+import com.heronix.guardian.model.domain.VendorCredential;
+import com.heronix.guardian.model.dto.TokenizedStudentDTO;
+import com.heronix.guardian.service.CredentialDecryptionService;
+import com.sun.net.httpserver.HttpServer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Benchmark: per-record Canvas student pushes against a stub that adds fixed
+ * latency to every call, at increasing push concurrency.
+ *
+ * Run with: mvn test -Dtest=VendorPushBenchmark -Dguardian.benchmarks=true
+ */
+@EnabledIfSystemProperty(named = "guardian.benchmarks", matches = "true")
+@Slf4j
+class VendorPushBenchmark {
+
+    private static final int STUDENTS = 200;
+    private static final long LATENCY_MS = 20;
+
+    private static HttpServer server;
+    private static ExecutorService serverThreads;
+
+    @BeforeAll
+    static void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            try {
+                Thread.sleep(LATENCY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // User lookups miss, so every student costs a GET and a POST
+            boolean lookup = "GET".equals(exchange.getRequestMethod());
+            byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(lookup ? 404 : 200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        serverThreads = Executors.newCachedThreadPool();
+        server.setExecutor(serverThreads);
+        server.start();
+    }
+
+    @AfterAll
+    static void stopStub() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @ParameterizedTest(name = "concurrency {0}")
+    @ValueSource(ints = {1, 4, 16, 32})
+    void pushStudents(int concurrency) {
+        GuardianProperties properties = new GuardianProperties();
+        properties.getCanvas().setPushConcurrency(concurrency);
+        properties.getCanvas().getSisImport().setEnabled(false);
+        CredentialDecryptionService decryptionService = mock(CredentialDecryptionService.class);
+        when(decryptionService.decryptToChars(anyString())).thenAnswer(invocation -> "token".toCharArray());
+
+        UpstreamWebClients webClients = new UpstreamWebClients(WebClient.builder(), properties);
+        VendorClientCache clientCache = new VendorClientCache(decryptionService, properties);
+        CanvasApiClient apiClient = new CanvasApiClient(webClients, properties, decryptionService, clientCache);
+        CanvasAdapter adapter = new CanvasAdapter(apiClient, decryptionService, clientCache,
+                new CanvasSisImporter(apiClient, properties), new VendorPushExecutor(properties));
+
+        VendorCredential credential = VendorCredential.builder()
+                .id(1L)
+                .connectionName("Canvas stub")
+                .apiBaseUrl("http://127.0.0.1:" + server.getAddress().getPort())
+                .encryptedOauthToken("enc")
+                .build();
+        List<TokenizedStudentDTO> students = IntStream.rangeClosed(1, STUDENTS)
+                .mapToObj(i -> TokenizedStudentDTO.builder()
+                        .token("STU_" + i)
+                        .displayName("Student " + i)
+                        .email("stu" + i + "@example.edu")
+                        .build())
+                .toList();
+
+        try {
+            long start = System.nanoTime();
+            SyncResult result = adapter.pushStudents(students, credential);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+
+            assertThat(result.processed()).isEqualTo(STUDENTS);
+            log.info("BENCHMARK pushStudents {} students, {} ms/call, concurrency {}: {} ms | {} students/s",
+                    STUDENTS, LATENCY_MS, concurrency, millis, STUDENTS * 1000L / Math.max(1, millis));
+        } finally {
+            webClients.shutdown();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.heronix.guardian.adapter;
+
+import org.junit.jupiter.api.Test;
+
+import com.heronix.guardian.adapter.VendorAdapter.SyncResult;
+import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.model.domain.VendorCredential;
+import com.heronix.guardian.model.enums.VendorType;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for VendorPushExecutor — concurrency window shared per credential,
+ * per-record error collection in record order, and cancellation by interrupt.
+ */
+class VendorPushExecutorTest {
+
+    private final GuardianProperties properties = new GuardianProperties();
+    private final VendorPushExecutor executor = new VendorPushExecutor(properties);
+
+    private static List<Integer> records(int count) {
+        return IntStream.rangeClosed(1, count).boxed().toList();
+    }
+
+    @Test
+    void testConcurrencyFallsBackToSyncParallelThreads() {
+        properties.getSync().setParallelThreads(6);
+        properties.getCanvas().setPushConcurrency(12);
+
+        assertThat(executor.concurrency(VendorType.CANVAS)).isEqualTo(12);
+        assertThat(executor.concurrency(VendorType.GOOGLE_CLASSROOM)).isEqualTo(6);
+        assertThat(executor.concurrency(VendorType.MOODLE)).isEqualTo(6);
+    }
+
+    @Test
+    void testInFlightCallsStayWithinWindow() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        SyncResult result = executor.push(records(40), 4, record -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+        }, record -> "record " + record);
+
+        assertThat(result.success()).isTrue();
+        assertThat(result.processed()).isEqualTo(40);
+        assertThat(maxInFlight.get()).isBetween(2, 4);
+    }
+
+    @Test
+    void testConcurrentPushesToOneCredentialShareTheWindow() {
+        properties.getCanvas().setPushConcurrency(3);
+        VendorCredential credential = VendorCredential.builder().id(9L).connectionName("Canvas").build();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        List<CompletableFuture<SyncResult>> pushes = IntStream.range(0, 3)
+                .mapToObj(p -> CompletableFuture.supplyAsync(() -> executor.push(VendorType.CANVAS, credential,
+                        records(15), record -> {
+                            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                            try {
+                                Thread.sleep(5);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                            inFlight.decrementAndGet();
+                        }, record -> "record " + record)))
+                .toList();
+
+        assertThat(pushes).allSatisfy(push -> assertThat(push.join().processed()).isEqualTo(15));
+        assertThat(maxInFlight.get()).isBetween(2, 3);
+    }
+
+    @Test
+    void testFailuresAreCollectedInRecordOrder() {
+        SyncResult result = executor.push(records(20), 8, record -> {
+            if (record % 5 == 0) {
+                throw new IllegalStateException("rejected " + record);
+            }
+        }, record -> "Failed to sync student STU_" + record);
+
+        assertThat(result.success()).isFalse();
+        assertThat(result.processed()).isEqualTo(16);
+        assertThat(result.failed()).isEqualTo(4);
+        assertThat(result.errors()).containsExactly(
+                "Failed to sync student STU_5: rejected 5",
+                "Failed to sync student STU_10: rejected 10",
+                "Failed to sync student STU_15: rejected 15",
+                "Failed to sync student STU_20: rejected 20");
+    }
+
+    @Test
+    void testInterruptCancelsRemainingRecords() throws Exception {
+        CountDownLatch started = new CountDownLatch(2);
+        AtomicInteger calls = new AtomicInteger();
+        AtomicReference<SyncResult> result = new AtomicReference<>();
+        AtomicBoolean interrupted = new AtomicBoolean();
+
+        Thread caller = new Thread(() -> {
+            result.set(executor.push(records(100), 2, record -> {
+                calls.incrementAndGet();
+                started.countDown();
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    // An interrupted call fails after the cancel; it must not count as a failure
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("interrupted", e);
+                }
+            }, record -> "record " + record));
+            interrupted.set(Thread.currentThread().isInterrupted());
+        });
+        caller.start();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        caller.interrupt();
+        caller.join(5000);
+
+        assertThat(caller.isAlive()).isFalse();
+        assertThat(interrupted).isTrue();
+        assertThat(result.get().success()).isFalse();
+        assertThat(result.get().processed()).isZero();
+        assertThat(result.get().failed()).isZero();
+        assertThat(result.get().errors()).containsExactly("Push cancelled after 0 of 100 records");
+        assertThat(calls.get()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,200 @@
+package com.heronix.guardian.adapter.canvas;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.heronix.guardian.adapter.VendorAdapter.EnrollmentPair;
+import com.heronix.guardian.adapter.VendorAdapter.SyncResult;
+import com.heronix.guardian.adapter.VendorClientCache;
+import com.heronix.guardian.adapter.VendorPushExecutor;
+import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.config.UpstreamWebClients;
+import com.heronix.guardian.model.domain.VendorCredential;
+import com.heronix.guardian.model.dto.TokenizedStudentDTO;
+import com.heronix.guardian.service.CredentialDecryptionService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the Canvas SIS Import bulk path against a local stub Canvas:
+ * automatic per-record vs bulk selection, the streamed CSV zip, polling and
+ * mapping of rejected rows into the SyncResult.
+ */
+class CanvasSisImporterTest {
+
+    private final Map<String, String> uploadedFiles = new ConcurrentHashMap<>();
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private final AtomicInteger polls = new AtomicInteger();
+    private volatile String finalImport;
+
+    private HttpServer server;
+    private UpstreamWebClients webClients;
+    private CanvasAdapter adapter;
+    private VendorCredential credential;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/v1/accounts/self/sis_imports", this::handleSisImport);
+        server.createContext("/api/v1/", exchange -> {
+            requests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath());
+            boolean lookup = "GET".equals(exchange.getRequestMethod());
+            respond(exchange, lookup ? 404 : 200, "{}");
+        });
+        server.start();
+
+        GuardianProperties properties = new GuardianProperties();
+        properties.getCanvas().getSisImport().setBulkThreshold(3);
+        properties.getCanvas().getSisImport().setPollIntervalMs(10);
+        CredentialDecryptionService decryptionService = mock(CredentialDecryptionService.class);
+        when(decryptionService.decryptToChars(anyString())).thenAnswer(invocation -> "token".toCharArray());
+
+        webClients = new UpstreamWebClients(WebClient.builder(), properties);
+        VendorClientCache clientCache = new VendorClientCache(decryptionService, properties);
+        CanvasApiClient apiClient = new CanvasApiClient(webClients, properties, decryptionService, clientCache);
+        adapter = new CanvasAdapter(apiClient, decryptionService, clientCache,
+                new CanvasSisImporter(apiClient, properties), new VendorPushExecutor(properties));
+
+        credential = VendorCredential.builder()
+                .id(1L)
+                .connectionName("Canvas stub")
+                .apiBaseUrl("http://127.0.0.1:" + server.getAddress().getPort())
+                .encryptedOauthToken("enc")
+                .build();
+        finalImport = "{\"id\":42,\"workflow_state\":\"imported\",\"progress\":100}";
+    }
+
+    @AfterEach
+    void tearDown() {
+        webClients.shutdown();
+        server.stop(0);
+    }
+
+    private void handleSisImport(HttpExchange exchange) throws IOException {
+        if ("POST".equals(exchange.getRequestMethod())) {
+            assertThat(exchange.getRequestURI().getQuery()).contains("import_type=instructure_csv");
+            try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(
+                    exchange.getRequestBody().readAllBytes()))) {
+                for (ZipEntry entry; (entry = zip.getNextEntry()) != null; ) {
+                    uploadedFiles.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+                }
+            }
+            respond(exchange, 200, "{\"id\":42,\"workflow_state\":\"created\",\"progress\":0}");
+        } else if (polls.incrementAndGet() < 3) {
+            respond(exchange, 200, "{\"id\":42,\"workflow_state\":\"importing\",\"progress\":50}");
+        } else {
+            respond(exchange, 200, finalImport);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+
+    private static List<TokenizedStudentDTO> students(int count) {
+        List<TokenizedStudentDTO> students = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            students.add(TokenizedStudentDTO.builder()
+                    .token("STU_" + i)
+                    .displayName("Student, " + i)
+                    .email("stu" + i + "@example.edu")
+                    .build());
+        }
+        return students;
+    }
+
+    @Test
+    void testSmallBatchUsesPerRecordCalls() {
+        SyncResult result = adapter.pushStudents(students(2), credential);
+
+        assertThat(result.success()).isTrue();
+        assertThat(result.processed()).isEqualTo(2);
+        assertThat(requests).hasSize(4);
+        assertThat(uploadedFiles).isEmpty();
+    }
+
+    @Test
+    void testLargeBatchIsImportedAsZippedCsv() {
+        finalImport = "{\"id\":42,\"workflow_state\":\"imported_with_messages\",\"progress\":100,"
+                + "\"processing_warnings\":[[\"users.csv\",\"Improper email address for user STU_2\"],"
+                + "[\"users.csv\",\"Login ID for user STU_2 is already in use\"],"
+                + "[\"users.csv\",\"Skipped 1 row with a blank status\"]]}";
+
+        SyncResult result = adapter.pushStudents(students(3), credential);
+
+        assertThat(requests).isEmpty();
+        assertThat(polls.get()).isEqualTo(3);
+        assertThat(uploadedFiles.get("users.csv")).isEqualTo("""
+                user_id,login_id,full_name,email,status
+                STU_1,stu1@example.edu,"Student, 1",stu1@example.edu,active
+                STU_2,stu2@example.edu,"Student, 2",stu2@example.edu,active
+                STU_3,stu3@example.edu,"Student, 3",stu3@example.edu,active
+                """);
+        assertThat(result.success()).isFalse();
+        assertThat(result.processed()).isEqualTo(2);
+        assertThat(result.failed()).isEqualTo(1);
+        assertThat(result.errors()).containsExactly(
+                "Failed to sync student STU_2: Improper email address for user STU_2",
+                "Failed to sync student STU_2: Login ID for user STU_2 is already in use",
+                "users.csv: Skipped 1 row with a blank status");
+    }
+
+    @Test
+    void testRejectedCourseIsAttributedToItsEnrollments() {
+        finalImport = "{\"id\":42,\"workflow_state\":\"imported_with_messages\",\"progress\":100,"
+                + "\"processing_warnings\":[[\"enrollments.csv\",\"Course CRS_2 does not exist\"]]}";
+        List<EnrollmentPair> enrollments = List.of(
+                new EnrollmentPair("STU_1", "CRS_1", "student"),
+                new EnrollmentPair("STU_2", "CRS_1", "student"),
+                new EnrollmentPair("STU_1", "CRS_2", "student"));
+
+        SyncResult result = adapter.pushEnrollments(enrollments, credential);
+
+        assertThat(result.processed()).isEqualTo(2);
+        assertThat(result.failed()).isEqualTo(1);
+        assertThat(result.errors()).containsExactly(
+                "Failed to sync enrollment for CRS_2: Course CRS_2 does not exist");
+    }
+
+    @Test
+    void testFailedImportFailsEveryRecord() {
+        finalImport = "{\"id\":42,\"workflow_state\":\"failed_with_messages\",\"progress\":100,"
+                + "\"processing_errors\":[[\"enrollments.csv\",\"Malformed CSV\"]]}";
+        List<EnrollmentPair> enrollments = List.of(
+                new EnrollmentPair("STU_1", "CRS_1", "student"),
+                new EnrollmentPair("STU_2", "CRS_1", "student"),
+                new EnrollmentPair("TCH_1", "CRS_1", "teacher"));
+
+        SyncResult result = adapter.pushEnrollments(enrollments, credential);
+
+        assertThat(uploadedFiles.get("enrollments.csv")).contains("CRS_1,TCH_1,teacher,active");
+        assertThat(result.success()).isFalse();
+        assertThat(result.processed()).isZero();
+        assertThat(result.failed()).isEqualTo(3);
+        assertThat(result.errors()).containsExactly(
+                "Canvas SIS import 42 failed_with_messages", "enrollments.csv: Malformed CSV");
+    }
+}
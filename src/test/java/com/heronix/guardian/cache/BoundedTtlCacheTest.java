@@ -0,0 +1,141 @@
+package com.heronix.guardian.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for BoundedTtlCache — size bound, TTL expiry, invalidation and counters.
+ */
+class BoundedTtlCacheTest {
+
+    // ── Basic get / put ─────────────────────────────────────────────────
+
+    @Test
+    void testPutAndGet() {
+        BoundedTtlCache<String, Long> cache = new BoundedTtlCache<>(10, Duration.ofMinutes(1));
+        cache.put("STU_AAAAAAAA_AA", 42L);
+
+        assertThat(cache.get("STU_AAAAAAAA_AA")).isEqualTo(42L);
+        assertThat(cache.get("STU_BBBBBBBB_BB")).isNull();
+        assertThat(cache.hits()).isEqualTo(1);
+        assertThat(cache.misses()).isEqualTo(1);
+    }
+
+    @Test
+    void testNonPositiveMaxSizeThrows() {
+        assertThatThrownBy(() -> new BoundedTtlCache<String, Long>(0, Duration.ofMinutes(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // ── Eviction ────────────────────────────────────────────────────────
+
+    @Test
+    void testSizeBoundEvictsOldestFirst() {
+        BoundedTtlCache<Integer, Integer> cache = new BoundedTtlCache<>(3, Duration.ofMinutes(1));
+        for (int i = 0; i < 5; i++) {
+            cache.put(i, i);
+        }
+
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(cache.get(0)).isNull();
+        assertThat(cache.get(1)).isNull();
+        assertThat(cache.get(4)).isEqualTo(4);
+        assertThat(cache.evictions()).isEqualTo(2);
+    }
+
+    @Test
+    void testRepeatedPutsOfSameKeyDoNotEvictOthers() {
+        BoundedTtlCache<Integer, Integer> cache = new BoundedTtlCache<>(2, Duration.ofMinutes(1));
+        cache.put(1, 1);
+        for (int i = 0; i < 100; i++) {
+            cache.put(2, i);
+        }
+
+        assertThat(cache.get(1)).isEqualTo(1);
+        assertThat(cache.get(2)).isEqualTo(99);
+        assertThat(cache.evictions()).isZero();
+    }
+
+    @Test
+    void testEvictionCandidateIsTheNextEntryToGo() {
+        BoundedTtlCache<Integer, Integer> cache = new BoundedTtlCache<>(2, Duration.ofMinutes(1));
+        cache.put(1, 1);
+        assertThat(cache.evictionCandidate()).isNull();
+
+        cache.put(2, 2);
+        assertThat(cache.evictionCandidate()).isEqualTo(1);
+
+        // Replacing 1 moves it to the back of the line
+        cache.put(1, 10);
+        assertThat(cache.evictionCandidate()).isEqualTo(2);
+    }
+
+    @Test
+    void testExpiredEntryIsNotReturned() {
+        BoundedTtlCache<String, Long> cache = new BoundedTtlCache<>(10, Duration.ZERO);
+        cache.put("STU_AAAAAAAA_AA", 42L);
+
+        assertThat(cache.get("STU_AAAAAAAA_AA")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    // ── Invalidation ────────────────────────────────────────────────────
+
+    @Test
+    void testInvalidate() {
+        BoundedTtlCache<String, Long> cache = new BoundedTtlCache<>(10, Duration.ofMinutes(1));
+        cache.put("a", 1L);
+
+        assertThat(cache.invalidate("a")).isEqualTo(1L);
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.invalidate("a")).isNull();
+    }
+
+    @Test
+    void testInvalidateIf() {
+        BoundedTtlCache<String, Long> cache = new BoundedTtlCache<>(10, Duration.ofMinutes(1));
+        cache.put("a", 1L);
+        cache.put("b", 2L);
+        cache.put("c", 3L);
+
+        assertThat(cache.invalidateIf(v -> v >= 2)).isEqualTo(2);
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.get("a")).isEqualTo(1L);
+    }
+
+    // ── Removal listener ────────────────────────────────────────────────
+
+    @Test
+    void testRemovalListenerSeesEveryValueThatLeaves() {
+        List<Integer> removed = new ArrayList<>();
+        BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>(2, Duration.ofMinutes(1), removed::add);
+        cache.put("a", 1);
+        cache.put("a", 2);   // replaced
+        cache.put("b", 3);
+        cache.put("c", 4);   // evicts a
+        cache.invalidate("b");
+        cache.invalidate("missing");
+        cache.clear();
+
+        assertThat(removed).containsExactly(1, 2, 3, 4);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void testPurgeExpiredRemovesUnreadEntries() {
+        List<Integer> removed = new ArrayList<>();
+        BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>(10, Duration.ZERO, removed::add);
+        cache.put("a", 1);
+        cache.put("b", 2);
+
+        assertThat(cache.purgeExpired()).isEqualTo(2);
+        assertThat(removed).containsExactlyInAnyOrder(1, 2);
+        assertThat(cache.size()).isZero();
+        assertThat(cache.evictions()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,57 @@
+package com.heronix.guardian.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for FrequencySketch — never under-counts, saturates, and ages by halving.
+ */
+class FrequencySketchTest {
+
+    @Test
+    void testNeverUnderCounts() {
+        FrequencySketch sketch = new FrequencySketch(1_000);
+        for (int i = 0; i < 1_000; i++) {
+            for (int n = 0; n < i % 5; n++) {
+                sketch.increment("STU_" + i);
+            }
+        }
+
+        int exact = 0;
+        for (int i = 0; i < 1_000; i++) {
+            int frequency = sketch.frequency("STU_" + i);
+            assertThat(frequency).isGreaterThanOrEqualTo(i % 5);
+            if (frequency == i % 5) {
+                exact++;
+            }
+        }
+        assertThat(exact).isGreaterThan(850);
+    }
+
+    @Test
+    void testCountSaturates() {
+        FrequencySketch sketch = new FrequencySketch(1_000);
+        for (int i = 0; i < 100; i++) {
+            sketch.increment("STU_HOT");
+        }
+
+        assertThat(sketch.frequency("STU_HOT")).isEqualTo(FrequencySketch.MAX_COUNT);
+    }
+
+    @Test
+    void testCountsAreHalvedAfterSampleSize() {
+        FrequencySketch sketch = new FrequencySketch(1_000);
+        for (int i = 0; i < 20; i++) {
+            sketch.increment("STU_HOT");
+        }
+        assertThat(sketch.frequency("STU_HOT")).isEqualTo(FrequencySketch.MAX_COUNT);
+
+        // 10 x 1000 counted increments in total trigger the halving
+        for (int i = 0; i < 10_000 - FrequencySketch.MAX_COUNT; i++) {
+            sketch.increment("STU_FILLER" + i);
+        }
+
+        assertThat(sketch.frequency("STU_HOT")).isEqualTo(FrequencySketch.MAX_COUNT / 2);
+    }
+}
@@ -0,0 +1,75 @@
+package com.heronix.guardian.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for SpaceSaving — exact below capacity, error bounds and heavy hitters on a skewed stream.
+ */
+class SpaceSavingTest {
+
+    @Test
+    void testExactBelowCapacity() {
+        SpaceSaving<String> sketch = new SpaceSaving<>(10);
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j <= i; j++) {
+                sketch.offer("STU_" + i);
+            }
+        }
+
+        List<SpaceSaving.Entry<String>> top = sketch.top(3);
+
+        assertThat(top).extracting(SpaceSaving.Entry::key).containsExactly("STU_4", "STU_3", "STU_2");
+        assertThat(top).extracting(SpaceSaving.Entry::count).containsExactly(5L, 4L, 3L);
+        assertThat(top).allSatisfy(e -> assertThat(e.error()).isZero());
+        assertThat(sketch.total()).isEqualTo(15);
+        assertThat(sketch.minCount()).isZero();
+    }
+
+    @Test
+    void testHeavyHittersOnSkewedStream() {
+        SpaceSaving<String> sketch = new SpaceSaving<>(50);
+        Map<String, Long> exact = new HashMap<>();
+        Random random = new Random(42);
+
+        // 10 hot tokens take ~half the traffic, the rest is spread over 10,000 cold ones
+        for (int i = 0; i < 100_000; i++) {
+            String key = random.nextBoolean()
+                    ? "HOT_" + random.nextInt(10)
+                    : "COLD_" + random.nextInt(10_000);
+            sketch.offer(key);
+            exact.merge(key, 1L, Long::sum);
+        }
+
+        List<SpaceSaving.Entry<String>> top = sketch.top(10);
+
+        assertThat(top).extracting(SpaceSaving.Entry::key).allMatch(k -> k.startsWith("HOT_"));
+        for (SpaceSaving.Entry<String> entry : sketch.top(50)) {
+            long actual = exact.get(entry.key());
+            assertThat(entry.count()).isGreaterThanOrEqualTo(actual);
+            assertThat(entry.count() - entry.error()).isLessThanOrEqualTo(actual);
+        }
+        assertThat(sketch.size()).isEqualTo(50);
+        assertThat(sketch.total()).isEqualTo(100_000);
+    }
+
+    @Test
+    void testClear() {
+        SpaceSaving<String> sketch = new SpaceSaving<>(2);
+        sketch.offer("A", 3);
+        sketch.offer("B");
+        sketch.offer("C");
+
+        sketch.clear();
+
+        assertThat(sketch.top(10)).isEmpty();
+        assertThat(sketch.total()).isZero();
+        assertThatThrownBy(() -> new SpaceSaving<String>(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
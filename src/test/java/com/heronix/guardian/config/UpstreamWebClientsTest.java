@@ -0,0 +1,108 @@
+package com.heronix.guardian.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.heronix.guardian.config.UpstreamWebClients.Upstream;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for UpstreamWebClients — a saturated vendor pool does not hold up SIS
+ * requests, and pool usage is reported per upstream.
+ */
+class UpstreamWebClientsTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private HttpServer server;
+    private UpstreamWebClients webClients;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/slow", exchange -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange);
+        });
+        server.createContext("/fast", UpstreamWebClientsTest::respond);
+        server.setExecutor(Executors.newFixedThreadPool(8));
+        server.start();
+
+        GuardianProperties properties = new GuardianProperties();
+        properties.getCanvas().getHttp().setMaxConnections(2);
+        webClients = new UpstreamWebClients(WebClient.builder(), properties);
+        registry = new SimpleMeterRegistry();
+        webClients.bindTo(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        webClients.shutdown();
+        server.stop(0);
+    }
+
+    private static void respond(HttpExchange exchange) throws IOException {
+        byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+
+    private Mono<String> get(Upstream upstream, String path) {
+        return webClients.builder(upstream)
+                .baseUrl("http://127.0.0.1:" + server.getAddress().getPort())
+                .build()
+                .get()
+                .uri(path)
+                .retrieve()
+                .bodyToMono(String.class);
+    }
+
+    private double gauge(String name, Upstream upstream) {
+        return registry.get(name).tag("upstream", upstream.name().toLowerCase()).gauge().value();
+    }
+
+    @Test
+    void testSaturatedVendorPoolDoesNotDelaySis() throws Exception {
+        Disposable slow = Mono.when(get(Upstream.CANVAS, "/slow"), get(Upstream.CANVAS, "/slow"),
+                get(Upstream.CANVAS, "/slow")).subscribe();
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (gauge("guardian.http.pool.active", Upstream.CANVAS) < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(gauge("guardian.http.pool.active", Upstream.CANVAS)).isEqualTo(2);
+            assertThat(gauge("guardian.http.pool.pending", Upstream.CANVAS)).isEqualTo(1);
+
+            assertThat(get(Upstream.SIS, "/fast").block(Duration.ofSeconds(2))).isEqualTo("ok");
+
+            assertThat(gauge("guardian.http.pool.active", Upstream.SIS)).isZero();
+            assertThat(gauge("guardian.http.pool.idle", Upstream.SIS)).isEqualTo(1);
+            assertThat(gauge("guardian.http.pool.max", Upstream.CANVAS)).isEqualTo(2);
+        } finally {
+            slow.dispose();
+        }
+    }
+}
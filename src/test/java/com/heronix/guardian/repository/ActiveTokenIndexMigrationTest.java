@@ -0,0 +1,100 @@
+package com.heronix.guardian.repository;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for the V7 migration (one ACTIVE token per entity and vendor scope):
+ * the H2 script is applied with Flyway over existing duplicates, and both the
+ * H2 and PostgreSQL scripts must define the same deduplication and key.
+ */
+class ActiveTokenIndexMigrationTest {
+
+    private static final Path MIGRATIONS = Path.of("src/main/resources/db/migration");
+    private static final String V7 = "V7__unique_active_token_per_entity.sql";
+
+    @Test
+    void testMigrationRetiresDuplicatesAndRejectsNewOnes(@TempDir Path scripts) throws IOException {
+        // H2 scripts only; classpath:db/migration would also pick up postgresql/ (duplicate versions)
+        try (Stream<Path> files = Files.list(MIGRATIONS)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().matches("V\\d+__.*\\.sql")).toList()) {
+                Files.copy(file, scripts.resolve(file.getFileName()));
+            }
+        }
+        SimpleDriverDataSource dataSource = new SimpleDriverDataSource(new org.h2.Driver(),
+                "jdbc:h2:mem:v7-migration;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+
+        flyway(dataSource, scripts).target("6").load().migrate();
+        insert(jdbc, 1, 7, null);
+        insert(jdbc, 2, 7, null);
+        insert(jdbc, 3, 7, null);
+        insert(jdbc, 4, 7, "CANVAS");
+        insert(jdbc, 5, 8, null);
+
+        flyway(dataSource, scripts).load().migrate();
+
+        List<Map<String, Object>> rows = jdbc.queryForList(
+                "SELECT id, status, replaced_by_id FROM guardian_tokens ORDER BY id");
+        assertThat(rows).extracting(row -> row.get("STATUS"))
+                .containsExactly("ROTATED", "ROTATED", "ACTIVE", "ACTIVE", "ACTIVE");
+        assertThat(rows.subList(0, 2)).allSatisfy(row ->
+                assertThat(((Number) row.get("REPLACED_BY_ID")).longValue()).isEqualTo(3L));
+
+        assertThatThrownBy(() -> insert(jdbc, 6, 7, null)).isInstanceOf(DataIntegrityViolationException.class);
+        jdbc.update("UPDATE guardian_tokens SET status = 'REVOKED' WHERE id = 3");
+        insert(jdbc, 6, 7, null);
+    }
+
+    @Test
+    void testH2AndPostgresqlScriptsDefineTheSameKey() throws IOException {
+        String h2 = Files.readString(MIGRATIONS.resolve(V7), StandardCharsets.UTF_8);
+        String postgresql = Files.readString(MIGRATIONS.resolve("postgresql").resolve(V7), StandardCharsets.UTF_8);
+
+        assertThat(deduplication(h2)).isEqualTo(deduplication(postgresql));
+        assertThat(h2).contains("CASE WHEN status = 'ACTIVE'",
+                "THEN entity_type || ':' || entity_id || ':' || COALESCE(vendor_scope, '') END",
+                "CREATE UNIQUE INDEX uq_guardian_active_entity ON guardian_tokens (active_entity_key)");
+        assertThat(postgresql).contains("CREATE UNIQUE INDEX uq_guardian_active_entity",
+                "ON guardian_tokens (entity_type, entity_id, COALESCE(vendor_scope, ''))",
+                "WHERE status = 'ACTIVE';");
+    }
+
+    private static FluentConfiguration flyway(SimpleDriverDataSource dataSource, Path scripts) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations("filesystem:" + scripts.toAbsolutePath());
+    }
+
+    private static void insert(JdbcTemplate jdbc, long id, long entityId, String vendorScope) {
+        jdbc.update("INSERT INTO guardian_tokens (id, token_value, token_type, entity_id, entity_type, vendor_scope, "
+                        + "school_year, salt, checksum, status) VALUES (?, ?, 'STUDENT', ?, 'STUDENT', ?, "
+                        + "'2026-2027', '00', 'AA', 'ACTIVE')",
+                id, "STU_TOKEN" + id + "_AA", entityId, vendorScope);
+    }
+
+    /**
+     * The UPDATE that retires duplicate ACTIVE tokens, whitespace-normalized.
+     */
+    private static String deduplication(String script) {
+        int start = script.indexOf("UPDATE guardian_tokens");
+        int end = script.indexOf(';', start);
+        assertThat(start).isNotNegative();
+        return script.substring(start, end).replaceAll("\\s+", " ");
+    }
+}
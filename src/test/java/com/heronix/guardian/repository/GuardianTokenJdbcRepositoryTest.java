@@ -0,0 +1,79 @@
+package com.heronix.guardian.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.heronix.guardian.model.domain.GuardianToken;
+import com.heronix.guardian.model.enums.TokenStatus;
+import com.heronix.guardian.model.enums.TokenType;
+import com.heronix.guardian.security.HeronixEncryptionService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Integration tests for GuardianTokenJdbcRepository (H2 in-memory).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@SuppressWarnings("removal")
+class GuardianTokenJdbcRepositoryTest {
+
+    static {
+        HeronixEncryptionService.initialize("test-master-key-for-unit-tests");
+    }
+
+    @Autowired
+    private GuardianTokenJdbcRepository jdbcRepository;
+
+    @Autowired
+    private GuardianTokenRepository tokenRepository;
+
+    @Test
+    void testDuplicateInsertRollsBackOnlyToSavepoint() {
+        Optional<Long> first = jdbcRepository.tryInsertToken(token("STU_JDBCTST2_AA", 30_001L));
+        Optional<Long> duplicate = jdbcRepository.tryInsertToken(token("STU_JDBCTST2_AA", 30_002L));
+        Optional<Long> next = jdbcRepository.tryInsertToken(token("STU_JDBCTST3_AA", 30_003L));
+
+        assertThat(first).isPresent();
+        assertThat(duplicate).isEmpty();
+        assertThat(next).isPresent();
+        assertThat(tokenRepository.findById(first.get())).get()
+                .extracting(GuardianToken::getEntityId).isEqualTo(30_001L);
+    }
+
+    @Test
+    void testStreamTokenValues() {
+        jdbcRepository.batchInsertTokens(List.of(
+                token("STU_STREAMA2_AA", 31_001L),
+                token("STU_STREAMB2_AA", 31_002L)), 10);
+
+        List<String> values = new ArrayList<>();
+        long count = jdbcRepository.streamTokenValues(values::add);
+
+        assertThat(count).isEqualTo(values.size());
+        assertThat(values).contains("STU_STREAMA2_AA", "STU_STREAMB2_AA");
+    }
+
+    private static GuardianToken token(String value, Long entityId) {
+        return GuardianToken.builder()
+                .tokenValue(value)
+                .tokenType(TokenType.STUDENT)
+                .entityId(entityId)
+                .entityType(TokenType.STUDENT.getEntityType())
+                .schoolYear("2025-2026")
+                .salt("00")
+                .checksum("AA")
+                .status(TokenStatus.ACTIVE)
+                .expiresAt(LocalDateTime.now().plusDays(1))
+                .build();
+    }
+}
@@ -1,6 +1,7 @@
 package com.heronix.guardian.security;
 
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.nio.charset.StandardCharsets;
@@ -16,6 +17,12 @@ class HeronixEncryptionServiceTest {
 
     private static final String TEST_PASSPHRASE = "test-master-key-for-unit-tests";
 
+    @BeforeEach
+    void setUp() {
+        // Spring integration tests in the same JVM leave the singleton initialized
+        HeronixEncryptionService.reset();
+    }
+
     @AfterEach
     void tearDown() {
         HeronixEncryptionService.reset();
@@ -46,6 +53,31 @@ class HeronixEncryptionServiceTest {
                 .hasMessageContaining("not initialized");
     }
 
+    @Test
+    void testTokenMacKeyIsDerivedFromPassphrase() {
+        HeronixEncryptionService.initialize(TEST_PASSPHRASE);
+        byte[] first = HeronixEncryptionService.getInstance().getTokenMacKey().getEncoded();
+
+        HeronixEncryptionService.reset();
+        HeronixEncryptionService.initialize(TEST_PASSPHRASE);
+        byte[] again = HeronixEncryptionService.getInstance().getTokenMacKey().getEncoded();
+
+        HeronixEncryptionService.reset();
+        HeronixEncryptionService.initialize("a-different-master-key");
+        byte[] other = HeronixEncryptionService.getInstance().getTokenMacKey().getEncoded();
+
+        assertThat(first).hasSize(32).isEqualTo(again).isNotEqualTo(other);
+        assertThat(HeronixEncryptionService.getInstance().getTokenMacKey().getAlgorithm()).isEqualTo("HmacSHA256");
+    }
+
+    @Test
+    void testNoTokenMacKeyWhenDisabled() {
+        HeronixEncryptionService.initializeDisabled();
+
+        assertThat(HeronixEncryptionService.getInstance().isDisabled()).isTrue();
+        assertThat(HeronixEncryptionService.getInstance().getTokenMacKey()).isNull();
+    }
+
     @Test
     void testEmptyPassphraseThrows() {
         assertThatThrownBy(() -> HeronixEncryptionService.initialize(""))
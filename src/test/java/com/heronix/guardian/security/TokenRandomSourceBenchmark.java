@@ -0,0 +1,115 @@
+package com.heronix.guardian.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Multi-threaded benchmark: shared SecureRandom (nextInt per char, String.format salt)
+ * vs. per-thread block-buffered TokenRandomSource. Reports tokens/sec (8-char hash
+ * plus 32-byte hex salt) from 1 thread up to the number of cores.
+ *
+ * Run with: mvn test -Dtest=TokenRandomSourceBenchmark -Dguardian.benchmarks=true
+ */
+@EnabledIfSystemProperty(named = "guardian.benchmarks", matches = "true")
+@Slf4j
+class TokenRandomSourceBenchmark {
+
+    private static final String CHARSET = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789";
+    private static final long WARMUP_MILLIS = 1_000;
+    private static final long MEASURE_MILLIS = 2_000;
+
+    private final SecureRandom sharedRandom = new SecureRandom();
+    private final TokenRandomSource randomSource = new TokenRandomSource();
+
+    @Test
+    void compareScaling() throws InterruptedException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads < cores; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(cores);
+
+        double legacySingle = 0;
+        double sourceSingle = 0;
+        for (int threads : threadCounts) {
+            double legacy = tokensPerSecond(threads, this::legacyToken);
+            double source = tokensPerSecond(threads, this::sourceToken);
+            if (threads == 1) {
+                legacySingle = legacy;
+                sourceSingle = source;
+            }
+            log.info("BENCHMARK random source  {} threads  shared SecureRandom: {} tokens/s (x{})"
+                            + " | TokenRandomSource: {} tokens/s (x{})",
+                    threads, Math.round(legacy), Math.round(legacy * 10 / legacySingle) / 10.0,
+                    Math.round(source), Math.round(source * 10 / sourceSingle) / 10.0);
+        }
+
+        assertThat(sourceSingle).isGreaterThan(legacySingle);
+    }
+
+    private String legacyToken() {
+        StringBuilder hash = new StringBuilder(8);
+        for (int i = 0; i < 8; i++) {
+            hash.append(CHARSET.charAt(sharedRandom.nextInt(CHARSET.length())));
+        }
+        byte[] saltBytes = new byte[32];
+        sharedRandom.nextBytes(saltBytes);
+        StringBuilder salt = new StringBuilder(64);
+        for (byte b : saltBytes) {
+            salt.append(String.format("%02x", b));
+        }
+        return hash.append(salt).toString();
+    }
+
+    private String sourceToken() {
+        return randomSource.nextString(CHARSET, 8) + randomSource.nextHex(32);
+    }
+
+    private double tokensPerSecond(int threads, Supplier<String> generator) throws InterruptedException {
+        run(threads, generator, WARMUP_MILLIS);
+        return run(threads, generator, MEASURE_MILLIS) * 1000.0 / MEASURE_MILLIS;
+    }
+
+    private long run(int threads, Supplier<String> generator, long millis) throws InterruptedException {
+        LongAdder ops = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long deadline = System.nanoTime() + millis * 1_000_000;
+                long count = 0;
+                int sink = 0;
+                while (System.nanoTime() < deadline) {
+                    sink += generator.get().length();
+                    count++;
+                }
+                ops.add(sink > 0 ? count : 0);
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return ops.sum();
+    }
+}
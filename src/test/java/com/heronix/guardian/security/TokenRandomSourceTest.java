@@ -0,0 +1,78 @@
+package com.heronix.guardian.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for TokenRandomSource — charset mapping, uniformity, hex salts, thread safety.
+ */
+class TokenRandomSourceTest {
+
+    private static final String CHARSET = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789";
+
+    private final TokenRandomSource randomSource = new TokenRandomSource();
+
+    @Test
+    void testStringsUseOnlyCharset() {
+        for (int i = 0; i < 1_000; i++) {
+            String value = randomSource.nextString(CHARSET, 8);
+            assertThat(value).hasSize(8);
+            assertThat(value.chars()).allMatch(c -> CHARSET.indexOf(c) >= 0);
+        }
+    }
+
+    @Test
+    void testRejectionSamplingIsUniformForNonPowerOfTwoCharset() {
+        // 3 does not divide 256, so plain modulo would favour 'a'
+        String charset = "abc";
+        int[] counts = new int[3];
+        int samples = 300_000;
+        String value = randomSource.nextString(charset, samples);
+        for (int i = 0; i < samples; i++) {
+            counts[value.charAt(i) - 'a']++;
+        }
+        for (int count : counts) {
+            assertThat(count).isBetween(98_500, 101_500);
+        }
+    }
+
+    @Test
+    void testHexSalt() {
+        String salt = randomSource.nextHex(32);
+        assertThat(salt).hasSize(64).matches("[0-9a-f]{64}");
+        assertThat(randomSource.nextHex(32)).isNotEqualTo(salt);
+    }
+
+    @Test
+    void testInvalidCharset() {
+        assertThatThrownBy(() -> randomSource.nextString("", 8))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testConcurrentThreadsProduceDistinctValues() throws InterruptedException {
+        Set<String> values = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            executor.submit(() -> {
+                Set<String> local = new HashSet<>();
+                for (int i = 0; i < 5_000; i++) {
+                    local.add(randomSource.nextHex(16));
+                }
+                values.addAll(local);
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(values).hasSize(20_000);
+    }
+}
@@ -0,0 +1,129 @@
+package com.heronix.guardian.service;
+
+import org.junit.jupiter.api.Test;
+
+import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.service.CircuitBreaker.CallNotPermittedException;
+import com.heronix.guardian.service.CircuitBreaker.State;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for CircuitBreaker — opening on failure and slow-call rates, fast
+ * rejection while open, and half-open recovery. Time is driven by a fake clock.
+ */
+class CircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private CircuitBreaker newBreaker() {
+        GuardianProperties.CircuitBreakerConfig config = new GuardianProperties.CircuitBreakerConfig();
+        config.setSlidingWindowSize(10);
+        config.setMinimumCalls(5);
+        config.setFailureRateThreshold(50);
+        config.setSlowCallRateThreshold(60);
+        config.setSlowCallDurationMs(100);
+        config.setOpenDurationMs(1_000);
+        config.setHalfOpenCalls(2);
+        return new CircuitBreaker("test", config, e -> !(e instanceof IllegalArgumentException), clock::get);
+    }
+
+    private void advanceMillis(long millis) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private static void fail(CircuitBreaker breaker) {
+        assertThatThrownBy(() -> breaker.call(() -> {
+            throw new IllegalStateException("down");
+        })).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testOpensAtFailureRateAndRejectsWithoutCalling() {
+        CircuitBreaker breaker = newBreaker();
+        for (int i = 0; i < 3; i++) {
+            breaker.call(() -> "ok");
+        }
+        fail(breaker);
+        fail(breaker);
+        assertThat(breaker.state()).isEqualTo(State.CLOSED);
+
+        fail(breaker);
+
+        assertThat(breaker.state()).isEqualTo(State.OPEN);
+        assertThat(breaker.isCallPermitted()).isFalse();
+        assertThatThrownBy(() -> breaker.call(() -> {
+            throw new AssertionError("must not be called while open");
+        })).isInstanceOf(CallNotPermittedException.class);
+        assertThat(breaker.rejected()).isEqualTo(1);
+        assertThat(breaker.transitions(State.OPEN)).isEqualTo(1);
+    }
+
+    @Test
+    void testIgnoredErrorsAndSlowCalls() {
+        CircuitBreaker breaker = newBreaker();
+        for (int i = 0; i < 5; i++) {
+            assertThatThrownBy(() -> breaker.call(() -> {
+                throw new IllegalArgumentException("answered with 4xx");
+            })).isInstanceOf(IllegalArgumentException.class);
+        }
+        assertThat(breaker.state()).isEqualTo(State.CLOSED);
+
+        for (int i = 0; i < 6; i++) {
+            breaker.call(() -> {
+                advanceMillis(150);
+                return "slow";
+            });
+        }
+        assertThat(breaker.state()).isEqualTo(State.OPEN);
+    }
+
+    @Test
+    void testHalfOpenLimitsTrialsAndReopensOnFailure() {
+        CircuitBreaker breaker = newBreaker();
+        for (int i = 0; i < 5; i++) {
+            fail(breaker);
+        }
+        assertThat(breaker.state()).isEqualTo(State.OPEN);
+
+        // A failed trial reopens the circuit
+        advanceMillis(1_000);
+        assertThat(breaker.isCallPermitted()).isTrue();
+        fail(breaker);
+        assertThat(breaker.state()).isEqualTo(State.OPEN);
+
+        // Only half-open-calls trials are let through at once
+        advanceMillis(1_000);
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThatThrownBy(() -> breaker.protect(Mono.just("ok")).block(Duration.ofSeconds(1)))
+                .isInstanceOf(CallNotPermittedException.class);
+        assertThat(breaker.state()).isEqualTo(State.HALF_OPEN);
+    }
+
+    @Test
+    void testHalfOpenClosesAfterSuccessfulTrials() {
+        CircuitBreaker breaker = newBreaker();
+        for (int i = 0; i < 5; i++) {
+            fail(breaker);
+        }
+        advanceMillis(1_000);
+
+        assertThat(breaker.protect(Mono.just("ok")).block(Duration.ofSeconds(1))).isEqualTo("ok");
+        assertThat(breaker.call(() -> "ok")).isEqualTo("ok");
+
+        assertThat(breaker.state()).isEqualTo(State.CLOSED);
+        assertThat(breaker.transitions(State.HALF_OPEN)).isEqualTo(1);
+        assertThat(breaker.transitions(State.CLOSED)).isEqualTo(1);
+        // The window starts over after closing
+        fail(breaker);
+        assertThat(breaker.state()).isEqualTo(State.CLOSED);
+    }
+}
@@ -0,0 +1,83 @@
+package com.heronix.guardian.service;
+
+import org.junit.jupiter.api.Test;
+
+import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.model.dto.HotTokensDTO;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for HotTokenTracker — per-scope top-K, window merging and window expiry.
+ */
+class HotTokenTrackerTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000_000L);
+    private final HotTokenTracker tracker = new HotTokenTracker(properties(), now::get);
+
+    @Test
+    void testTopPerScope() {
+        record("CANVAS", "STU_A", 5);
+        record("CANVAS", "STU_B", 2);
+        record("GOOGLE", "STU_C", 7);
+        record(null, "STU_D", 1);
+
+        HotTokensDTO canvas = tracker.top("CANVAS", 1, 10);
+        HotTokensDTO all = tracker.top(null, 1, 2);
+
+        assertThat(canvas.getTokens()).extracting(HotTokensDTO.HotToken::getTokenValue)
+                .containsExactly("STU_A", "STU_B");
+        assertThat(canvas.getTotalResolutions()).isEqualTo(7);
+        assertThat(all.getTokens()).extracting(HotTokensDTO.HotToken::getTokenValue)
+                .containsExactly("STU_C", "STU_A");
+        assertThat(all.getTotalResolutions()).isEqualTo(15);
+        assertThat(tracker.scopes()).containsExactly("CANVAS", "GOOGLE", HotTokenTracker.UNIVERSAL_SCOPE);
+    }
+
+    @Test
+    void testMergesRecentWindows() {
+        record("CANVAS", "STU_A", 3);
+        now.addAndGet(60_000);
+        record("CANVAS", "STU_A", 2);
+        record("CANVAS", "STU_B", 4);
+
+        HotTokensDTO lastWindow = tracker.top("CANVAS", 1, 10);
+        HotTokensDTO twoWindows = tracker.top("CANVAS", 2, 10);
+
+        assertThat(lastWindow.getTokens()).first()
+                .satisfies(t -> assertThat(t.getTokenValue()).isEqualTo("STU_B"));
+        assertThat(twoWindows.getTokens()).first()
+                .satisfies(t -> {
+                    assertThat(t.getTokenValue()).isEqualTo("STU_A");
+                    assertThat(t.getEstimatedCount()).isEqualTo(5);
+                    assertThat(t.getMaxError()).isZero();
+                });
+    }
+
+    @Test
+    void testOldWindowsAgeOut() {
+        record("CANVAS", "STU_A", 3);
+        now.addAndGet(5 * 60_000L);
+        record("CANVAS", "STU_B", 1);
+
+        HotTokensDTO all = tracker.top("CANVAS", 100, 10);
+
+        assertThat(all.getWindows()).isEqualTo(4);
+        assertThat(all.getTokens()).extracting(HotTokensDTO.HotToken::getTokenValue).containsExactly("STU_B");
+    }
+
+    private void record(String scope, String token, int times) {
+        for (int i = 0; i < times; i++) {
+            tracker.record(scope, token);
+        }
+    }
+
+    private static GuardianProperties properties() {
+        GuardianProperties properties = new GuardianProperties();
+        properties.getToken().getHotTokens().setWindowSeconds(60);
+        properties.getToken().getHotTokens().setWindows(4);
+        return properties;
+    }
+}
@@ -0,0 +1,73 @@
+package com.heronix.guardian.service;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.heronix.guardian.model.dto.SisSyncRecordDTO;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for JsonArrayElementSplitter — elements are emitted as they
+ * complete, whatever the chunk boundaries, and nothing outside the array is kept.
+ */
+class JsonArrayElementSplitterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private JsonArrayElementSplitter<SisSyncRecordDTO> newSplitter() {
+        return new JsonArrayElementSplitter<>(objectMapper, SisSyncRecordDTO.class, "data");
+    }
+
+    @Test
+    void testEnvelopeSplitAcrossSingleByteChunks() throws IOException {
+        String json = "{\"success\":true,\"meta\":{\"data\":[{\"studentId\":99}]},\"data\":["
+                + "{\"studentId\":1,\"tokenValue\":\"STU-1\",\"extra\":{\"nested\":[1,2]}},"
+                + "{\"studentId\":2,\"token\":\"STU-2\"}],\"count\":2}";
+        JsonArrayElementSplitter<SisSyncRecordDTO> splitter = newSplitter();
+        List<SisSyncRecordDTO> records = new ArrayList<>();
+
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        int firstCompleteAt = -1;
+        for (int i = 0; i < bytes.length; i++) {
+            records.addAll(splitter.feed(new byte[] {bytes[i]}));
+            if (firstCompleteAt < 0 && !records.isEmpty()) {
+                firstCompleteAt = i;
+            }
+        }
+        records.addAll(splitter.finish());
+
+        assertThat(records).containsExactly(new SisSyncRecordDTO(1L, "STU-1"), new SisSyncRecordDTO(2L, "STU-2"));
+        // The first record is emitted as soon as its closing brace arrives
+        assertThat(firstCompleteAt).isEqualTo(json.indexOf("}},{") + 1);
+    }
+
+    @Test
+    void testRootArray() throws IOException {
+        JsonArrayElementSplitter<SisSyncRecordDTO> splitter = newSplitter();
+
+        List<SisSyncRecordDTO> records = new ArrayList<>(splitter.feed(
+                "[{\"studentId\":7,\"tokenValue\":\"STU-7\"},{\"studentId\":8,".getBytes(StandardCharsets.UTF_8)));
+        assertThat(records).hasSize(1);
+        records.addAll(splitter.feed("\"tokenValue\":\"STU-8\"}]".getBytes(StandardCharsets.UTF_8)));
+        records.addAll(splitter.finish());
+
+        assertThat(records).extracting(SisSyncRecordDTO::getStudentId).containsExactly(7L, 8L);
+    }
+
+    @Test
+    void testMissingArrayYieldsNothingAndTruncationFails() throws IOException {
+        JsonArrayElementSplitter<SisSyncRecordDTO> empty = newSplitter();
+        assertThat(empty.feed("{\"success\":false,\"error\":\"x\"}".getBytes(StandardCharsets.UTF_8))).isEmpty();
+        assertThat(empty.finish()).isEmpty();
+
+        JsonArrayElementSplitter<SisSyncRecordDTO> truncated = newSplitter();
+        truncated.feed("{\"data\":[{\"studentId\":1}".getBytes(StandardCharsets.UTF_8));
+        assertThatThrownBy(truncated::finish).isInstanceOf(IOException.class);
+    }
+}
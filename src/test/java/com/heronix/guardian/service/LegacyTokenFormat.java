@@ -0,0 +1,67 @@
+package com.heronix.guardian.service;
+
+import com.heronix.guardian.model.enums.TokenType;
+
+/**
+ * Reference copy of the split-based format/checksum validation that TokenFormat replaced.
+ * Used to check equivalence and as the benchmark baseline.
+ */
+final class LegacyTokenFormat {
+
+    private final String charset;
+    private final int hashLength;
+    private final int checksumLength;
+
+    LegacyTokenFormat(String charset, int hashLength, int checksumLength) {
+        this.charset = charset;
+        this.hashLength = hashLength;
+        this.checksumLength = checksumLength;
+    }
+
+    boolean isValidFormat(String tokenValue) {
+        if (tokenValue == null || tokenValue.isBlank()) {
+            return false;
+        }
+        String[] parts = tokenValue.split("_");
+        if (parts.length != 3) {
+            return false;
+        }
+        try {
+            TokenType.fromPrefix(parts[0]);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        if (parts[1].length() != hashLength || parts[2].length() != checksumLength) {
+            return false;
+        }
+        for (char c : parts[1].toCharArray()) {
+            if (charset.indexOf(c) < 0) {
+                return false;
+            }
+        }
+        for (char c : parts[2].toCharArray()) {
+            if (charset.indexOf(c) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean isValidChecksum(String tokenValue) {
+        if (!isValidFormat(tokenValue)) {
+            return false;
+        }
+        String[] parts = tokenValue.split("_");
+        return parts[2].equals(calculateChecksum(parts[0] + "_" + parts[1]));
+    }
+
+    String calculateChecksum(String input) {
+        int crc = 0;
+        for (char c : input.toCharArray()) {
+            crc = (crc + c) % (charset.length() * charset.length());
+        }
+        char c1 = charset.charAt(crc / charset.length());
+        char c2 = charset.charAt(crc % charset.length());
+        return "" + c1 + c2;
+    }
+}
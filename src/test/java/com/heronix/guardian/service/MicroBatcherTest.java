@@ -0,0 +1,61 @@
+package com.heronix.guardian.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for MicroBatcher — delay-closed batches run on the call executor, so
+ * a slow batch call does not hold up the timer of another batch.
+ */
+class MicroBatcherTest {
+
+    private final ScheduledExecutorService timers = Executors.newSingleThreadScheduledExecutor();
+    private final ExecutorService calls = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        timers.shutdownNow();
+        calls.shutdownNow();
+    }
+
+    private static Function<List<String>, Map<String, Integer>> lengths() {
+        return keys -> keys.stream().collect(Collectors.toMap(key -> key, String::length));
+    }
+
+    @Test
+    void testSlowBatchCallDoesNotBlockOtherTimers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        MicroBatcher<String, Integer> slow = new MicroBatcher<>(10, Duration.ofMillis(1), timers, calls, keys -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return lengths().apply(keys);
+        });
+        MicroBatcher<String, Integer> fast = new MicroBatcher<>(10, Duration.ofMillis(1), timers, calls, lengths());
+
+        var slowResult = slow.submit("STU_SLOW");
+        Thread.sleep(50);
+        try {
+            assertThat(fast.await("STU_FAST", Duration.ofSeconds(2))).isEqualTo(8);
+            assertThat(slowResult).isNotDone();
+        } finally {
+            release.countDown();
+        }
+        assertThat(slowResult.get(5, TimeUnit.SECONDS)).isEqualTo(8);
+    }
+}
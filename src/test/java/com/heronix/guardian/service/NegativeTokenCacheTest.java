@@ -0,0 +1,128 @@
+package com.heronix.guardian.service;
+
+import org.junit.jupiter.api.Test;
+
+import com.heronix.guardian.config.GuardianProperties;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for NegativeTokenCache — second-miss admission, scan resistance and
+ * frequency-based admission against the eviction victim.
+ */
+class NegativeTokenCacheTest {
+
+    private static NegativeTokenCache newCache(int maxSize, int doorkeeperSize) {
+        GuardianProperties properties = new GuardianProperties();
+        properties.getToken().setNegativeCacheMaxSize(maxSize);
+        properties.getToken().setNegativeCacheTtlSeconds(30);
+        properties.getToken().setNegativeCacheDoorkeeperSize(doorkeeperSize);
+        return new NegativeTokenCache(properties);
+    }
+
+    @Test
+    void testAdmittedOnSecondMiss() {
+        NegativeTokenCache cache = newCache(100, 1_000);
+
+        cache.recordMiss("STU_ABC123_X1");
+        assertThat(cache.isKnownMissing("STU_ABC123_X1")).isFalse();
+
+        cache.recordMiss("STU_ABC123_X1");
+        assertThat(cache.isKnownMissing("STU_ABC123_X1")).isTrue();
+    }
+
+    @Test
+    void testInvalidateDropsEntry() {
+        NegativeTokenCache cache = newCache(100, 1_000);
+        cache.recordMiss("STU_ABC123_X1");
+        cache.recordMiss("STU_ABC123_X1");
+
+        cache.invalidate("STU_ABC123_X1");
+
+        assertThat(cache.isKnownMissing("STU_ABC123_X1")).isFalse();
+    }
+
+    @Test
+    void testOneOffScanDoesNotFlushReplayedValues() {
+        NegativeTokenCache cache = newCache(10, 100_000);
+        for (int i = 0; i < 10; i++) {
+            cache.recordMiss("STU_REPLAY" + i);
+            cache.recordMiss("STU_REPLAY" + i);
+        }
+
+        // A scan of distinct values, each seen once, is never admitted
+        for (int i = 0; i < 10_000; i++) {
+            cache.recordMiss("STU_SCAN" + i);
+        }
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(cache.isKnownMissing("STU_REPLAY" + i)).isTrue();
+        }
+    }
+
+    @Test
+    void testValuesSentTwiceDoNotFlushReplayedValues() {
+        NegativeTokenCache cache = newCache(100, 100_000);
+        for (int i = 0; i < 100; i++) {
+            cache.recordMiss("STU_REPLAY" + i);
+            cache.recordMiss("STU_REPLAY" + i);
+            for (int hit = 0; hit < 10; hit++) {
+                cache.isKnownMissing("STU_REPLAY" + i);
+            }
+        }
+
+        // Passing the doorkeeper is not enough: each value is rarer than the victim
+        for (int i = 0; i < 20_000; i++) {
+            cache.recordMiss("STU_SCAN" + i);
+            cache.recordMiss("STU_SCAN" + i);
+        }
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(cache.isKnownMissing("STU_REPLAY" + i)).isTrue();
+        }
+    }
+
+    @Test
+    void testFrequentValueReplacesRarerVictim() {
+        NegativeTokenCache cache = newCache(2, 1_000);
+        for (String value : new String[] {"STU_A", "STU_B"}) {
+            cache.recordMiss(value);
+            cache.recordMiss(value);
+        }
+
+        cache.recordMiss("STU_C");
+        cache.recordMiss("STU_C");
+        assertThat(cache.isKnownMissing("STU_C")).isFalse();
+
+        cache.recordMiss("STU_C");
+        assertThat(cache.isKnownMissing("STU_C")).isTrue();
+        assertThat(cache.isKnownMissing("STU_A")).isFalse();
+        assertThat(cache.isKnownMissing("STU_B")).isTrue();
+    }
+
+    @Test
+    void testDoorkeeperResetForgetsFirstSightings() {
+        NegativeTokenCache cache = newCache(100, 10);
+        cache.recordMiss("STU_OLD");
+        for (int i = 0; i < 10; i++) {
+            cache.recordMiss("STU_FILLER" + i);
+        }
+
+        // The window rolled over, so this counts as a first sighting again
+        cache.recordMiss("STU_OLD");
+        assertThat(cache.isKnownMissing("STU_OLD")).isFalse();
+    }
+
+    @Test
+    void testHitRate() {
+        NegativeTokenCache cache = newCache(100, 1_000);
+        assertThat(cache.hitRate()).isZero();
+
+        cache.recordMiss("STU_ABC123_X1");
+        cache.recordMiss("STU_ABC123_X1");
+        cache.isKnownMissing("STU_ABC123_X1");
+        cache.isKnownMissing("STU_OTHER");
+
+        assertThat(cache.hitRate()).isEqualTo(0.5);
+    }
+}
@@ -0,0 +1,208 @@
+package com.heronix.guardian.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.config.UpstreamWebClients;
+import com.heronix.guardian.model.domain.GuardianToken;
+import com.heronix.guardian.model.enums.TokenType;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for coalescing of SisTokenBridgeService calls into SIS batch requests, against a stub SIS.
+ */
+@SuppressWarnings("removal")
+class SisTokenBridgeServiceBatchingTest {
+
+    private final TokenGenerationService tokenGenerationService = mock(TokenGenerationService.class);
+    private final TokenValidationService tokenValidationService = mock(TokenValidationService.class);
+    private final TokenMappingService tokenMappingService = mock(TokenMappingService.class);
+    private final NegativeTokenCache negativeCache = mock(NegativeTokenCache.class);
+    private final HotTokenTracker hotTokens = mock(HotTokenTracker.class);
+
+    private GuardianProperties properties;
+    private StubSisServer sis;
+    private SisTokenBridgeService bridge;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        sis = new StubSisServer();
+        properties = new GuardianProperties();
+        properties.getSis().setApiUrl(sis.url());
+        properties.getSis().getBatching().setMaxDelayMs(20);
+        properties.getSis().getCache().setEnabled(false);
+        properties.getSis().getSnapshot().setEnabled(false);
+        bridge = new SisTokenBridgeService(new UpstreamWebClients(WebClient.builder(), properties), properties,
+                tokenGenerationService, tokenValidationService, tokenMappingService, negativeCache, hotTokens,
+                new SisTokenCache(properties), new SisTokenSnapshot(properties), new ObjectMapper());
+    }
+
+    @AfterEach
+    void tearDown() {
+        bridge.shutdown();
+        sis.close();
+    }
+
+    @Test
+    void testConcurrentSingleCallsAreCoalesced() throws Exception {
+        int threads = 50;
+        int perThread = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long base = t * 1000L;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (long id = base; id < base + perThread; id++) {
+                    assertThat(bridge.getOrCreateToken(id, "CANVAS")).isEqualTo("STU-" + id);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        int batches = sis.requests("/tokens/generate-batch");
+        assertThat(batches).isPositive().isLessThanOrEqualTo(threads * perThread / 10);
+        assertThat(sis.requests("/tokens/generate")).isZero();
+        verifyNoInteractions(tokenGenerationService);
+    }
+
+    @Test
+    void testBulkCallsSplitIntoMaxSizeBatches() {
+        List<Long> ids = LongStream.range(0, 1000).boxed().toList();
+
+        Map<Long, String> tokens = bridge.getOrCreateTokens(ids, null);
+
+        assertThat(tokens).hasSize(1000).containsEntry(999L, "STU-999");
+        assertThat(sis.requests("/tokens/generate-batch")).isEqualTo(5);
+    }
+
+    @Test
+    void testBulkResolveOmitsUnknownTokensAndRecordsMisses() {
+        sis.issue(1);
+        sis.issue(2);
+
+        Map<String, Long> resolved = bridge.resolveTokens(List.of("STU-1", "STU-2", "STU-404", "STU-1"));
+
+        assertThat(resolved).containsOnly(Map.entry("STU-1", 1L), Map.entry("STU-2", 2L));
+        assertThat(sis.requests("/tokens/resolve-batch")).isEqualTo(1);
+        verify(negativeCache).recordMiss("STU-404");
+        assertThat(bridge.getActiveToken(2L)).contains("STU-2");
+        assertThat(bridge.getActiveToken(3L)).isEmpty();
+        assertThat(sis.requests("/tokens/active-batch")).isEqualTo(2);
+    }
+
+    @Test
+    void testReactiveStreamIsBoundedAndKeepsOrder() {
+        bridge.shutdown();
+        properties.getSis().setReactiveConcurrency(50);
+        bridge = new SisTokenBridgeService(new UpstreamWebClients(WebClient.builder(), properties), properties,
+                tokenGenerationService, tokenValidationService, tokenMappingService, negativeCache, hotTokens,
+                new SisTokenCache(properties), new SisTokenSnapshot(properties), new ObjectMapper());
+        List<Long> ids = LongStream.range(0, 1000).boxed().toList();
+
+        List<SisTokenBridgeService.StudentToken> tokens = bridge
+                .getOrCreateTokensReactive(Flux.fromIterable(ids).concatWithValues(5L), null)
+                .collectList()
+                .block(Duration.ofSeconds(30));
+
+        assertThat(tokens).hasSize(1000);
+        assertThat(tokens.get(999)).isEqualTo(new SisTokenBridgeService.StudentToken(999L, "STU-999"));
+        // At most 50 lookups in flight, so no batch can exceed 50 items
+        assertThat(sis.requests("/tokens/generate-batch")).isGreaterThanOrEqualTo(20);
+        verifyNoInteractions(tokenGenerationService);
+    }
+
+    @Test
+    void testReactiveResolveCompletesEmptyForUnknownToken() {
+        sis.issue(3);
+
+        assertThat(bridge.resolveTokenReactive("STU-3").blockOptional()).contains(3L);
+        assertThat(bridge.resolveTokenReactive("STU-404").blockOptional()).isEmpty();
+        verify(negativeCache).recordMiss("STU-404");
+        verifyNoInteractions(tokenMappingService);
+    }
+
+    @Test
+    void testFallsBackToSingleEndpointWhenBatchUnsupported() {
+        sis.setBatchSupported(false);
+
+        assertThat(bridge.getOrCreateToken(7L, null)).isEqualTo("STU-7");
+        assertThat(bridge.getOrCreateToken(8L, null)).isEqualTo("STU-8");
+        assertThat(bridge.resolveToken("STU-7")).contains(7L);
+
+        assertThat(sis.requests("/tokens/generate-batch")).isEqualTo(1);
+        assertThat(sis.requests("/tokens/generate")).isEqualTo(2);
+        assertThat(sis.requests("/tokens/resolve-batch")).isEqualTo(1);
+        assertThat(sis.requests("/tokens/resolve")).isEqualTo(1);
+    }
+
+    @Test
+    void testFallsBackToLocalTokensWhenSisUnreachable() {
+        sis.close();
+        GuardianToken local = GuardianToken.builder().tokenValue("STU_LOCAL123_AB").build();
+        when(tokenGenerationService.getOrCreateToken(eq(TokenType.STUDENT), anyLong(), any())).thenReturn(local);
+        when(tokenMappingService.resolveToEntityId("STU-9")).thenReturn(Optional.of(9L));
+
+        assertThat(bridge.getOrCreateTokens(List.of(1L, 2L), "CANVAS")).containsValues("STU_LOCAL123_AB");
+        assertThat(bridge.resolveTokens(List.of("STU-9"))).containsEntry("STU-9", 9L);
+        verify(tokenGenerationService, times(2)).getOrCreateToken(eq(TokenType.STUDENT), anyLong(), eq("CANVAS"));
+    }
+
+    @Test
+    void testOpenCircuitSkipsSisUntilTrialCall() {
+        sis.close();
+        GuardianToken local = GuardianToken.builder().tokenValue("STU_LOCAL123_AB").build();
+        when(tokenGenerationService.getOrCreateToken(eq(TokenType.STUDENT), anyLong(), any())).thenReturn(local);
+        GuardianProperties.CircuitBreakerConfig circuit = properties.getSis().getCircuitBreaker();
+
+        for (long id = 0; id < circuit.getMinimumCalls(); id++) {
+            assertThat(bridge.getOrCreateToken(id, null)).isEqualTo("STU_LOCAL123_AB");
+        }
+
+        assertThat(bridge.circuitStates()).containsEntry("generate", CircuitBreaker.State.OPEN)
+                .containsEntry("resolve", CircuitBreaker.State.CLOSED);
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        bridge.bindTo(registry);
+        double batches = registry.get("guardian.sis.batch.requests").tag("operation", "generate")
+                .functionCounter().count();
+        assertThat(bridge.getOrCreateTokens(LongStream.range(100, 200).boxed().toList(), null)).hasSize(100);
+
+        // Open circuit: nothing was queued for SIS
+        assertThat(registry.get("guardian.sis.batch.requests").tag("operation", "generate")
+                .functionCounter().count()).isEqualTo(batches);
+        assertThat(registry.get("guardian.sis.circuit.state").tag("operation", "generate")
+                .gauge().value()).isEqualTo(CircuitBreaker.State.OPEN.ordinal());
+        assertThat(registry.get("guardian.sis.circuit.transitions").tags("operation", "generate", "state", "open")
+                .functionCounter().count()).isEqualTo(1);
+    }
+}
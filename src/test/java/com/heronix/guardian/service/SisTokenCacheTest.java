@@ -0,0 +1,179 @@
+package com.heronix.guardian.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.config.UpstreamWebClients;
+
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the SIS token near-cache and its invalidation, against a stub SIS.
+ */
+@SuppressWarnings("removal")
+class SisTokenCacheTest {
+
+    private StubSisServer sis;
+    private SisTokenCache cache;
+    private SisTokenBridgeService bridge;
+    private GuardianProperties properties;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        sis = new StubSisServer();
+        properties = new GuardianProperties();
+        properties.getSis().setApiUrl(sis.url());
+        properties.getSis().getBatching().setEnabled(false);
+        properties.getSis().getCache().setChangePollEnabled(true);
+        properties.getSis().getSnapshot().setEnabled(false);
+        cache = new SisTokenCache(properties);
+        bridge = new SisTokenBridgeService(new UpstreamWebClients(WebClient.builder(), properties), properties,
+                mock(TokenGenerationService.class), mock(TokenValidationService.class), mock(TokenMappingService.class),
+                mock(NegativeTokenCache.class), mock(HotTokenTracker.class), cache, new SisTokenSnapshot(properties),
+                new ObjectMapper());
+    }
+
+    @AfterEach
+    void tearDown() {
+        bridge.shutdown();
+        sis.close();
+    }
+
+    @Test
+    void testRepeatLookupsAreServedFromCacheInBothDirections() {
+        assertThat(bridge.getOrCreateToken(5L, null)).isEqualTo("STU-5");
+        assertThat(bridge.getOrCreateToken(5L, null)).isEqualTo("STU-5");
+        assertThat(bridge.resolveToken("STU-5")).contains(5L);
+        assertThat(bridge.getActiveToken(5L)).contains("STU-5");
+
+        assertThat(sis.requests("/tokens/generate")).isEqualTo(1);
+        assertThat(sis.requests("/tokens/resolve")).isZero();
+        assertThat(sis.requests("/tokens/student")).isZero();
+        assertThat(cache.stats().hits()).isEqualTo(3);
+    }
+
+    @Test
+    void testWarmsFromSyncData() {
+        sis.issue(1);
+        sis.issue(2);
+
+        bridge.warmTokenCache().block();
+
+        assertThat(bridge.resolveToken("STU-2")).contains(2L);
+        assertThat(bridge.getOrCreateToken(1L, null)).isEqualTo("STU-1");
+        assertThat(sis.requests("/tokens/resolve") + sis.requests("/tokens/generate")).isZero();
+    }
+
+    @Test
+    void testStartupWarmupRunsInBackgroundAndTimesOut() {
+        properties.getSis().getCache().setWarmTimeoutSeconds(1);
+        sis.setSyncDataDelayMs(3_000);
+        sis.issue(7);
+
+        long start = System.currentTimeMillis();
+        bridge.startTokenCacheWarmup();
+        assertThat(System.currentTimeMillis() - start).isLessThan(1_000);
+
+        assertThatThrownBy(() -> bridge.warmTokenCache().block())
+                .hasCauseInstanceOf(TimeoutException.class);
+        assertThat(cache.getStudentId("STU-7")).isNull();
+    }
+
+    @Test
+    void testStreamsSyncDataAsNdjsonOrEnvelope() {
+        LongStream.range(0, 5_000).forEach(sis::issue);
+
+        assertThat(bridge.streamTokenizedSyncData().limitRate(64).count().block()).isEqualTo(5_000);
+
+        sis.setNdjsonSupported(true);
+        assertThat(bridge.streamTokenizedSyncData()
+                .filter(row -> row.getTokenValue().equals("STU-" + row.getStudentId()))
+                .count().block()).isEqualTo(5_000);
+        bridge.warmTokenCache().block();
+        assertThat(cache.getStudentId("STU-4999")).isEqualTo(4_999L);
+    }
+
+    @Test
+    void testPushedChangeDropsTokenInBothDirections() {
+        sis.issue(3);
+        bridge.warmTokenCache().block();
+
+        sis.revoke("STU-3");
+        bridge.applyTokenChange("STU-3", null);
+
+        assertThat(cache.getStudentId("STU-3")).isNull();
+        assertThat(cache.getTokenValue(3L)).isNull();
+        assertThat(bridge.resolveToken("STU-3")).isEmpty();
+        assertThat(sis.requests("/tokens/resolve")).isEqualTo(1);
+    }
+
+    @Test
+    void testPolledChangeFeedDropsRevokedTokens() {
+        sis.issue(4);
+        bridge.warmTokenCache().block();
+        bridge.pollTokenChanges();
+
+        sis.revoke("STU-4");
+        bridge.pollTokenChanges();
+
+        assertThat(cache.getStudentId("STU-4")).isNull();
+        assertThat(cache.getTokenValue(4L)).isNull();
+    }
+
+    @Test
+    void testResultsFetchedBeforeInvalidationAreNotCached() {
+        long generation = cache.generation();
+        cache.invalidateToken("STU-6");
+
+        cache.put("STU-6", 6L, generation);
+        assertThat(cache.getStudentId("STU-6")).isNull();
+
+        cache.put("STU-6", 6L, cache.generation());
+        assertThat(cache.getStudentId("STU-6")).isEqualTo(6L);
+
+        cache.invalidateAll();
+        assertThat(cache.stats().tokens()).isZero();
+        assertThat(cache.stats().students()).isZero();
+        assertThat(cache.stats().invalidations()).isEqualTo(2);
+    }
+
+    @Test
+    void testPutRacingAnInvalidationIsNotKept() throws Exception {
+        CyclicBarrier start = new CyclicBarrier(2);
+        for (long id = 0; id < 5_000; id++) {
+            String tokenValue = "STU-RACE-" + id;
+            long studentId = id;
+            long generation = cache.generation();
+
+            Thread invalidator = new Thread(() -> {
+                await(start);
+                cache.invalidateToken(tokenValue);
+            });
+            invalidator.start();
+            await(start);
+            cache.put(tokenValue, studentId, generation);
+            invalidator.join();
+
+            // The invalidation started after the put's result was fetched, so it must win
+            assertThat(cache.getStudentId(tokenValue)).as("token %s", tokenValue).isNull();
+            assertThat(cache.getTokenValue(studentId)).as("student %s", studentId).isNull();
+        }
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
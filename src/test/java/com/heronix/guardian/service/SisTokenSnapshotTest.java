@@ -0,0 +1,168 @@
+package com.heronix.guardian.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.config.UpstreamWebClients;
+import com.heronix.guardian.security.HeronixEncryptionService;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the memory-mapped SIS token snapshot: rebuild, reopen, pending
+ * changes and compaction, and outage-mode resolution through the bridge.
+ */
+@SuppressWarnings("removal")
+class SisTokenSnapshotTest {
+
+    static {
+        HeronixEncryptionService.initialize("test-master-key-for-unit-tests");
+    }
+
+    @TempDir
+    Path dir;
+
+    private GuardianProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new GuardianProperties();
+        properties.getSis().getSnapshot().setPath(dir.resolve("sis-token-snapshot.bin").toString());
+    }
+
+    private SisTokenSnapshot build(long count) {
+        SisTokenSnapshot snapshot = new SisTokenSnapshot(properties);
+        SisTokenSnapshot.Builder builder = snapshot.newBuilder();
+        for (long id = count; id >= 1; id--) {
+            builder.add("STU-" + id, id);
+        }
+        assertThat(builder.commit()).isTrue();
+        return snapshot;
+    }
+
+    @Test
+    void testRebuildIsReopenedFromFileWithoutPlaintext() throws Exception {
+        assertThat(new SisTokenSnapshot(properties).needsRebuild()).isTrue();
+        build(10_000);
+
+        SisTokenSnapshot reopened = new SisTokenSnapshot(properties);
+
+        assertThat(reopened.needsRebuild()).isFalse();
+        assertThat(reopened.size()).isEqualTo(10_000);
+        assertThat(reopened.getStudentId("STU-1")).isEqualTo(1L);
+        assertThat(reopened.getStudentId("STU-7345")).isEqualTo(7345L);
+        assertThat(reopened.getStudentId("STU-10001")).isNull();
+        byte[] file = Files.readAllBytes(dir.resolve("sis-token-snapshot.bin"));
+        assertThat(new String(file, StandardCharsets.ISO_8859_1)).doesNotContain("STU-");
+    }
+
+    @Test
+    void testPendingChangesTakePrecedenceAndAreCompacted() {
+        SisTokenSnapshot snapshot = build(3);
+
+        snapshot.record("STU-9", 9L);
+        snapshot.record("STU-3", 3L);
+        snapshot.invalidateToken("STU-1");
+        snapshot.invalidateStudent(2L);
+        snapshot.record("STU-2b", 2L);
+
+        assertThat(snapshot.pendingChanges()).isEqualTo(4);
+        assertThat(snapshot.getStudentId("STU-9")).isEqualTo(9L);
+        assertThat(snapshot.getStudentId("STU-1")).isNull();
+        assertThat(snapshot.getStudentId("STU-2")).isNull();
+        assertThat(snapshot.getStudentId("STU-2b")).isEqualTo(2L);
+
+        snapshot.compact();
+        assertThat(snapshot.pendingChanges()).isZero();
+
+        SisTokenSnapshot reopened = new SisTokenSnapshot(properties);
+        assertThat(reopened.size()).isEqualTo(3);
+        assertThat(reopened.getStudentId("STU-9")).isEqualTo(9L);
+        assertThat(reopened.getStudentId("STU-1")).isNull();
+        assertThat(reopened.getStudentId("STU-2")).isNull();
+        assertThat(reopened.getStudentId("STU-2b")).isEqualTo(2L);
+        assertThat(reopened.getStudentId("STU-3")).isEqualTo(3L);
+    }
+
+    @Test
+    void testManyPendingChangesAreCompactedBeforeMaintenance() throws Exception {
+        properties.getSis().getSnapshot().setCompactThreshold(5);
+        SisTokenSnapshot snapshot = build(3);
+
+        for (long id = 4; id <= 8; id++) {
+            snapshot.record("STU-" + id, id);
+        }
+        for (int i = 0; i < 200 && snapshot.pendingChanges() > 0; i++) {
+            Thread.sleep(10);
+        }
+
+        assertThat(snapshot.pendingChanges()).isZero();
+        assertThat(snapshot.size()).isEqualTo(8);
+        assertThat(snapshot.getStudentId("STU-8")).isEqualTo(8L);
+    }
+
+    @Test
+    void testTruncatedFileIsIgnored() throws Exception {
+        build(100);
+        Path file = dir.resolve("sis-token-snapshot.bin");
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 8));
+
+        SisTokenSnapshot reopened = new SisTokenSnapshot(properties);
+
+        assertThat(reopened.needsRebuild()).isTrue();
+        assertThat(reopened.getStudentId("STU-1")).isNull();
+    }
+
+    @Test
+    void testAlteredRecordIsDetected() throws Exception {
+        build(100);
+        Path file = dir.resolve("sis-token-snapshot.bin");
+        byte[] bytes = Files.readAllBytes(file);
+        // Flip a bit of the last record's masked student ID
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(file, bytes);
+
+        SisTokenSnapshot reopened = new SisTokenSnapshot(properties);
+
+        assertThat(reopened.needsRebuild()).isTrue();
+        assertThat(reopened.size()).isZero();
+    }
+
+    @Test
+    void testBridgeResolvesFromSnapshotWhileSisIsDown() throws Exception {
+        TokenMappingService tokenMappingService = mock(TokenMappingService.class);
+        properties.getSis().getBatching().setEnabled(false);
+        properties.getSis().getCache().setEnabled(false);
+        SisTokenBridgeService bridge;
+        try (StubSisServer sis = new StubSisServer()) {
+            properties.getSis().setApiUrl(sis.url());
+            sis.issue(1);
+            sis.issue(2);
+            bridge = new SisTokenBridgeService(new UpstreamWebClients(WebClient.builder(), properties), properties,
+                    mock(TokenGenerationService.class), mock(TokenValidationService.class), tokenMappingService,
+                    mock(NegativeTokenCache.class), mock(HotTokenTracker.class), new SisTokenCache(properties),
+                    new SisTokenSnapshot(properties), new ObjectMapper());
+
+            // Builds the snapshot from the sync data
+            bridge.warmTokenCache().block();
+        }
+
+        try {
+            assertThat(bridge.resolveToken("STU-2")).contains(2L);
+            verifyNoInteractions(tokenMappingService);
+        } finally {
+            bridge.shutdown();
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.heronix.guardian.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Minimal in-process stand-in for the SIS guardian-integration API, for bridge tests.
+ *
+ * Issues "STU-{studentId}" tokens, counts requests per path, keeps a change
+ * feed of revocations, and can be told to answer 404 on the batch endpoints
+ * to mimic an older SIS, to serve the sync data as NDJSON, or to answer it late.
+ */
+final class StubSisServer implements AutoCloseable {
+
+    private static final String BASE = "/api/v1/guardian-integration";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+    private final Map<String, Long> issued = new ConcurrentHashMap<>();
+    private final List<Map<String, Object>> changes = new ArrayList<>();
+    private volatile boolean batchSupported = true;
+    private volatile boolean ndjsonSupported;
+    private volatile long syncDataDelayMs;
+
+    StubSisServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext(BASE, this::handle);
+        server.setExecutor(Executors.newFixedThreadPool(8));
+        server.start();
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    int requests(String path) {
+        AtomicInteger count = requests.get(path);
+        return count != null ? count.get() : 0;
+    }
+
+    void setBatchSupported(boolean batchSupported) {
+        this.batchSupported = batchSupported;
+    }
+
+    /**
+     * Answer /tokens/sync-data with NDJSON when the client accepts it.
+     */
+    void setNdjsonSupported(boolean ndjsonSupported) {
+        this.ndjsonSupported = ndjsonSupported;
+    }
+
+    /**
+     * Hold every /tokens/sync-data response back for the given time, like a slow SIS.
+     */
+    void setSyncDataDelayMs(long syncDataDelayMs) {
+        this.syncDataDelayMs = syncDataDelayMs;
+    }
+
+    /**
+     * Issue a token without a request, as if created earlier.
+     */
+    String issue(long studentId) {
+        String tokenValue = "STU-" + studentId;
+        issued.put(tokenValue, studentId);
+        return tokenValue;
+    }
+
+    /**
+     * Revoke a token and append it to the change feed.
+     */
+    void revoke(String tokenValue) {
+        Long studentId = issued.remove(tokenValue);
+        synchronized (changes) {
+            changes.add(Map.of("tokenValue", tokenValue, "studentId", studentId));
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath().substring(BASE.length());
+        requests.computeIfAbsent(path.startsWith("/tokens/student/") ? "/tokens/student" : path,
+                p -> new AtomicInteger()).incrementAndGet();
+
+        if (path.endsWith("-batch") && !batchSupported) {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+
+        Map<String, Object> body = "POST".equals(exchange.getRequestMethod())
+                ? objectMapper.readValue(exchange.getRequestBody(), Map.class)
+                : Map.of();
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+
+        switch (path) {
+            case "/tokens/generate" -> response.put("tokenValue", issue(((Number) body.get("studentId")).longValue()));
+            case "/tokens/generate-batch" -> {
+                Map<String, String> tokens = new HashMap<>();
+                for (Number id : (List<Number>) body.get("studentIds")) {
+                    tokens.put(id.toString(), issue(id.longValue()));
+                }
+                response.put("tokens", tokens);
+            }
+            case "/tokens/resolve" -> {
+                Long studentId = issued.get((String) body.get("tokenValue"));
+                response.put("resolved", studentId != null);
+                response.put("studentId", studentId);
+            }
+            case "/tokens/resolve-batch" -> {
+                Map<String, Long> resolved = new HashMap<>();
+                for (String tokenValue : (List<String>) body.get("tokenValues")) {
+                    Long studentId = issued.get(tokenValue);
+                    if (studentId != null) {
+                        resolved.put(tokenValue, studentId);
+                    }
+                }
+                response.put("resolved", resolved);
+            }
+            case "/tokens/active-batch" -> {
+                Map<String, String> tokens = new HashMap<>();
+                for (Number id : (List<Number>) body.get("studentIds")) {
+                    String tokenValue = "STU-" + id;
+                    if (issued.containsKey(tokenValue)) {
+                        tokens.put(id.toString(), tokenValue);
+                    }
+                }
+                response.put("tokens", tokens);
+            }
+            case "/tokens/sync-data" -> {
+                if (syncDataDelayMs > 0) {
+                    try {
+                        Thread.sleep(syncDataDelayMs);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                String accept = exchange.getRequestHeaders().getFirst("Accept");
+                if (ndjsonSupported && accept != null && accept.contains("application/x-ndjson")) {
+                    writeNdjson(exchange);
+                    return;
+                }
+                List<Map<String, Object>> data = new ArrayList<>();
+                issued.forEach((tokenValue, studentId) ->
+                        data.add(Map.of("studentId", studentId, "tokenValue", tokenValue)));
+                response.put("data", data);
+            }
+            case "/tokens/changes" -> {
+                String query = exchange.getRequestURI().getQuery();
+                synchronized (changes) {
+                    int since = query != null ? Integer.parseInt(query.substring("since=".length())) : changes.size();
+                    response.put("changes", new ArrayList<>(changes.subList(since, changes.size())));
+                    response.put("cursor", String.valueOf(changes.size()));
+                }
+            }
+            default -> {
+                if (path.startsWith("/tokens/student/")) {
+                    String tokenValue = "STU-" + path.substring("/tokens/student/".length());
+                    response.put("found", issued.containsKey(tokenValue));
+                    response.put("tokenValue", tokenValue);
+                } else {
+                    exchange.sendResponseHeaders(404, -1);
+                    exchange.close();
+                    return;
+                }
+            }
+        }
+
+        byte[] bytes = objectMapper.writeValueAsBytes(response);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private void writeNdjson(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (Map.Entry<String, Long> token : issued.entrySet()) {
+                out.write(objectMapper.writeValueAsBytes(
+                        Map.of("studentId", token.getValue(), "tokenValue", token.getKey())));
+                out.write('\n');
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.heronix.guardian.service;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.heronix.guardian.model.enums.TokenType;
+import com.heronix.guardian.security.HeronixEncryptionService;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+/**
+ * Benchmark: row-at-a-time getOrCreateToken loop vs. set-based generateTokensBulk (H2 in-memory).
+ *
+ * Run with: mvn test -Dtest=TokenBulkGenerationBenchmark -Dguardian.benchmarks=true
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "guardian.benchmarks", matches = "true")
+@SuppressWarnings("removal")
+@Slf4j
+class TokenBulkGenerationBenchmark {
+
+    static {
+        HeronixEncryptionService.initialize("test-master-key-for-unit-tests");
+    }
+
+    // Each run mints for a fresh entity ID range so no run reuses another's tokens
+    private static final AtomicLong NEXT_ENTITY_ID = new AtomicLong(1_000_000);
+
+    @Autowired
+    private TokenGenerationService tokenGenerationService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @ParameterizedTest(name = "{0} entities")
+    @ValueSource(ints = {1_000, 10_000, 100_000})
+    void compareBulkPaths(int entityCount) {
+        List<Long> loopIds = nextIds(entityCount);
+        long loopStart = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Long entityId : loopIds) {
+                tokenGenerationService.getOrCreateToken(TokenType.STUDENT, entityId, null);
+            }
+        });
+        long loopMillis = (System.nanoTime() - loopStart) / 1_000_000;
+
+        List<Long> bulkIds = nextIds(entityCount);
+        long bulkStart = System.nanoTime();
+        tokenGenerationService.generateTokensBulk(TokenType.STUDENT, bulkIds, null);
+        long bulkMillis = (System.nanoTime() - bulkStart) / 1_000_000;
+
+        log.info("BENCHMARK generateTokensBulk {} entities: loop {} ms | set-based {} ms | {}x",
+                entityCount, loopMillis, bulkMillis, Math.round(loopMillis * 10.0 / Math.max(1, bulkMillis)) / 10.0);
+    }
+
+    private static List<Long> nextIds(int count) {
+        long start = NEXT_ENTITY_ID.getAndAdd(count);
+        return LongStream.range(start, start + count).boxed().toList();
+    }
+}
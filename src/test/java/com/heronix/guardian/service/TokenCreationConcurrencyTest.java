@@ -0,0 +1,248 @@
+package com.heronix.guardian.service;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.model.domain.GuardianToken;
+import com.heronix.guardian.model.enums.TokenType;
+import com.heronix.guardian.repository.GuardianTokenJdbcRepository;
+import com.heronix.guardian.repository.GuardianTokenRepository;
+import com.heronix.guardian.security.HeronixEncryptionService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Concurrency stress tests for token creation: no entity ever ends up with two
+ * ACTIVE tokens, whether racing callers share a JVM (creation locks) or act as
+ * separate nodes (unique index + retry). H2 in-memory; the V7 migration is
+ * applied here because the test schema is generated from the entities.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@SuppressWarnings("removal")
+// Per-class, so the index is created once the context (and the encryption service) is up
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TokenCreationConcurrencyTest {
+
+    static {
+        HeronixEncryptionService.initialize("test-master-key-for-unit-tests");
+    }
+
+    private static final int THREADS = 64;
+    private static final long FIRST_ENTITY_ID = 500_000L;
+    private static final int ENTITIES = 25;
+
+    @Autowired
+    private TokenGenerationService tokenGenerationService;
+
+    @Autowired
+    private TokenMappingService tokenMappingService;
+
+    @Autowired
+    private GuardianTokenRepository tokenRepository;
+
+    @Autowired
+    private GuardianTokenJdbcRepository jdbcRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private GuardianProperties properties;
+
+    @Autowired
+    private TokenResolutionCache resolutionCache;
+
+    @Autowired
+    private TokenFormat tokenFormat;
+
+    @Autowired
+    private TokenValueFilter valueFilter;
+
+    @Autowired
+    private TokenValueMinter valueMinter;
+
+    @Autowired
+    private TokenReservoir reservoir;
+
+    @Autowired
+    private TokenStatistics statistics;
+
+    @BeforeAll
+    void createActiveEntityIndex() {
+        // The migration itself, so the test cannot drift from it
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V7__unique_active_token_per_entity.sql"))
+                .execute(jdbcTemplate.getDataSource());
+    }
+
+    @AfterAll
+    void dropActiveEntityIndex() {
+        jdbcTemplate.execute("DROP INDEX IF EXISTS uq_guardian_active_entity");
+        jdbcTemplate.execute("ALTER TABLE guardian_tokens DROP COLUMN IF EXISTS active_entity_key");
+    }
+
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.update("DELETE FROM guardian_tokens WHERE entity_id BETWEEN ? AND ?",
+                FIRST_ENTITY_ID, FIRST_ENTITY_ID + 9_999);
+    }
+
+    @Test
+    void testConcurrentGetOrCreateInOneJvm() throws Exception {
+        List<Long> ids = entityIds();
+        Map<Long, String> seen = new ConcurrentHashMap<>();
+
+        race(THREADS, thread -> {
+            for (Long id : shuffled(ids, thread)) {
+                String value = tokenGenerationService.getOrCreateToken(TokenType.STUDENT, id, "CANVAS").getTokenValue();
+                assertThat(seen.putIfAbsent(id, value)).isIn(null, value);
+            }
+        });
+
+        assertOneActiveTokenPerEntity("CANVAS");
+    }
+
+    @Test
+    void testConcurrentBulkAndSingleCreation() throws Exception {
+        List<Long> ids = entityIds();
+
+        race(THREADS, thread -> {
+            if (thread % 2 == 0) {
+                tokenMappingService.getTokensForEntities(TokenType.STUDENT, shuffled(ids, thread), null);
+            } else {
+                for (Long id : shuffled(ids, thread)) {
+                    tokenMappingService.getTokenForEntity(TokenType.STUDENT, id, null);
+                }
+            }
+        });
+
+        assertOneActiveTokenPerEntity(null);
+    }
+
+    @Test
+    void testConcurrentCreationAcrossNodes() throws Exception {
+        List<Long> ids = entityIds();
+        // A second "node": same database, its own creation locks
+        TokenGenerationService otherNode = new TokenGenerationService(tokenRepository, properties, resolutionCache,
+                jdbcRepository, tokenFormat, valueFilter, valueMinter, reservoir, statistics,
+                new TokenCreationLocks(properties));
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        race(THREADS, thread -> {
+            for (Long id : shuffled(ids, thread)) {
+                if (thread % 2 == 0) {
+                    tokenGenerationService.getOrCreateToken(TokenType.STUDENT, id, null);
+                } else {
+                    tx.executeWithoutResult(status -> otherNode.getOrCreateToken(TokenType.STUDENT, id, null));
+                }
+            }
+        });
+
+        assertOneActiveTokenPerEntity(null);
+    }
+
+    @Test
+    void testUniqueIndexRejectsSecondActiveToken() {
+        GuardianToken first = tokenGenerationService.getOrCreateToken(TokenType.STUDENT, FIRST_ENTITY_ID, null);
+        String value = valueMinter.mintUniqueValue(TokenType.STUDENT);
+        GuardianToken duplicate = GuardianToken.builder()
+                .tokenValue(value)
+                .tokenType(TokenType.STUDENT)
+                .entityId(FIRST_ENTITY_ID)
+                .entityType(TokenType.STUDENT.getEntityType())
+                .schoolYear(first.getSchoolYear())
+                .salt("00")
+                .checksum(tokenFormat.checksumPart(value))
+                .status(first.getStatus())
+                .rotationCount(0)
+                .usageCount(0L)
+                .build();
+
+        assertThat(jdbcRepository.tryInsertToken(duplicate)).isEmpty();
+
+        GuardianToken rotated = tokenGenerationService.rotateToken(first, "test");
+        assertThat(rotated.getTokenValue()).isNotEqualTo(first.getTokenValue());
+        assertOneActiveTokenPerEntity(FIRST_ENTITY_ID, 1, null);
+    }
+
+    // ========================================================================
+    // HELPERS
+    // ========================================================================
+
+    private interface Task {
+        void run(int thread) throws Exception;
+    }
+
+    private void race(int threads, Task task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                int thread = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run(thread);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<Long> entityIds() {
+        return LongStream.range(FIRST_ENTITY_ID, FIRST_ENTITY_ID + ENTITIES).boxed().toList();
+    }
+
+    private static List<Long> shuffled(List<Long> ids, int seed) {
+        List<Long> copy = new ArrayList<>(ids);
+        Collections.shuffle(copy, new Random(seed));
+        return copy;
+    }
+
+    private void assertOneActiveTokenPerEntity(String vendorScope) {
+        assertOneActiveTokenPerEntity(FIRST_ENTITY_ID, ENTITIES, vendorScope);
+    }
+
+    private void assertOneActiveTokenPerEntity(long firstId, int count, String vendorScope) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT entity_id, COUNT(*) AS active FROM guardian_tokens WHERE status = 'ACTIVE' "
+                + "AND entity_id BETWEEN ? AND ? AND COALESCE(vendor_scope, '') = ? GROUP BY entity_id",
+                firstId, firstId + count - 1, vendorScope != null ? vendorScope : "");
+        assertThat(rows).hasSize(count);
+        assertThat(rows).allSatisfy(row -> assertThat(((Number) row.get("ACTIVE")).longValue()).isEqualTo(1));
+    }
+}
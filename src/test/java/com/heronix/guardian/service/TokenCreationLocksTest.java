@@ -0,0 +1,105 @@
+package com.heronix.guardian.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.exception.TokenGenerationException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for TokenCreationLocks — a bulk holds at most
+ * creation-lock-max-bulk-stripes stripes, leaving the rest to other callers;
+ * a timed-out wait fails instead of proceeding unlocked.
+ */
+class TokenCreationLocksTest {
+
+    @Test
+    void testBulkHoldsAtMostMaxBulkStripes() throws Exception {
+        GuardianProperties properties = new GuardianProperties();
+        properties.getToken().setCreationLockStripes(16);
+        properties.getToken().setCreationLockMaxBulkStripes(4);
+        properties.getToken().setCreationLockTimeoutMs(1);
+        TokenCreationLocks locks = new TokenCreationLocks(properties);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        locks.bindTo(registry);
+        List<Long> ids = LongStream.rangeClosed(1, 1000).boxed().toList();
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread bulk = new Thread(() -> {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                locks.lock("STUDENT", ids, null);
+                locked.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                TransactionSynchronizationManager.getSynchronizations()
+                        .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+        });
+        bulk.start();
+        assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+
+        int failed = 0;
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            for (Long id : ids) {
+                try {
+                    locks.lock("STUDENT", id, null);
+                } catch (TokenGenerationException e) {
+                    failed++;
+                }
+            }
+        } finally {
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            TransactionSynchronizationManager.clearSynchronization();
+            release.countDown();
+            bulk.join(5000);
+        }
+
+        // Only entities on the bulk's 4 stripes waited; the other 12 stripes were free
+        double timeouts = registry.get("guardian.token.creation.lock.timeouts").functionCounter().count();
+        assertThat(failed).isPositive().isLessThan(ids.size() / 2);
+        assertThat(timeouts).isEqualTo(failed);
+    }
+
+    @Test
+    void testLockOutsideTransactionIsHeldUntilClosed() throws Exception {
+        GuardianProperties properties = new GuardianProperties();
+        properties.getToken().setCreationLockTimeoutMs(1);
+        TokenCreationLocks locks = new TokenCreationLocks(properties);
+
+        try (TokenCreationLocks.Held held = locks.lock("STUDENT", 7L, null)) {
+            assertThat(lockFromOtherThread(locks)).isFalse();
+        }
+        assertThat(lockFromOtherThread(locks)).isTrue();
+    }
+
+    private static boolean lockFromOtherThread(TokenCreationLocks locks) throws Exception {
+        boolean[] locked = new boolean[1];
+        Thread other = new Thread(() -> {
+            try (TokenCreationLocks.Held held = locks.lock("STUDENT", 7L, null)) {
+                locked[0] = true;
+            } catch (TokenGenerationException e) {
+                locked[0] = false;
+            }
+        });
+        other.start();
+        other.join(5000);
+        return locked[0];
+    }
+}
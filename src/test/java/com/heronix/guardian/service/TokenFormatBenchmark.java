@@ -0,0 +1,166 @@
+package com.heronix.guardian.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.model.enums.TokenType;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.function.ToIntFunction;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Micro-benchmarks for TokenFormat:
+ * - split-based format/checksum validation vs. single-pass TokenFormat.parse,
+ *   reporting ns/op and bytes allocated/op (per-thread allocation counter)
+ * - brute-force scan of well-formed guesses against v1 (checksum) and v2 (HMAC)
+ *   tokens, reporting rejects/sec and how many guesses would reach the database
+ *
+ * Run with: mvn test -Dtest=TokenFormatBenchmark -Dguardian.benchmarks=true
+ */
+@EnabledIfSystemProperty(named = "guardian.benchmarks", matches = "true")
+@Slf4j
+class TokenFormatBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 5;
+    private static final int OPS_PER_ROUND = 2_000_000;
+
+    private static final String CHARSET = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789";
+
+    private static final int SCAN_CANDIDATES = 1_000_000;
+
+    private final TokenFormat format = new TokenFormat(new GuardianProperties());
+    private final LegacyTokenFormat legacy = new LegacyTokenFormat(CHARSET, 8, 2);
+
+    // Mix of valid, bad-checksum and malformed tokens, as seen from vendors
+    private final String[] tokens = {
+            format.compose(TokenType.STUDENT, "H7K2P9M3"),
+            format.compose(TokenType.COURSE, "ABCDEFGH"),
+            "STU_H7K2P9M3_AA",
+            "STU_H7K2P9M3",
+            "student-12345",
+            "TCH_H7K2P9M0_X8",
+            format.compose(TokenType.TEACHER, "Z2Z3Z4Z5"),
+            "XYZ_ABCDEFGH_AA"
+    };
+
+    @Test
+    void compareValidators() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        enableAllocationCounting(threads);
+
+        Result legacyResult = measure(threads, t -> legacy.isValidChecksum(t) ? 1 : 0);
+        Result parserResult = measure(threads, t -> TokenFormat.isChecksumValid(format.parse(t)) ? 1 : 0);
+
+        log.info("BENCHMARK token validation  legacy: {} ns/op {} B/op | TokenFormat: {} ns/op {} B/op",
+                oneDecimal(legacyResult.nsPerOp()), oneDecimal(legacyResult.bytesPerOp()),
+                oneDecimal(parserResult.nsPerOp()), oneDecimal(parserResult.bytesPerOp()));
+
+        assertThat(parserResult.bytesPerOp()).isLessThan(1.0);
+    }
+
+    @Test
+    void bruteForceScan() {
+        TokenFormat keyed = new TokenFormat(new GuardianProperties(),
+                () -> new SecretKeySpec("benchmark-token-mac-key".getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        String[] v1Guesses = guesses(new Random(1), 2);
+        String[] v2Guesses = guesses(new Random(2), 6);
+
+        // Warm up both paths
+        scan(keyed, v1Guesses);
+        scan(keyed, v2Guesses);
+
+        long start = System.nanoTime();
+        int v1Accepted = scan(keyed, v1Guesses);
+        double v1Seconds = (System.nanoTime() - start) / 1e9;
+
+        start = System.nanoTime();
+        int v2Accepted = scan(keyed, v2Guesses);
+        double v2Seconds = (System.nanoTime() - start) / 1e9;
+
+        log.info("BENCHMARK brute-force scan  v1 checksum: {} rejects/s, {} of {} guesses reach the DB"
+                        + " | v2 HMAC: {} rejects/s, {} of {} guesses reach the DB",
+                Math.round((SCAN_CANDIDATES - v1Accepted) / v1Seconds), v1Accepted, SCAN_CANDIDATES,
+                Math.round((SCAN_CANDIDATES - v2Accepted) / v2Seconds), v2Accepted, SCAN_CANDIDATES);
+
+        assertThat(v2Accepted).isLessThan(v1Accepted);
+    }
+
+    private static String[] guesses(Random random, int tailLength) {
+        String[] guesses = new String[SCAN_CANDIDATES];
+        StringBuilder sb = new StringBuilder(24);
+        for (int i = 0; i < SCAN_CANDIDATES; i++) {
+            sb.setLength(0);
+            sb.append("STU_");
+            for (int j = 0; j < 8; j++) {
+                sb.append(CHARSET.charAt(random.nextInt(CHARSET.length())));
+            }
+            sb.append('_');
+            for (int j = 0; j < tailLength; j++) {
+                sb.append(CHARSET.charAt(random.nextInt(CHARSET.length())));
+            }
+            guesses[i] = sb.toString();
+        }
+        return guesses;
+    }
+
+    private static int scan(TokenFormat format, String[] guesses) {
+        int accepted = 0;
+        for (String guess : guesses) {
+            if (TokenFormat.isChecksumValid(format.parse(guess))) {
+                accepted++;
+            }
+        }
+        return accepted;
+    }
+
+    private Result measure(com.sun.management.ThreadMXBean threads, ToIntFunction<String> validator) {
+        long threadId = Thread.currentThread().getId();
+        int sink = 0;
+        for (int r = 0; r < WARMUP_ROUNDS; r++) {
+            sink += run(validator);
+        }
+
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int r = 0; r < MEASURED_ROUNDS; r++) {
+            sink += run(validator);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+        double ops = (double) MEASURED_ROUNDS * OPS_PER_ROUND;
+        assertThat(sink).isPositive();
+        return new Result(elapsed / ops, allocated / ops);
+    }
+
+    private int run(ToIntFunction<String> validator) {
+        int valid = 0;
+        for (int i = 0; i < OPS_PER_ROUND; i++) {
+            valid += validator.applyAsInt(tokens[i & (tokens.length - 1)]);
+        }
+        return valid;
+    }
+
+    private static void enableAllocationCounting(com.sun.management.ThreadMXBean threads) {
+        if (!threads.isThreadAllocatedMemoryEnabled()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+        }
+    }
+
+    private static double oneDecimal(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+
+    private record Result(double nsPerOp, double bytesPerOp) {}
+}
@@ -0,0 +1,206 @@
+package com.heronix.guardian.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.model.enums.TokenType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for TokenFormat — single-pass parsing, checksum and equivalence with the split-based validator.
+ */
+class TokenFormatTest {
+
+    private static final String CHARSET = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789";
+
+    private final TokenFormat format = new TokenFormat(new GuardianProperties());
+    private final LegacyTokenFormat legacy = new LegacyTokenFormat(CHARSET, 8, 2);
+    private final TokenFormat keyed = new TokenFormat(new GuardianProperties(), () -> key("test-token-mac-key"));
+
+    // ── Parsing ─────────────────────────────────────────────────────────
+
+    @Test
+    void testComposedTokenParses() {
+        String token = format.compose(TokenType.STUDENT, "H7K2P9M3");
+        long parsed = format.parse(token);
+
+        assertThat(token).startsWith("STU_H7K2P9M3_").hasSize(15);
+        assertThat(TokenFormat.isChecksumValid(parsed)).isTrue();
+        assertThat(TokenFormat.tokenType(parsed)).isEqualTo(TokenType.STUDENT);
+        assertThat(token.substring(TokenFormat.hashStart(parsed), TokenFormat.hashEnd(parsed))).isEqualTo("H7K2P9M3");
+        assertThat(format.checksumPart(token)).isEqualTo(legacy.calculateChecksum("STU_H7K2P9M3"));
+    }
+
+    @Test
+    void testPrefixIsCaseInsensitive() {
+        long parsed = format.parse("crs_ABCDEFGH_AA");
+        assertThat(TokenFormat.isWellFormed(parsed)).isTrue();
+        assertThat(TokenFormat.tokenType(parsed)).isEqualTo(TokenType.COURSE);
+    }
+
+    @Test
+    void testBadChecksumIsWellFormedButInvalid() {
+        String token = format.compose(TokenType.TEACHER, "ABCDEFGH");
+        String tampered = token.substring(0, token.length() - 1) + (token.endsWith("A") ? "B" : "A");
+        long parsed = format.parse(tampered);
+
+        assertThat(TokenFormat.isWellFormed(parsed)).isTrue();
+        assertThat(TokenFormat.isChecksumValid(parsed)).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", " ", "STU", "STU_", "XYZ_ABCDEFGH_AA", "STU_ABCDEFG_AA", "STU_ABCDEFGHJ_AA",
+            "STU_ABCDEFGI_AA", "STU_ABCDEFGH_A", "STU_ABCDEFGH_A0", "STU__BCDEFGH_AA", "STU_ABCDEFGH_AA_",
+            "STU_ABCDEFGHxAA", "STUX_ABCDEFGH_AA", "STU_ABCDéFGH_AA"})
+    void testMalformed(String token) {
+        assertThat(format.parse(token)).isEqualTo(TokenFormat.MALFORMED);
+    }
+
+    @Test
+    void testNullIsMalformed() {
+        assertThat(format.parse(null)).isEqualTo(TokenFormat.MALFORMED);
+    }
+
+    // ── Format v2 (HMAC tail) ───────────────────────────────────────────
+
+    @Test
+    void testV2TokenParsesAndVerifies() {
+        String token = keyed.compose(TokenType.STUDENT, "H7K2P9M3", 2);
+        long parsed = keyed.parse(token);
+
+        assertThat(token).startsWith("STU_H7K2P9M3_").hasSize(19);
+        assertThat(TokenFormat.isChecksumValid(parsed)).isTrue();
+        assertThat(TokenFormat.formatVersion(parsed)).isEqualTo(2);
+        assertThat(TokenFormat.tokenType(parsed)).isEqualTo(TokenType.STUDENT);
+        assertThat(keyed.checksumPart(token)).hasSize(6);
+    }
+
+    @Test
+    void testV1AndV2ValidateSideBySide() {
+        String v1 = keyed.compose(TokenType.COURSE, "ABCDEFGH", 1);
+        String v2 = keyed.compose(TokenType.COURSE, "ABCDEFGH", 2);
+
+        assertThat(TokenFormat.isChecksumValid(keyed.parse(v1))).isTrue();
+        assertThat(TokenFormat.formatVersion(keyed.parse(v1))).isEqualTo(1);
+        assertThat(TokenFormat.isChecksumValid(keyed.parse(v2))).isTrue();
+        assertThat(TokenFormat.formatVersion(keyed.parse(v2))).isEqualTo(2);
+    }
+
+    @Test
+    void testV2RejectsTamperedHashAndTail() {
+        String token = keyed.compose(TokenType.TEACHER, "H7K2P9M3", 2);
+        String tamperedHash = token.replace("H7K2P9M3", "H7K2P9M4");
+        String tamperedTail = token.substring(0, token.length() - 1) + (token.endsWith("A") ? "B" : "A");
+
+        assertThat(TokenFormat.isWellFormed(keyed.parse(tamperedHash))).isTrue();
+        assertThat(TokenFormat.isChecksumValid(keyed.parse(tamperedHash))).isFalse();
+        assertThat(TokenFormat.isChecksumValid(keyed.parse(tamperedTail))).isFalse();
+    }
+
+    @Test
+    void testV2RequiresSameKey() {
+        TokenFormat otherKey = new TokenFormat(new GuardianProperties(), () -> key("another-key"));
+        String token = keyed.compose(TokenType.STUDENT, "H7K2P9M3", 2);
+
+        assertThat(TokenFormat.isChecksumValid(otherKey.parse(token))).isFalse();
+    }
+
+    @Test
+    void testV2IsRefusedWithoutMacKey() {
+        GuardianProperties properties = new GuardianProperties();
+        properties.getToken().setFormatVersion(2);
+        assertThatThrownBy(() -> new TokenFormat(properties, () -> null))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("encryption is disabled");
+
+        // v1 minting still works, but no v2 tail validates without a key
+        TokenFormat unkeyed = new TokenFormat(new GuardianProperties(), () -> null);
+        String v2 = keyed.compose(TokenType.STUDENT, "H7K2P9M3", 2);
+        assertThat(TokenFormat.isWellFormed(unkeyed.parse(v2))).isTrue();
+        assertThat(TokenFormat.isChecksumValid(unkeyed.parse(v2))).isFalse();
+        assertThat(TokenFormat.isChecksumValid(unkeyed.parse(unkeyed.compose(TokenType.STUDENT, "H7K2P9M3"))))
+                .isTrue();
+    }
+
+    @Test
+    void testV2ForgeryRate() {
+        Random random = new Random(7);
+        int accepted = 0;
+        for (int i = 0; i < 100_000; i++) {
+            StringBuilder candidate = new StringBuilder("STU_");
+            for (int j = 0; j < 8; j++) {
+                candidate.append(CHARSET.charAt(random.nextInt(CHARSET.length())));
+            }
+            candidate.append('_');
+            for (int j = 0; j < 6; j++) {
+                candidate.append(CHARSET.charAt(random.nextInt(CHARSET.length())));
+            }
+            if (TokenFormat.isChecksumValid(keyed.parse(candidate.toString()))) {
+                accepted++;
+            }
+        }
+        assertThat(accepted).isZero();
+    }
+
+    @Test
+    void testConfigurationMustFitTokenColumns() {
+        GuardianProperties longMac = new GuardianProperties();
+        longMac.getToken().setMacLength(9);
+        assertThatThrownBy(() -> new TokenFormat(longMac)).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("1-8");
+
+        GuardianProperties longHash = new GuardianProperties();
+        longHash.getToken().setHashLength(14);
+        assertThatThrownBy(() -> new TokenFormat(longHash)).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("token_value");
+
+        // STU_ + 13 + _ + 6 = 24 characters still fits
+        GuardianProperties widest = new GuardianProperties();
+        widest.getToken().setHashLength(13);
+        assertThat(new TokenFormat(widest, () -> key("test-token-mac-key"))
+                .compose(TokenType.STUDENT, "H7K2P9M3ABCDE", 2)).hasSize(24);
+    }
+
+    // ── Equivalence with split-based validation ─────────────────────────
+
+    @Test
+    void testMatchesLegacyValidatorOnRandomInput() {
+        Random random = new Random(42);
+        String alphabet = CHARSET + "_stucrIO01 é";
+        for (int i = 0; i < 50_000; i++) {
+            String token = randomCandidate(random, alphabet);
+            long parsed = format.parse(token);
+
+            assertThat(TokenFormat.isWellFormed(parsed)).as(token).isEqualTo(legacy.isValidFormat(token));
+            assertThat(TokenFormat.isChecksumValid(parsed)).as(token).isEqualTo(legacy.isValidChecksum(token));
+        }
+    }
+
+    private static SecretKeySpec key(String secret) {
+        return new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+    }
+
+    private String randomCandidate(Random random, String alphabet) {
+        // Mostly near-valid tokens so both validators get past the cheap checks
+        TokenType type = TokenType.values()[random.nextInt(TokenType.values().length)];
+        StringBuilder hash = new StringBuilder();
+        for (int j = 0; j < 8; j++) {
+            hash.append(CHARSET.charAt(random.nextInt(CHARSET.length())));
+        }
+        char[] token = format.compose(type, hash).toCharArray();
+        int mutations = random.nextInt(3);
+        for (int m = 0; m < mutations; m++) {
+            token[random.nextInt(token.length)] = alphabet.charAt(random.nextInt(alphabet.length()));
+        }
+        String value = new String(token);
+        return random.nextInt(10) == 0 ? value.toLowerCase() : value;
+    }
+}
@@ -0,0 +1,135 @@
+package com.heronix.guardian.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.model.domain.GuardianToken;
+import com.heronix.guardian.model.enums.TokenType;
+import com.heronix.guardian.repository.GuardianTokenJdbcRepository;
+import com.heronix.guardian.repository.GuardianTokenRepository;
+import com.heronix.guardian.security.HeronixEncryptionService;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Integration tests for the set-based TokenGenerationService.generateTokensBulk path (H2 in-memory).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@SuppressWarnings("removal")
+class TokenGenerationServiceBulkTest {
+
+    static {
+        HeronixEncryptionService.initialize("test-master-key-for-unit-tests");
+    }
+
+    @Autowired
+    private TokenGenerationService tokenGenerationService;
+
+    @Autowired
+    private TokenValidationService tokenValidationService;
+
+    @Autowired
+    private GuardianTokenRepository tokenRepository;
+
+    @Autowired
+    private GuardianTokenJdbcRepository jdbcRepository;
+
+    @Autowired
+    private GuardianProperties properties;
+
+    @Autowired
+    private TokenResolutionCache resolutionCache;
+
+    @Autowired
+    private TokenFormat tokenFormat;
+
+    @Autowired
+    private TokenValueFilter valueFilter;
+
+    @Autowired
+    private TokenValueMinter valueMinter;
+
+    @Autowired
+    private TokenReservoir reservoir;
+
+    @Autowired
+    private TokenStatistics statistics;
+
+    @Autowired
+    private TokenCreationLocks creationLocks;
+
+    @Test
+    void testBulkCreatesOneValidTokenPerEntityAcrossChunks() {
+        List<Long> ids = LongStream.rangeClosed(1, 2500).boxed().toList();
+
+        List<GuardianToken> tokens = tokenGenerationService.generateTokensBulk(TokenType.STUDENT, ids, null);
+
+        assertThat(tokens).hasSize(2500);
+        assertThat(tokens).extracting(GuardianToken::getEntityId).containsExactlyElementsOf(ids);
+        assertThat(tokens).extracting(GuardianToken::getId).doesNotContainNull();
+        assertThat(tokens).extracting(GuardianToken::getTokenValue).doesNotHaveDuplicates();
+        assertThat(tokens.subList(0, 20)).allSatisfy(t ->
+                assertThat(tokenValidationService.validateToken(t.getTokenValue()).valid()).isTrue());
+    }
+
+    @Test
+    void testBulkReusesExistingTokensAndDeduplicates() {
+        GuardianToken existing = tokenGenerationService.generateToken(TokenType.STUDENT, 10_001L, null);
+        long before = tokenRepository.count();
+
+        List<GuardianToken> tokens = tokenGenerationService.generateTokensBulk(
+                TokenType.STUDENT, List.of(10_001L, 10_002L, 10_002L), null);
+
+        assertThat(tokens).hasSize(2);
+        assertThat(tokens.get(0).getTokenValue()).isEqualTo(existing.getTokenValue());
+        assertThat(tokenRepository.count()).isEqualTo(before + 1);
+    }
+
+    @Test
+    void testBulkPrefersScopedTokenOverUniversal() {
+        GuardianToken universal = tokenGenerationService.generateToken(TokenType.STUDENT, 20_001L, null);
+        GuardianToken scoped = tokenGenerationService.generateToken(TokenType.STUDENT, 20_002L, "CANVAS");
+        tokenGenerationService.generateToken(TokenType.STUDENT, 20_002L, null);
+
+        List<GuardianToken> tokens = tokenGenerationService.generateTokensBulk(
+                TokenType.STUDENT, List.of(20_001L, 20_002L), "CANVAS");
+
+        assertThat(tokens).extracting(GuardianToken::getTokenValue)
+                .containsExactly(universal.getTokenValue(), scoped.getTokenValue());
+    }
+
+    @Test
+    void testFallbackCountsOnlyTokensItCreated() {
+        // Another node creates a token for 30_002 after the pre-check, so the batch insert hits the index
+        GuardianTokenJdbcRepository racingRepository = mock(GuardianTokenJdbcRepository.class);
+        when(racingRepository.tryBatchInsertTokens(anyList(), anyInt())).thenAnswer(invocation -> {
+            tokenGenerationService.generateToken(TokenType.STUDENT, 30_002L, null);
+            return false;
+        });
+        when(racingRepository.tryInsertToken(any()))
+                .thenAnswer(invocation -> jdbcRepository.tryInsertToken(invocation.getArgument(0)));
+        TokenGenerationService service = new TokenGenerationService(tokenRepository, properties, resolutionCache,
+                racingRepository, tokenFormat, valueFilter, valueMinter, reservoir, statistics, creationLocks);
+        Map<Long, GuardianToken> tokensByEntity = new HashMap<>();
+
+        int created = service.generateTokensChunk(TokenType.STUDENT, List.of(30_001L, 30_002L, 30_003L), null,
+                tokensByEntity);
+
+        assertThat(created).isEqualTo(2);
+        assertThat(tokensByEntity).containsOnlyKeys(30_001L, 30_002L, 30_003L);
+        assertThat(tokenRepository.findActiveTokensForEntities("STUDENT", List.of(30_002L))).hasSize(1);
+    }
+}
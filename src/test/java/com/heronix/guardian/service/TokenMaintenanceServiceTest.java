@@ -0,0 +1,142 @@
+package com.heronix.guardian.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.config.TokenMaintenanceEndpoint;
+import com.heronix.guardian.model.domain.GuardianToken;
+import com.heronix.guardian.model.enums.TokenStatus;
+import com.heronix.guardian.model.enums.TokenType;
+import com.heronix.guardian.repository.GuardianTokenJdbcRepository;
+import com.heronix.guardian.security.HeronixEncryptionService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Integration tests for batched token expiry/purge (H2 in-memory).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@SuppressWarnings("removal")
+class TokenMaintenanceServiceTest {
+
+    static {
+        HeronixEncryptionService.initialize("test-master-key-for-unit-tests");
+    }
+
+    @Autowired
+    private TokenMaintenanceService maintenanceService;
+
+    @Autowired
+    private TokenMaintenanceEndpoint maintenanceEndpoint;
+
+    @Autowired
+    private GuardianTokenJdbcRepository jdbcRepository;
+
+    @Autowired
+    private TokenValueMinter valueMinter;
+
+    @Autowired
+    private TokenFormat tokenFormat;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private GuardianProperties properties;
+
+    @BeforeEach
+    void configureSmallBatches() {
+        properties.getToken().getMaintenance().setBatchSize(10);
+        properties.getToken().getMaintenance().setPauseMs(0);
+    }
+
+    @AfterEach
+    void restoreConfig() {
+        properties.getToken().setMaintenance(new GuardianProperties.MaintenanceConfig());
+    }
+
+    @Test
+    void testExpireInBatches() {
+        seed(80_000L, 25, TokenStatus.ACTIVE, LocalDateTime.now().minusDays(1));
+        seed(81_000L, 5, TokenStatus.ACTIVE, LocalDateTime.now().plusDays(1));
+
+        TokenMaintenanceService.JobStats stats = maintenanceService.expireTokens();
+
+        assertThat(stats.error()).isNull();
+        assertThat(stats.rows()).isGreaterThanOrEqualTo(25);
+        assertThat(stats.batches()).isGreaterThanOrEqualTo(3);
+        assertThat(countStatus(80_000L, TokenStatus.EXPIRED)).isEqualTo(25);
+        assertThat(countStatus(81_000L, TokenStatus.ACTIVE)).isEqualTo(5);
+    }
+
+    @Test
+    void testPurgeRespectsRetention() {
+        int retentionDays = properties.getAudit().getRetentionDays();
+        seed(82_000L, 12, TokenStatus.ROTATED, LocalDateTime.now().plusDays(1));
+        seed(83_000L, 3, TokenStatus.REVOKED, LocalDateTime.now().plusDays(1));
+        jdbcTemplate.update("UPDATE guardian_tokens SET updated_at = ? WHERE entity_id BETWEEN 82000 AND 82999",
+                LocalDateTime.now().minusDays(retentionDays + 1));
+
+        TokenMaintenanceService.JobStats stats = maintenanceService.purgeTokens();
+
+        assertThat(stats.error()).isNull();
+        assertThat(stats.rows()).isEqualTo(12);
+        assertThat(stats.batches()).isEqualTo(2);
+        assertThat(countStatus(82_000L, TokenStatus.ROTATED)).isZero();
+        assertThat(countStatus(83_000L, TokenStatus.REVOKED)).isEqualTo(3);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testEndpointReportsLastRuns() {
+        maintenanceEndpoint.run();
+
+        Map<String, Object> status = maintenanceEndpoint.status();
+
+        assertThat(status.get("running")).isEqualTo(false);
+        assertThat((Map<String, Object>) status.get("lastRuns"))
+                .containsKeys(TokenMaintenanceService.EXPIRE_JOB, TokenMaintenanceService.PURGE_JOB);
+        assertThat((Map<String, Object>) status.get("settings")).containsEntry("batchSize", 10);
+    }
+
+    private void seed(long firstEntityId, int count, TokenStatus status, LocalDateTime expiresAt) {
+        List<GuardianToken> tokens = new ArrayList<>(count);
+        int i = 0;
+        for (String value : valueMinter.mintUniqueValues(TokenType.STUDENT, count)) {
+            tokens.add(GuardianToken.builder()
+                    .tokenValue(value)
+                    .tokenType(TokenType.STUDENT)
+                    .entityId(firstEntityId + i++)
+                    .entityType(TokenType.STUDENT.getEntityType())
+                    .schoolYear("2025-2026")
+                    .salt("00")
+                    .checksum(tokenFormat.checksumPart(value))
+                    .status(status)
+                    .expiresAt(expiresAt)
+                    .rotationCount(0)
+                    .usageCount(0L)
+                    .build());
+        }
+        jdbcRepository.batchInsertTokens(tokens, 100);
+    }
+
+    private long countStatus(long firstEntityId, TokenStatus status) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM guardian_tokens WHERE entity_id BETWEEN ? AND ? AND status = ?",
+                Long.class, firstEntityId, firstEntityId + 999, status.name());
+    }
+}
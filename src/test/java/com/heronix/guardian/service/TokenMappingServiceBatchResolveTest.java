@@ -0,0 +1,83 @@
+package com.heronix.guardian.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.heronix.guardian.model.domain.GuardianToken;
+import com.heronix.guardian.model.enums.TokenType;
+import com.heronix.guardian.security.HeronixEncryptionService;
+import com.heronix.guardian.service.TokenValidationService.ValidationResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Integration tests for chunked, streaming batch token resolution (H2 in-memory).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "heronix.guardian.token.batch-resolve-chunk-size=50")
+@Transactional
+@SuppressWarnings("removal")
+class TokenMappingServiceBatchResolveTest {
+
+    static {
+        HeronixEncryptionService.initialize("test-master-key-for-unit-tests");
+    }
+
+    @Autowired
+    private TokenMappingService tokenMappingService;
+
+    @Autowired
+    private TokenGenerationService tokenGenerationService;
+
+    @Test
+    void testStreamsOneResultPerDistinctTokenInChunks() {
+        List<GuardianToken> tokens = tokenGenerationService.generateTokensBulk(
+                TokenType.STUDENT, LongStream.rangeClosed(30_001, 30_120).boxed().toList(), null);
+        List<String> request = new ArrayList<>(tokens.stream().map(GuardianToken::getTokenValue).toList());
+        request.add(tokens.get(0).getTokenValue());
+        request.add("not-a-token");
+
+        List<Integer> chunkSizes = new ArrayList<>();
+        List<ValidationResult> results = new ArrayList<>();
+        int distinct = tokenMappingService.resolveTokensBulk(request.iterator(), chunk -> {
+            chunkSizes.add(chunk.size());
+            results.addAll(chunk);
+        });
+
+        assertThat(distinct).isEqualTo(121);
+        assertThat(chunkSizes).containsExactly(50, 50, 21);
+        assertThat(results).extracting(ValidationResult::tokenValue).doesNotHaveDuplicates();
+        assertThat(results.subList(0, 120)).allSatisfy(r -> assertThat(r.valid()).isTrue());
+        assertThat(results.get(0).entityId()).isEqualTo(30_001L);
+        assertThat(results.get(120).valid()).isFalse();
+        assertThat(results.get(120).errorMessage()).isEqualTo("Invalid token format");
+    }
+
+    @Test
+    void testReportsRevokedTokensInlineAndOmitsThemFromMap() {
+        GuardianToken active = tokenGenerationService.generateToken(TokenType.STUDENT, 31_001L, null);
+        GuardianToken revoked = tokenGenerationService.revokeToken(
+                tokenGenerationService.generateToken(TokenType.STUDENT, 31_002L, null));
+
+        List<ValidationResult> results = new ArrayList<>();
+        tokenMappingService.resolveTokensBulk(
+                List.of(active.getTokenValue(), revoked.getTokenValue()).iterator(), results::addAll);
+
+        assertThat(results).extracting(ValidationResult::valid).containsExactly(true, false);
+        assertThat(results.get(1).errorMessage()).isEqualTo("Token is revoked");
+
+        Map<String, Long> resolved = tokenMappingService.resolveTokensBulk(
+                List.of(active.getTokenValue(), revoked.getTokenValue(), "not-a-token"));
+        assertThat(resolved).containsExactly(Map.entry(active.getTokenValue(), 31_001L));
+    }
+}
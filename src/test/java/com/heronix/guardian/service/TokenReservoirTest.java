@@ -0,0 +1,108 @@
+package com.heronix.guardian.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.model.domain.GuardianToken;
+import com.heronix.guardian.model.enums.TokenStatus;
+import com.heronix.guardian.model.enums.TokenType;
+import com.heronix.guardian.repository.GuardianTokenRepository;
+import com.heronix.guardian.security.HeronixEncryptionService;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Integration tests for TokenReservoir claiming through TokenGenerationService (H2 in-memory).
+ *
+ * Not transactional: reserved rows must be committed by the refill, as in production,
+ * so the reservoir never holds rows a test rollback has removed.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@SuppressWarnings("removal")
+class TokenReservoirTest {
+
+    static {
+        HeronixEncryptionService.initialize("test-master-key-for-unit-tests");
+    }
+
+    @Autowired
+    private TokenReservoir reservoir;
+
+    @Autowired
+    private TokenGenerationService tokenGenerationService;
+
+    @Autowired
+    private TokenValidationService tokenValidationService;
+
+    @Autowired
+    private GuardianTokenRepository tokenRepository;
+
+    @Autowired
+    private GuardianProperties properties;
+
+    @BeforeEach
+    void enableReservoir() {
+        GuardianProperties.ReservoirConfig config = properties.getToken().getReservoir();
+        config.setEnabled(true);
+        config.setTargetSize(5);
+        config.setRefillThreshold(5);
+        config.setLowWaterMark(2);
+    }
+
+    @AfterEach
+    void disableReservoir() {
+        properties.getToken().setReservoir(new GuardianProperties.ReservoirConfig());
+    }
+
+    @Test
+    void testGenerateTokenClaimsReservedValue() {
+        int before = reservoir.available(TokenType.STUDENT);
+        reservoir.refill();
+        assertThat(reservoir.available(TokenType.STUDENT)).isGreaterThanOrEqualTo(5).isGreaterThan(before);
+        assertThat(tokenRepository.findByTokenTypeAndStatus(TokenType.STUDENT, TokenStatus.RESERVED))
+                .hasSizeGreaterThanOrEqualTo(5);
+        int available = reservoir.available(TokenType.STUDENT);
+
+        GuardianToken token = tokenGenerationService.generateToken(TokenType.STUDENT, 50_001L, null, "test");
+
+        assertThat(reservoir.available(TokenType.STUDENT)).isEqualTo(available - 1);
+        assertThat(token.getStatus()).isEqualTo(TokenStatus.ACTIVE);
+        assertThat(token.getEntityId()).isEqualTo(50_001L);
+        assertThat(token.getCreatedBy()).isEqualTo("test");
+        assertThat(token.getExpiresAt()).isNotNull();
+        assertThat(tokenValidationService.validateToken(token.getTokenValue()).valid()).isTrue();
+        assertThat(tokenGenerationService.getOrCreateToken(TokenType.STUDENT, 50_001L, null).getId())
+                .isEqualTo(token.getId());
+    }
+
+    @Test
+    void testRotateTokenClaimsReservedValue() {
+        GuardianToken original = tokenGenerationService.generateToken(TokenType.TEACHER, 50_002L, null);
+        reservoir.refill();
+        int available = reservoir.available(TokenType.TEACHER);
+
+        GuardianToken rotated = tokenGenerationService.rotateToken(original, "test");
+
+        assertThat(reservoir.available(TokenType.TEACHER)).isEqualTo(available - 1);
+        assertThat(rotated.getStatus()).isEqualTo(TokenStatus.ACTIVE);
+        assertThat(rotated.getEntityId()).isEqualTo(50_002L);
+        assertThat(rotated.getRotationCount()).isEqualTo(original.getRotationCount() + 1);
+        assertThat(rotated.getTokenValue()).isNotEqualTo(original.getTokenValue());
+    }
+
+    @Test
+    void testDisabledReservoirFallsBackToMinting() {
+        properties.getToken().getReservoir().setEnabled(false);
+
+        GuardianToken token = tokenGenerationService.generateToken(TokenType.COURSE, 50_003L, null);
+
+        assertThat(token.getStatus()).isEqualTo(TokenStatus.ACTIVE);
+        assertThat(token.getEntityId()).isEqualTo(50_003L);
+    }
+}
@@ -0,0 +1,64 @@
+package com.heronix.guardian.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.model.domain.GuardianToken;
+import com.heronix.guardian.model.enums.TokenStatus;
+import com.heronix.guardian.model.enums.TokenType;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for TokenResolutionCache — snapshots loaded before a revoke or rotate
+ * are never left cached.
+ */
+class TokenResolutionCacheTest {
+
+    private final TokenResolutionCache cache = new TokenResolutionCache(new GuardianProperties());
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static GuardianToken active(String tokenValue) {
+        return GuardianToken.builder()
+                .id(1L)
+                .tokenValue(tokenValue)
+                .tokenType(TokenType.STUDENT)
+                .entityId(7L)
+                .status(TokenStatus.ACTIVE)
+                .build();
+    }
+
+    @Test
+    void testSnapshotLoadedBeforeInvalidationIsNotCached() {
+        long generation = cache.generation();
+        cache.invalidate("STU_AAAAAAAA_AA");
+
+        assertThat(cache.put(active("STU_AAAAAAAA_AA"), generation).status()).isEqualTo(TokenStatus.ACTIVE);
+        assertThat(cache.get("STU_AAAAAAAA_AA")).isNull();
+
+        cache.put(active("STU_AAAAAAAA_AA"), cache.generation());
+        assertThat(cache.get("STU_AAAAAAAA_AA")).isNotNull();
+    }
+
+    @Test
+    void testUncommittedRowReadDuringRevokeIsDroppedOnCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        cache.invalidateOnCommit("STU_BBBBBBBB_BB");
+
+        // A reader outside the transaction still sees the ACTIVE row and caches it
+        cache.put(active("STU_BBBBBBBB_BB"), cache.generation());
+        assertThat(cache.get("STU_BBBBBBBB_BB")).isNotNull();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(cache.get("STU_BBBBBBBB_BB")).isNull();
+    }
+}
@@ -0,0 +1,184 @@
+package com.heronix.guardian.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.heronix.guardian.config.GuardianProperties;
+import com.heronix.guardian.model.domain.GuardianToken;
+import com.heronix.guardian.model.domain.TokenRotationRun;
+import com.heronix.guardian.model.domain.TokenRotationRun.RunStatus;
+import com.heronix.guardian.model.enums.TokenStatus;
+import com.heronix.guardian.model.enums.TokenType;
+import com.heronix.guardian.repository.GuardianTokenJdbcRepository;
+import com.heronix.guardian.repository.TokenRotationRunRepository;
+import com.heronix.guardian.security.HeronixEncryptionService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Integration tests for the chunked TokenRotationEngine (H2 in-memory).
+ *
+ * Not transactional: each chunk commits in its own transaction, as in production.
+ * Every test seeds its own school year so runs never see each other's tokens.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@SuppressWarnings("removal")
+class TokenRotationEngineTest {
+
+    static {
+        HeronixEncryptionService.initialize("test-master-key-for-unit-tests");
+    }
+
+    @Autowired
+    private TokenRotationEngine rotationEngine;
+
+    @Autowired
+    private TokenRotationRunRepository runRepository;
+
+    @Autowired
+    private GuardianTokenJdbcRepository jdbcRepository;
+
+    @Autowired
+    private TokenValueMinter valueMinter;
+
+    @Autowired
+    private TokenFormat tokenFormat;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private GuardianProperties properties;
+
+    @Autowired
+    private TokenCreationLocks creationLocks;
+
+    @BeforeEach
+    void configureSmallChunks() {
+        GuardianProperties.RotationConfig config = properties.getToken().getRotation();
+        config.setChunkSize(40);
+        config.setParallelism(3);
+    }
+
+    @AfterEach
+    void restoreConfig() {
+        properties.getToken().setRotation(new GuardianProperties.RotationConfig());
+    }
+
+    @Test
+    void testRotateSchoolYearInChunks() {
+        seed("2019-2020", 250, 60_000L);
+
+        TokenRotationRun run = rotationEngine.rotate("2019-2020", "test");
+
+        assertThat(run.getStatus()).isEqualTo(RunStatus.COMPLETED);
+        assertThat(run.getTokensTotal()).isEqualTo(250);
+        assertThat(run.getTokensRotated()).isEqualTo(250);
+        assertThat(run.getChunksCompleted()).isEqualTo(7);
+        assertThat(run.getProgress()).isEqualTo(1.0);
+        assertThat(count("2019-2020", TokenStatus.ACTIVE)).isZero();
+        assertThat(count("2019-2020", TokenStatus.ROTATED)).isEqualTo(250);
+
+        // Every old token points at an ACTIVE replacement for the same entity
+        Long orphans = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM guardian_tokens o LEFT JOIN guardian_tokens n ON n.id = o.replaced_by_id " +
+                "WHERE o.school_year = '2019-2020' AND (n.id IS NULL OR n.status <> 'ACTIVE' " +
+                "OR n.entity_id <> o.entity_id OR n.rotation_count <> o.rotation_count + 1)", Long.class);
+        assertThat(orphans).isZero();
+
+        // Rotating the year again starts a new run, which finds nothing left to rotate
+        TokenRotationRun again = rotationEngine.rotate("2019-2020", "test");
+        assertThat(again.getId()).isNotEqualTo(run.getId());
+        assertThat(again.getTokensTotal()).isZero();
+        assertThat(again.getTokensRotated()).isZero();
+        assertThat(count("2019-2020", TokenStatus.ROTATED)).isEqualTo(250);
+    }
+
+    @Test
+    void testResumeFromCheckpoint() {
+        List<Long> ids = seed("2018-2019", 100, 70_000L);
+        TokenRotationRun interrupted = runRepository.save(TokenRotationRun.builder()
+                .schoolYear("2018-2019")
+                .maxTokenId(ids.get(99))
+                .tokensTotal(100L)
+                .lastTokenId(ids.get(39))
+                .tokensRotated(40L)
+                .chunksCompleted(1)
+                .rotatedBy("test")
+                .build());
+
+        TokenRotationRun run = rotationEngine.resume(interrupted.getId());
+
+        assertThat(run.getStatus()).isEqualTo(RunStatus.COMPLETED);
+        assertThat(run.getTokensRotated()).isEqualTo(100);
+        // Tokens before the checkpoint were not touched again
+        assertThat(count("2018-2019", TokenStatus.ACTIVE)).isEqualTo(40);
+        assertThat(count("2018-2019", TokenStatus.ROTATED)).isEqualTo(60);
+    }
+
+    @Test
+    void testChunkWaitsForCreationLockOfItsEntities() throws Exception {
+        seed("2017-2018", 10, 80_000L);
+        CountDownLatch locked = new CountDownLatch(1);
+        Thread creator = new Thread(() -> {
+            try (TokenCreationLocks.Held held = creationLocks.lock("STUDENT", 80_003L, null)) {
+                locked.countDown();
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        creator.start();
+        assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+
+        long start = System.nanoTime();
+        TokenRotationRun run = rotationEngine.rotate("2017-2018", "test");
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        creator.join(5000);
+
+        assertThat(run.getStatus()).isEqualTo(RunStatus.COMPLETED);
+        assertThat(run.getTokensRotated()).isEqualTo(10);
+        assertThat(waitedMillis).isGreaterThanOrEqualTo(300);
+    }
+
+    private List<Long> seed(String schoolYear, int count, long firstEntityId) {
+        List<GuardianToken> tokens = new ArrayList<>(count);
+        List<String> values = new ArrayList<>(valueMinter.mintUniqueValues(TokenType.STUDENT, count));
+        for (int i = 0; i < count; i++) {
+            String value = values.get(i);
+            tokens.add(GuardianToken.builder()
+                    .tokenValue(value)
+                    .tokenType(TokenType.STUDENT)
+                    .entityId(firstEntityId + i)
+                    .entityType(TokenType.STUDENT.getEntityType())
+                    .schoolYear(schoolYear)
+                    .salt("00")
+                    .checksum(tokenFormat.checksumPart(value))
+                    .status(TokenStatus.ACTIVE)
+                    .expiresAt(LocalDateTime.now().plusDays(30))
+                    .rotationCount(0)
+                    .usageCount(0L)
+                    .build());
+        }
+        jdbcRepository.batchInsertTokens(tokens, 100);
+        return jdbcRepository.findActiveTokenIdPage(schoolYear, 0L, Long.MAX_VALUE, count);
+    }
+
+    private long count(String schoolYear, TokenStatus status) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM guardian_tokens WHERE school_year = ? AND status = ?",
+                Long.class, schoolYear, status.name());
+    }
+}
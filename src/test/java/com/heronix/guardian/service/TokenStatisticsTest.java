@@ -0,0 +1,121 @@
+package com.heronix.guardian.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.heronix.guardian.model.dto.TokenStatsDTO;
+import com.heronix.guardian.model.enums.TokenStatus;
+import com.heronix.guardian.model.enums.TokenType;
+import com.heronix.guardian.repository.GuardianTokenJdbcRepository;
+import com.heronix.guardian.repository.GuardianTokenJdbcRepository.StatusChange;
+import com.heronix.guardian.repository.GuardianTokenRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TokenStatistics — incremental transitions, commit deferral and drift repair.
+ */
+class TokenStatisticsTest {
+
+    private final GuardianTokenRepository tokenRepository = mock(GuardianTokenRepository.class);
+    private final GuardianTokenJdbcRepository jdbcRepository = mock(GuardianTokenJdbcRepository.class);
+    private final TokenStatistics statistics = new TokenStatistics(tokenRepository, jdbcRepository);
+
+    @BeforeEach
+    void loadEmpty() {
+        aggregates(List.of(), List.of(), 0L, null);
+        statistics.reconcile();
+    }
+
+    @Test
+    void testTransitionsUpdateCounters() {
+        statistics.created(TokenType.STUDENT, TokenStatus.ACTIVE, 10);
+        statistics.created(TokenType.COURSE, TokenStatus.ACTIVE, 2);
+        statistics.created(TokenType.STUDENT, TokenStatus.RESERVED, 5);
+        statistics.transitioned(TokenType.STUDENT, TokenStatus.RESERVED, TokenStatus.ACTIVE, 1, 0);
+        statistics.usageRecorded(40, LocalDateTime.now());
+        statistics.transitioned(TokenType.STUDENT, TokenStatus.ACTIVE, TokenStatus.REVOKED, 1, 15);
+        int expired = statistics.transitioned(
+                List.of(new StatusChange(TokenType.STUDENT, TokenStatus.ACTIVE, 3, 5)), TokenStatus.EXPIRED);
+        int purged = statistics.deleted(List.of(new StatusChange(TokenType.STUDENT, TokenStatus.REVOKED, 1, 15)));
+
+        TokenStatsDTO stats = statistics.snapshot();
+
+        assertThat(expired).isEqualTo(3);
+        assertThat(purged).isEqualTo(1);
+        assertThat(stats.getActiveTokens()).isEqualTo(9);
+        assertThat(stats.getReservedTokens()).isEqualTo(4);
+        assertThat(stats.getExpiredTokens()).isEqualTo(3);
+        assertThat(stats.getRevokedTokens()).isZero();
+        assertThat(stats.getTotalTokens()).isEqualTo(16);
+        assertThat(stats.getTokensByType()).containsEntry("STUDENT", 7L).containsEntry("COURSE", 2L);
+        assertThat(stats.getTotalUsageCount()).isEqualTo(20);
+        assertThat(stats.getLastUsageAt()).isNotNull();
+    }
+
+    @Test
+    void testTransitionsWaitForCommit() {
+        List<TransactionSynchronization> synchronizations = new ArrayList<>();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            statistics.created(TokenType.STUDENT, TokenStatus.ACTIVE, 3);
+            assertThat(statistics.snapshot().getActiveTokens()).isZero();
+            synchronizations.addAll(TransactionSynchronizationManager.getSynchronizations());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(statistics.snapshot().getActiveTokens()).isEqualTo(3);
+    }
+
+    @Test
+    void testReconcileRepairsDrift() {
+        statistics.created(TokenType.STUDENT, TokenStatus.ACTIVE, 10);
+        statistics.usageRecorded(100, LocalDateTime.now());
+
+        // Another instance revoked two tokens; usage was also recorded on non-active tokens
+        aggregates(List.<Object[]>of(row(TokenStatus.ACTIVE, 8L), row(TokenStatus.REVOKED, 2L)),
+                List.<Object[]>of(row(TokenType.STUDENT, 8L)), 90L, LocalDateTime.now());
+
+        long repaired = statistics.reconcile();
+        TokenStatsDTO stats = statistics.snapshot();
+
+        assertThat(repaired).isEqualTo(6);
+        assertThat(stats.getActiveTokens()).isEqualTo(8);
+        assertThat(stats.getRevokedTokens()).isEqualTo(2);
+        assertThat(stats.getTokensByType()).containsEntry("STUDENT", 8L);
+        assertThat(stats.getTotalUsageCount()).isEqualTo(90);
+        assertThat(statistics.reconcile()).isZero();
+    }
+
+    @Test
+    void testReadsDoNotQueryAggregates() {
+        clearInvocations(tokenRepository, jdbcRepository);
+
+        statistics.snapshot();
+        statistics.snapshot();
+
+        verifyNoInteractions(tokenRepository, jdbcRepository);
+    }
+
+    private void aggregates(List<Object[]> byStatus, List<Object[]> byType, Long usage, LocalDateTime lastUsed) {
+        when(tokenRepository.countTokensByStatus()).thenReturn(byStatus);
+        when(tokenRepository.countActiveTokensByType()).thenReturn(byType);
+        when(tokenRepository.getUsageStatistics()).thenReturn(new Object[] {new Object[] {usage, 0L, lastUsed}});
+        when(jdbcRepository.countActiveTokensExpiringBefore(any())).thenReturn(0L);
+    }
+
+    private static Object[] row(Object key, long count) {
+        return new Object[] {key, count};
+    }
+}
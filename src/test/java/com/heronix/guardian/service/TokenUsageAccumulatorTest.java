@@ -0,0 +1,68 @@
+package com.heronix.guardian.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.heronix.guardian.repository.GuardianTokenJdbcRepository;
+import com.heronix.guardian.repository.GuardianTokenJdbcRepository.UsageDelta;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TokenUsageAccumulator — aggregation, flush and retry on failure.
+ */
+class TokenUsageAccumulatorTest {
+
+    private final GuardianTokenJdbcRepository jdbcRepository = mock(GuardianTokenJdbcRepository.class);
+    private final TokenStatistics statistics = mock(TokenStatistics.class);
+    private final TokenUsageAccumulator accumulator = new TokenUsageAccumulator(jdbcRepository, statistics);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlushAggregatesPerToken() {
+        accumulator.record(1L);
+        accumulator.record(1L);
+        accumulator.record(2L);
+        accumulator.record(null);
+
+        accumulator.flush();
+
+        ArgumentCaptor<List<UsageDelta>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcRepository).batchRecordUsage(captor.capture());
+        Map<Long, Long> counts = captor.getValue().stream()
+                .collect(Collectors.toMap(UsageDelta::tokenId, UsageDelta::count));
+        assertThat(counts).containsExactlyInAnyOrderEntriesOf(Map.of(1L, 2L, 2L, 1L));
+        assertThat(accumulator.pendingCount()).isZero();
+    }
+
+    @Test
+    void testEmptyFlushSkipsDatabase() {
+        accumulator.flush();
+        verifyNoInteractions(jdbcRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFailedFlushIsRetried() {
+        doThrow(new RuntimeException("db down")).doNothing().when(jdbcRepository).batchRecordUsage(anyList());
+
+        accumulator.record(7L);
+        accumulator.flush();
+        assertThat(accumulator.pendingCount()).isEqualTo(1);
+
+        accumulator.record(7L);
+        accumulator.flush();
+
+        ArgumentCaptor<List<UsageDelta>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcRepository, times(2)).batchRecordUsage(captor.capture());
+        assertThat(captor.getAllValues().get(1)).singleElement()
+                .satisfies(delta -> assertThat(delta.count()).isEqualTo(2));
+        assertThat(accumulator.pendingCount()).isZero();
+    }
+}